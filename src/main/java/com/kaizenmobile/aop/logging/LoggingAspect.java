@@ -1,12 +1,23 @@
 package com.kaizenmobile.aop.logging;
 
+import com.kaizenmobile.config.ApplicationProperties;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.lang.reflect.Method;
 import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
 import org.aspectj.lang.JoinPoint;
 import org.aspectj.lang.ProceedingJoinPoint;
 import org.aspectj.lang.annotation.AfterThrowing;
 import org.aspectj.lang.annotation.Around;
 import org.aspectj.lang.annotation.Aspect;
 import org.aspectj.lang.annotation.Pointcut;
+import org.aspectj.lang.reflect.MethodSignature;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.core.env.Environment;
@@ -16,15 +27,32 @@ import tech.jhipster.config.JHipsterConstants;
 /**
  * Aspect for logging execution of service and repository Spring components.
  *
- * By default, it only runs with the "dev" profile.
+ * By default, it only runs with the "dev" profile, or when {@code application.logging-aspect.enabled} is set.
+ * <p>
+ * The logger and the names of a method are resolved on its first call only. The entry and exit of a sampled fraction of
+ * the calls are logged, and the calls of the methods of the timed packages are recorded in the {@value #METHOD_INVOCATIONS}
+ * histogram, tagged by class and method.
  */
 @Aspect
 public class LoggingAspect {
 
+    public static final String METHOD_INVOCATIONS = "method.invocations";
+
     private final Environment env;
 
-    public LoggingAspect(Environment env) {
+    private final MeterRegistry meterRegistry;
+
+    private final Map<Method, JoinPointState> states = new ConcurrentHashMap<>();
+
+    private volatile double samplingRate;
+
+    private volatile Set<String> timedPackages;
+
+    public LoggingAspect(Environment env, MeterRegistry meterRegistry, ApplicationProperties applicationProperties) {
         this.env = env;
+        this.meterRegistry = meterRegistry;
+        this.samplingRate = applicationProperties.getLoggingAspect().getSamplingRate();
+        this.timedPackages = Set.copyOf(applicationProperties.getLoggingAspect().getTimedPackages());
     }
 
     /**
@@ -49,14 +77,80 @@ public class LoggingAspect {
         // Method is empty as this is just a Pointcut, the implementations are in the advices.
     }
 
+    public double getSamplingRate() {
+        return samplingRate;
+    }
+
     /**
-     * Retrieves the {@link Logger} associated to the given {@link JoinPoint}.
+     * Set the fraction of the calls whose entry and exit are logged.
      *
-     * @param joinPoint join point we want the logger for.
-     * @return {@link Logger} associated to the given {@link JoinPoint}.
+     * @param samplingRate the fraction, from 0 (none) to 1 (all).
      */
-    private Logger logger(JoinPoint joinPoint) {
-        return LoggerFactory.getLogger(joinPoint.getSignature().getDeclaringTypeName());
+    public void setSamplingRate(double samplingRate) {
+        if (!(samplingRate >= 0 && samplingRate <= 1)) {
+            throw new IllegalArgumentException("The sampling rate must be between 0 and 1");
+        }
+        this.samplingRate = samplingRate;
+    }
+
+    public Set<String> getTimedPackages() {
+        return timedPackages;
+    }
+
+    /**
+     * Start or stop timing the calls of the methods of a package and of its subpackages.
+     *
+     * @param packageName the name of the package.
+     * @param timed whether the calls are timed.
+     */
+    public synchronized void setTimed(String packageName, boolean timed) {
+        Set<String> packages = new HashSet<>(timedPackages);
+        if (timed ? packages.add(packageName) : packages.remove(packageName)) {
+            timedPackages = Set.copyOf(packages);
+            states.values().forEach(this::refreshTimer);
+        }
+    }
+
+    /**
+     * Retrieves the state associated to the method of the given {@link JoinPoint}, created on its first call.
+     *
+     * @param joinPoint join point we want the state for.
+     * @return the state associated to the method of the given {@link JoinPoint}.
+     */
+    private JoinPointState state(JoinPoint joinPoint) {
+        Method method = ((MethodSignature) joinPoint.getSignature()).getMethod();
+        JoinPointState state = states.computeIfAbsent(method, JoinPointState::new);
+        if (state.timedPackages != timedPackages) {
+            refreshTimer(state);
+        }
+        return state;
+    }
+
+    private void refreshTimer(JoinPointState state) {
+        synchronized (state) {
+            Set<String> packages = timedPackages;
+            if (state.timedPackages == packages) {
+                return;
+            }
+            boolean timed = packages.stream().anyMatch(packageName -> state.typeName.startsWith(packageName + "."));
+            if (timed && state.timer == null) {
+                state.timer = Timer.builder(METHOD_INVOCATIONS)
+                    .description("Duration of the calls of the methods of the timed packages")
+                    .tag("class", state.typeName)
+                    .tag("method", state.methodName)
+                    .publishPercentileHistogram()
+                    .register(meterRegistry);
+            } else if (!timed && state.timer != null) {
+                meterRegistry.remove(state.timer);
+                state.timer = null;
+            }
+            state.timedPackages = packages;
+        }
+    }
+
+    private boolean sampled() {
+        double rate = samplingRate;
+        return rate >= 1 || (rate > 0 && ThreadLocalRandom.current().nextDouble() < rate);
     }
 
     /**
@@ -67,25 +161,27 @@ public class LoggingAspect {
      */
     @AfterThrowing(pointcut = "applicationPackagePointcut() && springBeanPointcut()", throwing = "e")
     public void logAfterThrowing(JoinPoint joinPoint, Throwable e) {
+        JoinPointState state = state(joinPoint);
         if (env.acceptsProfiles(Profiles.of(JHipsterConstants.SPRING_PROFILE_DEVELOPMENT))) {
-            logger(joinPoint).error(
+            state.log.error(
                 "Exception in {}() with cause = '{}' and exception = '{}'",
-                joinPoint.getSignature().getName(),
+                state.methodName,
                 e.getCause() != null ? e.getCause() : "NULL",
                 e.getMessage(),
                 e
             );
         } else {
-            logger(joinPoint).error(
+            state.log.error(
                 "Exception in {}() with cause = {}",
-                joinPoint.getSignature().getName(),
+                state.methodName,
                 e.getCause() != null ? String.valueOf(e.getCause()) : "NULL"
             );
         }
     }
 
     /**
-     * Advice that logs when a method is entered and exited.
+     * Advice that logs when a sampled call of a method is entered and exited, and times the calls of the methods of the
+     * timed packages.
      *
      * @param joinPoint join point for advice.
      * @return result.
@@ -93,19 +189,50 @@ public class LoggingAspect {
      */
     @Around("applicationPackagePointcut() && springBeanPointcut()")
     public Object logAround(ProceedingJoinPoint joinPoint) throws Throwable {
-        Logger log = logger(joinPoint);
-        if (log.isDebugEnabled()) {
-            log.debug("Enter: {}() with argument[s] = {}", joinPoint.getSignature().getName(), Arrays.toString(joinPoint.getArgs()));
+        JoinPointState state = state(joinPoint);
+        Logger log = state.log;
+        boolean logged = log.isDebugEnabled() && sampled();
+        if (logged) {
+            log.debug("Enter: {}() with argument[s] = {}", state.methodName, Arrays.toString(joinPoint.getArgs()));
         }
+        Timer timer = state.timer;
+        long start = timer != null ? System.nanoTime() : 0;
         try {
             Object result = joinPoint.proceed();
-            if (log.isDebugEnabled()) {
-                log.debug("Exit: {}() with result = {}", joinPoint.getSignature().getName(), result);
+            if (logged) {
+                log.debug("Exit: {}() with result = {}", state.methodName, result);
             }
             return result;
         } catch (IllegalArgumentException e) {
-            log.error("Illegal argument: {} in {}()", Arrays.toString(joinPoint.getArgs()), joinPoint.getSignature().getName());
+            log.error("Illegal argument: {} in {}()", Arrays.toString(joinPoint.getArgs()), state.methodName);
             throw e;
+        } finally {
+            if (timer != null) {
+                timer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            }
+        }
+    }
+
+    /**
+     * The logger, names and timer of an advised method.
+     */
+    private static final class JoinPointState {
+
+        private final Logger log;
+
+        private final String typeName;
+
+        private final String methodName;
+
+        // The timed packages the timer was resolved for
+        private volatile Set<String> timedPackages;
+
+        private volatile Timer timer;
+
+        private JoinPointState(Method method) {
+            this.typeName = method.getDeclaringClass().getName();
+            this.methodName = method.getName();
+            this.log = LoggerFactory.getLogger(typeName);
         }
     }
 }
@@ -0,0 +1,48 @@
+package com.kaizenmobile.aop.logging;
+
+import java.util.Set;
+import java.util.TreeSet;
+import org.springframework.boot.actuate.endpoint.InvalidEndpointRequestException;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Selector;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+
+/**
+ * Management endpoint of the {@link LoggingAspect}, exposed at {@code /management/methodtimings}: its {@code POST} sets the
+ * sampling rate of the logs, and a {@code POST} to {@code /management/methodtimings/{package}} starts or stops timing the
+ * methods of the package.
+ */
+@Endpoint(id = "methodtimings")
+public class MethodTimingsEndpoint {
+
+    private final LoggingAspect loggingAspect;
+
+    public MethodTimingsEndpoint(LoggingAspect loggingAspect) {
+        this.loggingAspect = loggingAspect;
+    }
+
+    @ReadOperation
+    public MethodTimingsDescriptor methodTimings() {
+        return new MethodTimingsDescriptor(loggingAspect.getSamplingRate(), new TreeSet<>(loggingAspect.getTimedPackages()));
+    }
+
+    @WriteOperation
+    public void configureSamplingRate(double samplingRate) {
+        try {
+            loggingAspect.setSamplingRate(samplingRate);
+        } catch (IllegalArgumentException e) {
+            throw new InvalidEndpointRequestException(e.getMessage(), e.getMessage());
+        }
+    }
+
+    @WriteOperation
+    public void configureTimedPackage(@Selector String packageName, boolean timed) {
+        loggingAspect.setTimed(packageName, timed);
+    }
+
+    /**
+     * Description of the sampling rate of the logs and of the timed packages.
+     */
+    public record MethodTimingsDescriptor(double samplingRate, Set<String> timedPackages) {}
+}
@@ -1,6 +1,12 @@
 package com.kaizenmobile.config;
 
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
 
 /**
  * Properties specific to Kaizen Mobile.
@@ -13,12 +19,90 @@ public class ApplicationProperties {
 
     private final Liquibase liquibase = new Liquibase();
 
+    private final UniquenessFilter uniquenessFilter = new UniquenessFilter();
+
+    private final PasswordHashing passwordHashing = new PasswordHashing();
+
+    private final JwtCache jwtCache = new JwtCache();
+
+    private final JwtKeys jwtKeys = new JwtKeys();
+
+    private final RefreshTokens refreshTokens = new RefreshTokens();
+
+    private final LoginThrottling loginThrottling = new LoginThrottling();
+
+    private final CacheInvalidation cacheInvalidation = new CacheInvalidation();
+
+    private final Cache cache = new Cache();
+
+    private final CacheWarmUp cacheWarmUp = new CacheWarmUp();
+
+    private final BulkImport bulkImport = new BulkImport();
+
+    private final MailOutbox mailOutbox = new MailOutbox();
+
+    private final UserPurge userPurge = new UserPurge();
+
+    private final LoggingAspect loggingAspect = new LoggingAspect();
+
     // jhipster-needle-application-properties-property
 
     public Liquibase getLiquibase() {
         return liquibase;
     }
 
+    public UniquenessFilter getUniquenessFilter() {
+        return uniquenessFilter;
+    }
+
+    public PasswordHashing getPasswordHashing() {
+        return passwordHashing;
+    }
+
+    public JwtCache getJwtCache() {
+        return jwtCache;
+    }
+
+    public JwtKeys getJwtKeys() {
+        return jwtKeys;
+    }
+
+    public RefreshTokens getRefreshTokens() {
+        return refreshTokens;
+    }
+
+    public LoginThrottling getLoginThrottling() {
+        return loginThrottling;
+    }
+
+    public CacheInvalidation getCacheInvalidation() {
+        return cacheInvalidation;
+    }
+
+    public Cache getCache() {
+        return cache;
+    }
+
+    public CacheWarmUp getCacheWarmUp() {
+        return cacheWarmUp;
+    }
+
+    public BulkImport getBulkImport() {
+        return bulkImport;
+    }
+
+    public MailOutbox getMailOutbox() {
+        return mailOutbox;
+    }
+
+    public UserPurge getUserPurge() {
+        return userPurge;
+    }
+
+    public LoggingAspect getLoggingAspect() {
+        return loggingAspect;
+    }
+
     // jhipster-needle-application-properties-property-getter
 
     public static class Liquibase {
@@ -33,5 +117,671 @@ public class ApplicationProperties {
             this.asyncStart = asyncStart;
         }
     }
+
+    public static class UniquenessFilter {
+
+        private boolean enabled = true;
+
+        private long expectedInsertions = 100_000;
+
+        private double fpp = 0.01;
+
+        private double rebuildFpp = 0.05;
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public long getExpectedInsertions() {
+            return expectedInsertions;
+        }
+
+        public void setExpectedInsertions(long expectedInsertions) {
+            this.expectedInsertions = expectedInsertions;
+        }
+
+        public double getFpp() {
+            return fpp;
+        }
+
+        public void setFpp(double fpp) {
+            this.fpp = fpp;
+        }
+
+        public double getRebuildFpp() {
+            return rebuildFpp;
+        }
+
+        public void setRebuildFpp(double rebuildFpp) {
+            this.rebuildFpp = rebuildFpp;
+        }
+    }
+
+    public static class PasswordHashing {
+
+        private int poolSize = Runtime.getRuntime().availableProcessors();
+
+        private int queueCapacity = 200;
+
+        private Duration maxWait = Duration.ofSeconds(5);
+
+        private long retryAfterSeconds = 1;
+
+        private Integer strength;
+
+        private Duration targetLatency = Duration.ofMillis(50);
+
+        private int minStrength = 10;
+
+        private int maxStrength = 16;
+
+        public int getPoolSize() {
+            return poolSize;
+        }
+
+        public void setPoolSize(int poolSize) {
+            this.poolSize = poolSize;
+        }
+
+        public int getQueueCapacity() {
+            return queueCapacity;
+        }
+
+        public void setQueueCapacity(int queueCapacity) {
+            this.queueCapacity = queueCapacity;
+        }
+
+        public Duration getMaxWait() {
+            return maxWait;
+        }
+
+        public void setMaxWait(Duration maxWait) {
+            this.maxWait = maxWait;
+        }
+
+        public long getRetryAfterSeconds() {
+            return retryAfterSeconds;
+        }
+
+        public void setRetryAfterSeconds(long retryAfterSeconds) {
+            this.retryAfterSeconds = retryAfterSeconds;
+        }
+
+        public Integer getStrength() {
+            return strength;
+        }
+
+        public void setStrength(Integer strength) {
+            this.strength = strength;
+        }
+
+        public Duration getTargetLatency() {
+            return targetLatency;
+        }
+
+        public void setTargetLatency(Duration targetLatency) {
+            this.targetLatency = targetLatency;
+        }
+
+        public int getMinStrength() {
+            return minStrength;
+        }
+
+        public void setMinStrength(int minStrength) {
+            this.minStrength = minStrength;
+        }
+
+        public int getMaxStrength() {
+            return maxStrength;
+        }
+
+        public void setMaxStrength(int maxStrength) {
+            this.maxStrength = maxStrength;
+        }
+    }
+
+    public static class JwtCache {
+
+        private boolean enabled = true;
+
+        private int maximumSize = 10_000;
+
+        private Duration timeToLive = Duration.ofMinutes(10);
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public int getMaximumSize() {
+            return maximumSize;
+        }
+
+        public void setMaximumSize(int maximumSize) {
+            this.maximumSize = maximumSize;
+        }
+
+        public Duration getTimeToLive() {
+            return timeToLive;
+        }
+
+        public void setTimeToLive(Duration timeToLive) {
+            this.timeToLive = timeToLive;
+        }
+    }
+
+    public static class JwtKeys {
+
+        private Duration rotationInterval = Duration.ofDays(7);
+
+        private Duration publishAhead = Duration.ofHours(1);
+
+        private Duration jwksMaxAge = Duration.ofMinutes(10);
+
+        private int keySize = 2048;
+
+        private boolean acceptLegacyHmac = true;
+
+        public Duration getRotationInterval() {
+            return rotationInterval;
+        }
+
+        public void setRotationInterval(Duration rotationInterval) {
+            this.rotationInterval = rotationInterval;
+        }
+
+        public Duration getPublishAhead() {
+            return publishAhead;
+        }
+
+        public void setPublishAhead(Duration publishAhead) {
+            this.publishAhead = publishAhead;
+        }
+
+        public Duration getJwksMaxAge() {
+            return jwksMaxAge;
+        }
+
+        public void setJwksMaxAge(Duration jwksMaxAge) {
+            this.jwksMaxAge = jwksMaxAge;
+        }
+
+        public int getKeySize() {
+            return keySize;
+        }
+
+        public void setKeySize(int keySize) {
+            this.keySize = keySize;
+        }
+
+        public boolean isAcceptLegacyHmac() {
+            return acceptLegacyHmac;
+        }
+
+        public void setAcceptLegacyHmac(boolean acceptLegacyHmac) {
+            this.acceptLegacyHmac = acceptLegacyHmac;
+        }
+    }
+    public static class RefreshTokens {
+
+        private Duration accessTokenValidity = Duration.ofMinutes(15);
+
+        public Duration getAccessTokenValidity() {
+            return accessTokenValidity;
+        }
+
+        public void setAccessTokenValidity(Duration accessTokenValidity) {
+            this.accessTokenValidity = accessTokenValidity;
+        }
+    }
+
+    public static class LoginThrottling {
+
+        private boolean enabled = true;
+
+        private Duration window = Duration.ofMinutes(1);
+
+        private int maxAttemptsPerLoginAndAddress = 10;
+
+        private int maxAttemptsPerLogin = 100;
+
+        private int maxAttemptsPerAddress = 100;
+
+        private int sketchWidth = 8192;
+
+        private List<String> trustedProxies = new ArrayList<>();
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public Duration getWindow() {
+            return window;
+        }
+
+        public void setWindow(Duration window) {
+            this.window = window;
+        }
+
+        public int getMaxAttemptsPerLoginAndAddress() {
+            return maxAttemptsPerLoginAndAddress;
+        }
+
+        public void setMaxAttemptsPerLoginAndAddress(int maxAttemptsPerLoginAndAddress) {
+            this.maxAttemptsPerLoginAndAddress = maxAttemptsPerLoginAndAddress;
+        }
+
+        public int getMaxAttemptsPerLogin() {
+            return maxAttemptsPerLogin;
+        }
+
+        public void setMaxAttemptsPerLogin(int maxAttemptsPerLogin) {
+            this.maxAttemptsPerLogin = maxAttemptsPerLogin;
+        }
+
+        public int getMaxAttemptsPerAddress() {
+            return maxAttemptsPerAddress;
+        }
+
+        public void setMaxAttemptsPerAddress(int maxAttemptsPerAddress) {
+            this.maxAttemptsPerAddress = maxAttemptsPerAddress;
+        }
+
+        public int getSketchWidth() {
+            return sketchWidth;
+        }
+
+        public void setSketchWidth(int sketchWidth) {
+            this.sketchWidth = sketchWidth;
+        }
+
+        public List<String> getTrustedProxies() {
+            return trustedProxies;
+        }
+
+        public void setTrustedProxies(List<String> trustedProxies) {
+            this.trustedProxies = trustedProxies;
+        }
+    }
+
+    public static class CacheInvalidation {
+
+        private boolean enabled = false;
+
+        private Transport transport = Transport.POSTGRES;
+
+        private String channel = "cache_invalidation";
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public Transport getTransport() {
+            return transport;
+        }
+
+        public void setTransport(Transport transport) {
+            this.transport = transport;
+        }
+
+        public String getChannel() {
+            return channel;
+        }
+
+        public void setChannel(String channel) {
+            this.channel = channel;
+        }
+
+        public enum Transport {
+            POSTGRES,
+            IN_PROCESS,
+        }
+    }
+
+    public static class Cache {
+
+        private String diskDirectory;
+
+        private final Map<String, Region> regions = new LinkedHashMap<>();
+
+        private Duration negativeTimeToLive = Duration.ofMinutes(1);
+
+        private double earlyRefreshBeta = 0;
+
+        public String getDiskDirectory() {
+            return diskDirectory;
+        }
+
+        public void setDiskDirectory(String diskDirectory) {
+            this.diskDirectory = diskDirectory;
+        }
+
+        public Map<String, Region> getRegions() {
+            return regions;
+        }
+
+        public Duration getNegativeTimeToLive() {
+            return negativeTimeToLive;
+        }
+
+        public void setNegativeTimeToLive(Duration negativeTimeToLive) {
+            this.negativeTimeToLive = negativeTimeToLive;
+        }
+
+        public double getEarlyRefreshBeta() {
+            return earlyRefreshBeta;
+        }
+
+        public void setEarlyRefreshBeta(double earlyRefreshBeta) {
+            this.earlyRefreshBeta = earlyRefreshBeta;
+        }
+
+        /**
+         * The sizing and expiry of a cache, defaulting to {@code jhipster.cache.ehcache}.
+         */
+        public static class Region {
+
+            private Long heapEntries;
+
+            private DataSize heapSize;
+
+            private DataSize offHeapSize;
+
+            private DataSize diskSize;
+
+            private Duration timeToLive;
+
+            private Duration timeToIdle;
+
+            public Long getHeapEntries() {
+                return heapEntries;
+            }
+
+            public void setHeapEntries(Long heapEntries) {
+                this.heapEntries = heapEntries;
+            }
+
+            public DataSize getHeapSize() {
+                return heapSize;
+            }
+
+            public void setHeapSize(DataSize heapSize) {
+                this.heapSize = heapSize;
+            }
+
+            public DataSize getOffHeapSize() {
+                return offHeapSize;
+            }
+
+            public void setOffHeapSize(DataSize offHeapSize) {
+                this.offHeapSize = offHeapSize;
+            }
+
+            public DataSize getDiskSize() {
+                return diskSize;
+            }
+
+            public void setDiskSize(DataSize diskSize) {
+                this.diskSize = diskSize;
+            }
+
+            public Duration getTimeToLive() {
+                return timeToLive;
+            }
+
+            public void setTimeToLive(Duration timeToLive) {
+                this.timeToLive = timeToLive;
+            }
+
+            public Duration getTimeToIdle() {
+                return timeToIdle;
+            }
+
+            public void setTimeToIdle(Duration timeToIdle) {
+                this.timeToIdle = timeToIdle;
+            }
+        }
+    }
+
+    public static class CacheWarmUp {
+
+        private boolean enabled = true;
+
+        private Duration timeBudget = Duration.ofSeconds(30);
+
+        private int maxUsers = 10_000;
+
+        private int maxTenants = 50_000;
+
+        private int batchSize = 500;
+
+        private int parallelism = 4;
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public Duration getTimeBudget() {
+            return timeBudget;
+        }
+
+        public void setTimeBudget(Duration timeBudget) {
+            this.timeBudget = timeBudget;
+        }
+
+        public int getMaxUsers() {
+            return maxUsers;
+        }
+
+        public void setMaxUsers(int maxUsers) {
+            this.maxUsers = maxUsers;
+        }
+
+        public int getMaxTenants() {
+            return maxTenants;
+        }
+
+        public void setMaxTenants(int maxTenants) {
+            this.maxTenants = maxTenants;
+        }
+
+        public int getBatchSize() {
+            return batchSize;
+        }
+
+        public void setBatchSize(int batchSize) {
+            this.batchSize = batchSize;
+        }
+
+        public int getParallelism() {
+            return parallelism;
+        }
+
+        public void setParallelism(int parallelism) {
+            this.parallelism = parallelism;
+        }
+    }
+
+    public static class BulkImport {
+
+        private int chunkSize = 500;
+
+        private int hashingParallelism = 2;
+
+        public int getChunkSize() {
+            return chunkSize;
+        }
+
+        public void setChunkSize(int chunkSize) {
+            this.chunkSize = chunkSize;
+        }
+
+        public int getHashingParallelism() {
+            return hashingParallelism;
+        }
+
+        public void setHashingParallelism(int hashingParallelism) {
+            this.hashingParallelism = hashingParallelism;
+        }
+    }
+
+    public static class MailOutbox {
+
+        private boolean dispatcherEnabled = true;
+
+        private Duration pollInterval = Duration.ofSeconds(5);
+
+        private int batchSize = 50;
+
+        private Duration lease = Duration.ofMinutes(5);
+
+        private int maxAttempts = 10;
+
+        private Duration initialBackoff = Duration.ofSeconds(30);
+
+        private Duration maxBackoff = Duration.ofHours(6);
+
+        private Duration keepAlive = Duration.ofSeconds(30);
+
+        public boolean isDispatcherEnabled() {
+            return dispatcherEnabled;
+        }
+
+        public void setDispatcherEnabled(boolean dispatcherEnabled) {
+            this.dispatcherEnabled = dispatcherEnabled;
+        }
+
+        public Duration getPollInterval() {
+            return pollInterval;
+        }
+
+        public void setPollInterval(Duration pollInterval) {
+            this.pollInterval = pollInterval;
+        }
+
+        public int getBatchSize() {
+            return batchSize;
+        }
+
+        public void setBatchSize(int batchSize) {
+            this.batchSize = batchSize;
+        }
+
+        public Duration getLease() {
+            return lease;
+        }
+
+        public void setLease(Duration lease) {
+            this.lease = lease;
+        }
+
+        public int getMaxAttempts() {
+            return maxAttempts;
+        }
+
+        public void setMaxAttempts(int maxAttempts) {
+            this.maxAttempts = maxAttempts;
+        }
+
+        public Duration getInitialBackoff() {
+            return initialBackoff;
+        }
+
+        public void setInitialBackoff(Duration initialBackoff) {
+            this.initialBackoff = initialBackoff;
+        }
+
+        public Duration getMaxBackoff() {
+            return maxBackoff;
+        }
+
+        public void setMaxBackoff(Duration maxBackoff) {
+            this.maxBackoff = maxBackoff;
+        }
+
+        public Duration getKeepAlive() {
+            return keepAlive;
+        }
+
+        public void setKeepAlive(Duration keepAlive) {
+            this.keepAlive = keepAlive;
+        }
+    }
+
+    public static class UserPurge {
+
+        private int chunkSize = 500;
+
+        private Duration lockLease = Duration.ofMinutes(10);
+
+        public int getChunkSize() {
+            return chunkSize;
+        }
+
+        public void setChunkSize(int chunkSize) {
+            this.chunkSize = chunkSize;
+        }
+
+        public Duration getLockLease() {
+            return lockLease;
+        }
+
+        public void setLockLease(Duration lockLease) {
+            this.lockLease = lockLease;
+        }
+    }
+
+    public static class LoggingAspect {
+
+        private boolean enabled = false;
+
+        private double samplingRate = 1.0;
+
+        private List<String> timedPackages = new ArrayList<>();
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public double getSamplingRate() {
+            return samplingRate;
+        }
+
+        public void setSamplingRate(double samplingRate) {
+            this.samplingRate = samplingRate;
+        }
+
+        public List<String> getTimedPackages() {
+            return timedPackages;
+        }
+
+        public void setTimedPackages(List<String> timedPackages) {
+            this.timedPackages = timedPackages;
+        }
+    }
+
     // jhipster-needle-application-properties-property-class
 }
@@ -1,16 +1,42 @@
 package com.kaizenmobile.config;
 
+import com.kaizenmobile.config.cache.CacheInvalidationBus;
+import com.kaizenmobile.config.cache.CacheInvalidationTransport;
+import com.kaizenmobile.config.cache.CacheRegionMetrics;
+import com.kaizenmobile.config.cache.InProcessCacheInvalidationTransport;
+import com.kaizenmobile.config.cache.PostgresCacheInvalidationTransport;
+import com.kaizenmobile.config.cache.StampedeProtectedCache;
+import com.kaizenmobile.config.cache.StampedeProtectedCacheManager;
+import com.kaizenmobile.service.CacheWarmUpService;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.JCacheMetrics;
+import java.io.File;
 import java.time.Duration;
+import javax.cache.Caching;
 import org.ehcache.config.builders.*;
+import org.ehcache.config.units.MemoryUnit;
+import org.ehcache.core.config.DefaultConfiguration;
+import org.ehcache.expiry.ExpiryPolicy;
+import org.ehcache.impl.config.persistence.DefaultPersistenceConfiguration;
 import org.ehcache.jsr107.Eh107Configuration;
+import org.ehcache.jsr107.EhcacheCachingProvider;
+import org.hibernate.cache.internal.SimpleCacheKeysFactory;
 import org.hibernate.cache.jcache.ConfigSettings;
+import org.hibernate.cache.jcache.internal.JCacheRegionFactory;
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.actuate.health.HealthIndicator;
+import org.springframework.boot.actuate.metrics.cache.CacheMeterBinderProvider;
 import org.springframework.boot.autoconfigure.cache.JCacheManagerCustomizer;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
 import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
 import org.springframework.boot.info.BuildProperties;
 import org.springframework.boot.info.GitProperties;
 import org.springframework.cache.annotation.EnableCaching;
 import org.springframework.cache.interceptor.KeyGenerator;
+import org.springframework.cache.jcache.JCacheCacheManager;
 import org.springframework.context.annotation.*;
 import tech.jhipster.config.JHipsterProperties;
 import tech.jhipster.config.cache.PrefixedKeyGenerator;
@@ -21,38 +47,118 @@ public class CacheConfiguration {
 
     private GitProperties gitProperties;
     private BuildProperties buildProperties;
-    private final javax.cache.configuration.Configuration<Object, Object> jcacheConfiguration;
-
-    public CacheConfiguration(JHipsterProperties jHipsterProperties) {
-        JHipsterProperties.Cache.Ehcache ehcache = jHipsterProperties.getCache().getEhcache();
-
-        jcacheConfiguration = Eh107Configuration.fromEhcacheCacheConfiguration(
-            CacheConfigurationBuilder.newCacheConfigurationBuilder(
-                Object.class,
-                Object.class,
-                ResourcePoolsBuilder.heap(ehcache.getMaxEntries())
-            )
-                .withExpiry(ExpiryPolicyBuilder.timeToLiveExpiration(Duration.ofSeconds(ehcache.getTimeToLiveSeconds())))
-                .build()
+    private final JHipsterProperties.Cache.Ehcache ehcache;
+    private final ApplicationProperties.Cache cacheProperties;
+
+    public CacheConfiguration(JHipsterProperties jHipsterProperties, ApplicationProperties applicationProperties) {
+        this.ehcache = jHipsterProperties.getCache().getEhcache();
+        this.cacheProperties = applicationProperties.getCache();
+    }
+
+    /**
+     * The JCache manager of Ehcache, created here rather than by Spring Boot so that it gets the persistence directory
+     * of the disk tiers.
+     */
+    @Bean
+    public javax.cache.CacheManager jCacheManager(ObjectProvider<JCacheManagerCustomizer> cacheManagerCustomizers) {
+        EhcacheCachingProvider provider = (EhcacheCachingProvider) Caching.getCachingProvider(EhcacheCachingProvider.class.getName());
+        ClassLoader classLoader = provider.getDefaultClassLoader();
+        DefaultConfiguration configuration = cacheProperties.getDiskDirectory() == null
+            ? new DefaultConfiguration(classLoader)
+            : new DefaultConfiguration(classLoader, new DefaultPersistenceConfiguration(new File(cacheProperties.getDiskDirectory())));
+        javax.cache.CacheManager cacheManager = provider.getCacheManager(provider.getDefaultURI(), configuration);
+        cacheManagerCustomizers.orderedStream().forEach(customizer -> customizer.customize(cacheManager));
+        return cacheManager;
+    }
+
+    /**
+     * Near cache mode: every node keeps its own caches, and publishes the keys it removes or writes so that the other
+     * nodes drop them too.
+     */
+    @Bean(destroyMethod = "close")
+    @ConditionalOnProperty(prefix = "application.cache-invalidation", name = "enabled", havingValue = "true")
+    public CacheInvalidationBus cacheInvalidationBus(
+        ApplicationProperties applicationProperties,
+        DataSourceProperties dataSourceProperties,
+        MeterRegistry meterRegistry
+    ) {
+        ApplicationProperties.CacheInvalidation cacheInvalidation = applicationProperties.getCacheInvalidation();
+        CacheInvalidationTransport transport = switch (cacheInvalidation.getTransport()) {
+            case POSTGRES -> new PostgresCacheInvalidationTransport(
+                dataSourceProperties.determineUrl(),
+                dataSourceProperties.determineUsername(),
+                dataSourceProperties.determinePassword(),
+                cacheInvalidation.getChannel()
+            );
+            case IN_PROCESS -> new InProcessCacheInvalidationTransport();
+        };
+        return new CacheInvalidationBus(transport, meterRegistry);
+    }
+
+    @Bean
+    public HibernatePropertiesCustomizer hibernatePropertiesCustomizer(
+        javax.cache.CacheManager cacheManager,
+        ObjectProvider<CacheInvalidationBus> cacheInvalidationBus
+    ) {
+        return hibernateProperties -> {
+            CacheInvalidationBus bus = cacheInvalidationBus.getIfAvailable();
+            if (bus == null) {
+                hibernateProperties.put(ConfigSettings.CACHE_MANAGER, cacheManager);
+            } else {
+                hibernateProperties.put(ConfigSettings.CACHE_MANAGER, bus.decorate(cacheManager));
+                // Cache the entities and collections under their bare ids, which can be sent to the other nodes
+                hibernateProperties.put(AvailableSettings.CACHE_REGION_FACTORY, new JCacheRegionFactory(SimpleCacheKeysFactory.INSTANCE));
+            }
+        };
+    }
+
+    /**
+     * The Spring cache manager, created here rather than by Spring Boot so that its caches are protected from stampedes.
+     */
+    @Bean
+    public JCacheCacheManager cacheManager(
+        javax.cache.CacheManager jCacheManager,
+        ObjectProvider<CacheInvalidationBus> cacheInvalidationBus,
+        MeterRegistry meterRegistry
+    ) {
+        CacheInvalidationBus bus = cacheInvalidationBus.getIfAvailable();
+        return new StampedeProtectedCacheManager(
+            bus == null ? jCacheManager : bus.decorate(jCacheManager),
+            cacheName -> timeToLive(region(cacheName)),
+            cacheProperties.getNegativeTimeToLive(),
+            cacheProperties.getEarlyRefreshBeta(),
+            meterRegistry
         );
     }
 
     @Bean
-    public HibernatePropertiesCustomizer hibernatePropertiesCustomizer(javax.cache.CacheManager cacheManager) {
-        return hibernateProperties -> hibernateProperties.put(ConfigSettings.CACHE_MANAGER, cacheManager);
+    public CacheMeterBinderProvider<StampedeProtectedCache> stampedeProtectedCacheMeterBinderProvider() {
+        return (cache, tags) -> new JCacheMetrics<>((javax.cache.Cache<?, ?>) cache.getNativeCache(), tags);
+    }
+
+    @Bean
+    public CacheRegionMetrics cacheRegionMetrics(MeterRegistry meterRegistry) {
+        return new CacheRegionMetrics(meterRegistry);
     }
 
     @Bean
-    public JCacheManagerCustomizer cacheManagerCustomizer() {
+    public HealthIndicator cacheWarmUpHealthIndicator(CacheWarmUpService cacheWarmUpService) {
+        return cacheWarmUpService::health;
+    }
+
+    @Bean
+    public JCacheManagerCustomizer cacheManagerCustomizer(CacheRegionMetrics cacheRegionMetrics) {
         return cm -> {
             createCache(cm, com.kaizenmobile.repository.UserRepository.USERS_BY_LOGIN_CACHE);
             createCache(cm, com.kaizenmobile.repository.UserRepository.USERS_BY_EMAIL_CACHE);
+            createCache(cm, com.kaizenmobile.service.UserService.ACCOUNT_VIEWS_CACHE);
             createCache(cm, com.kaizenmobile.domain.User.class.getName());
             createCache(cm, com.kaizenmobile.domain.Authority.class.getName());
             createCache(cm, com.kaizenmobile.domain.User.class.getName() + ".authorities");
             createCache(cm, com.kaizenmobile.domain.AppUser.class.getName());
             createCache(cm, com.kaizenmobile.domain.AppStats.class.getName());
             // jhipster-needle-ehcache-add-entry
+            cm.getCacheNames().forEach(cacheName -> cacheRegionMetrics.bind(cm.getCache(cacheName)));
         };
     }
 
@@ -61,8 +167,52 @@ public class CacheConfiguration {
         if (cache != null) {
             cache.clear();
         } else {
-            cm.createCache(cacheName, jcacheConfiguration);
+            cm.createCache(cacheName, jcacheConfiguration(cacheName));
+        }
+    }
+
+    /**
+     * The configuration of a cache: its {@code application.cache.regions} entry, defaulting to the heap entries and
+     * time to live of {@code jhipster.cache.ehcache}.
+     */
+    private javax.cache.configuration.Configuration<Object, Object> jcacheConfiguration(String cacheName) {
+        ApplicationProperties.Cache.Region region = region(cacheName);
+
+        ResourcePoolsBuilder resourcePools = region.getHeapSize() != null
+            ? ResourcePoolsBuilder.newResourcePoolsBuilder().heap(region.getHeapSize().toBytes(), MemoryUnit.B)
+            : ResourcePoolsBuilder.heap(region.getHeapEntries() != null ? region.getHeapEntries() : ehcache.getMaxEntries());
+        if (region.getOffHeapSize() != null) {
+            resourcePools = resourcePools.offheap(region.getOffHeapSize().toBytes(), MemoryUnit.B);
+        }
+        if (region.getDiskSize() != null) {
+            if (cacheProperties.getDiskDirectory() == null) {
+                throw new IllegalStateException("The disk tier of cache " + cacheName + " requires application.cache.disk-directory");
+            }
+            resourcePools = resourcePools.disk(region.getDiskSize().toBytes(), MemoryUnit.B);
+        }
+
+        ExpiryPolicy<Object, Object> expiry = region.getTimeToIdle() != null
+            ? ExpiryPolicyBuilder.timeToIdleExpiration(region.getTimeToIdle())
+            : ExpiryPolicyBuilder.timeToLiveExpiration(timeToLive(region));
+        expiry = StampedeProtectedCache.expiryPolicy(expiry, cacheProperties.getNegativeTimeToLive());
+
+        return Eh107Configuration.fromEhcacheCacheConfiguration(
+            CacheConfigurationBuilder.newCacheConfigurationBuilder(Object.class, Object.class, resourcePools).withExpiry(expiry).build()
+        );
+    }
+
+    private ApplicationProperties.Cache.Region region(String cacheName) {
+        return cacheProperties.getRegions().getOrDefault(cacheName, new ApplicationProperties.Cache.Region());
+    }
+
+    /**
+     * @return the time to live of the entries of a cache, null when they expire once idle.
+     */
+    private Duration timeToLive(ApplicationProperties.Cache.Region region) {
+        if (region.getTimeToIdle() != null) {
+            return null;
         }
+        return region.getTimeToLive() != null ? region.getTimeToLive() : Duration.ofSeconds(ehcache.getTimeToLiveSeconds());
     }
 
     @Autowired(required = false)
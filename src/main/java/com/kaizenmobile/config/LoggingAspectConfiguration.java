@@ -1,6 +1,10 @@
 package com.kaizenmobile.config;
 
 import com.kaizenmobile.aop.logging.LoggingAspect;
+import com.kaizenmobile.aop.logging.MethodTimingsEndpoint;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.autoconfigure.condition.AnyNestedCondition;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.context.annotation.*;
 import org.springframework.core.env.Environment;
 import tech.jhipster.config.JHipsterConstants;
@@ -10,8 +14,30 @@ import tech.jhipster.config.JHipsterConstants;
 public class LoggingAspectConfiguration {
 
     @Bean
-    @Profile(JHipsterConstants.SPRING_PROFILE_DEVELOPMENT)
-    public LoggingAspect loggingAspect(Environment env) {
-        return new LoggingAspect(env);
+    @Conditional(LoggingAspectEnabled.class)
+    public LoggingAspect loggingAspect(Environment env, MeterRegistry meterRegistry, ApplicationProperties applicationProperties) {
+        return new LoggingAspect(env, meterRegistry, applicationProperties);
+    }
+
+    @Bean
+    @Conditional(LoggingAspectEnabled.class)
+    public MethodTimingsEndpoint methodTimingsEndpoint(LoggingAspect loggingAspect) {
+        return new MethodTimingsEndpoint(loggingAspect);
+    }
+
+    /**
+     * The logging aspect runs with the "dev" profile, or when {@code application.logging-aspect.enabled} is set.
+     */
+    static class LoggingAspectEnabled extends AnyNestedCondition {
+
+        LoggingAspectEnabled() {
+            super(ConfigurationPhase.REGISTER_BEAN);
+        }
+
+        @Profile(JHipsterConstants.SPRING_PROFILE_DEVELOPMENT)
+        static class DevelopmentProfile {}
+
+        @ConditionalOnProperty(prefix = "application.logging-aspect", name = "enabled", havingValue = "true")
+        static class Enabled {}
     }
 }
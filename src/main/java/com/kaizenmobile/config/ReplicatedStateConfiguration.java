@@ -0,0 +1,163 @@
+package com.kaizenmobile.config;
+
+import com.kaizenmobile.config.cache.CacheInvalidationBus;
+import com.kaizenmobile.domain.AppStats;
+import com.kaizenmobile.domain.Authority;
+import com.kaizenmobile.security.AuthorityRegistry;
+import com.kaizenmobile.service.TenantNameIndex;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.EventType;
+import org.hibernate.event.spi.PostDeleteEvent;
+import org.hibernate.event.spi.PostDeleteEventListener;
+import org.hibernate.event.spi.PostInsertEvent;
+import org.hibernate.event.spi.PostInsertEventListener;
+import org.hibernate.event.spi.PostUpdateEvent;
+import org.hibernate.event.spi.PostUpdateEventListener;
+import org.hibernate.persister.entity.EntityPersister;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Keeps the {@link TenantNameIndex} and the {@link AuthorityRegistry} of the other nodes up to date through the
+ * {@link CacheInvalidationBus}, when it is enabled.
+ * <p>
+ * The {@link AppStats} and {@link Authority} written through Hibernate on a node are published once the transaction
+ * commits, and applied by the other nodes, which reload both when messages may have been lost.
+ */
+@Configuration
+public class ReplicatedStateConfiguration {
+
+    static final String TENANT_NAME_INDEX_TOPIC = "tenantNameIndex";
+
+    static final String AUTHORITY_REGISTRY_TOPIC = "authorityRegistry";
+
+    private static final String PUT = "p:";
+    private static final String REMOVE = "r:";
+
+    public ReplicatedStateConfiguration(
+        EntityManagerFactory entityManagerFactory,
+        TenantNameIndex tenantNameIndex,
+        AuthorityRegistry authorityRegistry,
+        ObjectProvider<CacheInvalidationBus> cacheInvalidationBus
+    ) {
+        CacheInvalidationBus bus = cacheInvalidationBus.getIfAvailable();
+        if (bus == null) {
+            return;
+        }
+        EventListenerRegistry registry = entityManagerFactory
+            .unwrap(SessionFactoryImplementor.class)
+            .getServiceRegistry()
+            .getService(EventListenerRegistry.class);
+        ReplicatedStateListener listener = new ReplicatedStateListener(bus);
+        registry.appendListeners(EventType.POST_INSERT, listener);
+        registry.appendListeners(EventType.POST_UPDATE, listener);
+        registry.appendListeners(EventType.POST_DELETE, listener);
+        subscribe(bus, tenantNameIndex, authorityRegistry);
+    }
+
+    static void subscribe(CacheInvalidationBus bus, TenantNameIndex tenantNameIndex, AuthorityRegistry authorityRegistry) {
+        bus.subscribe(
+            TENANT_NAME_INDEX_TOPIC,
+            new CacheInvalidationBus.TopicListener() {
+                @Override
+                public void onMessage(String payload) {
+                    String value = payload.substring(PUT.length());
+                    switch (payload.substring(0, PUT.length())) {
+                        case PUT -> {
+                            int separator = value.indexOf(':');
+                            AppStats appStats = new AppStats();
+                            if (separator < 0) {
+                                appStats.id(Long.valueOf(value));
+                            } else {
+                                appStats.id(Long.valueOf(value.substring(0, separator))).usedTenantId(value.substring(separator + 1));
+                            }
+                            tenantNameIndex.put(appStats);
+                        }
+                        case REMOVE -> tenantNameIndex.remove(Long.valueOf(value));
+                        default -> throw new IllegalArgumentException("Unknown tenant name index message");
+                    }
+                }
+
+                @Override
+                public void onMessagesLost() {
+                    tenantNameIndex.load();
+                }
+            }
+        );
+        bus.subscribe(
+            AUTHORITY_REGISTRY_TOPIC,
+            new CacheInvalidationBus.TopicListener() {
+                @Override
+                public void onMessage(String payload) {
+                    authorityRegistry.refresh();
+                }
+
+                @Override
+                public void onMessagesLost() {
+                    authorityRegistry.refresh();
+                }
+            }
+        );
+    }
+
+    private static final class ReplicatedStateListener
+        implements PostInsertEventListener, PostUpdateEventListener, PostDeleteEventListener {
+
+        private final CacheInvalidationBus bus;
+
+        private ReplicatedStateListener(CacheInvalidationBus bus) {
+            this.bus = bus;
+        }
+
+        @Override
+        public void onPostInsert(PostInsertEvent event) {
+            if (event.getEntity() instanceof AppStats appStats) {
+                publishTenantId(appStats);
+            } else if (event.getEntity() instanceof Authority authority) {
+                bus.publish(AUTHORITY_REGISTRY_TOPIC, authority.getName());
+            }
+        }
+
+        @Override
+        public void onPostUpdate(PostUpdateEvent event) {
+            if (event.getEntity() instanceof AppStats appStats && isTenantIdDirty(event)) {
+                publishTenantId(appStats);
+            }
+        }
+
+        @Override
+        public void onPostDelete(PostDeleteEvent event) {
+            if (event.getEntity() instanceof AppStats) {
+                bus.publish(TENANT_NAME_INDEX_TOPIC, REMOVE + event.getId());
+            } else if (event.getEntity() instanceof Authority authority) {
+                bus.publish(AUTHORITY_REGISTRY_TOPIC, authority.getName());
+            }
+        }
+
+        @Override
+        public boolean requiresPostCommitHandling(EntityPersister persister) {
+            return false;
+        }
+
+        private void publishTenantId(AppStats appStats) {
+            String tenantId = appStats.getUsedTenantId() == null ? "" : ":" + appStats.getUsedTenantId();
+            // Published once the transaction commits
+            bus.publish(TENANT_NAME_INDEX_TOPIC, PUT + appStats.getId() + tenantId);
+        }
+
+        private static boolean isTenantIdDirty(PostUpdateEvent event) {
+            if (event.getDirtyProperties() == null) {
+                return true;
+            }
+            String[] propertyNames = event.getPersister().getPropertyNames();
+            for (int index : event.getDirtyProperties()) {
+                if ("usedTenantId".equals(propertyNames[index])) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+}
@@ -3,8 +3,12 @@ package com.kaizenmobile.config;
 import static org.springframework.security.config.Customizer.withDefaults;
 import static org.springframework.security.web.util.matcher.AntPathRequestMatcher.antMatcher;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.kaizenmobile.security.*;
+import com.kaizenmobile.web.filter.LoginThrottlingFilter;
 import com.kaizenmobile.web.filter.SpaWebFilter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.core.env.Environment;
@@ -14,9 +18,9 @@ import org.springframework.security.config.annotation.method.configuration.Enabl
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configurers.HeadersConfigurer.FrameOptionsConfig;
 import org.springframework.security.config.http.SessionCreationPolicy;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.oauth2.server.resource.web.BearerTokenAuthenticationEntryPoint;
+import org.springframework.security.oauth2.server.resource.web.authentication.BearerTokenAuthenticationFilter;
 import org.springframework.security.oauth2.server.resource.web.access.BearerTokenAccessDeniedHandler;
 import org.springframework.security.web.SecurityFilterChain;
 import org.springframework.security.web.authentication.www.BasicAuthenticationFilter;
@@ -40,12 +44,65 @@ public class SecurityConfiguration {
     }
 
     @Bean
-    public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+    public BCryptWorkFactor bCryptWorkFactor(ApplicationProperties applicationProperties, MeterRegistry meterRegistry) {
+        ApplicationProperties.PasswordHashing passwordHashing = applicationProperties.getPasswordHashing();
+        BCryptWorkFactor workFactor = passwordHashing.getStrength() != null
+            ? BCryptWorkFactor.fixed(passwordHashing.getStrength())
+            : BCryptWorkFactor.tune(passwordHashing.getTargetLatency(), passwordHashing.getMinStrength(), passwordHashing.getMaxStrength());
+        workFactor.registerMeters(meterRegistry);
+        return workFactor;
     }
 
     @Bean
-    public SecurityFilterChain filterChain(HttpSecurity http, MvcRequestMatcher.Builder mvc) throws Exception {
+    public PasswordEncoder passwordEncoder(
+        BCryptWorkFactor bCryptWorkFactor,
+        ApplicationProperties applicationProperties,
+        MeterRegistry meterRegistry
+    ) {
+        ApplicationProperties.PasswordHashing passwordHashing = applicationProperties.getPasswordHashing();
+        // Hashes stored with fewer rounds than the work factor are re-hashed on the next successful login
+        return new BoundedPasswordEncoder(
+            bCryptWorkFactor.passwordEncoder(),
+            passwordHashing.getPoolSize(),
+            passwordHashing.getQueueCapacity(),
+            passwordHashing.getMaxWait(),
+            passwordHashing.getRetryAfterSeconds(),
+            meterRegistry
+        );
+    }
+
+    @Bean
+    public LoginRateLimiter loginRateLimiter(ApplicationProperties applicationProperties, MeterRegistry meterRegistry) {
+        ApplicationProperties.LoginThrottling loginThrottling = applicationProperties.getLoginThrottling();
+        return new LoginRateLimiter(
+            loginThrottling.getWindow(),
+            loginThrottling.getMaxAttemptsPerLoginAndAddress(),
+            loginThrottling.getMaxAttemptsPerLogin(),
+            loginThrottling.getMaxAttemptsPerAddress(),
+            loginThrottling.getSketchWidth(),
+            meterRegistry
+        );
+    }
+
+    @Bean
+    public SecurityFilterChain filterChain(
+        HttpSecurity http,
+        MvcRequestMatcher.Builder mvc,
+        ApplicationProperties applicationProperties,
+        LoginRateLimiter loginRateLimiter,
+        ObjectProvider<ObjectMapper> objectMapper
+    ) throws Exception {
+        if (applicationProperties.getLoginThrottling().isEnabled()) {
+            // Ahead of any token decoding, and of the authentication manager called by the controller
+            http.addFilterBefore(
+                new LoginThrottlingFilter(
+                    loginRateLimiter,
+                    objectMapper.getIfAvailable(ObjectMapper::new),
+                    applicationProperties.getLoginThrottling().getTrustedProxies()
+                ),
+                BearerTokenAuthenticationFilter.class
+            );
+        }
         http
             .cors(withDefaults())
             .csrf(csrf -> csrf.disable())
@@ -74,7 +131,9 @@ public class SecurityConfiguration {
                     .requestMatchers(mvc.pattern("/assets/**")).permitAll()
                     .requestMatchers(mvc.pattern("/content/**")).permitAll()
                     .requestMatchers(mvc.pattern("/swagger-ui/**")).permitAll()
+                    .requestMatchers(mvc.pattern(HttpMethod.GET, "/.well-known/jwks.json")).permitAll()
                     .requestMatchers(mvc.pattern(HttpMethod.POST, "/api/authenticate")).permitAll()
+                    .requestMatchers(mvc.pattern(HttpMethod.POST, "/api/authenticate/refresh")).permitAll()
                     .requestMatchers(mvc.pattern(HttpMethod.GET, "/api/authenticate")).permitAll()
                     .requestMatchers(mvc.pattern("/api/register")).permitAll()
                     .requestMatchers(mvc.pattern("/api/activate")).permitAll()
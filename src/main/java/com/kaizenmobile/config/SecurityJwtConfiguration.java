@@ -1,62 +1,93 @@
 package com.kaizenmobile.config;
 
 import static com.kaizenmobile.security.SecurityUtils.JWT_ALGORITHM;
+import static com.kaizenmobile.security.SecurityUtils.LEGACY_JWT_ALGORITHM;
 
 import com.kaizenmobile.management.SecurityMetersService;
-import com.nimbusds.jose.jwk.source.ImmutableSecret;
+import com.kaizenmobile.security.CachingJwtDecoder;
+import com.kaizenmobile.security.JwtKeyRing;
+import com.kaizenmobile.security.JwtPreValidator;
+import com.kaizenmobile.security.RevocationCheckingJwtDecoder;
+import com.kaizenmobile.security.TokenRevocationStore;
+import com.kaizenmobile.security.ValidatingJwtDecoder;
+import com.nimbusds.jose.JWSAlgorithm;
+import com.nimbusds.jose.proc.SecurityContext;
 import com.nimbusds.jose.util.Base64;
+import com.nimbusds.jwt.proc.DefaultJWTProcessor;
+import java.security.interfaces.RSAPublicKey;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
 import javax.crypto.SecretKey;
 import javax.crypto.spec.SecretKeySpec;
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.oauth2.jwt.JwtDecoder;
 import org.springframework.security.oauth2.jwt.JwtEncoder;
+import org.springframework.security.oauth2.jwt.JwtTimestampValidator;
 import org.springframework.security.oauth2.jwt.NimbusJwtDecoder;
 import org.springframework.security.oauth2.jwt.NimbusJwtEncoder;
 
 @Configuration
 public class SecurityJwtConfiguration {
 
-    private static final Logger log = LoggerFactory.getLogger(SecurityJwtConfiguration.class);
+    private static final Duration JWT_CLOCK_SKEW = Duration.ofSeconds(60);
 
     @Value("${jhipster.security.authentication.jwt.base64-secret}")
     private String jwtKey;
 
     @Bean
-    public JwtDecoder jwtDecoder(SecurityMetersService metersService) {
-        NimbusJwtDecoder jwtDecoder = NimbusJwtDecoder.withSecretKey(getSecretKey()).macAlgorithm(JWT_ALGORITHM).build();
-        return token -> {
-            try {
-                return jwtDecoder.decode(token);
-            } catch (Exception e) {
-                if (e.getMessage().contains("Invalid signature")) {
-                    metersService.trackTokenInvalidSignature();
-                } else if (e.getMessage().contains("Jwt expired at")) {
-                    metersService.trackTokenExpired();
-                } else if (
-                    e.getMessage().contains("Invalid JWT serialization") ||
-                    e.getMessage().contains("Malformed token") ||
-                    e.getMessage().contains("Invalid unsecured/JWS/JWE")
-                ) {
-                    metersService.trackTokenMalformed();
-                } else {
-                    log.error("Unknown JWT error {}", e.getMessage());
-                }
-                throw e;
+    public JwtDecoder jwtDecoder(
+        SecurityMetersService metersService,
+        ApplicationProperties applicationProperties,
+        JwtKeyRing jwtKeyRing,
+        TokenRevocationStore tokenRevocationStore
+    ) {
+        boolean acceptLegacyHmac = applicationProperties.getJwtKeys().isAcceptLegacyHmac();
+        JwtDecoder decoder = verifyingJwtDecoder(metersService, jwtKeyRing, acceptLegacyHmac);
+        ApplicationProperties.JwtCache jwtCache = applicationProperties.getJwtCache();
+        if (jwtCache.isEnabled()) {
+            decoder = new CachingJwtDecoder(decoder, jwtCache.getMaximumSize(), jwtCache.getTimeToLive(), metersService, Clock.systemUTC());
+        }
+        // Checked on every request, cached tokens included
+        return new RevocationCheckingJwtDecoder(decoder, tokenRevocationStore, metersService);
+    }
+
+    private JwtDecoder verifyingJwtDecoder(SecurityMetersService metersService, JwtKeyRing jwtKeyRing, boolean acceptLegacyHmac) {
+        SecretKey legacySecretKey = getLegacySecretKey();
+        DefaultJWTProcessor<SecurityContext> jwtProcessor = new DefaultJWTProcessor<>();
+        // Keys are looked up by kid in the key ring; tokens without kid can only be legacy HMAC ones
+        jwtProcessor.setJWSKeySelector((header, context) -> {
+            if (header.getKeyID() != null && JWSAlgorithm.RS256.equals(header.getAlgorithm())) {
+                RSAPublicKey key = jwtKeyRing.verificationKey(header.getKeyID());
+                return key == null ? List.of() : List.of(key);
+            }
+            if (acceptLegacyHmac && header.getKeyID() == null && JWSAlgorithm.HS512.equals(header.getAlgorithm())) {
+                return List.of(legacySecretKey);
             }
-        };
+            return List.of();
+        });
+        // Claims are validated by Spring Security's validators instead
+        jwtProcessor.setJWTClaimsSetVerifier((claims, context) -> {});
+        NimbusJwtDecoder jwtDecoder = new NimbusJwtDecoder(jwtProcessor);
+        // Only timestamps are validated, so a JwtValidationException always means an expired (or not yet valid) token
+        jwtDecoder.setJwtValidator(new JwtTimestampValidator(JWT_CLOCK_SKEW));
+        Set<String> algorithms = acceptLegacyHmac
+            ? Set.of(JWT_ALGORITHM.getName(), LEGACY_JWT_ALGORITHM.getName())
+            : Set.of(JWT_ALGORITHM.getName());
+        JwtPreValidator preValidator = new JwtPreValidator(algorithms, JWT_CLOCK_SKEW, Clock.systemUTC());
+        return new ValidatingJwtDecoder(jwtDecoder, preValidator, metersService);
     }
 
     @Bean
-    public JwtEncoder jwtEncoder() {
-        return new NimbusJwtEncoder(new ImmutableSecret<>(getSecretKey()));
+    public JwtEncoder jwtEncoder(JwtKeyRing jwtKeyRing) {
+        return new NimbusJwtEncoder(jwtKeyRing.signingJwkSource());
     }
 
-    private SecretKey getSecretKey() {
+    private SecretKey getLegacySecretKey() {
         byte[] keyBytes = Base64.from(jwtKey).decode();
-        return new SecretKeySpec(keyBytes, 0, keyBytes.length, JWT_ALGORITHM.getName());
+        return new SecretKeySpec(keyBytes, 0, keyBytes.length, LEGACY_JWT_ALGORITHM.getName());
     }
 }
@@ -0,0 +1,136 @@
+package com.kaizenmobile.config;
+
+import com.kaizenmobile.config.cache.CacheInvalidationBus;
+import com.kaizenmobile.domain.AppStats;
+import com.kaizenmobile.domain.User;
+import com.kaizenmobile.service.UniquenessFilter;
+import jakarta.persistence.EntityManagerFactory;
+import java.util.Set;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.EventType;
+import org.hibernate.event.spi.PostInsertEvent;
+import org.hibernate.event.spi.PostInsertEventListener;
+import org.hibernate.event.spi.PostUpdateEvent;
+import org.hibernate.event.spi.PostUpdateEventListener;
+import org.hibernate.persister.entity.EntityPersister;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Feeds every {@link User} and {@link AppStats} written through Hibernate into the {@link UniquenessFilter}, so
+ * writes that don't go through the services can't make the filter answer a false negative.
+ * <p>
+ * With the {@link CacheInvalidationBus}, the logins, emails and tenant ids written on a node are fed into the filters
+ * of the other nodes too, which rebuild their filters when messages may have been lost.
+ */
+@Configuration
+public class UniquenessFilterConfiguration {
+
+    static final String UNIQUENESS_FILTER_TOPIC = "uniquenessFilter";
+
+    private static final String LOGIN = "l:";
+    private static final String EMAIL = "e:";
+    private static final String TENANT_ID = "t:";
+
+    private static final Set<String> UNIQUE_PROPERTIES = Set.of("login", "email", "usedTenantId");
+
+    public UniquenessFilterConfiguration(
+        EntityManagerFactory entityManagerFactory,
+        UniquenessFilter uniquenessFilter,
+        ObjectProvider<CacheInvalidationBus> cacheInvalidationBus
+    ) {
+        EventListenerRegistry registry = entityManagerFactory
+            .unwrap(SessionFactoryImplementor.class)
+            .getServiceRegistry()
+            .getService(EventListenerRegistry.class);
+        CacheInvalidationBus bus = cacheInvalidationBus.getIfAvailable();
+        UniquenessFilterListener listener = new UniquenessFilterListener(uniquenessFilter, bus);
+        registry.appendListeners(EventType.POST_INSERT, listener);
+        registry.appendListeners(EventType.POST_UPDATE, listener);
+        if (bus != null) {
+            bus.subscribe(
+                UNIQUENESS_FILTER_TOPIC,
+                new CacheInvalidationBus.TopicListener() {
+                    @Override
+                    public void onMessage(String payload) {
+                        String value = payload.substring(LOGIN.length());
+                        switch (payload.substring(0, LOGIN.length())) {
+                            case LOGIN -> uniquenessFilter.putUser(value, null);
+                            case EMAIL -> uniquenessFilter.putUser(null, value);
+                            case TENANT_ID -> uniquenessFilter.putTenantId(value);
+                            default -> throw new IllegalArgumentException("Unknown uniqueness filter message");
+                        }
+                    }
+
+                    @Override
+                    public void onMessagesLost() {
+                        uniquenessFilter.rebuild();
+                    }
+                }
+            );
+        }
+    }
+
+    private static final class UniquenessFilterListener implements PostInsertEventListener, PostUpdateEventListener {
+
+        private final UniquenessFilter uniquenessFilter;
+
+        private final CacheInvalidationBus bus;
+
+        private UniquenessFilterListener(UniquenessFilter uniquenessFilter, CacheInvalidationBus bus) {
+            this.uniquenessFilter = uniquenessFilter;
+            this.bus = bus;
+        }
+
+        @Override
+        public void onPostInsert(PostInsertEvent event) {
+            record(event.getEntity(), true);
+        }
+
+        @Override
+        public void onPostUpdate(PostUpdateEvent event) {
+            record(event.getEntity(), isUniquePropertyDirty(event));
+        }
+
+        @Override
+        public boolean requiresPostCommitHandling(EntityPersister persister) {
+            return false;
+        }
+
+        private static boolean isUniquePropertyDirty(PostUpdateEvent event) {
+            if (event.getDirtyProperties() == null) {
+                return true;
+            }
+            String[] propertyNames = event.getPersister().getPropertyNames();
+            for (int index : event.getDirtyProperties()) {
+                if (UNIQUE_PROPERTIES.contains(propertyNames[index])) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        private void record(Object entity, boolean publish) {
+            if (entity instanceof User user) {
+                uniquenessFilter.putUser(user.getLogin(), user.getEmail());
+                if (publish) {
+                    publish(LOGIN, user.getLogin());
+                    publish(EMAIL, user.getEmail());
+                }
+            } else if (entity instanceof AppStats appStats) {
+                uniquenessFilter.putTenantId(appStats.getUsedTenantId());
+                if (publish) {
+                    publish(TENANT_ID, appStats.getUsedTenantId());
+                }
+            }
+        }
+
+        private void publish(String kind, String value) {
+            if (bus != null && value != null) {
+                // Published once the transaction commits
+                bus.publish(UNIQUENESS_FILTER_TOPIC, kind + value);
+            }
+        }
+    }
+}
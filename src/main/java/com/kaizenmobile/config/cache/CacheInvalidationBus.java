@@ -0,0 +1,296 @@
+package com.kaizenmobile.config.cache;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import javax.cache.Cache;
+import javax.cache.CacheManager;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Keeps the local caches of the nodes consistent, so that they can be used as near caches in front of the database:
+ * whenever a node removes or rewrites a cache entry, the other nodes drop their copy of it.
+ * <p>
+ * The caches obtained from a {@linkplain #decorate(CacheManager) decorated cache manager} publish the keys they remove,
+ * whether they held them or not, and the keys Hibernate locks before writing an entity or a collection. Entries loaded
+ * from the database are not published. Within a transaction, keys are published once it commits, so that other nodes
+ * don't reload the previous value in between. Keys other than strings, integers and UUIDs can't be sent and invalidate
+ * their whole cache on the other nodes.
+ * <p>
+ * The state the nodes keep in memory besides their caches is kept consistent the same way, through {@linkplain
+ * #publish(String, String) messages} delivered to the {@linkplain #subscribe(String, TopicListener) listeners} of a topic.
+ */
+public class CacheInvalidationBus implements CacheInvalidationTransport.Subscriber, AutoCloseable {
+
+    public static final String INVALIDATIONS_METER_NAME = "cache.invalidations";
+
+    private static final Logger log = LoggerFactory.getLogger(CacheInvalidationBus.class);
+
+    private static final String SEPARATOR = "\n";
+
+    private static final String ALL_KEYS = "*";
+
+    private static final String TOPIC_PREFIX = "@";
+
+    // Payloads of PostgreSQL notifications are limited to 8000 bytes
+    private static final int MAX_MESSAGE_BYTES = 7900;
+
+    private final String nodeId = UUID.randomUUID().toString();
+
+    private final CacheInvalidationTransport transport;
+
+    private final Map<String, Cache<Object, Object>> caches = new ConcurrentHashMap<>();
+
+    private final Map<String, TopicListener> topics = new ConcurrentHashMap<>();
+
+    private final Counter publishedCounter;
+
+    private final Counter failedCounter;
+
+    private final Counter appliedCounter;
+
+    private final Counter resyncCounter;
+
+    public CacheInvalidationBus(CacheInvalidationTransport transport, MeterRegistry meterRegistry) {
+        this.transport = transport;
+        this.publishedCounter = invalidationsCounter("published", meterRegistry);
+        this.failedCounter = invalidationsCounter("failed", meterRegistry);
+        this.appliedCounter = invalidationsCounter("applied", meterRegistry);
+        this.resyncCounter = invalidationsCounter("resync", meterRegistry);
+        transport.subscribe(this);
+    }
+
+    private static Counter invalidationsCounter(String result, MeterRegistry meterRegistry) {
+        return Counter.builder(INVALIDATIONS_METER_NAME)
+            .description("Cache invalidations sent to and received from the other nodes")
+            .tag("result", result)
+            .register(meterRegistry);
+    }
+
+    /**
+     * Decorate a cache manager so that the removals from its caches are published to the other nodes, and the
+     * removals published by the other nodes are applied to its caches.
+     *
+     * @param cacheManager the cache manager.
+     * @return the decorated cache manager.
+     */
+    public CacheManager decorate(CacheManager cacheManager) {
+        return new InvalidatingCacheManager(cacheManager, this);
+    }
+
+    @SuppressWarnings("unchecked")
+    <K, V> Cache<K, V> decorate(Cache<K, V> cache, CacheManager cacheManager) {
+        if (cache == null) {
+            return null;
+        }
+        caches.put(cache.getName(), (Cache<Object, Object>) cache);
+        return new InvalidatingCache<>(cache, cacheManager, this);
+    }
+
+    /**
+     * Deliver the messages published on a topic by the other nodes to a listener.
+     *
+     * @param topic the topic.
+     * @param listener the listener, replacing the previous listener of the topic.
+     */
+    public void subscribe(String topic, TopicListener listener) {
+        topics.put(topic, listener);
+    }
+
+    /**
+     * Publish a message to the listeners of a topic on the other nodes, once the current transaction commits if there is
+     * one.
+     *
+     * @param topic the topic.
+     * @param payload the message, a few kilobytes at most.
+     */
+    public void publish(String topic, String payload) {
+        String message = message(TOPIC_PREFIX + topic, payload);
+        if (message.getBytes(StandardCharsets.UTF_8).length > MAX_MESSAGE_BYTES) {
+            throw new IllegalArgumentException("Message too long for topic " + topic);
+        }
+        send(message);
+    }
+
+    void invalidate(String cacheName, Object key) {
+        String message = message(cacheName, encode(key));
+        if (message.getBytes(StandardCharsets.UTF_8).length > MAX_MESSAGE_BYTES) {
+            message = message(cacheName, ALL_KEYS);
+        }
+        send(message);
+    }
+
+    void invalidateAll(String cacheName) {
+        send(message(cacheName, ALL_KEYS));
+    }
+
+    private String message(String cacheName, String key) {
+        return nodeId + SEPARATOR + cacheName + SEPARATOR + key;
+    }
+
+    private void send(String message) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            pendingInvalidations().messages.add(message);
+        } else {
+            publish(message);
+        }
+    }
+
+    private PendingInvalidations pendingInvalidations() {
+        for (TransactionSynchronization synchronization : TransactionSynchronizationManager.getSynchronizations()) {
+            if (synchronization instanceof PendingInvalidations pending && pending.bus() == this) {
+                return pending;
+            }
+        }
+        PendingInvalidations pending = new PendingInvalidations();
+        TransactionSynchronizationManager.registerSynchronization(pending);
+        return pending;
+    }
+
+    private void publish(String message) {
+        try {
+            transport.publish(message);
+            publishedCounter.increment();
+        } catch (RuntimeException e) {
+            failedCounter.increment();
+            log.warn("Cannot publish cache invalidation: {}", e.getMessage());
+        }
+    }
+
+    @Override
+    public void onMessage(String message) {
+        String[] parts = message.split(SEPARATOR, 3);
+        if (parts.length < 3 || nodeId.equals(parts[0])) {
+            return;
+        }
+        if (parts[1].startsWith(TOPIC_PREFIX)) {
+            deliver(parts[1].substring(TOPIC_PREFIX.length()), parts[2]);
+            return;
+        }
+        Cache<Object, Object> cache = caches.get(parts[1]);
+        if (cache == null || cache.isClosed()) {
+            return;
+        }
+        Object key = decode(parts[2]);
+        if (key == null) {
+            cache.clear();
+        } else {
+            cache.remove(key);
+        }
+        appliedCounter.increment();
+    }
+
+    private void deliver(String topic, String payload) {
+        TopicListener listener = topics.get(topic);
+        if (listener == null) {
+            return;
+        }
+        try {
+            listener.onMessage(payload);
+            appliedCounter.increment();
+        } catch (RuntimeException e) {
+            log.warn("Cannot apply message of topic {}: {}", topic, e.getMessage());
+        }
+    }
+
+    @Override
+    public void onMessagesLost() {
+        log.info("Cache invalidations may have been lost, clearing {} caches and resyncing {} topics", caches.size(), topics.size());
+        caches.values().stream().filter(cache -> !cache.isClosed()).forEach(Cache::clear);
+        topics.forEach((topic, listener) -> {
+            try {
+                listener.onMessagesLost();
+            } catch (RuntimeException e) {
+                log.warn("Cannot resync topic {}: {}", topic, e.getMessage());
+            }
+        });
+        resyncCounter.increment();
+    }
+
+    @Override
+    public void close() {
+        transport.close();
+    }
+
+    /**
+     * @return the key, prefixed with its type, {@link #ALL_KEYS} if it can't be sent.
+     */
+    private static String encode(Object key) {
+        if (key instanceof String string) {
+            return "s:" + string;
+        }
+        if (key instanceof Long number) {
+            return "l:" + number;
+        }
+        if (key instanceof Integer number) {
+            return "i:" + number;
+        }
+        if (key instanceof UUID uuid) {
+            return "u:" + uuid;
+        }
+        return ALL_KEYS;
+    }
+
+    /**
+     * @return the key, {@code null} if the whole cache is invalidated.
+     */
+    private static Object decode(String key) {
+        if (key.length() < 2) {
+            return null;
+        }
+        try {
+            String value = key.substring(2);
+            return switch (key.substring(0, 2)) {
+                case "s:" -> value;
+                case "l:" -> Long.valueOf(value);
+                case "i:" -> Integer.valueOf(value);
+                case "u:" -> UUID.fromString(value);
+                default -> null;
+            };
+        } catch (RuntimeException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Listener of the messages of a topic.
+     */
+    public interface TopicListener {
+        /**
+         * Apply a message published by another node.
+         *
+         * @param payload the message.
+         */
+        void onMessage(String payload);
+
+        /**
+         * Messages may have been lost: reload whatever they could have changed.
+         */
+        void onMessagesLost();
+    }
+
+    /**
+     * The invalidations of a transaction, published once if it commits.
+     */
+    private final class PendingInvalidations implements TransactionSynchronization {
+
+        private final Set<String> messages = new LinkedHashSet<>();
+
+        private CacheInvalidationBus bus() {
+            return CacheInvalidationBus.this;
+        }
+
+        @Override
+        public void afterCommit() {
+            messages.forEach(CacheInvalidationBus.this::publish);
+        }
+    }
+}
@@ -0,0 +1,32 @@
+package com.kaizenmobile.config.cache;
+
+/**
+ * Carries the cache invalidation messages of a {@link CacheInvalidationBus} between the nodes of the application.
+ * <p>
+ * Messages are delivered at most once, possibly back to their sender. A transport which may have lost messages, after
+ * a reconnection for instance, tells its subscriber so that it drops whatever it could have missed.
+ */
+public interface CacheInvalidationTransport extends AutoCloseable {
+    /**
+     * Send a message to the subscribers of every node, without waiting for its delivery.
+     *
+     * @param message the message.
+     */
+    void publish(String message);
+
+    /**
+     * Start delivering the messages of every node to a subscriber.
+     *
+     * @param subscriber the subscriber.
+     */
+    void subscribe(Subscriber subscriber);
+
+    @Override
+    void close();
+
+    interface Subscriber {
+        void onMessage(String message);
+
+        void onMessagesLost();
+    }
+}
@@ -0,0 +1,89 @@
+package com.kaizenmobile.config.cache;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import java.lang.management.ManagementFactory;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import javax.cache.Cache;
+import javax.cache.management.CacheStatisticsMXBean;
+import javax.management.JMX;
+import javax.management.MalformedObjectNameException;
+import javax.management.ObjectName;
+
+/**
+ * Meters of the JCache caches, one set per cache, read from the standard statistics of the cache
+ * ({@link CacheStatisticsMXBean}), which the JCache provider publishes in the platform MBean server once they are
+ * enabled.
+ * <p>
+ * JCache doesn't report the number or the size of the entries held: they are bounded by the resource pools of the
+ * caches instead, see {@code application.cache.regions}.
+ * <p>
+ * The statistics are held by this instance and the meters only reference them weakly: it must outlive the meters.
+ */
+public class CacheRegionMetrics {
+
+    public static final String GETS_METER_NAME = "cache.region.gets";
+
+    public static final String EVICTIONS_METER_NAME = "cache.region.evictions";
+
+    private final List<CacheStatisticsMXBean> statistics = new CopyOnWriteArrayList<>();
+
+    private final MeterRegistry meterRegistry;
+
+    public CacheRegionMetrics(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    /**
+     * Enable the statistics of a cache and register its meters.
+     *
+     * @param cache the cache.
+     */
+    public void bind(Cache<?, ?> cache) {
+        String name = cache.getName();
+        cache.getCacheManager().enableStatistics(name, true);
+        CacheStatisticsMXBean cacheStatistics = JMX.newMXBeanProxy(
+            ManagementFactory.getPlatformMBeanServer(),
+            statisticsName(cache),
+            CacheStatisticsMXBean.class
+        );
+        statistics.add(cacheStatistics);
+        Tags tags = Tags.of("cache", name);
+
+        FunctionCounter.builder(GETS_METER_NAME, cacheStatistics, CacheStatisticsMXBean::getCacheHits)
+            .description("Cache gets by result")
+            .tags(tags.and("result", "hit"))
+            .register(meterRegistry);
+        FunctionCounter.builder(GETS_METER_NAME, cacheStatistics, CacheStatisticsMXBean::getCacheMisses)
+            .description("Cache gets by result")
+            .tags(tags.and("result", "miss"))
+            .register(meterRegistry);
+        FunctionCounter.builder(EVICTIONS_METER_NAME, cacheStatistics, CacheStatisticsMXBean::getCacheEvictions)
+            .description("Entries evicted from the cache to make room for others")
+            .tags(tags)
+            .register(meterRegistry);
+    }
+
+    /**
+     * The name of the statistics MBean of a cache, as given by the JCache specification, the characters not allowed in
+     * the values of an {@link ObjectName} replaced by dots as the providers do.
+     */
+    private static ObjectName statisticsName(Cache<?, ?> cache) {
+        String name =
+            "javax.cache:type=CacheStatistics,CacheManager=" +
+            sanitize(cache.getCacheManager().getURI().toString()) +
+            ",Cache=" +
+            sanitize(cache.getName());
+        try {
+            return new ObjectName(name);
+        } catch (MalformedObjectNameException e) {
+            throw new IllegalArgumentException("No statistics MBean name for cache " + cache.getName(), e);
+        }
+    }
+
+    private static String sanitize(String value) {
+        return value.replaceAll("[,:=\n]", ".");
+    }
+}
@@ -0,0 +1,28 @@
+package com.kaizenmobile.config.cache;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * A {@link CacheInvalidationTransport} delivering the messages synchronously to the subscribers of the same JVM, standing
+ * in for a shared transport in tests and on single node deployments.
+ */
+public class InProcessCacheInvalidationTransport implements CacheInvalidationTransport {
+
+    private final List<Subscriber> subscribers = new CopyOnWriteArrayList<>();
+
+    @Override
+    public void publish(String message) {
+        subscribers.forEach(subscriber -> subscriber.onMessage(message));
+    }
+
+    @Override
+    public void subscribe(Subscriber subscriber) {
+        subscribers.add(subscriber);
+    }
+
+    @Override
+    public void close() {
+        subscribers.clear();
+    }
+}
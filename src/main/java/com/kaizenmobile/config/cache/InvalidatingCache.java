@@ -0,0 +1,224 @@
+package com.kaizenmobile.config.cache;
+
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Set;
+import javax.cache.Cache;
+import javax.cache.CacheManager;
+import javax.cache.configuration.CacheEntryListenerConfiguration;
+import javax.cache.configuration.Configuration;
+import javax.cache.integration.CompletionListener;
+import javax.cache.processor.EntryProcessor;
+import javax.cache.processor.EntryProcessorException;
+import javax.cache.processor.EntryProcessorResult;
+import org.hibernate.cache.spi.access.SoftLock;
+
+/**
+ * A cache publishing its removals, and the soft locks Hibernate puts before writing an entry, to a
+ * {@link CacheInvalidationBus}.
+ */
+class InvalidatingCache<K, V> implements Cache<K, V> {
+
+    private final Cache<K, V> delegate;
+
+    private final CacheManager cacheManager;
+
+    private final CacheInvalidationBus bus;
+
+    InvalidatingCache(Cache<K, V> delegate, CacheManager cacheManager, CacheInvalidationBus bus) {
+        this.delegate = delegate;
+        this.cacheManager = cacheManager;
+        this.bus = bus;
+    }
+
+    private void written(K key, V value) {
+        if (value instanceof SoftLock) {
+            bus.invalidate(delegate.getName(), key);
+        }
+    }
+
+    private void removed(Object key) {
+        bus.invalidate(delegate.getName(), key);
+    }
+
+    @Override
+    public V get(K key) {
+        return delegate.get(key);
+    }
+
+    @Override
+    public Map<K, V> getAll(Set<? extends K> keys) {
+        return delegate.getAll(keys);
+    }
+
+    @Override
+    public boolean containsKey(K key) {
+        return delegate.containsKey(key);
+    }
+
+    @Override
+    public void loadAll(Set<? extends K> keys, boolean replaceExistingValues, CompletionListener completionListener) {
+        delegate.loadAll(keys, replaceExistingValues, completionListener);
+    }
+
+    @Override
+    public void put(K key, V value) {
+        delegate.put(key, value);
+        written(key, value);
+    }
+
+    @Override
+    public V getAndPut(K key, V value) {
+        V previous = delegate.getAndPut(key, value);
+        written(key, value);
+        return previous;
+    }
+
+    @Override
+    public void putAll(Map<? extends K, ? extends V> map) {
+        delegate.putAll(map);
+        map.forEach(this::written);
+    }
+
+    @Override
+    public boolean putIfAbsent(K key, V value) {
+        boolean put = delegate.putIfAbsent(key, value);
+        if (put) {
+            written(key, value);
+        }
+        return put;
+    }
+
+    @Override
+    public boolean remove(K key) {
+        boolean removed = delegate.remove(key);
+        removed(key);
+        return removed;
+    }
+
+    @Override
+    public boolean remove(K key, V oldValue) {
+        boolean removed = delegate.remove(key, oldValue);
+        removed(key);
+        return removed;
+    }
+
+    @Override
+    public V getAndRemove(K key) {
+        V previous = delegate.getAndRemove(key);
+        removed(key);
+        return previous;
+    }
+
+    @Override
+    public boolean replace(K key, V oldValue, V newValue) {
+        boolean replaced = delegate.replace(key, oldValue, newValue);
+        if (replaced) {
+            written(key, newValue);
+        }
+        return replaced;
+    }
+
+    @Override
+    public boolean replace(K key, V value) {
+        boolean replaced = delegate.replace(key, value);
+        if (replaced) {
+            written(key, value);
+        }
+        return replaced;
+    }
+
+    @Override
+    public V getAndReplace(K key, V value) {
+        V previous = delegate.getAndReplace(key, value);
+        if (previous != null) {
+            written(key, value);
+        }
+        return previous;
+    }
+
+    @Override
+    public void removeAll(Set<? extends K> keys) {
+        delegate.removeAll(keys);
+        keys.forEach(this::removed);
+    }
+
+    @Override
+    public void removeAll() {
+        delegate.removeAll();
+        bus.invalidateAll(delegate.getName());
+    }
+
+    @Override
+    public void clear() {
+        delegate.clear();
+        bus.invalidateAll(delegate.getName());
+    }
+
+    @Override
+    public <C extends Configuration<K, V>> C getConfiguration(Class<C> clazz) {
+        return delegate.getConfiguration(clazz);
+    }
+
+    @Override
+    public <T> T invoke(K key, EntryProcessor<K, V, T> entryProcessor, Object... arguments) throws EntryProcessorException {
+        // The processor may have changed the entry in any way
+        T result = delegate.invoke(key, entryProcessor, arguments);
+        removed(key);
+        return result;
+    }
+
+    @Override
+    public <T> Map<K, EntryProcessorResult<T>> invokeAll(
+        Set<? extends K> keys,
+        EntryProcessor<K, V, T> entryProcessor,
+        Object... arguments
+    ) {
+        Map<K, EntryProcessorResult<T>> results = delegate.invokeAll(keys, entryProcessor, arguments);
+        keys.forEach(this::removed);
+        return results;
+    }
+
+    @Override
+    public String getName() {
+        return delegate.getName();
+    }
+
+    @Override
+    public CacheManager getCacheManager() {
+        return cacheManager;
+    }
+
+    @Override
+    public void close() {
+        delegate.close();
+    }
+
+    @Override
+    public boolean isClosed() {
+        return delegate.isClosed();
+    }
+
+    @Override
+    public <T> T unwrap(Class<T> clazz) {
+        if (clazz.isInstance(this)) {
+            return clazz.cast(this);
+        }
+        return delegate.unwrap(clazz);
+    }
+
+    @Override
+    public void registerCacheEntryListener(CacheEntryListenerConfiguration<K, V> cacheEntryListenerConfiguration) {
+        delegate.registerCacheEntryListener(cacheEntryListenerConfiguration);
+    }
+
+    @Override
+    public void deregisterCacheEntryListener(CacheEntryListenerConfiguration<K, V> cacheEntryListenerConfiguration) {
+        delegate.deregisterCacheEntryListener(cacheEntryListenerConfiguration);
+    }
+
+    @Override
+    public Iterator<Entry<K, V>> iterator() {
+        return delegate.iterator();
+    }
+}
@@ -0,0 +1,193 @@
+package com.kaizenmobile.config.cache;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * A {@link CacheInvalidationTransport} over the {@code LISTEN}/{@code NOTIFY} of the PostgreSQL database.
+ * <p>
+ * Messages are sent and received by two threads, each on a dedicated connection outside of the connection pool, so
+ * publishing never waits for a pooled connection nor holds one. Messages published while the database can't be reached
+ * are kept in a bounded queue; messages sent by other nodes while the listening connection was down are lost, which the
+ * subscriber is told once it is back.
+ * <p>
+ * The PostgreSQL driver is only on the classpath of the {@code prod} profile, its API is looked up at runtime.
+ */
+public class PostgresCacheInvalidationTransport implements CacheInvalidationTransport {
+
+    private static final Logger log = LoggerFactory.getLogger(PostgresCacheInvalidationTransport.class);
+
+    private static final Pattern CHANNEL_PATTERN = Pattern.compile("[a-z_][a-z0-9_]*");
+
+    private static final int POLL_TIMEOUT_MILLIS = 500;
+
+    private static final long RECONNECT_DELAY_MILLIS = 1000;
+
+    private static final int OUTBOX_CAPACITY = 10_000;
+
+    private static final int BATCH_SIZE = 100;
+
+    private final String url;
+
+    private final String username;
+
+    private final String password;
+
+    private final String channel;
+
+    private final Class<?> pgConnectionClass;
+
+    private final Method getNotifications;
+
+    private final Method getParameter;
+
+    private final BlockingQueue<String> outbox = new LinkedBlockingQueue<>(OUTBOX_CAPACITY);
+
+    private final Thread dispatcher;
+
+    private volatile boolean closed;
+
+    public PostgresCacheInvalidationTransport(String url, String username, String password, String channel) {
+        if (!CHANNEL_PATTERN.matcher(channel).matches()) {
+            throw new IllegalArgumentException("Invalid cache invalidation channel: " + channel);
+        }
+        this.url = url;
+        this.username = username;
+        this.password = password;
+        this.channel = channel;
+        try {
+            this.pgConnectionClass = Class.forName("org.postgresql.PGConnection");
+            this.getNotifications = pgConnectionClass.getMethod("getNotifications", int.class);
+            this.getParameter = Class.forName("org.postgresql.PGNotification").getMethod("getParameter");
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("The PostgreSQL driver is required by the postgres cache invalidation transport", e);
+        }
+        this.dispatcher = startThread("cache-invalidation-dispatcher", this::dispatch);
+    }
+
+    @Override
+    public void publish(String message) {
+        if (!outbox.offer(message)) {
+            throw new IllegalStateException("The cache invalidation outbox is full");
+        }
+    }
+
+    @Override
+    public void subscribe(Subscriber subscriber) {
+        startThread("cache-invalidation-listener", () -> listen(subscriber));
+    }
+
+    @Override
+    public void close() {
+        closed = true;
+        dispatcher.interrupt();
+    }
+
+    private void dispatch() {
+        List<String> batch = new ArrayList<>(BATCH_SIZE);
+        while (!closed) {
+            try (
+                Connection connection = connect();
+                PreparedStatement statement = connection.prepareStatement("SELECT pg_notify(?, message) FROM unnest(?::text[]) AS message")
+            ) {
+                while (!closed) {
+                    if (batch.isEmpty()) {
+                        String message = outbox.poll(POLL_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS);
+                        if (message == null) {
+                            continue;
+                        }
+                        batch.add(message);
+                        outbox.drainTo(batch, BATCH_SIZE - 1);
+                    }
+                    statement.setString(1, channel);
+                    statement.setArray(2, connection.createArrayOf("text", batch.toArray()));
+                    statement.execute();
+                    // A failed batch is sent again after reconnecting, subscribers don't mind duplicates
+                    batch.clear();
+                }
+            } catch (SQLException e) {
+                log.warn("Cannot send cache invalidations, reconnecting: {}", e.getMessage());
+                if (!pause()) {
+                    return;
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    private void listen(Subscriber subscriber) {
+        boolean reconnecting = false;
+        while (!closed) {
+            try (Connection connection = connect()) {
+                try (Statement statement = connection.createStatement()) {
+                    statement.execute("LISTEN " + channel);
+                }
+                if (reconnecting) {
+                    subscriber.onMessagesLost();
+                }
+                reconnecting = true;
+                Object pgConnection = connection.unwrap(pgConnectionClass);
+                while (!closed) {
+                    for (Object notification : notifications(pgConnection)) {
+                        subscriber.onMessage((String) getParameter.invoke(notification));
+                    }
+                }
+            } catch (SQLException | ReflectiveOperationException | RuntimeException e) {
+                log.warn("Cannot receive cache invalidations, reconnecting: {}", e.getMessage());
+                if (!pause()) {
+                    return;
+                }
+            }
+        }
+    }
+
+    private Object[] notifications(Object pgConnection) throws SQLException, IllegalAccessException {
+        try {
+            Object[] notifications = (Object[]) getNotifications.invoke(pgConnection, POLL_TIMEOUT_MILLIS);
+            return notifications == null ? new Object[0] : notifications;
+        } catch (InvocationTargetException e) {
+            if (e.getCause() instanceof SQLException sqlException) {
+                throw sqlException;
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    private Connection connect() throws SQLException {
+        Connection connection = DriverManager.getConnection(url, username, password);
+        connection.setAutoCommit(true);
+        return connection;
+    }
+
+    private boolean pause() {
+        try {
+            Thread.sleep(RECONNECT_DELAY_MILLIS);
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    private static Thread startThread(String name, Runnable task) {
+        Thread thread = new Thread(task, name);
+        thread.setDaemon(true);
+        thread.start();
+        return thread;
+    }
+}
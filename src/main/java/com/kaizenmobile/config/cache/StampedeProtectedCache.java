@@ -0,0 +1,261 @@
+package com.kaizenmobile.config.cache;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.io.Serializable;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.DoubleSupplier;
+import java.util.function.Supplier;
+import org.ehcache.expiry.ExpiryPolicy;
+import org.springframework.cache.Cache;
+import org.springframework.cache.support.SimpleValueWrapper;
+
+/**
+ * A cache protecting the lookups it caches from stampedes.
+ * <ul>
+ * <li>Missing entries are loaded once per key and node: concurrent lookups of the key wait for that load.</li>
+ * <li>With an early refresh factor, a lookup may reload an entry before it expires, with a probability growing as the
+ * expiry nears and with the time the last load took (XFetch). Other lookups keep getting the current value meanwhile.</li>
+ * <li>Missing values (empty lookups) are kept for their own, shorter, time to live.</li>
+ * </ul>
+ * Only the lookups going through {@link #get(Object, Callable)}, that is {@code @Cacheable(sync = true)}, are loaded once.
+ * Entries are stored with their expiry and the duration of their load, which the Ehcache expiry of the cache must honour
+ * for the missing values: see {@link #expiryPolicy(ExpiryPolicy, Duration)}.
+ */
+public class StampedeProtectedCache implements Cache {
+
+    public static final String LOADS_METER_NAME = "cache.loads";
+
+    private final Cache delegate;
+
+    private final Duration timeToLive;
+
+    private final Duration negativeTimeToLive;
+
+    private final double earlyRefreshBeta;
+
+    private final Clock clock;
+
+    private final DoubleSupplier random;
+
+    private final ConcurrentMap<Object, CompletableFuture<Object>> loads = new ConcurrentHashMap<>();
+
+    private final Counter loadedCounter;
+
+    private final Counter coalescedCounter;
+
+    private final Counter refreshedEarlyCounter;
+
+    /**
+     * @param delegate the cache.
+     * @param timeToLive how long the entries live after being written, or null when they expire once idle, in which
+     * case they are not refreshed early.
+     * @param negativeTimeToLive how long the missing values live after being written.
+     * @param earlyRefreshBeta the early refresh factor, 0 to disable early refreshes, higher values refresh earlier.
+     * @param meterRegistry the meter registry.
+     */
+    public StampedeProtectedCache(
+        Cache delegate,
+        Duration timeToLive,
+        Duration negativeTimeToLive,
+        double earlyRefreshBeta,
+        MeterRegistry meterRegistry
+    ) {
+        this(delegate, timeToLive, negativeTimeToLive, earlyRefreshBeta, meterRegistry, Clock.systemUTC(), () ->
+            1 - ThreadLocalRandom.current().nextDouble()
+        );
+    }
+
+    StampedeProtectedCache(
+        Cache delegate,
+        Duration timeToLive,
+        Duration negativeTimeToLive,
+        double earlyRefreshBeta,
+        MeterRegistry meterRegistry,
+        Clock clock,
+        DoubleSupplier random
+    ) {
+        this.delegate = delegate;
+        this.timeToLive = timeToLive;
+        this.negativeTimeToLive = negativeTimeToLive;
+        this.earlyRefreshBeta = earlyRefreshBeta;
+        this.clock = clock;
+        this.random = random;
+        this.loadedCounter = loadsCounterForResult("loaded").register(meterRegistry);
+        this.coalescedCounter = loadsCounterForResult("coalesced").register(meterRegistry);
+        this.refreshedEarlyCounter = loadsCounterForResult("refreshed-early").register(meterRegistry);
+    }
+
+    private Counter.Builder loadsCounterForResult(String result) {
+        return Counter.builder(LOADS_METER_NAME)
+            .description("Cache lookups which had to load their value, or waited for another lookup loading it")
+            .tags("cache", delegate.getName(), "result", result);
+    }
+
+    /**
+     * The Ehcache expiry of a cache holding lookups: the missing values expire after their own time to live, the other
+     * entries as the other entries of the cache.
+     *
+     * @param expiryPolicy the expiry of the cache.
+     * @param negativeTimeToLive how long the missing values live after being written.
+     * @return the expiry to give the cache.
+     */
+    public static ExpiryPolicy<Object, Object> expiryPolicy(ExpiryPolicy<Object, Object> expiryPolicy, Duration negativeTimeToLive) {
+        return new ExpiryPolicy<>() {
+            @Override
+            public Duration getExpiryForCreation(Object key, Object value) {
+                return isMissing(value) ? negativeTimeToLive : expiryPolicy.getExpiryForCreation(key, value);
+            }
+
+            @Override
+            public Duration getExpiryForAccess(Object key, Supplier<?> value) {
+                // Reading a missing value doesn't keep it longer
+                return isMissing(value.get()) ? null : expiryPolicy.getExpiryForAccess(key, value);
+            }
+
+            @Override
+            public Duration getExpiryForUpdate(Object key, Supplier<?> oldValue, Object newValue) {
+                return isMissing(newValue) ? negativeTimeToLive : expiryPolicy.getExpiryForUpdate(key, oldValue, newValue);
+            }
+        };
+    }
+
+    private static boolean isMissing(Object value) {
+        return value instanceof Lookup lookup && lookup.value() == null;
+    }
+
+    @Override
+    public String getName() {
+        return delegate.getName();
+    }
+
+    @Override
+    public Object getNativeCache() {
+        return delegate.getNativeCache();
+    }
+
+    @Override
+    public ValueWrapper get(Object key) {
+        Lookup lookup = lookup(key);
+        return lookup == null ? null : new SimpleValueWrapper(lookup.value());
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, Class<T> type) {
+        Lookup lookup = lookup(key);
+        if (lookup == null || lookup.value() == null) {
+            return null;
+        }
+        if (type != null && !type.isInstance(lookup.value())) {
+            throw new IllegalStateException("Cached value is not of required type [" + type.getName() + "]: " + lookup.value());
+        }
+        return (T) lookup.value();
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, Callable<T> valueLoader) {
+        Lookup lookup = lookup(key);
+        if (lookup != null && !refreshEarly(lookup)) {
+            return (T) lookup.value();
+        }
+        CompletableFuture<Object> load = new CompletableFuture<>();
+        CompletableFuture<Object> runningLoad = loads.putIfAbsent(key, load);
+        if (runningLoad != null) {
+            if (lookup != null) {
+                // Another lookup is refreshing the entry
+                return (T) lookup.value();
+            }
+            coalescedCounter.increment();
+            try {
+                return (T) runningLoad.join();
+            } catch (CompletionException e) {
+                throw new ValueRetrievalException(key, valueLoader, e.getCause());
+            }
+        }
+        (lookup == null ? loadedCounter : refreshedEarlyCounter).increment();
+        try {
+            long start = System.nanoTime();
+            T value = valueLoader.call();
+            delegate.put(key, lookup(value, System.nanoTime() - start));
+            if (!loads.remove(key, load)) {
+                // Evicted during the load, which may have read the data as it was before the change causing the eviction
+                delegate.evict(key);
+            }
+            load.complete(value);
+            return value;
+        } catch (Exception e) {
+            loads.remove(key, load);
+            load.completeExceptionally(e);
+            throw new ValueRetrievalException(key, valueLoader, e);
+        }
+    }
+
+    @Override
+    public void put(Object key, Object value) {
+        delegate.put(key, lookup(value, 0));
+    }
+
+    @Override
+    public ValueWrapper putIfAbsent(Object key, Object value) {
+        ValueWrapper existing = delegate.putIfAbsent(key, lookup(value, 0));
+        if (existing == null) {
+            return null;
+        }
+        return existing.get() instanceof Lookup lookup ? new SimpleValueWrapper(lookup.value()) : existing;
+    }
+
+    @Override
+    public void evict(Object key) {
+        // Loads still running are forgotten before the eviction, see get(key, valueLoader)
+        loads.remove(key);
+        delegate.evict(key);
+    }
+
+    @Override
+    public void clear() {
+        loads.clear();
+        delegate.clear();
+    }
+
+    private Lookup lookup(Object key) {
+        ValueWrapper wrapper = delegate.get(key);
+        if (wrapper == null) {
+            return null;
+        }
+        if (!(wrapper.get() instanceof Lookup lookup)) {
+            return new Lookup(wrapper.get(), Long.MAX_VALUE, 0);
+        }
+        return lookup.expiresAt() > clock.millis() ? lookup : null;
+    }
+
+    private Lookup lookup(Object value, long loadNanos) {
+        Duration entryTimeToLive = value == null ? negativeTimeToLive : timeToLive;
+        long expiresAt = entryTimeToLive == null ? Long.MAX_VALUE : clock.millis() + entryTimeToLive.toMillis();
+        return new Lookup(value, expiresAt, loadNanos);
+    }
+
+    /**
+     * XFetch: refresh once now + loadTime * beta * -ln(random) reaches the expiry.
+     */
+    private boolean refreshEarly(Lookup lookup) {
+        if (earlyRefreshBeta <= 0 || lookup.value() == null || lookup.expiresAt() == Long.MAX_VALUE) {
+            return false;
+        }
+        double gapMillis = (lookup.loadNanos() / 1_000_000.0) * earlyRefreshBeta * -Math.log(random.getAsDouble());
+        return clock.millis() + gapMillis >= lookup.expiresAt();
+    }
+
+    /**
+     * A cached value, null when missing, with its expiry and the time its load took.
+     */
+    private record Lookup(Object value, long expiresAt, long loadNanos) implements Serializable {}
+}
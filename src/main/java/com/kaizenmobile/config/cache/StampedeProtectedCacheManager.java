@@ -0,0 +1,53 @@
+package com.kaizenmobile.config.cache;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import java.time.Duration;
+import java.util.function.Function;
+import org.springframework.cache.Cache;
+import org.springframework.cache.jcache.JCacheCacheManager;
+
+/**
+ * A JCache backed cache manager handing out {@link StampedeProtectedCache}s.
+ */
+public class StampedeProtectedCacheManager extends JCacheCacheManager {
+
+    private final Function<String, Duration> timeToLive;
+
+    private final Duration negativeTimeToLive;
+
+    private final double earlyRefreshBeta;
+
+    private final MeterRegistry meterRegistry;
+
+    /**
+     * @param cacheManager the JCache manager.
+     * @param timeToLive the time to live of the entries of a cache, by cache name, null when they expire once idle.
+     * @param negativeTimeToLive the time to live of the missing values.
+     * @param earlyRefreshBeta the early refresh factor, 0 to disable early refreshes.
+     * @param meterRegistry the meter registry.
+     */
+    public StampedeProtectedCacheManager(
+        javax.cache.CacheManager cacheManager,
+        Function<String, Duration> timeToLive,
+        Duration negativeTimeToLive,
+        double earlyRefreshBeta,
+        MeterRegistry meterRegistry
+    ) {
+        super(cacheManager);
+        this.timeToLive = timeToLive;
+        this.negativeTimeToLive = negativeTimeToLive;
+        this.earlyRefreshBeta = earlyRefreshBeta;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    protected Cache decorateCache(Cache cache) {
+        return new StampedeProtectedCache(
+            super.decorateCache(cache),
+            timeToLive.apply(cache.getName()),
+            negativeTimeToLive,
+            earlyRefreshBeta,
+            meterRegistry
+        );
+    }
+}
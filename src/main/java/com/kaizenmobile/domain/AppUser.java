@@ -1,5 +1,6 @@
 package com.kaizenmobile.domain;
 
+import com.fasterxml.jackson.annotation.JsonProperty;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.*;
 import java.io.Serializable;
@@ -21,6 +22,15 @@ public class AppUser implements Serializable {
     @Column(name = "id")
     private Long id;
 
+    /**
+     * Incremented by each update, for optimistic locking. Clients don't send it: they send the entity tag of the
+     * version they read instead, in {@code If-Match}.
+     */
+    @Version
+    @Column(name = "version", nullable = false)
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+    private Integer version;
+
     @Size(min = 1, max = 254)
     @Column(name = "tenant_id", length = 254)
     private String tenantId;
@@ -71,6 +81,19 @@ public class AppUser implements Serializable {
         return this;
     }
 
+    public Integer getVersion() {
+        return this.version;
+    }
+
+    public AppUser version(Integer version) {
+        this.setVersion(version);
+        return this;
+    }
+
+    public void setVersion(Integer version) {
+        this.version = version;
+    }
+
     // jhipster-needle-entity-add-getters-setters - JHipster will add getters and setters here
 
     @Override
@@ -0,0 +1,115 @@
+package com.kaizenmobile.domain;
+
+import jakarta.persistence.*;
+import jakarta.validation.constraints.*;
+import java.io.Serializable;
+import java.time.Instant;
+
+/**
+ * The lock of a scheduled job, held by a single instance until it releases it, or until it expires.
+ */
+@Entity
+@Table(name = "job_lock")
+public class JobLock implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    @Id
+    @NotNull
+    @Size(max = 64)
+    @Column(name = "name", length = 64, nullable = false)
+    private String name;
+
+    @NotNull
+    @Size(max = 255)
+    @Column(name = "locked_by", length = 255, nullable = false)
+    private String lockedBy;
+
+    @NotNull
+    @Column(name = "locked_at", nullable = false)
+    private Instant lockedAt;
+
+    @NotNull
+    @Column(name = "locked_until", nullable = false)
+    private Instant lockedUntil;
+
+    public String getName() {
+        return this.name;
+    }
+
+    public JobLock name(String name) {
+        this.setName(name);
+        return this;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    public String getLockedBy() {
+        return this.lockedBy;
+    }
+
+    public JobLock lockedBy(String lockedBy) {
+        this.setLockedBy(lockedBy);
+        return this;
+    }
+
+    public void setLockedBy(String lockedBy) {
+        this.lockedBy = lockedBy;
+    }
+
+    public Instant getLockedAt() {
+        return this.lockedAt;
+    }
+
+    public JobLock lockedAt(Instant lockedAt) {
+        this.setLockedAt(lockedAt);
+        return this;
+    }
+
+    public void setLockedAt(Instant lockedAt) {
+        this.lockedAt = lockedAt;
+    }
+
+    public Instant getLockedUntil() {
+        return this.lockedUntil;
+    }
+
+    public JobLock lockedUntil(Instant lockedUntil) {
+        this.setLockedUntil(lockedUntil);
+        return this;
+    }
+
+    public void setLockedUntil(Instant lockedUntil) {
+        this.lockedUntil = lockedUntil;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof JobLock)) {
+            return false;
+        }
+        return getName() != null && getName().equals(((JobLock) o).getName());
+    }
+
+    @Override
+    public int hashCode() {
+        // see https://vladmihalcea.com/how-to-implement-equals-and-hashcode-using-the-jpa-entity-identifier/
+        return getClass().hashCode();
+    }
+
+    // prettier-ignore
+    @Override
+    public String toString() {
+        return "JobLock{" +
+            "name='" + getName() + "'" +
+            ", lockedBy='" + getLockedBy() + "'" +
+            ", lockedAt='" + getLockedAt() + "'" +
+            ", lockedUntil='" + getLockedUntil() + "'" +
+            "}";
+    }
+}
@@ -0,0 +1,147 @@
+package com.kaizenmobile.domain;
+
+import jakarta.persistence.*;
+import jakarta.validation.constraints.*;
+import java.io.Serializable;
+import java.time.Instant;
+import java.util.Objects;
+import org.springframework.data.domain.Persistable;
+
+/**
+ * A key pair used to sign and verify JWTs, identified by its {@code kid}.
+ */
+@Entity
+@Table(name = "jwt_signing_key")
+@SuppressWarnings("common-java:DuplicatedBlocks")
+public class JwtSigningKey implements Serializable, Persistable<String> {
+
+    private static final long serialVersionUID = 1L;
+
+    @NotNull
+    @Size(max = 64)
+    @Id
+    @Column(name = "kid", length = 64, nullable = false)
+    private String kid;
+
+    /**
+     * X.509 encoded public key, in base64.
+     */
+    @NotNull
+    @Size(max = 4096)
+    @Column(name = "public_key", length = 4096, nullable = false)
+    private String publicKey;
+
+    /**
+     * PKCS#8 encoded private key, encrypted with a key derived from the JWT secret, in base64.
+     */
+    @NotNull
+    @Size(max = 4096)
+    @Column(name = "private_key", length = 4096, nullable = false)
+    private String privateKey;
+
+    @NotNull
+    @Column(name = "created_date", nullable = false)
+    private Instant createdDate;
+
+    @Transient
+    private boolean isPersisted;
+
+    public String getKid() {
+        return this.kid;
+    }
+
+    public JwtSigningKey kid(String kid) {
+        this.setKid(kid);
+        return this;
+    }
+
+    public void setKid(String kid) {
+        this.kid = kid;
+    }
+
+    public String getPublicKey() {
+        return this.publicKey;
+    }
+
+    public JwtSigningKey publicKey(String publicKey) {
+        this.setPublicKey(publicKey);
+        return this;
+    }
+
+    public void setPublicKey(String publicKey) {
+        this.publicKey = publicKey;
+    }
+
+    public String getPrivateKey() {
+        return this.privateKey;
+    }
+
+    public JwtSigningKey privateKey(String privateKey) {
+        this.setPrivateKey(privateKey);
+        return this;
+    }
+
+    public void setPrivateKey(String privateKey) {
+        this.privateKey = privateKey;
+    }
+
+    public Instant getCreatedDate() {
+        return this.createdDate;
+    }
+
+    public JwtSigningKey createdDate(Instant createdDate) {
+        this.setCreatedDate(createdDate);
+        return this;
+    }
+
+    public void setCreatedDate(Instant createdDate) {
+        this.createdDate = createdDate;
+    }
+
+    @PostLoad
+    @PostPersist
+    public void updateEntityState() {
+        this.setIsPersisted();
+    }
+
+    @Override
+    public String getId() {
+        return this.kid;
+    }
+
+    @Transient
+    @Override
+    public boolean isNew() {
+        return !this.isPersisted;
+    }
+
+    public JwtSigningKey setIsPersisted() {
+        this.isPersisted = true;
+        return this;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof JwtSigningKey)) {
+            return false;
+        }
+        return getKid() != null && getKid().equals(((JwtSigningKey) o).getKid());
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hashCode(getKid());
+    }
+
+    // prettier-ignore
+    @Override
+    public String toString() {
+        return "JwtSigningKey{" +
+            "kid=" + getKid() +
+            ", createdDate='" + getCreatedDate() + "'" +
+            "}";
+    }
+}
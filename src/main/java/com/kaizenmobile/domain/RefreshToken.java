@@ -0,0 +1,165 @@
+package com.kaizenmobile.domain;
+
+import jakarta.persistence.*;
+import jakarta.validation.constraints.*;
+import java.io.Serializable;
+import java.time.Instant;
+import java.util.Objects;
+import org.springframework.data.domain.Persistable;
+
+/**
+ * An opaque refresh token, stored as the digest of its value.
+ * <p>
+ * Every refresh replaces the token with a new one of the same session, the session id being carried by the access
+ * tokens issued from it so they can be revoked together.
+ */
+@Entity
+@Table(name = "refresh_token")
+@SuppressWarnings("common-java:DuplicatedBlocks")
+public class RefreshToken implements Serializable, Persistable<String> {
+
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * SHA-256 digest of the token, in base64url.
+     */
+    @NotNull
+    @Size(max = 64)
+    @Id
+    @Column(name = "token_hash", length = 64, nullable = false)
+    private String tokenHash;
+
+    @NotNull
+    @Size(max = 36)
+    @Column(name = "session_id", length = 36, nullable = false)
+    private String sessionId;
+
+    @NotNull
+    @ManyToOne(fetch = FetchType.LAZY, optional = false)
+    @JoinColumn(name = "user_id", nullable = false)
+    private User user;
+
+    @NotNull
+    @Column(name = "expires_at", nullable = false)
+    private Instant expiresAt;
+
+    @NotNull
+    @Column(name = "created_date", nullable = false)
+    private Instant createdDate;
+
+    @Transient
+    private boolean isPersisted;
+
+    public String getTokenHash() {
+        return this.tokenHash;
+    }
+
+    public RefreshToken tokenHash(String tokenHash) {
+        this.setTokenHash(tokenHash);
+        return this;
+    }
+
+    public void setTokenHash(String tokenHash) {
+        this.tokenHash = tokenHash;
+    }
+
+    public String getSessionId() {
+        return this.sessionId;
+    }
+
+    public RefreshToken sessionId(String sessionId) {
+        this.setSessionId(sessionId);
+        return this;
+    }
+
+    public void setSessionId(String sessionId) {
+        this.sessionId = sessionId;
+    }
+
+    public User getUser() {
+        return this.user;
+    }
+
+    public RefreshToken user(User user) {
+        this.setUser(user);
+        return this;
+    }
+
+    public void setUser(User user) {
+        this.user = user;
+    }
+
+    public Instant getExpiresAt() {
+        return this.expiresAt;
+    }
+
+    public RefreshToken expiresAt(Instant expiresAt) {
+        this.setExpiresAt(expiresAt);
+        return this;
+    }
+
+    public void setExpiresAt(Instant expiresAt) {
+        this.expiresAt = expiresAt;
+    }
+
+    public Instant getCreatedDate() {
+        return this.createdDate;
+    }
+
+    public RefreshToken createdDate(Instant createdDate) {
+        this.setCreatedDate(createdDate);
+        return this;
+    }
+
+    public void setCreatedDate(Instant createdDate) {
+        this.createdDate = createdDate;
+    }
+
+    @PostLoad
+    @PostPersist
+    public void updateEntityState() {
+        this.setIsPersisted();
+    }
+
+    @Override
+    public String getId() {
+        return this.tokenHash;
+    }
+
+    @Transient
+    @Override
+    public boolean isNew() {
+        return !this.isPersisted;
+    }
+
+    public RefreshToken setIsPersisted() {
+        this.isPersisted = true;
+        return this;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof RefreshToken)) {
+            return false;
+        }
+        return getTokenHash() != null && getTokenHash().equals(((RefreshToken) o).getTokenHash());
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hashCode(getTokenHash());
+    }
+
+    // prettier-ignore
+    @Override
+    public String toString() {
+        return "RefreshToken{" +
+            "sessionId=" + getSessionId() +
+            ", expiresAt='" + getExpiresAt() + "'" +
+            ", createdDate='" + getCreatedDate() + "'" +
+            "}";
+    }
+}
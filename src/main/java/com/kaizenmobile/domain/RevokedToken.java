@@ -0,0 +1,105 @@
+package com.kaizenmobile.domain;
+
+import jakarta.persistence.*;
+import jakarta.validation.constraints.*;
+import java.io.Serializable;
+import java.time.Instant;
+import java.util.Objects;
+import org.springframework.data.domain.Persistable;
+
+/**
+ * The id ({@code jti}) or session id ({@code sid}) of revoked access tokens, kept until the last of them expires.
+ */
+@Entity
+@Table(name = "revoked_token")
+@SuppressWarnings("common-java:DuplicatedBlocks")
+public class RevokedToken implements Serializable, Persistable<String> {
+
+    private static final long serialVersionUID = 1L;
+
+    @NotNull
+    @Size(max = 64)
+    @Id
+    @Column(name = "token_id", length = 64, nullable = false)
+    private String tokenId;
+
+    @NotNull
+    @Column(name = "revoked_until", nullable = false)
+    private Instant revokedUntil;
+
+    @Transient
+    private boolean isPersisted;
+
+    public String getTokenId() {
+        return this.tokenId;
+    }
+
+    public RevokedToken tokenId(String tokenId) {
+        this.setTokenId(tokenId);
+        return this;
+    }
+
+    public void setTokenId(String tokenId) {
+        this.tokenId = tokenId;
+    }
+
+    public Instant getRevokedUntil() {
+        return this.revokedUntil;
+    }
+
+    public RevokedToken revokedUntil(Instant revokedUntil) {
+        this.setRevokedUntil(revokedUntil);
+        return this;
+    }
+
+    public void setRevokedUntil(Instant revokedUntil) {
+        this.revokedUntil = revokedUntil;
+    }
+
+    @PostLoad
+    @PostPersist
+    public void updateEntityState() {
+        this.setIsPersisted();
+    }
+
+    @Override
+    public String getId() {
+        return this.tokenId;
+    }
+
+    @Transient
+    @Override
+    public boolean isNew() {
+        return !this.isPersisted;
+    }
+
+    public RevokedToken setIsPersisted() {
+        this.isPersisted = true;
+        return this;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof RevokedToken)) {
+            return false;
+        }
+        return getTokenId() != null && getTokenId().equals(((RevokedToken) o).getTokenId());
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hashCode(getTokenId());
+    }
+
+    // prettier-ignore
+    @Override
+    public String toString() {
+        return "RevokedToken{" +
+            "tokenId=" + getTokenId() +
+            ", revokedUntil='" + getRevokedUntil() + "'" +
+            "}";
+    }
+}
@@ -1,8 +1,14 @@
 package com.kaizenmobile.repository;
 
 import com.kaizenmobile.domain.AppStats;
+import jakarta.persistence.QueryHint;
+import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.*;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 /**
@@ -11,5 +17,18 @@ import org.springframework.stereotype.Repository;
 @SuppressWarnings("unused")
 @Repository
 public interface AppStatsRepository extends JpaRepository<AppStats, Long>, JpaSpecificationExecutor<AppStats> {
-    Optional<AppStats> findOneByUsedTenantIdIgnoreCase(String company);
+    boolean existsByUsedTenantIdIgnoreCase(String company);
+
+    @Query(
+        "select new com.kaizenmobile.repository.AppStatsTenantId(appStats.id, appStats.usedTenantId) from AppStats appStats " +
+        "where appStats.usedTenantId is not null"
+    )
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    Stream<AppStatsTenantId> streamAllTenantIds();
+
+    @Query("select appStats.id from AppStats appStats order by appStats.id")
+    List<Long> findIds(Pageable pageable);
+
+    @Query("select appStats.version from AppStats appStats where appStats.id = :id")
+    Optional<Integer> findVersionById(@Param("id") Long id);
 }
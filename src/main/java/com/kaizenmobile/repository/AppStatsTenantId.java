@@ -0,0 +1,9 @@
+package com.kaizenmobile.repository;
+
+/**
+ * The tenant id of an {@link com.kaizenmobile.domain.AppStats}, as read by {@link AppStatsRepository#streamAllTenantIds}.
+ *
+ * @param id the id of the entity.
+ * @param usedTenantId the tenant id, never null.
+ */
+public record AppStatsTenantId(Long id, String usedTenantId) {}
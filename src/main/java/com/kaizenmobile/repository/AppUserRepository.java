@@ -37,4 +37,7 @@ public interface AppUserRepository extends JpaRepository<AppUser, Long>, JpaSpec
 
     @Query("select appUser from AppUser appUser left join fetch appUser.internalUser where appUser.id =:id")
     Optional<AppUser> findOneWithToOneRelationships(@Param("id") Long id);
+
+    @Query("select appUser.version from AppUser appUser where appUser.id = :id")
+    Optional<Integer> findVersionById(@Param("id") Long id);
 }
@@ -0,0 +1,21 @@
+package com.kaizenmobile.repository;
+
+import java.time.Instant;
+
+/**
+ * The version of a collection of entities: their count, their last id and a value changing with each modification of
+ * one of them (the sum of their versions weighted by their ids, or their last modification date), read with a single
+ * aggregate query.
+ * <p>
+ * Any entity added, removed or modified changes it, which is what tells a client its copy of the collection is stale.
+ *
+ * @param count the number of entities.
+ * @param lastId the greatest id, 0 without entities.
+ * @param modification the weighted sum of the versions, or the last modification date in epoch milliseconds, 0 without
+ *                     entities.
+ */
+public record CollectionVersion(long count, long lastId, long modification) {
+    public CollectionVersion(Long count, Long lastId, Instant lastModifiedDate) {
+        this(count.longValue(), lastId == null ? 0 : lastId, lastModifiedDate == null ? 0 : lastModifiedDate.toEpochMilli());
+    }
+}
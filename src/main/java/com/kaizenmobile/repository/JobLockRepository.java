@@ -0,0 +1,39 @@
+package com.kaizenmobile.repository;
+
+import com.kaizenmobile.domain.JobLock;
+import jakarta.persistence.LockModeType;
+import java.time.Instant;
+import java.util.Optional;
+import org.springframework.data.jpa.repository.*;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Spring Data JPA repository for the {@link JobLock} entity.
+ */
+@Repository
+public interface JobLockRepository extends JpaRepository<JobLock, String> {
+    /**
+     * Take, or extend, a lock which is expired or already held by the owner.
+     *
+     * @return 1 if the lock was taken, 0 if another owner holds it, or if it doesn't exist yet.
+     */
+    @Modifying
+    @Query(
+        "update JobLock jobLock set jobLock.lockedBy = :owner, jobLock.lockedAt = :now, jobLock.lockedUntil = :until " +
+        "where jobLock.name = :name and (jobLock.lockedUntil <= :now or jobLock.lockedBy = :owner)"
+    )
+    int lock(@Param("name") String name, @Param("owner") String owner, @Param("now") Instant now, @Param("until") Instant until);
+
+    @Modifying
+    @Query("update JobLock jobLock set jobLock.lockedUntil = :now where jobLock.name = :name and jobLock.lockedBy = :owner")
+    int unlock(@Param("name") String name, @Param("owner") String owner, @Param("now") Instant now);
+
+    /**
+     * Lock the row of a lock until the end of the current transaction, so the other instances locking it meanwhile
+     * wait for this transaction to end.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select jobLock from JobLock jobLock where jobLock.name = :name")
+    Optional<JobLock> findOneForUpdate(@Param("name") String name);
+}
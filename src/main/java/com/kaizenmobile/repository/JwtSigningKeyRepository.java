@@ -0,0 +1,11 @@
+package com.kaizenmobile.repository;
+
+import com.kaizenmobile.domain.JwtSigningKey;
+import org.springframework.data.jpa.repository.*;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Spring Data JPA repository for the {@link JwtSigningKey} entity.
+ */
+@Repository
+public interface JwtSigningKeyRepository extends JpaRepository<JwtSigningKey, String> {}
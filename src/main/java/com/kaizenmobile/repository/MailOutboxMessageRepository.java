@@ -0,0 +1,20 @@
+package com.kaizenmobile.repository;
+
+import com.kaizenmobile.domain.MailOutboxMessage;
+import java.time.Instant;
+import java.util.List;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.*;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Spring Data JPA repository for the {@link MailOutboxMessage} entity.
+ */
+@Repository
+public interface MailOutboxMessageRepository extends JpaRepository<MailOutboxMessage, Long> {
+    @Query("select message from MailOutboxMessage message where message.nextAttemptAt <= :now order by message.nextAttemptAt, message.id")
+    List<MailOutboxMessage> findDue(@Param("now") Instant now, Pageable pageable);
+
+    long countByNextAttemptAtIsNotNull();
+}
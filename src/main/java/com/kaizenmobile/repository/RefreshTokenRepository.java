@@ -0,0 +1,30 @@
+package com.kaizenmobile.repository;
+
+import com.kaizenmobile.domain.RefreshToken;
+import com.kaizenmobile.domain.User;
+import java.time.Instant;
+import java.util.List;
+import org.springframework.data.jpa.repository.*;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Spring Data JPA repository for the {@link RefreshToken} entity.
+ */
+@Repository
+public interface RefreshTokenRepository extends JpaRepository<RefreshToken, String> {
+    @Query("select distinct refreshToken.sessionId from RefreshToken refreshToken where refreshToken.user = :user")
+    List<String> findSessionIdsByUser(@Param("user") User user);
+
+    @Modifying
+    @Query("delete from RefreshToken refreshToken where refreshToken.tokenHash = :tokenHash")
+    int deleteByTokenHash(@Param("tokenHash") String tokenHash);
+
+    @Modifying
+    @Query("delete from RefreshToken refreshToken where refreshToken.user = :user")
+    int deleteByUser(@Param("user") User user);
+
+    @Modifying
+    @Query("delete from RefreshToken refreshToken where refreshToken.expiresAt < :now")
+    int deleteExpired(@Param("now") Instant now);
+}
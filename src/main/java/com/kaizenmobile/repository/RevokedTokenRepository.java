@@ -0,0 +1,22 @@
+package com.kaizenmobile.repository;
+
+import com.kaizenmobile.domain.RevokedToken;
+import java.time.Instant;
+import java.util.List;
+import org.springframework.data.jpa.repository.*;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Spring Data JPA repository for the {@link RevokedToken} entity.
+ */
+@Repository
+public interface RevokedTokenRepository extends JpaRepository<RevokedToken, String> {
+    List<RevokedToken> findAllByRevokedUntilAfter(Instant now);
+
+    @Transactional
+    @Modifying
+    @Query("delete from RevokedToken revokedToken where revokedToken.revokedUntil < :now")
+    int deleteExpired(@Param("now") Instant now);
+}
@@ -0,0 +1,10 @@
+package com.kaizenmobile.repository;
+
+/**
+ * The keys of the cached lookups of a user, as read by {@link UserRepository#findNotActivatedCacheKeys}.
+ *
+ * @param id the id of the user.
+ * @param login the login of the user.
+ * @param email the email of the user, null without email.
+ */
+public record UserCacheKeys(Long id, String login, String email) {}
@@ -0,0 +1,27 @@
+package com.kaizenmobile.repository;
+
+/**
+ * A user with one of its authorities and its tenant, as read by {@link UserRepository#streamAllForExport()}: a user
+ * without authority has one row, with a null authority, a user with several authorities one row per authority.
+ *
+ * @param id the id of the user.
+ * @param login the login of the user.
+ * @param email the email of the user.
+ * @param firstName the first name of the user.
+ * @param lastName the last name of the user.
+ * @param langKey the language of the user.
+ * @param activated whether the user is activated.
+ * @param tenantId the tenant of the user, null without {@code AppUser}.
+ * @param authority the name of one of the authorities of the user, null without authority.
+ */
+public record UserExportRow(
+    Long id,
+    String login,
+    String email,
+    String firstName,
+    String lastName,
+    String langKey,
+    boolean activated,
+    String tenantId,
+    String authority
+) {}
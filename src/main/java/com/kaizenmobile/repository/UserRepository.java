@@ -1,20 +1,29 @@
 package com.kaizenmobile.repository;
 
 import com.kaizenmobile.domain.User;
+import jakarta.persistence.QueryHint;
 import java.time.Instant;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.cache.annotation.Cacheable;
 import org.springframework.data.domain.*;
 import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 /**
  * Spring Data JPA repository for the {@link User} entity.
  */
 @Repository
-public interface UserRepository extends JpaRepository<User, Long> {
+public interface UserRepository extends JpaRepository<User, Long>, JpaSpecificationExecutor<User> {
     String USERS_BY_LOGIN_CACHE = "usersByLogin";
 
     String USERS_BY_EMAIL_CACHE = "usersByEmail";
@@ -25,12 +34,108 @@ public interface UserRepository extends JpaRepository<User, Long> {
     Optional<User> findOneByLogin(String login);
 
     @EntityGraph(attributePaths = "authorities")
-    @Cacheable(cacheNames = USERS_BY_LOGIN_CACHE)
+    @Cacheable(cacheNames = USERS_BY_LOGIN_CACHE, sync = true)
     Optional<User> findOneWithAuthoritiesByLogin(String login);
 
     @EntityGraph(attributePaths = "authorities")
-    @Cacheable(cacheNames = USERS_BY_EMAIL_CACHE)
+    @Cacheable(cacheNames = USERS_BY_EMAIL_CACHE, sync = true)
     Optional<User> findOneWithAuthoritiesByEmailIgnoreCase(String email);
 
     Page<User> findAllByIdNotNullAndActivatedIsTrue(Pageable pageable);
+
+    /**
+     * The last modification date of the user, its creation date if it was never modified (as the users loaded by Liquibase).
+     */
+    @Query("select coalesce(user.lastModifiedDate, user.createdDate) from User user where user.login = :login")
+    Optional<Instant> findLastModifiedDateByLogin(@Param("login") String login);
+
+    @Query(
+        "select new com.kaizenmobile.repository.CollectionVersion(count(user), max(user.id), " +
+        "max(coalesce(user.lastModifiedDate, user.createdDate))) from User user"
+    )
+    CollectionVersion findCollectionVersion();
+
+    @Query(
+        "select new com.kaizenmobile.repository.CollectionVersion(count(user), max(user.id), " +
+        "max(coalesce(user.lastModifiedDate, user.createdDate))) from User user where user.activated = true"
+    )
+    CollectionVersion findActivatedCollectionVersion();
+
+    /**
+     * Ids of the activated users, the ones who last got a refresh token first, then the last modified ones.
+     */
+    @Query(
+        "select user.id from User user left join RefreshToken refreshToken on refreshToken.user = user where user.activated = true " +
+        "group by user.id, user.lastModifiedDate order by max(refreshToken.createdDate) desc nulls last, user.lastModifiedDate desc"
+    )
+    List<Long> findMostRecentlyActiveIds(Pageable pageable);
+
+    @EntityGraph(attributePaths = "authorities")
+    List<User> findAllWithAuthoritiesByIdIn(Collection<Long> ids);
+
+    @Query("select user.login from User user where user.id in :ids and user.lastModifiedDate >= :since")
+    List<String> findLoginsByIdInModifiedSince(@Param("ids") Collection<Long> ids, @Param("since") Instant since);
+
+    @Query("select user.login from User user")
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    Stream<String> streamAllLogins();
+
+    @Query("select user.email from User user where user.email is not null")
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    Stream<String> streamAllEmails();
+
+    @Query("select user.login from User user where user.login in :logins")
+    List<String> findAllLoginsByLoginIn(@Param("logins") Collection<String> logins);
+
+    /**
+     * The emails already used among lower-cased emails, as the emails are stored.
+     */
+    @Query("select user.email from User user where user.email in :emails")
+    List<String> findAllEmailsByEmailIn(@Param("emails") Collection<String> emails);
+
+    /**
+     * The users with their authorities and tenant, in id order, one row per authority.
+     */
+    @Query(
+        "select new com.kaizenmobile.repository.UserExportRow(user.id, user.login, user.email, user.firstName, user.lastName, " +
+        "user.langKey, user.activated, appUser.tenantId, authority.name) from User user left join user.authorities authority " +
+        "left join AppUser appUser on appUser.id = user.id order by user.id"
+    )
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    Stream<UserExportRow> streamAllForExport();
+
+    /**
+     * The users not activated, with an activation key, created before a date, in id order from an id on.
+     */
+    @Query(
+        "select new com.kaizenmobile.repository.UserCacheKeys(user.id, user.login, user.email) from User user " +
+        "where user.activated = false and user.activationKey is not null and user.createdDate < :createdBefore " +
+        "and user.id > :afterId order by user.id"
+    )
+    List<UserCacheKeys> findNotActivatedCacheKeys(
+        @Param("createdBefore") Instant createdBefore,
+        @Param("afterId") long afterId,
+        Pageable pageable
+    );
+
+    /**
+     * Delete the authorities of users still not activated, only invalidating the second-level cache of the authorities of
+     * the users.
+     */
+    @Modifying
+    @Query(
+        value = "delete from jhi_user_authority where user_id in (:ids) " +
+        "and user_id in (select id from jhi_user where activated = false)",
+        nativeQuery = true
+    )
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "jhi_user_authority"))
+    int deleteNotActivatedAuthoritiesByUserIdIn(@Param("ids") Collection<Long> ids);
+
+    /**
+     * Delete users still not activated, with their tenant and refresh tokens, deleted by the database, once their
+     * authorities are deleted.
+     */
+    @Modifying
+    @Query("delete from User user where user.id in :ids and user.activated = false")
+    int deleteNotActivatedByIdIn(@Param("ids") Collection<Long> ids);
 }
@@ -0,0 +1,230 @@
+package com.kaizenmobile.security;
+
+import com.kaizenmobile.domain.Authority;
+import com.kaizenmobile.repository.AuthorityRepository;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Shared {@link GrantedAuthority} instances, canonical authority sets and the stored {@link Authority} entities.
+ * <p>
+ * The authorities stored in the database are interned once the application is ready, names showing up later are
+ * interned on first use. Each distinct combination of names is canonicalised (deduplicated and sorted) once, along with
+ * the space-separated claim put in the JWT, so neither is rebuilt on every login.
+ * <p>
+ * The stored authorities are kept as an immutable snapshot, reloaded when an authority is created or deleted, here or
+ * on another node through the cache invalidation bus when it is enabled, or when a name is missing from it, at most once
+ * every {@link #UNKNOWN_NAME_RELOAD_INTERVAL}: the authorities of a user are resolved without a query per name.
+ */
+@Component
+public class AuthorityRegistry {
+
+    private static final Logger log = LoggerFactory.getLogger(AuthorityRegistry.class);
+
+    private static final int MAX_AUTHORITIES = 1_024;
+
+    private static final int MAX_AUTHORITY_SETS = 4_096;
+
+    static final Duration UNKNOWN_NAME_RELOAD_INTERVAL = Duration.ofSeconds(10);
+
+    private final AuthorityRepository authorityRepository;
+
+    private final Map<String, GrantedAuthority> authorities = new ConcurrentHashMap<>();
+
+    private final Map<List<String>, AuthoritySet> authoritySets = new ConcurrentHashMap<>();
+
+    private final Clock clock;
+
+    private volatile Map<String, Authority> storedAuthorities;
+
+    private volatile Instant lastReload = Instant.MIN;
+
+    @Autowired
+    public AuthorityRegistry(AuthorityRepository authorityRepository) {
+        this(authorityRepository, Clock.systemUTC());
+    }
+
+    AuthorityRegistry(AuthorityRepository authorityRepository, Clock clock) {
+        this.authorityRepository = authorityRepository;
+        this.clock = clock;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        try {
+            reload();
+            log.debug("Interned {} authorities", authorities.size());
+        } catch (DataAccessException e) {
+            log.warn("Could not load the authorities, they will be interned on first use: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Reload the stored authorities, after one was created or deleted: once the surrounding transaction commits, if any.
+     */
+    public void refresh() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(
+                new TransactionSynchronization() {
+                    @Override
+                    public void afterCommit() {
+                        reload();
+                    }
+                }
+            );
+        } else {
+            reload();
+        }
+    }
+
+    private synchronized Map<String, Authority> reload() {
+        Instant now = clock.instant();
+        // Copies owned by the registry, which belong to no persistence context
+        Map<String, Authority> loaded = authorityRepository
+            .findAll()
+            .stream()
+            .map(authority -> new Authority().name(authority.getName()).setIsPersisted())
+            .collect(Collectors.toUnmodifiableMap(Authority::getName, Function.identity()));
+        loaded.keySet().forEach(this::authority);
+        storedAuthorities = loaded;
+        lastReload = now;
+        return loaded;
+    }
+
+    private Map<String, Authority> storedAuthorities() {
+        Map<String, Authority> loaded = storedAuthorities;
+        return loaded == null ? reload() : loaded;
+    }
+
+    /**
+     * @return the names of the stored authorities, sorted.
+     */
+    public List<String> names() {
+        return storedAuthorities().keySet().stream().sorted().toList();
+    }
+
+    /**
+     * @param names the authority names.
+     * @return the shared stored authorities of these names, in a new set the caller may change.
+     * @throws UnknownAuthorityException if a name isn't a stored authority.
+     */
+    public Set<Authority> resolve(Collection<String> names) {
+        Map<String, Authority> stored = storedAuthorities();
+        if (!names.stream().allMatch(name -> name != null && stored.containsKey(name)) && isReloadAllowed()) {
+            // Possibly created since the last load, by another instance
+            synchronized (this) {
+                if (isReloadAllowed()) {
+                    log.debug("Reloading the stored authorities to resolve {}", names);
+                    reload();
+                }
+            }
+            return resolve(storedAuthorities, names);
+        }
+        return resolve(stored, names);
+    }
+
+    private boolean isReloadAllowed() {
+        return !lastReload.plus(UNKNOWN_NAME_RELOAD_INTERVAL).isAfter(clock.instant());
+    }
+
+    private static Set<Authority> resolve(Map<String, Authority> stored, Collection<String> names) {
+        Set<Authority> resolved = new HashSet<>();
+        Set<String> unknown = new TreeSet<>(Comparator.nullsFirst(Comparator.naturalOrder()));
+        for (String name : names) {
+            Authority authority = name == null ? null : stored.get(name);
+            if (authority == null) {
+                unknown.add(name);
+            } else {
+                resolved.add(authority);
+            }
+        }
+        if (!unknown.isEmpty()) {
+            throw new UnknownAuthorityException(unknown);
+        }
+        return resolved;
+    }
+
+    /**
+     * @param name the authority name.
+     * @return the shared {@link GrantedAuthority} for this name.
+     */
+    public GrantedAuthority authority(String name) {
+        GrantedAuthority authority = authorities.get(name);
+        if (authority != null) {
+            return authority;
+        }
+        if (authorities.size() >= MAX_AUTHORITIES) {
+            return new SimpleGrantedAuthority(name);
+        }
+        return authorities.computeIfAbsent(name, SimpleGrantedAuthority::new);
+    }
+
+    /**
+     * @param names the authority names, in any order and possibly repeated.
+     * @return the canonical set of these authorities.
+     */
+    public AuthoritySet authoritySet(Collection<String> names) {
+        List<String> key = names instanceof List<String> list ? list : new ArrayList<>(names);
+        AuthoritySet authoritySet = authoritySets.get(key);
+        if (authoritySet != null) {
+            return authoritySet;
+        }
+        List<String> canonicalNames = key.stream().distinct().sorted().toList();
+        authoritySet = authoritySets.get(canonicalNames);
+        if (authoritySet == null) {
+            authoritySet = new AuthoritySet(canonicalNames.stream().map(this::authority).toList(), String.join(" ", canonicalNames));
+        }
+        if (authoritySets.size() < MAX_AUTHORITY_SETS) {
+            AuthoritySet existing = authoritySets.putIfAbsent(canonicalNames, authoritySet);
+            if (existing != null) {
+                authoritySet = existing;
+            }
+            // Also remember the order it was asked in, the next lookup in that order then skips the sort
+            authoritySets.putIfAbsent(List.copyOf(key), authoritySet);
+        }
+        return authoritySet;
+    }
+
+    /**
+     * @param grantedAuthorities the authorities, in any order and possibly repeated.
+     * @return the canonical set of these authorities.
+     */
+    public AuthoritySet authoritySetOf(Collection<? extends GrantedAuthority> grantedAuthorities) {
+        List<String> names = new ArrayList<>(grantedAuthorities.size());
+        for (GrantedAuthority grantedAuthority : grantedAuthorities) {
+            names.add(grantedAuthority.getAuthority());
+        }
+        return authoritySet(names);
+    }
+
+    /**
+     * An immutable, sorted set of shared authorities.
+     *
+     * @param authorities the authorities, sorted by name.
+     * @param claim the authority names joined by spaces, as put in the JWT.
+     */
+    public record AuthoritySet(List<GrantedAuthority> authorities, String claim) {}
+}
@@ -0,0 +1,109 @@
+package com.kaizenmobile.security;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.time.Duration;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+/**
+ * BCrypt work factor used for new password hashes, either configured or tuned to the host at startup.
+ * <p>
+ * Tuning hashes a probe password at the minimum strength and then picks the highest strength whose estimated latency
+ * (each extra round doubles it) stays within the target, so hashes cost about the same wall time on every node.
+ */
+public final class BCryptWorkFactor {
+
+    private static final Logger log = LoggerFactory.getLogger(BCryptWorkFactor.class);
+
+    public static final String STRENGTH_METER_NAME = "security.password.strength";
+    public static final String ESTIMATED_LATENCY_METER_NAME = "security.password.estimated-latency";
+
+    private static final int PROBE_RUNS = 3;
+
+    private final int strength;
+
+    private final Duration estimatedLatency;
+
+    private final boolean tuned;
+
+    private BCryptWorkFactor(int strength, Duration estimatedLatency, boolean tuned) {
+        this.strength = strength;
+        this.estimatedLatency = estimatedLatency;
+        this.tuned = tuned;
+    }
+
+    /**
+     * Use a fixed work factor.
+     *
+     * @param strength the BCrypt log rounds.
+     * @return the work factor.
+     */
+    public static BCryptWorkFactor fixed(int strength) {
+        return new BCryptWorkFactor(strength, Duration.ZERO, false);
+    }
+
+    /**
+     * Benchmark this host and pick the highest work factor meeting the target latency.
+     *
+     * @param targetLatency the wall time a single hash should take.
+     * @param minStrength the lowest BCrypt log rounds to use, even if hashing is slower than the target.
+     * @param maxStrength the highest BCrypt log rounds to use.
+     * @return the work factor.
+     */
+    public static BCryptWorkFactor tune(Duration targetLatency, int minStrength, int maxStrength) {
+        BCryptPasswordEncoder probe = new BCryptPasswordEncoder(minStrength);
+        long fastest = Long.MAX_VALUE;
+        // The first run also warms up the JIT, keeping the fastest run filters it out along with scheduling noise
+        for (int i = 0; i < PROBE_RUNS; i++) {
+            long start = System.nanoTime();
+            probe.encode("work-factor-probe");
+            fastest = Math.min(fastest, System.nanoTime() - start);
+        }
+        int strength = minStrength;
+        long latency = fastest;
+        while (strength < maxStrength && latency * 2 <= targetLatency.toNanos()) {
+            strength++;
+            latency *= 2;
+        }
+        BCryptWorkFactor workFactor = new BCryptWorkFactor(strength, Duration.ofNanos(latency), true);
+        log.info(
+            "Using BCrypt strength {} for password hashes, estimated at {} ms each (target {} ms)",
+            strength,
+            workFactor.estimatedLatency.toMillis(),
+            targetLatency.toMillis()
+        );
+        return workFactor;
+    }
+
+    public int getStrength() {
+        return strength;
+    }
+
+    /**
+     * @return the estimated latency of one hash at {@link #getStrength()}, {@link Duration#ZERO} if it wasn't tuned.
+     */
+    public Duration getEstimatedLatency() {
+        return estimatedLatency;
+    }
+
+    public boolean isTuned() {
+        return tuned;
+    }
+
+    public BCryptPasswordEncoder passwordEncoder() {
+        return new BCryptPasswordEncoder(strength);
+    }
+
+    public void registerMeters(MeterRegistry meterRegistry) {
+        Gauge.builder(STRENGTH_METER_NAME, this, BCryptWorkFactor::getStrength)
+            .description("BCrypt log rounds used for new password hashes")
+            .tag("tuned", String.valueOf(tuned))
+            .register(meterRegistry);
+        Gauge.builder(ESTIMATED_LATENCY_METER_NAME, this, workFactor -> workFactor.estimatedLatency.toNanos() / 1_000_000.0)
+            .description("Estimated latency of one password hash at the selected strength")
+            .baseUnit("milliseconds")
+            .register(meterRegistry);
+    }
+}
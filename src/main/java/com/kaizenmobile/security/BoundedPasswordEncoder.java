@@ -0,0 +1,135 @@
+package com.kaizenmobile.security;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.time.Duration;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+/**
+ * {@link PasswordEncoder} running the hashes of a delegate encoder on a dedicated, bounded pool.
+ * <p>
+ * Hashing is CPU bound, so running it inline lets a login spike take every request thread. Here at most
+ * {@code poolSize} hashes run at once and at most {@code queueCapacity} wait for a thread; any further request, or one
+ * that waited longer than {@code maxWait}, fails fast with a {@link PasswordHashingSaturatedException}.
+ */
+public class BoundedPasswordEncoder implements PasswordEncoder {
+
+    public static final String HASH_METER_NAME = "security.password.hash";
+    public static final String QUEUE_WAIT_METER_NAME = "security.password.queue-wait";
+    public static final String REJECTED_METER_NAME = "security.password.rejected";
+    public static final String QUEUE_SIZE_METER_NAME = "security.password.queue-size";
+
+    private final PasswordEncoder delegate;
+
+    private final ThreadPoolExecutor executor;
+
+    private final Duration maxWait;
+
+    private final long retryAfterSeconds;
+
+    private final Timer encodeTimer;
+    private final Timer matchesTimer;
+    private final Timer queueWaitTimer;
+    private final Counter rejectedCounter;
+
+    public BoundedPasswordEncoder(
+        PasswordEncoder delegate,
+        int poolSize,
+        int queueCapacity,
+        Duration maxWait,
+        long retryAfterSeconds,
+        MeterRegistry meterRegistry
+    ) {
+        this.delegate = delegate;
+        this.maxWait = maxWait;
+        this.retryAfterSeconds = retryAfterSeconds;
+        this.executor = new ThreadPoolExecutor(
+            poolSize,
+            poolSize,
+            0L,
+            TimeUnit.MILLISECONDS,
+            queueCapacity > 0 ? new ArrayBlockingQueue<>(queueCapacity) : new SynchronousQueue<>(),
+            new CustomizableThreadFactory("kaizen-mobile-hashing-"),
+            new ThreadPoolExecutor.AbortPolicy()
+        );
+        this.encodeTimer = hashTimerForOperation("encode").register(meterRegistry);
+        this.matchesTimer = hashTimerForOperation("matches").register(meterRegistry);
+        this.queueWaitTimer = Timer.builder(QUEUE_WAIT_METER_NAME)
+            .description("Time spent by password hashes waiting for a hashing thread")
+            .register(meterRegistry);
+        this.rejectedCounter = Counter.builder(REJECTED_METER_NAME)
+            .description("Password hashes rejected because the hashing pool was saturated")
+            .register(meterRegistry);
+        Gauge.builder(QUEUE_SIZE_METER_NAME, executor, e -> e.getQueue().size())
+            .description("Password hashes waiting for a hashing thread")
+            .register(meterRegistry);
+    }
+
+    private Timer.Builder hashTimerForOperation(String operation) {
+        return Timer.builder(HASH_METER_NAME).description("Time spent hashing passwords").tag("operation", operation);
+    }
+
+    @Override
+    public String encode(CharSequence rawPassword) {
+        return submit(encodeTimer, () -> delegate.encode(rawPassword));
+    }
+
+    @Override
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+        return submit(matchesTimer, () -> delegate.matches(rawPassword, encodedPassword));
+    }
+
+    @Override
+    public boolean upgradeEncoding(String encodedPassword) {
+        return delegate.upgradeEncoding(encodedPassword);
+    }
+
+    private <T> T submit(Timer hashTimer, Callable<T> hash) {
+        long submittedAt = System.nanoTime();
+        Future<T> future;
+        try {
+            future = executor.submit(() -> {
+                queueWaitTimer.record(System.nanoTime() - submittedAt, TimeUnit.NANOSECONDS);
+                return hashTimer.recordCallable(hash);
+            });
+        } catch (RejectedExecutionException e) {
+            throw saturated("Password hashing queue is full");
+        }
+        try {
+            return future.get(maxWait.toNanos(), TimeUnit.NANOSECONDS);
+        } catch (TimeoutException e) {
+            future.cancel(true);
+            throw saturated("Password hashing took longer than " + maxWait);
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for a password hash", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new IllegalStateException("Password hashing failed", e.getCause());
+        }
+    }
+
+    private PasswordHashingSaturatedException saturated(String message) {
+        rejectedCounter.increment();
+        return new PasswordHashingSaturatedException(message, retryAfterSeconds);
+    }
+
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+}
@@ -0,0 +1,122 @@
+package com.kaizenmobile.security;
+
+import com.kaizenmobile.management.SecurityMetersService;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.jwt.JwtDecoder;
+import org.springframework.security.oauth2.jwt.JwtException;
+
+/**
+ * {@link JwtDecoder} remembering the tokens its delegate already verified.
+ * <p>
+ * Entries are keyed by the SHA-256 digest of the token, so the raw tokens are not kept in memory, and expire after
+ * {@code timeToLive} or at the token's {@code exp}, whichever comes first. Only successfully decoded tokens are cached,
+ * so every invalid token still goes through the delegate. Once {@code maximumSize} entries are held, expired entries
+ * are swept and, if that is not enough, arbitrary entries are dropped.
+ */
+public class CachingJwtDecoder implements JwtDecoder {
+
+    private static final ThreadLocal<MessageDigest> SHA_256 = ThreadLocal.withInitial(() -> {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    });
+
+    private final JwtDecoder delegate;
+
+    private final int maximumSize;
+
+    private final Duration timeToLive;
+
+    private final SecurityMetersService metersService;
+
+    private final Clock clock;
+
+    private final Map<String, CachedJwt> cache = new ConcurrentHashMap<>();
+
+    public CachingJwtDecoder(JwtDecoder delegate, int maximumSize, Duration timeToLive, SecurityMetersService metersService, Clock clock) {
+        this.delegate = delegate;
+        this.maximumSize = maximumSize;
+        this.timeToLive = timeToLive;
+        this.metersService = metersService;
+        this.clock = clock;
+    }
+
+    @Override
+    public Jwt decode(String token) throws JwtException {
+        String key = digest(token);
+        Instant now = clock.instant();
+        CachedJwt cached = cache.get(key);
+        if (cached != null) {
+            if (now.isBefore(cached.expiresAt())) {
+                metersService.trackTokenCacheHit();
+                return cached.jwt();
+            }
+            cache.remove(key, cached);
+        }
+        metersService.trackTokenCacheMiss();
+
+        long start = System.nanoTime();
+        Jwt jwt;
+        try {
+            jwt = delegate.decode(token);
+        } finally {
+            metersService.recordTokenVerification(System.nanoTime() - start);
+        }
+
+        Instant expiresAt = now.plus(timeToLive);
+        if (jwt.getExpiresAt() != null && jwt.getExpiresAt().isBefore(expiresAt)) {
+            expiresAt = jwt.getExpiresAt();
+        }
+        if (now.isBefore(expiresAt)) {
+            if (cache.size() >= maximumSize) {
+                makeRoom(now);
+            }
+            cache.put(key, new CachedJwt(jwt, expiresAt));
+        }
+        return jwt;
+    }
+
+    /**
+     * Forget every verified token, so the next request of each one is verified again.
+     */
+    public void evictAll() {
+        cache.clear();
+    }
+
+    public int size() {
+        return cache.size();
+    }
+
+    private synchronized void makeRoom(Instant now) {
+        if (cache.size() < maximumSize) {
+            return;
+        }
+        cache.values().removeIf(cached -> !now.isBefore(cached.expiresAt()));
+        // Still full of live tokens: drop a tenth of the entries rather than sweeping again on the next miss
+        Iterator<CachedJwt> iterator = cache.values().iterator();
+        int target = maximumSize - Math.max(1, maximumSize / 10);
+        while (cache.size() > target && iterator.hasNext()) {
+            iterator.next();
+            iterator.remove();
+        }
+    }
+
+    private static String digest(String token) {
+        MessageDigest sha256 = SHA_256.get();
+        return Base64.getEncoder().encodeToString(sha256.digest(token.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    private record CachedJwt(Jwt jwt, Instant expiresAt) {}
+}
@@ -3,12 +3,16 @@ package com.kaizenmobile.security;
 import com.kaizenmobile.domain.Authority;
 import com.kaizenmobile.domain.User;
 import com.kaizenmobile.repository.UserRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
 import java.util.*;
 import org.hibernate.validator.internal.constraintvalidators.hv.EmailValidator;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
 import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Component;
@@ -16,16 +20,37 @@ import org.springframework.transaction.annotation.Transactional;
 
 /**
  * Authenticate a user from the database.
+ * <p>
+ * After a successful login, a password hash weaker than the current {@link BCryptWorkFactor} is replaced by a hash
+ * of the same password at the current strength.
  */
 @Component("userDetailsService")
-public class DomainUserDetailsService implements UserDetailsService {
+public class DomainUserDetailsService implements UserDetailsService, UserDetailsPasswordService {
 
     private static final Logger log = LoggerFactory.getLogger(DomainUserDetailsService.class);
 
+    public static final String UPGRADES_METER_NAME = "security.password.upgrades";
+
     private final UserRepository userRepository;
 
-    public DomainUserDetailsService(UserRepository userRepository) {
+    private final CacheManager cacheManager;
+
+    private final AuthorityRegistry authorityRegistry;
+
+    private final Counter upgradeCounter;
+
+    public DomainUserDetailsService(
+        UserRepository userRepository,
+        CacheManager cacheManager,
+        AuthorityRegistry authorityRegistry,
+        MeterRegistry meterRegistry
+    ) {
         this.userRepository = userRepository;
+        this.cacheManager = cacheManager;
+        this.authorityRegistry = authorityRegistry;
+        this.upgradeCounter = Counter.builder(UPGRADES_METER_NAME)
+            .description("Stored password hashes upgraded to the current work factor on login")
+            .register(meterRegistry);
     }
 
     @Override
@@ -47,16 +72,39 @@ public class DomainUserDetailsService implements UserDetailsService {
             .orElseThrow(() -> new UsernameNotFoundException("User " + lowercaseLogin + " was not found in the database"));
     }
 
+    @Override
+    @Transactional
+    public UserDetails updatePassword(UserDetails user, String newPassword) {
+        return userRepository
+            .findOneByLogin(user.getUsername())
+            .map(existingUser -> {
+                log.debug("Upgrading password hash of {}", existingUser.getLogin());
+                existingUser.setPassword(newPassword);
+                userRepository.save(existingUser);
+                evict(UserRepository.USERS_BY_LOGIN_CACHE, existingUser.getLogin());
+                evict(UserRepository.USERS_BY_EMAIL_CACHE, existingUser.getEmail());
+                upgradeCounter.increment();
+                return org.springframework.security.core.userdetails.User.withUserDetails(user).password(newPassword).build();
+            })
+            .orElse(user);
+    }
+
+    private void evict(String cacheName, String key) {
+        Cache cache = cacheManager.getCache(cacheName);
+        if (cache != null && key != null) {
+            cache.evict(key);
+        }
+    }
+
     private org.springframework.security.core.userdetails.User createSpringSecurityUser(String lowercaseLogin, User user) {
         if (!user.isActivated()) {
             throw new UserNotActivatedException("User " + lowercaseLogin + " was not activated");
         }
-        List<SimpleGrantedAuthority> grantedAuthorities = user
-            .getAuthorities()
-            .stream()
-            .map(Authority::getName)
-            .map(SimpleGrantedAuthority::new)
-            .toList();
-        return new org.springframework.security.core.userdetails.User(user.getLogin(), user.getPassword(), grantedAuthorities);
+        List<String> names = user.getAuthorities().stream().map(Authority::getName).toList();
+        return new org.springframework.security.core.userdetails.User(
+            user.getLogin(),
+            user.getPassword(),
+            authorityRegistry.authoritySet(names).authorities()
+        );
     }
 }
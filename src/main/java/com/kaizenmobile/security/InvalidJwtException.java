@@ -0,0 +1,22 @@
+package com.kaizenmobile.security;
+
+import org.springframework.security.oauth2.jwt.BadJwtException;
+
+/**
+ * Thrown when a token is rejected before its signature is even checked.
+ */
+public class InvalidJwtException extends BadJwtException {
+
+    private static final long serialVersionUID = 1L;
+
+    private final JwtFailureCause failureCause;
+
+    public InvalidJwtException(JwtFailureCause failureCause, String message) {
+        super(message);
+        this.failureCause = failureCause;
+    }
+
+    public JwtFailureCause getFailureCause() {
+        return failureCause;
+    }
+}
@@ -0,0 +1,57 @@
+package com.kaizenmobile.security;
+
+import com.nimbusds.jose.proc.BadJOSEException;
+import com.nimbusds.jose.proc.BadJWSException;
+import java.text.ParseException;
+import org.springframework.security.oauth2.jwt.BadJwtException;
+import org.springframework.security.oauth2.jwt.JwtValidationException;
+
+/**
+ * Why a presented token was rejected, as reported by the {@code security.authentication.invalid-tokens} meter.
+ */
+public enum JwtFailureCause {
+    MALFORMED,
+    UNSUPPORTED,
+    EXPIRED,
+    INVALID_SIGNATURE,
+    REVOKED,
+    UNKNOWN;
+
+    /**
+     * Classify a decoding failure from its type and the types of its causes, rather than from its message.
+     *
+     * @param failure the failure thrown by the pre-validation or by the Nimbus decoder.
+     * @return the cause of the failure, {@link #UNKNOWN} if it can't be classified.
+     */
+    public static JwtFailureCause of(Throwable failure) {
+        if (failure instanceof InvalidJwtException invalidJwtException) {
+            return invalidJwtException.getFailureCause();
+        }
+        if (hasCause(failure, ParseException.class)) {
+            return MALFORMED;
+        }
+        if (hasCause(failure, BadJWSException.class)) {
+            return INVALID_SIGNATURE;
+        }
+        if (hasCause(failure, JwtValidationException.class)) {
+            return EXPIRED;
+        }
+        if (hasCause(failure, BadJOSEException.class)) {
+            return UNSUPPORTED;
+        }
+        // NimbusJwtDecoder rejects unsecured tokens without any cause
+        if (failure instanceof BadJwtException && failure.getCause() == null) {
+            return UNSUPPORTED;
+        }
+        return UNKNOWN;
+    }
+
+    private static boolean hasCause(Throwable failure, Class<? extends Throwable> type) {
+        for (Throwable cause = failure; cause != null; cause = cause.getCause()) {
+            if (type.isInstance(cause)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,386 @@
+package com.kaizenmobile.security;
+
+import com.kaizenmobile.config.ApplicationProperties;
+import com.kaizenmobile.domain.JwtSigningKey;
+import com.kaizenmobile.repository.JobLockRepository;
+import com.kaizenmobile.repository.JwtSigningKeyRepository;
+import com.nimbusds.jose.JOSEException;
+import com.nimbusds.jose.JWSAlgorithm;
+import com.nimbusds.jose.jwk.JWK;
+import com.nimbusds.jose.jwk.JWKSet;
+import com.nimbusds.jose.jwk.KeyUse;
+import com.nimbusds.jose.jwk.RSAKey;
+import com.nimbusds.jose.jwk.source.JWKSource;
+import com.nimbusds.jose.proc.SecurityContext;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.KeyFactory;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.security.interfaces.RSAPrivateKey;
+import java.security.interfaces.RSAPublicKey;
+import java.security.spec.PKCS8EncodedKeySpec;
+import java.security.spec.X509EncodedKeySpec;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import javax.crypto.Cipher;
+import javax.crypto.SecretKey;
+import javax.crypto.spec.GCMParameterSpec;
+import javax.crypto.spec.SecretKeySpec;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+import tech.jhipster.config.JHipsterProperties;
+
+/**
+ * Rotating ring of RSA key pairs signing the JWTs, shared by all nodes through the {@link JwtSigningKeyRepository}.
+ * <p>
+ * A new key is generated {@code publish-ahead} before the active one is {@code rotation-interval} old, and only
+ * signs tokens once it has been published that long in the JWKS, so downstream caches always know a key before they
+ * see it. Retired keys keep verifying tokens until the longest lived token they could have signed has expired. Private
+ * keys are stored encrypted with a key derived from {@code jhipster.security.authentication.jwt.base64-secret}.
+ * <p>
+ * Keys are generated, rotated and removed under the {@code jwtKeyRing} row lock of the {@link JobLockRepository}, so
+ * nodes starting or rotating together agree on a single new key. A node seeing a token signed by a key it doesn't
+ * know yet reloads the ring, at most once every {@link #UNKNOWN_KID_RELOAD_INTERVAL}.
+ */
+@Component
+public class JwtKeyRing {
+
+    private static final Logger log = LoggerFactory.getLogger(JwtKeyRing.class);
+
+    private static final Duration CLOCK_SKEW = Duration.ofSeconds(60);
+
+    private static final String CIPHER = "AES/GCM/NoPadding";
+
+    private static final int IV_LENGTH = 12;
+
+    private static final int TAG_LENGTH = 128;
+
+    static final String LOCK_NAME = "jwtKeyRing";
+
+    static final Duration UNKNOWN_KID_RELOAD_INTERVAL = Duration.ofSeconds(10);
+
+    private final JwtSigningKeyRepository jwtSigningKeyRepository;
+
+    private final JobLockRepository jobLockRepository;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final ApplicationProperties.JwtKeys properties;
+
+    private final Duration retention;
+
+    private final SecretKey encryptionKey;
+
+    private final Clock clock;
+
+    private final SecureRandom random = new SecureRandom();
+
+    private volatile Snapshot snapshot;
+
+    private volatile Instant lastReload = Instant.MIN;
+
+    @Autowired
+    public JwtKeyRing(
+        JwtSigningKeyRepository jwtSigningKeyRepository,
+        JobLockRepository jobLockRepository,
+        PlatformTransactionManager transactionManager,
+        ApplicationProperties applicationProperties,
+        JHipsterProperties jHipsterProperties
+    ) {
+        this(jwtSigningKeyRepository, jobLockRepository, transactionManager, applicationProperties, jHipsterProperties, Clock.systemUTC());
+    }
+
+    JwtKeyRing(
+        JwtSigningKeyRepository jwtSigningKeyRepository,
+        JobLockRepository jobLockRepository,
+        PlatformTransactionManager transactionManager,
+        ApplicationProperties applicationProperties,
+        JHipsterProperties jHipsterProperties,
+        Clock clock
+    ) {
+        this.jwtSigningKeyRepository = jwtSigningKeyRepository;
+        this.jobLockRepository = jobLockRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.properties = applicationProperties.getJwtKeys();
+        JHipsterProperties.Security.Authentication.Jwt jwt = jHipsterProperties.getSecurity().getAuthentication().getJwt();
+        long tokenValidity = Math.max(jwt.getTokenValidityInSeconds(), jwt.getTokenValidityInSecondsForRememberMe());
+        this.retention = Duration.ofSeconds(tokenValidity).plus(CLOCK_SKEW);
+        this.encryptionKey = deriveEncryptionKey(jwt.getBase64Secret());
+        this.clock = clock;
+    }
+
+    /**
+     * @return the id of the key currently signing tokens.
+     */
+    public String activeKeyId() {
+        return snapshot().activeKey().getKeyID();
+    }
+
+    /**
+     * Look up the public key of a {@code kid}, reloading the ring if the key is unknown, in case another node just
+     * generated it.
+     *
+     * @param kid the key id of a token.
+     * @return the public key, {@code null} if the key is unknown or was retired.
+     */
+    public RSAPublicKey verificationKey(String kid) {
+        RSAPublicKey key = snapshot().verificationKeys().get(kid);
+        if (key == null && kid != null && isReloadAllowed()) {
+            synchronized (this) {
+                if (isReloadAllowed()) {
+                    log.debug("Reloading the JWT signing keys to look up the unknown key {}", kid);
+                    refresh();
+                }
+            }
+            key = snapshot.verificationKeys().get(kid);
+        }
+        return key;
+    }
+
+    private boolean isReloadAllowed() {
+        return !lastReload.plus(UNKNOWN_KID_RELOAD_INTERVAL).isAfter(clock.instant());
+    }
+
+    /**
+     * @return the public keys verifying tokens, including the one about to sign them.
+     */
+    public JWKSet publicJwkSet() {
+        return snapshot().publicJwkSet();
+    }
+
+    /**
+     * @return the private keys of the ring, selected by the encoder from the {@code kid} of the token header.
+     */
+    public JWKSource<SecurityContext> signingJwkSource() {
+        return (jwkSelector, context) -> jwkSelector.select(snapshot().signingJwkSet());
+    }
+
+    private Snapshot snapshot() {
+        Snapshot current = snapshot;
+        if (current == null) {
+            synchronized (this) {
+                if (snapshot == null) {
+                    refresh();
+                }
+                current = snapshot;
+            }
+        }
+        return current;
+    }
+
+    /**
+     * Reload the keys stored by all nodes, then rotate and prune them if needed.
+     */
+    @Scheduled(fixedDelay = 60_000, initialDelay = 60_000)
+    public synchronized void refresh() {
+        Instant now = clock.instant();
+        List<LoadedKey> keys = loadKeys();
+        if (needsUpdate(keys, now)) {
+            keys = transactionTemplate.execute(status -> update(now));
+        }
+        snapshot = Snapshot.of(keys, keys.get(activeIndex(keys, now)));
+        lastReload = now;
+    }
+
+    private List<LoadedKey> loadKeys() {
+        List<LoadedKey> keys = new ArrayList<>();
+        for (JwtSigningKey stored : jwtSigningKeyRepository.findAll()) {
+            keys.add(load(stored));
+        }
+        keys.sort(Comparator.comparing(LoadedKey::createdDate).reversed());
+        return keys;
+    }
+
+    private boolean needsUpdate(List<LoadedKey> keys, Instant now) {
+        if (keys.isEmpty() || isRotationDue(keys.get(0), now)) {
+            return true;
+        }
+        int active = activeIndex(keys, now);
+        if (active < 0) {
+            return true;
+        }
+        for (int i = keys.size() - 1; i > active; i--) {
+            if (isExpired(keys, i, now)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Generate, rotate and prune the keys read again under the lock of the ring, as another node may have just changed
+     * them.
+     */
+    private List<LoadedKey> update(Instant now) {
+        if (jobLockRepository.findOneForUpdate(LOCK_NAME).isEmpty()) {
+            log.warn("The {} lock doesn't exist, updating the JWT signing keys without it", LOCK_NAME);
+        }
+        List<LoadedKey> keys = loadKeys();
+        if (keys.isEmpty() || isRotationDue(keys.get(0), now)) {
+            keys.add(0, generate(now));
+        }
+        int active = activeIndex(keys, now);
+        if (active < 0) {
+            log.warn("No JWT signing key can be decrypted with the current secret, generating a new one");
+            keys.add(0, generate(now));
+            active = 0;
+        }
+        for (int i = keys.size() - 1; i > active; i--) {
+            if (isExpired(keys, i, now)) {
+                log.info("Removing JWT signing key {}, retired at {}", keys.get(i).kid(), retiredAt(keys, i));
+                jwtSigningKeyRepository.deleteById(keys.get(i).kid());
+                keys.remove(i);
+            }
+        }
+        return keys;
+    }
+
+    private Instant retiredAt(List<LoadedKey> keys, int i) {
+        return keys.get(i - 1).createdDate().plus(properties.getPublishAhead());
+    }
+
+    private boolean isExpired(List<LoadedKey> keys, int i, Instant now) {
+        return retiredAt(keys, i).plus(retention).isBefore(now);
+    }
+
+    private boolean isRotationDue(LoadedKey newest, Instant now) {
+        return !newest.createdDate().plus(properties.getRotationInterval()).minus(properties.getPublishAhead()).isAfter(now);
+    }
+
+    /**
+     * The newest key published for at least {@code publish-ahead}, or the newest key if none is (when the ring was
+     * just created), skipping keys whose private part can't be decrypted.
+     */
+    private int activeIndex(List<LoadedKey> keys, Instant now) {
+        int newestSigning = -1;
+        for (int i = 0; i < keys.size(); i++) {
+            LoadedKey key = keys.get(i);
+            if (!key.jwk().isPrivate()) {
+                continue;
+            }
+            if (!key.createdDate().plus(properties.getPublishAhead()).isAfter(now)) {
+                return i;
+            }
+            if (newestSigning < 0) {
+                newestSigning = i;
+            }
+        }
+        return newestSigning;
+    }
+
+    private LoadedKey generate(Instant now) {
+        try {
+            KeyPairGenerator generator = KeyPairGenerator.getInstance("RSA");
+            generator.initialize(properties.getKeySize(), random);
+            KeyPair keyPair = generator.generateKeyPair();
+            RSAKey jwk = new RSAKey.Builder((RSAPublicKey) keyPair.getPublic())
+                .privateKey((RSAPrivateKey) keyPair.getPrivate())
+                .keyIDFromThumbprint()
+                .algorithm(JWSAlgorithm.RS256)
+                .keyUse(KeyUse.SIGNATURE)
+                .build();
+            jwtSigningKeyRepository.save(
+                new JwtSigningKey()
+                    .kid(jwk.getKeyID())
+                    .publicKey(Base64.getEncoder().encodeToString(keyPair.getPublic().getEncoded()))
+                    .privateKey(Base64.getEncoder().encodeToString(encrypt(keyPair.getPrivate().getEncoded())))
+                    .createdDate(now)
+            );
+            log.info("Generated JWT signing key {}", jwk.getKeyID());
+            return new LoadedKey(jwk, now);
+        } catch (GeneralSecurityException | JOSEException e) {
+            throw new IllegalStateException("Could not generate a JWT signing key", e);
+        }
+    }
+
+    private LoadedKey load(JwtSigningKey stored) {
+        try {
+            KeyFactory keyFactory = KeyFactory.getInstance("RSA");
+            RSAPublicKey publicKey = (RSAPublicKey) keyFactory.generatePublic(
+                new X509EncodedKeySpec(Base64.getDecoder().decode(stored.getPublicKey()))
+            );
+            RSAKey.Builder jwk = new RSAKey.Builder(publicKey)
+                .keyID(stored.getKid())
+                .algorithm(JWSAlgorithm.RS256)
+                .keyUse(KeyUse.SIGNATURE);
+            try {
+                byte[] privateKey = decrypt(Base64.getDecoder().decode(stored.getPrivateKey()));
+                jwk.privateKey((RSAPrivateKey) keyFactory.generatePrivate(new PKCS8EncodedKeySpec(privateKey)));
+            } catch (GeneralSecurityException e) {
+                log.warn("Private part of JWT signing key {} can't be decrypted, it will only verify tokens", stored.getKid());
+            }
+            return new LoadedKey(jwk.build(), stored.getCreatedDate());
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Invalid JWT signing key " + stored.getKid(), e);
+        }
+    }
+
+    private byte[] encrypt(byte[] plain) throws GeneralSecurityException {
+        byte[] iv = new byte[IV_LENGTH];
+        random.nextBytes(iv);
+        Cipher cipher = Cipher.getInstance(CIPHER);
+        cipher.init(Cipher.ENCRYPT_MODE, encryptionKey, new GCMParameterSpec(TAG_LENGTH, iv));
+        byte[] encrypted = cipher.doFinal(plain);
+        return ByteBuffer.allocate(iv.length + encrypted.length).put(iv).put(encrypted).array();
+    }
+
+    private byte[] decrypt(byte[] ivAndEncrypted) throws GeneralSecurityException {
+        Cipher cipher = Cipher.getInstance(CIPHER);
+        cipher.init(Cipher.DECRYPT_MODE, encryptionKey, new GCMParameterSpec(TAG_LENGTH, ivAndEncrypted, 0, IV_LENGTH));
+        return cipher.doFinal(ivAndEncrypted, IV_LENGTH, ivAndEncrypted.length - IV_LENGTH);
+    }
+
+    private static SecretKey deriveEncryptionKey(String base64Secret) {
+        try {
+            MessageDigest sha256 = MessageDigest.getInstance("SHA-256");
+            sha256.update("jwt-key-ring".getBytes(StandardCharsets.UTF_8));
+            return new SecretKeySpec(sha256.digest(com.nimbusds.jose.util.Base64.from(base64Secret).decode()), "AES");
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private record LoadedKey(RSAKey jwk, Instant createdDate) {
+        private String kid() {
+            return jwk.getKeyID();
+        }
+    }
+
+    private record Snapshot(RSAKey activeKey, Map<String, RSAPublicKey> verificationKeys, JWKSet publicJwkSet, JWKSet signingJwkSet) {
+        private static Snapshot of(List<LoadedKey> keys, LoadedKey active) {
+            Map<String, RSAPublicKey> verificationKeys = new HashMap<>();
+            List<JWK> publicKeys = new ArrayList<>();
+            List<JWK> signingKeys = new ArrayList<>();
+            for (LoadedKey key : keys) {
+                try {
+                    verificationKeys.put(key.kid(), key.jwk().toRSAPublicKey());
+                } catch (JOSEException e) {
+                    throw new IllegalStateException(e);
+                }
+                publicKeys.add(key.jwk().toPublicJWK());
+                if (key.jwk().isPrivate()) {
+                    signingKeys.add(key.jwk());
+                }
+            }
+            return new Snapshot(active.jwk(), Map.copyOf(verificationKeys), new JWKSet(publicKeys), new JWKSet(signingKeys));
+        }
+    }
+}
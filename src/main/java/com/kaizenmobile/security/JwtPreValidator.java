@@ -0,0 +1,93 @@
+package com.kaizenmobile.security;
+
+import com.nimbusds.jose.util.Base64URL;
+import com.nimbusds.jose.util.JSONObjectUtils;
+import java.text.ParseException;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Cheap structural checks rejecting a token before its signature is verified.
+ * <p>
+ * Checks the compact serialization (three base64url segments and a signature), the {@code alg} header and, if
+ * present, the {@code exp} claim. Passing them says nothing about the token's authenticity, the full verification must
+ * still run; failing any of them throws an {@link InvalidJwtException} carrying the {@link JwtFailureCause}.
+ */
+public class JwtPreValidator {
+
+    private static final int JWE_SEGMENTS = 5;
+
+    private final Set<String> algorithms;
+
+    private final Duration clockSkew;
+
+    private final Clock clock;
+
+    /**
+     * @param algorithms the accepted {@code alg} headers.
+     * @param clockSkew the leeway given to the {@code exp} claim, which should match the one of the full verification.
+     * @param clock the clock to check the {@code exp} claim against.
+     */
+    public JwtPreValidator(Set<String> algorithms, Duration clockSkew, Clock clock) {
+        this.algorithms = algorithms;
+        this.clockSkew = clockSkew;
+        this.clock = clock;
+    }
+
+    public void validate(String token) {
+        if (token == null || token.isEmpty()) {
+            throw new InvalidJwtException(JwtFailureCause.MALFORMED, "Empty token");
+        }
+        int headerEnd = token.indexOf('.');
+        int payloadEnd = headerEnd < 0 ? -1 : token.indexOf('.', headerEnd + 1);
+        if (payloadEnd < 0) {
+            throw new InvalidJwtException(JwtFailureCause.MALFORMED, "Invalid JWT serialization: missing dot delimiter(s)");
+        }
+        if (token.indexOf('.', payloadEnd + 1) >= 0) {
+            if (token.chars().filter(c -> c == '.').count() == JWE_SEGMENTS - 1) {
+                throw new InvalidJwtException(JwtFailureCause.UNSUPPORTED, "Encrypted tokens are not supported");
+            }
+            throw new InvalidJwtException(JwtFailureCause.MALFORMED, "Invalid JWT serialization: too many segments");
+        }
+        if (payloadEnd == token.length() - 1) {
+            throw new InvalidJwtException(JwtFailureCause.UNSUPPORTED, "Unsecured tokens are not supported");
+        }
+        if (headerEnd == 0 || payloadEnd == headerEnd + 1 || !isBase64UrlOrDot(token)) {
+            throw new InvalidJwtException(JwtFailureCause.MALFORMED, "Invalid JWT serialization: invalid segment");
+        }
+
+        Map<String, Object> header = parseSegment(token, 0, headerEnd, "header");
+        if (!(header.get("alg") instanceof String algorithm) || !algorithms.contains(algorithm)) {
+            throw new InvalidJwtException(JwtFailureCause.UNSUPPORTED, "Unsupported algorithm");
+        }
+
+        Map<String, Object> claims = parseSegment(token, headerEnd + 1, payloadEnd, "payload");
+        if (claims.get("exp") instanceof Number expiresAt) {
+            Instant expiry = Instant.ofEpochSecond(expiresAt.longValue());
+            if (clock.instant().minus(clockSkew).isAfter(expiry)) {
+                throw new InvalidJwtException(JwtFailureCause.EXPIRED, "Jwt expired at " + expiry);
+            }
+        }
+    }
+
+    private static boolean isBase64UrlOrDot(String token) {
+        for (int i = 0; i < token.length(); i++) {
+            char c = token.charAt(i);
+            if (!((c >= 'A' && c <= 'Z') || (c >= 'a' && c <= 'z') || (c >= '0' && c <= '9') || c == '-' || c == '_' || c == '.')) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static Map<String, Object> parseSegment(String token, int start, int end, String segment) {
+        try {
+            return JSONObjectUtils.parse(new Base64URL(token.substring(start, end)).decodeToString());
+        } catch (ParseException | RuntimeException e) {
+            throw new InvalidJwtException(JwtFailureCause.MALFORMED, "Malformed token " + segment);
+        }
+    }
+}
@@ -0,0 +1,244 @@
+package com.kaizenmobile.security;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.LongSupplier;
+
+/**
+ * Sliding window limit of the failed login attempts per login (or email) and client address, per login, and per
+ * client address.
+ * <p>
+ * An attempt is counted when it starts and forgotten once it {@link Attempt#succeeded() succeeds}, so only failed
+ * attempts use up the limits, and concurrent attempts can't overrun them. The limit per login and address is reached
+ * first, which locks an attacker out of a login without locking out its owner, and the higher limit per login only
+ * stops attacks spread over many addresses.
+ * <p>
+ * Each kind of key is counted in its own count-min sketches, one for the current window and one for the previous
+ * window, so the memory used is fixed whatever the number of distinct logins and addresses presented. The count of a
+ * key over the last window is estimated as its count in the current window plus its count in the previous window
+ * weighted by the part of it still covered. Counting is lock-free; sketches only over-estimate, and their hash is
+ * seeded at startup so colliding logins can't be crafted to lock out someone else.
+ */
+public class LoginRateLimiter {
+
+    public static final String ATTEMPTS_METER_NAME = "security.authentication.login-attempts";
+
+    private static final int DEPTH = 4;
+
+    private static final int LOGIN_AND_ADDRESS = 0;
+
+    private static final int LOGIN = 1;
+
+    private static final int ADDRESS = 2;
+
+    private static final int SKETCHES = 3;
+
+    private final long windowNanos;
+
+    private final int maxAttemptsPerLoginAndAddress;
+
+    private final int maxAttemptsPerLogin;
+
+    private final int maxAttemptsPerAddress;
+
+    private final int width;
+
+    private final long seed = new SecureRandom().nextLong();
+
+    private final LongSupplier nanoTime;
+
+    private final AtomicReference<Windows> windows;
+
+    private final Counter allowedCounter;
+
+    private final Counter loginAndAddressLimitedCounter;
+
+    private final Counter loginLimitedCounter;
+
+    private final Counter addressLimitedCounter;
+
+    public LoginRateLimiter(
+        Duration window,
+        int maxAttemptsPerLoginAndAddress,
+        int maxAttemptsPerLogin,
+        int maxAttemptsPerAddress,
+        int width,
+        MeterRegistry meterRegistry
+    ) {
+        this(window, maxAttemptsPerLoginAndAddress, maxAttemptsPerLogin, maxAttemptsPerAddress, width, meterRegistry, System::nanoTime);
+    }
+
+    LoginRateLimiter(
+        Duration window,
+        int maxAttemptsPerLoginAndAddress,
+        int maxAttemptsPerLogin,
+        int maxAttemptsPerAddress,
+        int width,
+        MeterRegistry meterRegistry,
+        LongSupplier nanoTime
+    ) {
+        this.windowNanos = window.toNanos();
+        this.maxAttemptsPerLoginAndAddress = maxAttemptsPerLoginAndAddress;
+        this.maxAttemptsPerLogin = maxAttemptsPerLogin;
+        this.maxAttemptsPerAddress = maxAttemptsPerAddress;
+        this.width = width;
+        this.nanoTime = nanoTime;
+        this.windows = new AtomicReference<>(new Windows(nanoTime.getAsLong(), newSketches(), null));
+        this.allowedCounter = attemptsCounter("allowed", meterRegistry);
+        this.loginAndAddressLimitedCounter = attemptsCounter("login-and-address-limited", meterRegistry);
+        this.loginLimitedCounter = attemptsCounter("login-limited", meterRegistry);
+        this.addressLimitedCounter = attemptsCounter("address-limited", meterRegistry);
+    }
+
+    private static Counter attemptsCounter(String result, MeterRegistry meterRegistry) {
+        return Counter.builder(ATTEMPTS_METER_NAME)
+            .description("Login attempts by throttling outcome")
+            .tag("result", result)
+            .register(meterRegistry);
+    }
+
+    /**
+     * Count a login attempt, unless the login, the address, or both, already used up their attempts.
+     *
+     * @param login the login or email submitted, {@code null} if it couldn't be read.
+     * @param address the client address.
+     * @return the attempt, to forget if it succeeds, or {@code null} if it is rejected.
+     */
+    public Attempt tryAcquire(String login, String address) {
+        long now = nanoTime.getAsLong();
+        Windows current = windows(now);
+        double previousWeight = 1.0 - (double) (now - current.start()) / windowNanos;
+        String normalizedLogin = login == null ? null : login.trim().toLowerCase(Locale.ENGLISH);
+        long[] hashes = new long[SKETCHES];
+        hashes[ADDRESS] = hash(address);
+        if (normalizedLogin != null) {
+            hashes[LOGIN_AND_ADDRESS] = hash(normalizedLogin + '\0' + address);
+            hashes[LOGIN] = hash(normalizedLogin);
+            if (estimate(current, previousWeight, LOGIN_AND_ADDRESS, hashes) + 1 > maxAttemptsPerLoginAndAddress) {
+                loginAndAddressLimitedCounter.increment();
+                return null;
+            }
+            if (estimate(current, previousWeight, LOGIN, hashes) + 1 > maxAttemptsPerLogin) {
+                loginLimitedCounter.increment();
+                return null;
+            }
+        }
+        if (estimate(current, previousWeight, ADDRESS, hashes) + 1 > maxAttemptsPerAddress) {
+            addressLimitedCounter.increment();
+            return null;
+        }
+        Attempt attempt = new Attempt(current, hashes, normalizedLogin != null);
+        attempt.add(1);
+        allowedCounter.increment();
+        return attempt;
+    }
+
+    /**
+     * @return the seconds until the current window ends, when the counts of rejected keys start decreasing.
+     */
+    public long retryAfterSeconds() {
+        long now = nanoTime.getAsLong();
+        long remaining = windowNanos - (now - windows(now).start());
+        return Math.max(1, Duration.ofNanos(remaining).toSeconds());
+    }
+
+    /**
+     * @return the estimated count of a key over the last window.
+     */
+    private double estimate(Windows windows, double previousWeight, int sketch, long[] hashes) {
+        int current = Integer.MAX_VALUE;
+        int previous = windows.previous() == null ? 0 : Integer.MAX_VALUE;
+        for (int row = 0; row < DEPTH; row++) {
+            int index = index(hashes[sketch], row);
+            current = Math.min(current, windows.current()[sketch].get(index));
+            if (windows.previous() != null) {
+                previous = Math.min(previous, windows.previous()[sketch].get(index));
+            }
+        }
+        return current + previous * previousWeight;
+    }
+
+    private int index(long hash, int row) {
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32);
+        return row * width + Math.floorMod(h1 + row * h2, width);
+    }
+
+    private AtomicIntegerArray[] newSketches() {
+        AtomicIntegerArray[] sketches = new AtomicIntegerArray[SKETCHES];
+        for (int sketch = 0; sketch < SKETCHES; sketch++) {
+            sketches[sketch] = new AtomicIntegerArray(DEPTH * width);
+        }
+        return sketches;
+    }
+
+    private Windows windows(long now) {
+        Windows current = windows.get();
+        while (now - current.start() >= windowNanos) {
+            long elapsedWindows = (now - current.start()) / windowNanos;
+            // A window with no attempt at all is followed by an empty previous window
+            Windows next = new Windows(
+                current.start() + elapsedWindows * windowNanos,
+                newSketches(),
+                elapsedWindows == 1 ? current.current() : null
+            );
+            if (windows.compareAndSet(current, next)) {
+                return next;
+            }
+            current = windows.get();
+        }
+        return current;
+    }
+
+    private long hash(String key) {
+        long hash = seed;
+        for (int i = 0; i < key.length(); i++) {
+            hash = (hash ^ key.charAt(i)) * 0x100000001b3L;
+        }
+        // SplitMix64 finalizer, spreading the bits over both halves used as row hashes
+        hash = (hash ^ (hash >>> 30)) * 0xbf58476d1ce4e5b9L;
+        hash = (hash ^ (hash >>> 27)) * 0x94d049bb133111ebL;
+        return hash ^ (hash >>> 31);
+    }
+
+    /**
+     * A login attempt counted against the limits.
+     */
+    public final class Attempt {
+
+        private final Windows windows;
+
+        private final long[] hashes;
+
+        private final boolean hasLogin;
+
+        private Attempt(Windows windows, long[] hashes, boolean hasLogin) {
+            this.windows = windows;
+            this.hashes = hashes;
+            this.hasLogin = hasLogin;
+        }
+
+        /**
+         * Forget the attempt, which didn't fail, taking it back from the counters it was added to, even if their
+         * window has ended since.
+         */
+        public void succeeded() {
+            add(-1);
+        }
+
+        private void add(int delta) {
+            for (int sketch = hasLogin ? LOGIN_AND_ADDRESS : ADDRESS; sketch < SKETCHES; sketch++) {
+                for (int row = 0; row < DEPTH; row++) {
+                    windows.current()[sketch].addAndGet(index(hashes[sketch], row), delta);
+                }
+            }
+        }
+    }
+
+    private record Windows(long start, AtomicIntegerArray[] current, AtomicIntegerArray[] previous) {}
+}
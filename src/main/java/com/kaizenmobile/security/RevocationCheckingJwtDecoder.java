@@ -0,0 +1,42 @@
+package com.kaizenmobile.security;
+
+import static com.kaizenmobile.security.SecurityUtils.SESSION_ID_KEY;
+
+import com.kaizenmobile.management.SecurityMetersService;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.jwt.JwtDecoder;
+
+/**
+ * {@link JwtDecoder} rejecting the tokens whose id ({@code jti}) or session ({@code sid}) is in the
+ * {@link TokenRevocationStore}.
+ * <p>
+ * It must wrap the {@link CachingJwtDecoder}, so a token revoked after being cached is rejected as well.
+ */
+public class RevocationCheckingJwtDecoder implements JwtDecoder {
+
+    private final JwtDecoder delegate;
+
+    private final TokenRevocationStore tokenRevocationStore;
+
+    private final SecurityMetersService metersService;
+
+    public RevocationCheckingJwtDecoder(
+        JwtDecoder delegate,
+        TokenRevocationStore tokenRevocationStore,
+        SecurityMetersService metersService
+    ) {
+        this.delegate = delegate;
+        this.tokenRevocationStore = tokenRevocationStore;
+        this.metersService = metersService;
+    }
+
+    @Override
+    public Jwt decode(String token) {
+        Jwt jwt = delegate.decode(token);
+        if (tokenRevocationStore.isRevoked(jwt.getId()) || tokenRevocationStore.isRevoked(jwt.getClaimAsString(SESSION_ID_KEY))) {
+            metersService.trackTokenRevoked();
+            throw new InvalidJwtException(JwtFailureCause.REVOKED, "Token revoked");
+        }
+        return jwt;
+    }
+}
@@ -9,6 +9,7 @@ import org.springframework.security.core.context.SecurityContext;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.oauth2.jose.jws.MacAlgorithm;
+import org.springframework.security.oauth2.jose.jws.SignatureAlgorithm;
 import org.springframework.security.oauth2.jwt.Jwt;
 
 /**
@@ -16,10 +17,21 @@ import org.springframework.security.oauth2.jwt.Jwt;
  */
 public final class SecurityUtils {
 
-    public static final MacAlgorithm JWT_ALGORITHM = MacAlgorithm.HS512;
+    public static final SignatureAlgorithm JWT_ALGORITHM = SignatureAlgorithm.RS256;
+
+    /**
+     * Algorithm of the tokens signed with the shared secret before the signing keys were rotated, still accepted
+     * while {@code application.jwt-keys.accept-legacy-hmac} is set.
+     */
+    public static final MacAlgorithm LEGACY_JWT_ALGORITHM = MacAlgorithm.HS512;
 
     public static final String AUTHORITIES_KEY = "auth";
 
+    /**
+     * Claim holding the refresh token session an access token was issued for.
+     */
+    public static final String SESSION_ID_KEY = "sid";
+
     private SecurityUtils() {}
 
     /**
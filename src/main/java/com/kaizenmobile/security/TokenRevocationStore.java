@@ -0,0 +1,118 @@
+package com.kaizenmobile.security;
+
+import com.kaizenmobile.domain.RevokedToken;
+import com.kaizenmobile.repository.RevokedTokenRepository;
+import java.time.Clock;
+import java.time.Instant;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Ids of the access tokens rejected before their expiry, either a token id ({@code jti}) or a session id
+ * ({@code sid}) revoking every token of a refresh token session.
+ * <p>
+ * Lookups only hit an in-memory map. Revocations are written through to the {@link RevokedTokenRepository} and the
+ * other nodes pick them up on their next refresh, every 10 seconds. An id is forgotten once the tokens it revokes
+ * have expired, which keeps the store as small as the number of sessions revoked within an access token lifetime.
+ */
+@Component
+public class TokenRevocationStore {
+
+    private static final Logger log = LoggerFactory.getLogger(TokenRevocationStore.class);
+
+    private final RevokedTokenRepository revokedTokenRepository;
+
+    private final Clock clock;
+
+    private final Map<String, Instant> revokedUntil = new ConcurrentHashMap<>();
+
+    @Autowired
+    public TokenRevocationStore(RevokedTokenRepository revokedTokenRepository) {
+        this(revokedTokenRepository, Clock.systemUTC());
+    }
+
+    TokenRevocationStore(RevokedTokenRepository revokedTokenRepository, Clock clock) {
+        this.revokedTokenRepository = revokedTokenRepository;
+        this.clock = clock;
+    }
+
+    /**
+     * @param tokenId a token id or session id, may be {@code null}.
+     * @return whether the tokens with this id are revoked.
+     */
+    public boolean isRevoked(String tokenId) {
+        if (tokenId == null) {
+            return false;
+        }
+        Instant until = revokedUntil.get(tokenId);
+        return until != null && clock.instant().isBefore(until);
+    }
+
+    /**
+     * Reject the tokens with this id, once the revocation is committed, so a rolled back revocation doesn't outlive
+     * its transaction on this node only.
+     *
+     * @param tokenId a token id or session id.
+     * @param until the expiry of the last token with this id.
+     */
+    @Transactional
+    public void revoke(String tokenId, Instant until) {
+        RevokedToken revokedToken = revokedTokenRepository.findById(tokenId).orElseGet(() -> new RevokedToken().tokenId(tokenId));
+        if (revokedToken.getRevokedUntil() == null || revokedToken.getRevokedUntil().isBefore(until)) {
+            revokedTokenRepository.save(revokedToken.revokedUntil(until));
+        }
+        afterCommit(() -> revokedUntil.merge(tokenId, until, TokenRevocationStore::latest));
+    }
+
+    /**
+     * Load the revocations of the other nodes and forget the ones that are over.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(fixedDelay = 10_000, initialDelay = 10_000)
+    public void refresh() {
+        Instant now = clock.instant();
+        try {
+            revokedTokenRepository.deleteExpired(now);
+            for (RevokedToken revokedToken : revokedTokenRepository.findAllByRevokedUntilAfter(now)) {
+                revokedUntil.merge(revokedToken.getTokenId(), revokedToken.getRevokedUntil(), TokenRevocationStore::latest);
+            }
+        } catch (DataAccessException e) {
+            log.warn("Could not load the revoked tokens: {}", e.getMessage());
+        }
+        revokedUntil.values().removeIf(until -> !now.isBefore(until));
+    }
+
+    public int size() {
+        return revokedUntil.size();
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(
+                new TransactionSynchronization() {
+                    @Override
+                    public void afterCommit() {
+                        action.run();
+                    }
+                }
+            );
+        } else {
+            action.run();
+        }
+    }
+
+    private static Instant latest(Instant first, Instant second) {
+        return first.isAfter(second) ? first : second;
+    }
+}
@@ -0,0 +1,19 @@
+package com.kaizenmobile.security;
+
+import java.util.Collection;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/**
+ * This exception is thrown when authority names don't match any stored authority, so a user is never saved with
+ * fewer authorities than asked for.
+ */
+@ResponseStatus(value = HttpStatus.BAD_REQUEST, reason = "Unknown authority")
+public class UnknownAuthorityException extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
+    public UnknownAuthorityException(Collection<String> names) {
+        super("Unknown authorities: " + String.join(", ", names));
+    }
+}
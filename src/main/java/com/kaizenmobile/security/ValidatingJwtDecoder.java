@@ -0,0 +1,92 @@
+package com.kaizenmobile.security;
+
+import com.kaizenmobile.management.SecurityMetersService;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.jwt.JwtDecoder;
+
+/**
+ * {@link JwtDecoder} running the {@link JwtPreValidator} before its delegate and counting every rejected token in the
+ * {@link SecurityMetersService} by {@link JwtFailureCause}.
+ * <p>
+ * Failures that can't be classified are logged as errors, at most once per minute for identical messages, so a
+ * replayed token can't flood the log.
+ */
+public class ValidatingJwtDecoder implements JwtDecoder {
+
+    private static final Logger log = LoggerFactory.getLogger(ValidatingJwtDecoder.class);
+
+    private static final long LOG_INTERVAL_NANOS = TimeUnit.MINUTES.toNanos(1);
+
+    private static final int MAX_LOGGED_MESSAGES = 1_000;
+
+    private final JwtDecoder delegate;
+
+    private final JwtPreValidator preValidator;
+
+    private final SecurityMetersService metersService;
+
+    private final Map<String, LogWindow> unknownFailures = new ConcurrentHashMap<>();
+
+    public ValidatingJwtDecoder(JwtDecoder delegate, JwtPreValidator preValidator, SecurityMetersService metersService) {
+        this.delegate = delegate;
+        this.preValidator = preValidator;
+        this.metersService = metersService;
+    }
+
+    @Override
+    public Jwt decode(String token) {
+        try {
+            preValidator.validate(token);
+            return delegate.decode(token);
+        } catch (RuntimeException e) {
+            JwtFailureCause cause = JwtFailureCause.of(e);
+            switch (cause) {
+                case INVALID_SIGNATURE -> metersService.trackTokenInvalidSignature();
+                case EXPIRED -> metersService.trackTokenExpired();
+                case MALFORMED -> metersService.trackTokenMalformed();
+                case UNSUPPORTED -> metersService.trackTokenUnsupported();
+                case UNKNOWN -> logUnknownFailure(String.valueOf(e.getMessage()));
+            }
+            throw e;
+        }
+    }
+
+    private void logUnknownFailure(String message) {
+        if (unknownFailures.size() >= MAX_LOGGED_MESSAGES) {
+            unknownFailures.clear();
+        }
+        long now = System.nanoTime();
+        LogWindow window = unknownFailures.computeIfAbsent(message, key -> new LogWindow(now - LOG_INTERVAL_NANOS));
+        int suppressed;
+        synchronized (window) {
+            if (now - window.startedAt < LOG_INTERVAL_NANOS) {
+                window.suppressed++;
+                return;
+            }
+            suppressed = window.suppressed;
+            window.startedAt = now;
+            window.suppressed = 0;
+        }
+        if (suppressed > 0) {
+            log.error("Unknown JWT error {} ({} identical errors suppressed)", message, suppressed);
+        } else {
+            log.error("Unknown JWT error {}", message);
+        }
+    }
+
+    private static final class LogWindow {
+
+        private long startedAt;
+
+        private int suppressed;
+
+        private LogWindow(long startedAt) {
+            this.startedAt = startedAt;
+        }
+    }
+}
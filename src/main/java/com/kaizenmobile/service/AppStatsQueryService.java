@@ -3,10 +3,26 @@ package com.kaizenmobile.service;
 import com.kaizenmobile.domain.*; // for static metamodels
 import com.kaizenmobile.domain.AppStats;
 import com.kaizenmobile.repository.AppStatsRepository;
+import com.kaizenmobile.repository.CollectionVersion;
 import com.kaizenmobile.service.criteria.AppStatsCriteria;
-import java.util.List;
+import jakarta.persistence.CacheStoreMode;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import java.util.Iterator;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import org.hibernate.jpa.HibernateHints;
+import org.hibernate.jpa.SpecHints;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.data.domain.KeysetScrollPosition;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
 import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -16,7 +32,8 @@ import tech.jhipster.service.QueryService;
  * Service for executing complex queries for {@link AppStats} entities in the database.
  * The main input is a {@link AppStatsCriteria} which gets converted to {@link Specification},
  * in a way that all the filters must apply.
- * It returns a {@link List} of {@link AppStats} which fulfills the criteria.
+ * It returns a {@link Page} or a {@link Window} of {@link AppStats} which fulfills the criteria,
+ * or passes them one at a time to an action.
  */
 @Service
 @Transactional(readOnly = true)
@@ -24,22 +41,90 @@ public class AppStatsQueryService extends QueryService<AppStats> {
 
     private static final Logger log = LoggerFactory.getLogger(AppStatsQueryService.class);
 
+    /**
+     * The rows fetched at a time by {@link #exportByCriteria(AppStatsCriteria, Consumer)}, and the entities it keeps
+     * attached at most.
+     */
+    private static final int EXPORT_FETCH_SIZE = 500;
+
     private final AppStatsRepository appStatsRepository;
 
-    public AppStatsQueryService(AppStatsRepository appStatsRepository) {
+    private final EntityManager entityManager;
+
+    public AppStatsQueryService(AppStatsRepository appStatsRepository, EntityManager entityManager) {
         this.appStatsRepository = appStatsRepository;
+        this.entityManager = entityManager;
     }
 
     /**
-     * Return a {@link List} of {@link AppStats} which matches the criteria from the database.
+     * Return a {@link Page} of {@link AppStats} which matches the criteria from the database.
      * @param criteria The object which holds all the filters, which the entities should match.
+     * @param page The page, which should be returned.
      * @return the matching entities.
      */
     @Transactional(readOnly = true)
-    public List<AppStats> findByCriteria(AppStatsCriteria criteria) {
-        log.debug("find by criteria : {}", criteria);
+    public Page<AppStats> findByCriteria(AppStatsCriteria criteria, Pageable page) {
+        log.debug("find by criteria : {}, page: {}", criteria, page);
+        final Specification<AppStats> specification = createSpecification(criteria);
+        return appStatsRepository.findAll(specification, page);
+    }
+
+    /**
+     * Return the {@link AppStats} which match the criteria after a position in the sort order, without counting them.
+     * @param criteria The object which holds all the filters, which the entities should match.
+     * @param position the position, after the last entity of the previous page.
+     * @param sort the sort of the entities, ending with a unique property.
+     * @param size the maximum number of entities.
+     * @return the matching entities.
+     */
+    @Transactional(readOnly = true)
+    public Window<AppStats> findByCriteria(AppStatsCriteria criteria, KeysetScrollPosition position, Sort sort, int size) {
+        log.debug("find by criteria : {}, position: {}", criteria, position);
+        final Specification<AppStats> specification = createSpecification(criteria).and(
+            KeysetSpecifications.startingAt(position, sort)
+        );
+        return appStatsRepository.findBy(specification, query -> query.sortBy(sort).limit(size).scroll(position));
+    }
+
+    /**
+     * Pass each {@link AppStats} which matches the criteria to an action, in id order. The entities are read from a
+     * cursor, {@link #EXPORT_FETCH_SIZE} rows at a time, read-only, bypassing the second level cache, and are detached
+     * after each fetch: the memory used doesn't depend on the number of entities.
+     * @param criteria The object which holds all the filters, which the entities should match.
+     * @param action the action, which must not keep the entities.
+     * @return the number of matching entities.
+     */
+    @Transactional(readOnly = true)
+    public long exportByCriteria(AppStatsCriteria criteria, Consumer<AppStats> action) {
+        log.debug("export by criteria : {}", criteria);
         final Specification<AppStats> specification = createSpecification(criteria);
-        return appStatsRepository.findAll(specification);
+        CriteriaBuilder builder = entityManager.getCriteriaBuilder();
+        CriteriaQuery<AppStats> query = builder.createQuery(AppStats.class);
+        Root<AppStats> root = query.from(AppStats.class);
+        Predicate predicate = specification.toPredicate(root, query, builder);
+        if (predicate != null) {
+            query.where(predicate);
+        }
+        query.orderBy(builder.asc(root.get(AppStats_.id)));
+
+        long count = 0;
+        try (
+            Stream<AppStats> stream = entityManager
+                .createQuery(query)
+                .setHint(HibernateHints.HINT_FETCH_SIZE, EXPORT_FETCH_SIZE)
+                .setHint(HibernateHints.HINT_READ_ONLY, true)
+                .setHint(SpecHints.HINT_SPEC_CACHE_STORE_MODE, CacheStoreMode.BYPASS)
+                .getResultStream()
+        ) {
+            Iterator<AppStats> iterator = stream.iterator();
+            while (iterator.hasNext()) {
+                action.accept(iterator.next());
+                if (++count % EXPORT_FETCH_SIZE == 0) {
+                    entityManager.clear();
+                }
+            }
+        }
+        return count;
     }
 
     /**
@@ -54,6 +139,18 @@ public class AppStatsQueryService extends QueryService<AppStats> {
         return appStatsRepository.count(specification);
     }
 
+    /**
+     * Return the {@link CollectionVersion} of the matching entities, without loading them.
+     * @param criteria The object which holds all the filters, which the entities should match.
+     * @return the version of the matching entities.
+     */
+    @Transactional(readOnly = true)
+    public CollectionVersion versionByCriteria(AppStatsCriteria criteria) {
+        log.debug("version by criteria : {}", criteria);
+        final Specification<AppStats> specification = createSpecification(criteria);
+        return CollectionVersions.of(entityManager, AppStats.class, specification, AppStats_.id, AppStats_.version);
+    }
+
     /**
      * Function to convert {@link AppStatsCriteria} to a {@link Specification}
      * @param criteria The object which holds all the filters, which the entities should match.
@@ -5,7 +5,10 @@ import com.kaizenmobile.repository.AppStatsRepository;
 import java.util.Optional;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
 /**
@@ -17,10 +20,16 @@ public class AppStatsService {
 
     private static final Logger log = LoggerFactory.getLogger(AppStatsService.class);
 
+    // Unique index on the case-folded tenant ids, see the 20261018080000 changelog
+    private static final String TENANT_ID_UNIQUE_INDEX = "ux_app_stats_used_tenant_id_upper";
+
     private final AppStatsRepository appStatsRepository;
 
-    public AppStatsService(AppStatsRepository appStatsRepository) {
+    private final TenantNameIndex tenantNameIndex;
+
+    public AppStatsService(AppStatsRepository appStatsRepository, TenantNameIndex tenantNameIndex) {
         this.appStatsRepository = appStatsRepository;
+        this.tenantNameIndex = tenantNameIndex;
     }
 
     /**
@@ -28,10 +37,13 @@ public class AppStatsService {
      *
      * @param appStats the entity to save.
      * @return the persisted entity.
+     * @throws CompanyAlreadyUsedException if its tenant id is already used, ignoring case.
      */
     public AppStats save(AppStats appStats) {
         log.debug("Request to save AppStats : {}", appStats);
-        return appStatsRepository.save(appStats);
+        AppStats result = saveAndFlush(appStats);
+        tenantNameIndex.put(result);
+        return result;
     }
 
     /**
@@ -39,17 +51,21 @@ public class AppStatsService {
      *
      * @param appStats the entity to save.
      * @return the persisted entity.
+     * @throws CompanyAlreadyUsedException if its tenant id is already used, ignoring case.
      */
     public AppStats update(AppStats appStats) {
         log.debug("Request to update AppStats : {}", appStats);
-        return appStatsRepository.save(appStats);
+        AppStats result = saveAndFlush(appStats);
+        tenantNameIndex.put(result);
+        return result;
     }
 
     /**
      * Partially update a appStats.
      *
-     * @param appStats the entity to update partially.
+     * @param appStats the entity to update partially, with the version it was read at if it must still be at this version.
      * @return the persisted entity.
+     * @throws CompanyAlreadyUsedException if its new tenant id is already used, ignoring case.
      */
     public Optional<AppStats> partialUpdate(AppStats appStats) {
         log.debug("Request to partially update AppStats : {}", appStats);
@@ -57,13 +73,35 @@ public class AppStatsService {
         return appStatsRepository
             .findById(appStats.getId())
             .map(existingAppStats -> {
+                if (appStats.getVersion() != null && !appStats.getVersion().equals(existingAppStats.getVersion())) {
+                    throw new ObjectOptimisticLockingFailureException(AppStats.class, appStats.getId());
+                }
                 if (appStats.getUsedTenantId() != null) {
                     existingAppStats.setUsedTenantId(appStats.getUsedTenantId());
                 }
 
                 return existingAppStats;
             })
-            .map(appStatsRepository::save);
+            .map(this::saveAndFlush)
+            .map(result -> {
+                tenantNameIndex.put(result);
+                return result;
+            });
+    }
+
+    /**
+     * Flushed for the returned entity to hold its new version, and for a tenant id used meanwhile, possibly through
+     * another node, to fail on the unique index rather than on commit.
+     */
+    private AppStats saveAndFlush(AppStats appStats) {
+        try {
+            return appStatsRepository.saveAndFlush(appStats);
+        } catch (DataIntegrityViolationException e) {
+            if (UniqueConstraints.isViolated(e, TENANT_ID_UNIQUE_INDEX)) {
+                throw new CompanyAlreadyUsedException();
+            }
+            throw e;
+        }
     }
 
     /**
@@ -86,9 +124,19 @@ public class AppStatsService {
     public void delete(Long id) {
         log.debug("Request to delete AppStats : {}", id);
         appStatsRepository.deleteById(id);
+        tenantNameIndex.remove(id);
     }
 
+    /**
+     * Check whether a company name is already used as a tenant id, ignoring case.
+     * <p>
+     * This is answered from the {@link TenantNameIndex}, without a database round trip once the index is loaded.
+     *
+     * @param companyName the company name to check.
+     * @return true if the company name is already used.
+     */
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
     public boolean isCompanyNameUsed(String companyName) {
-        return appStatsRepository.findOneByUsedTenantIdIgnoreCase(companyName).isPresent();
+        return tenantNameIndex.contains(companyName);
     }
 }
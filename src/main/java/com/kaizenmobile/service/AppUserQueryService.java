@@ -3,7 +3,9 @@ package com.kaizenmobile.service;
 import com.kaizenmobile.domain.*; // for static metamodels
 import com.kaizenmobile.domain.AppUser;
 import com.kaizenmobile.repository.AppUserRepository;
+import com.kaizenmobile.repository.CollectionVersion;
 import com.kaizenmobile.service.criteria.AppUserCriteria;
+import jakarta.persistence.EntityManager;
 import jakarta.persistence.criteria.JoinType;
 import java.util.List;
 import org.slf4j.Logger;
@@ -27,8 +29,11 @@ public class AppUserQueryService extends QueryService<AppUser> {
 
     private final AppUserRepository appUserRepository;
 
-    public AppUserQueryService(AppUserRepository appUserRepository) {
+    private final EntityManager entityManager;
+
+    public AppUserQueryService(AppUserRepository appUserRepository, EntityManager entityManager) {
         this.appUserRepository = appUserRepository;
+        this.entityManager = entityManager;
     }
 
     /**
@@ -55,6 +60,18 @@ public class AppUserQueryService extends QueryService<AppUser> {
         return appUserRepository.count(specification);
     }
 
+    /**
+     * Return the {@link CollectionVersion} of the matching entities, without loading them.
+     * @param criteria The object which holds all the filters, which the entities should match.
+     * @return the version of the matching entities.
+     */
+    @Transactional(readOnly = true)
+    public CollectionVersion versionByCriteria(AppUserCriteria criteria) {
+        log.debug("version by criteria : {}", criteria);
+        final Specification<AppUser> specification = createSpecification(criteria);
+        return CollectionVersions.of(entityManager, AppUser.class, specification, AppUser_.id, AppUser_.version);
+    }
+
     /**
      * Function to convert {@link AppUserCriteria} to a {@link Specification}
      * @param criteria The object which holds all the filters, which the entities should match.
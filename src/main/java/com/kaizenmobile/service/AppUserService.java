@@ -8,6 +8,7 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -50,13 +51,14 @@ public class AppUserService {
      */
     public AppUser update(AppUser appUser) {
         log.debug("Request to update AppUser : {}", appUser);
-        return appUserRepository.save(appUser);
+        // Flushed for the returned entity to hold its new version
+        return appUserRepository.saveAndFlush(appUser);
     }
 
     /**
      * Partially update a appUser.
      *
-     * @param appUser the entity to update partially.
+     * @param appUser the entity to update partially, with the version it was read at if it must still be at this version.
      * @return the persisted entity.
      */
     public Optional<AppUser> partialUpdate(AppUser appUser) {
@@ -65,13 +67,16 @@ public class AppUserService {
         return appUserRepository
             .findById(appUser.getId())
             .map(existingAppUser -> {
+                if (appUser.getVersion() != null && !appUser.getVersion().equals(existingAppUser.getVersion())) {
+                    throw new ObjectOptimisticLockingFailureException(AppUser.class, appUser.getId());
+                }
                 if (appUser.getTenantId() != null) {
                     existingAppUser.setTenantId(appUser.getTenantId());
                 }
 
                 return existingAppUser;
             })
-            .map(appUserRepository::save);
+            .map(appUserRepository::saveAndFlush);
     }
 
     /**
@@ -0,0 +1,106 @@
+package com.kaizenmobile.service;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * A lock-free Bloom filter of strings.
+ * <p>
+ * A {@code false} answer from {@link #mightContain(String)} is definite, a {@code true} answer may be a false positive.
+ * Elements can't be removed: once an element is no longer relevant, the filter has to be rebuilt to reclaim its bits.
+ */
+public final class BloomFilter {
+
+    private final AtomicLongArray bits;
+
+    private final long bitSize;
+
+    private final int hashFunctions;
+
+    private final AtomicLong bitCount = new AtomicLong();
+
+    private final AtomicLong insertions = new AtomicLong();
+
+    private BloomFilter(long bitSize, int hashFunctions) {
+        this.bits = new AtomicLongArray((int) ((bitSize + 63) / 64));
+        this.bitSize = bitSize;
+        this.hashFunctions = hashFunctions;
+    }
+
+    /**
+     * Create a filter sized for the given number of elements and target false positive probability.
+     *
+     * @param expectedInsertions the number of elements the filter is sized for.
+     * @param fpp the target false positive probability once {@code expectedInsertions} elements are stored.
+     * @return a new, empty filter.
+     */
+    public static BloomFilter create(long expectedInsertions, double fpp) {
+        if (fpp <= 0 || fpp >= 1) {
+            throw new IllegalArgumentException("False positive probability must be in (0, 1): " + fpp);
+        }
+        long n = Math.max(1, expectedInsertions);
+        long bitSize = Math.max(64, (long) (-n * Math.log(fpp) / (Math.log(2) * Math.log(2))));
+        int hashFunctions = Math.max(1, (int) Math.round((double) bitSize / n * Math.log(2)));
+        return new BloomFilter(bitSize, hashFunctions);
+    }
+
+    public void put(String value) {
+        long hash1 = hash(value);
+        long hash2 = mix(hash1 ^ 0x9E3779B97F4A7C15L);
+        for (int i = 0; i < hashFunctions; i++) {
+            long index = Math.floorMod(hash1 + i * hash2, bitSize);
+            long mask = 1L << index;
+            int word = (int) (index >>> 6);
+            if ((bits.getAndAccumulate(word, mask, (current, bit) -> current | bit) & mask) == 0) {
+                bitCount.incrementAndGet();
+            }
+        }
+        insertions.incrementAndGet();
+    }
+
+    public boolean mightContain(String value) {
+        long hash1 = hash(value);
+        long hash2 = mix(hash1 ^ 0x9E3779B97F4A7C15L);
+        for (int i = 0; i < hashFunctions; i++) {
+            long index = Math.floorMod(hash1 + i * hash2, bitSize);
+            if ((bits.get((int) (index >>> 6)) & (1L << index)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @return the ratio of bits set, between 0 and 1.
+     */
+    public double fillRatio() {
+        return (double) bitCount.get() / bitSize;
+    }
+
+    /**
+     * @return the current false positive probability, estimated from the fill ratio.
+     */
+    public double expectedFpp() {
+        return Math.pow(fillRatio(), hashFunctions);
+    }
+
+    public long insertions() {
+        return insertions.get();
+    }
+
+    private static long hash(String value) {
+        // FNV-1a over the UTF-16 code units, then a finalizer to spread the bits
+        long hash = 0xCBF29CE484222325L;
+        for (int i = 0; i < value.length(); i++) {
+            hash ^= value.charAt(i);
+            hash *= 0x100000001B3L;
+        }
+        return mix(hash);
+    }
+
+    private static long mix(long value) {
+        value = (value ^ (value >>> 33)) * 0xFF51AFD7ED558CCDL;
+        value = (value ^ (value >>> 33)) * 0xC4CEB9FE1A85EC53L;
+        return value ^ (value >>> 33);
+    }
+}
@@ -0,0 +1,14 @@
+package com.kaizenmobile.service;
+
+/**
+ * Thrown when a row of a bulk import can't be read: the row is reported as failed, and the import goes on with the
+ * next one.
+ */
+public class BulkImportRowException extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
+    public BulkImportRowException(String message) {
+        super(message);
+    }
+}
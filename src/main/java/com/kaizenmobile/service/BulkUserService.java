@@ -0,0 +1,405 @@
+package com.kaizenmobile.service;
+
+import com.kaizenmobile.config.ApplicationProperties;
+import com.kaizenmobile.config.Constants;
+import com.kaizenmobile.domain.AppStats;
+import com.kaizenmobile.domain.AppUser;
+import com.kaizenmobile.domain.Authority;
+import com.kaizenmobile.domain.User;
+import com.kaizenmobile.repository.AppStatsRepository;
+import com.kaizenmobile.repository.AppUserRepository;
+import com.kaizenmobile.repository.UserExportRow;
+import com.kaizenmobile.repository.UserRepository;
+import com.kaizenmobile.security.AuthoritiesConstants;
+import com.kaizenmobile.security.AuthorityRegistry;
+import com.kaizenmobile.security.BCryptWorkFactor;
+import com.kaizenmobile.security.UnknownAuthorityException;
+import com.kaizenmobile.service.dto.BulkImportResultDTO;
+import com.kaizenmobile.service.dto.BulkUserDTO;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceException;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.cache.CacheManager;
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.dao.DataAccessException;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import tech.jhipster.security.RandomUtil;
+
+/**
+ * Bulk import and export of the users, with their authorities and tenants ({@link AppUser} and {@link AppStats}).
+ * <p>
+ * An import reads its rows one at a time and handles them {@code application.bulk-import.chunk-size} at a time: the
+ * rows of a chunk are validated, their logins and emails are checked with one query each, their passwords are hashed in
+ * parallel, off the bounded hashing pool of the logins, and the chunk is written in its own transaction, batched by
+ * Hibernate. A row which can't be imported is reported and skipped, the rows of a chunk which can't be written are all
+ * reported. An export reads the users from a database cursor. Neither holds more than a chunk of users in memory.
+ */
+@Service
+public class BulkUserService {
+
+    private static final Logger log = LoggerFactory.getLogger(BulkUserService.class);
+
+    private final ApplicationProperties.BulkImport properties;
+
+    private final UserRepository userRepository;
+
+    private final AppUserRepository appUserRepository;
+
+    private final AppStatsRepository appStatsRepository;
+
+    private final AuthorityRegistry authorityRegistry;
+
+    // Not the bounded encoder of the logins, which the imports would starve
+    private final PasswordEncoder passwordEncoder;
+
+    private final UniquenessFilter uniquenessFilter;
+
+    private final TenantNameIndex tenantNameIndex;
+
+    private final MailService mailService;
+
+    private final CacheManager cacheManager;
+
+    private final Validator validator;
+
+    private final EntityManager entityManager;
+
+    private final TransactionTemplate transactionTemplate;
+
+    public BulkUserService(
+        ApplicationProperties applicationProperties,
+        UserRepository userRepository,
+        AppUserRepository appUserRepository,
+        AppStatsRepository appStatsRepository,
+        AuthorityRegistry authorityRegistry,
+        BCryptWorkFactor bCryptWorkFactor,
+        UniquenessFilter uniquenessFilter,
+        TenantNameIndex tenantNameIndex,
+        MailService mailService,
+        CacheManager cacheManager,
+        Validator validator,
+        EntityManager entityManager,
+        PlatformTransactionManager transactionManager
+    ) {
+        this.properties = applicationProperties.getBulkImport();
+        this.userRepository = userRepository;
+        this.appUserRepository = appUserRepository;
+        this.appStatsRepository = appStatsRepository;
+        this.authorityRegistry = authorityRegistry;
+        this.passwordEncoder = bCryptWorkFactor.passwordEncoder();
+        this.uniquenessFilter = uniquenessFilter;
+        this.tenantNameIndex = tenantNameIndex;
+        this.mailService = mailService;
+        this.cacheManager = cacheManager;
+        this.validator = validator;
+        this.entityManager = entityManager;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    /**
+     * Create the users of the rows, with their tenant, creating the tenants not used yet.
+     * <p>
+     * The users without password get a random one and a reset key, the users not activated an activation key.
+     *
+     * @param rows the rows, read as they are iterated: a row which can't be read throws a {@link BulkImportRowException}.
+     * @param sendEmails whether to send the activation, or creation, emails to the users created: they are queued in
+     *                   the outbox with the users.
+     * @return the outcome of the import.
+     */
+    public BulkImportResultDTO importUsers(Iterator<BulkUserDTO> rows, boolean sendEmails) {
+        BulkImportResultDTO result = new BulkImportResultDTO();
+        ExecutorService hashingExecutor = Executors.newFixedThreadPool(
+            properties.getHashingParallelism(),
+            new CustomizableThreadFactory("kaizen-mobile-bulk-hashing-")
+        );
+        try {
+            List<Row> chunk = new ArrayList<>(properties.getChunkSize());
+            long number = 0;
+            while (rows.hasNext()) {
+                number++;
+                try {
+                    chunk.add(new Row(number, rows.next()));
+                } catch (BulkImportRowException e) {
+                    result.addError(number, null, e.getMessage());
+                }
+                if (chunk.size() == properties.getChunkSize()) {
+                    importChunk(chunk, hashingExecutor, sendEmails, result);
+                    chunk.clear();
+                }
+            }
+            importChunk(chunk, hashingExecutor, sendEmails, result);
+            result.setRows(number);
+            result.getErrors().sort(Comparator.comparingLong(BulkImportResultDTO.RowError::row));
+        } finally {
+            hashingExecutor.shutdownNow();
+        }
+        log.info("Imported {} users out of {} rows, {} rows failed", result.getCreated(), result.getRows(), result.getErrors().size());
+        return result;
+    }
+
+    private void importChunk(List<Row> chunk, ExecutorService hashingExecutor, boolean sendEmails, BulkImportResultDTO result) {
+        List<Row> valid = validate(chunk, result);
+        valid = checkUniqueness(valid, result);
+        // Hashed before the transaction, which doesn't hold a connection while hashing
+        valid = hashPasswords(valid, hashingExecutor, result);
+        if (valid.isEmpty()) {
+            return;
+        }
+        List<Row> written = valid;
+        List<User> created;
+        try {
+            created = transactionTemplate.execute(status -> write(written, sendEmails));
+        } catch (DataAccessException | PersistenceException e) {
+            // Thrown untranslated by the flush of the shared entity manager, e.g. for a login or tenant just created elsewhere
+            String message = NestedExceptionUtils.getMostSpecificCause(e).getMessage();
+            log.warn("Could not write {} imported users: {}", written.size(), message);
+            written.forEach(row -> result.addError(row.number, row.login, "Not written: " + message));
+            return;
+        }
+        result.setCreated(result.getCreated() + created.size());
+        created.forEach(this::clearUserCaches);
+    }
+
+    private List<Row> validate(List<Row> chunk, BulkImportResultDTO result) {
+        List<Row> valid = new ArrayList<>(chunk.size());
+        Set<String> logins = new HashSet<>();
+        Set<String> emails = new HashSet<>();
+        for (Row row : chunk) {
+            BulkUserDTO user = row.user;
+            Set<ConstraintViolation<BulkUserDTO>> violations = validator.validate(user);
+            if (!violations.isEmpty()) {
+                String message = violations
+                    .stream()
+                    .map(violation -> violation.getPropertyPath() + " " + violation.getMessage())
+                    .sorted()
+                    .collect(Collectors.joining(", "));
+                result.addError(row.number, user.getLogin(), message);
+                continue;
+            }
+            row.login = user.getLogin().toLowerCase(Locale.ENGLISH);
+            row.email = user.getEmail().toLowerCase(Locale.ENGLISH);
+            try {
+                boolean defaultAuthorities = user.getAuthorities() == null || user.getAuthorities().isEmpty();
+                row.authorities = authorityRegistry.resolve(defaultAuthorities ? Set.of(AuthoritiesConstants.USER) : user.getAuthorities());
+            } catch (UnknownAuthorityException e) {
+                result.addError(row.number, row.login, e.getMessage());
+                continue;
+            }
+            if (!logins.add(row.login)) {
+                result.addError(row.number, row.login, "Login name repeated in the import");
+            } else if (!emails.add(row.email)) {
+                result.addError(row.number, row.login, "Email repeated in the import");
+            } else {
+                valid.add(row);
+            }
+        }
+        return valid;
+    }
+
+    private List<Row> checkUniqueness(List<Row> rows, BulkImportResultDTO result) {
+        // The uniqueness filter rules out most new logins and emails without checking them
+        List<String> logins = rows.stream().map(row -> row.login).filter(uniquenessFilter::mightContainLogin).toList();
+        List<String> emails = rows.stream().map(row -> row.email).filter(uniquenessFilter::mightContainEmail).toList();
+        Set<String> usedLogins = logins.isEmpty() ? Set.of() : new HashSet<>(userRepository.findAllLoginsByLoginIn(logins));
+        Set<String> usedEmails = emails.isEmpty() ? Set.of() : new HashSet<>(userRepository.findAllEmailsByEmailIn(emails));
+        List<Row> unique = new ArrayList<>(rows.size());
+        for (Row row : rows) {
+            if (usedLogins.contains(row.login)) {
+                result.addError(row.number, row.login, "Login name already used");
+            } else if (usedEmails.contains(row.email)) {
+                result.addError(row.number, row.login, "Email is already in use");
+            } else {
+                unique.add(row);
+            }
+        }
+        return unique;
+    }
+
+    private List<Row> hashPasswords(List<Row> rows, ExecutorService hashingExecutor, BulkImportResultDTO result) {
+        List<CompletableFuture<String>> hashes = rows
+            .stream()
+            .map(row -> {
+                String password = row.user.getPassword() == null ? RandomUtil.generatePassword() : row.user.getPassword();
+                return CompletableFuture.supplyAsync(() -> passwordEncoder.encode(password), hashingExecutor);
+            })
+            .toList();
+        List<Row> hashed = new ArrayList<>(rows.size());
+        for (int i = 0; i < rows.size(); i++) {
+            Row row = rows.get(i);
+            try {
+                row.passwordHash = hashes.get(i).join();
+                hashed.add(row);
+            } catch (CompletionException e) {
+                result.addError(row.number, row.login, "Password could not be hashed: " + e.getCause().getMessage());
+            }
+        }
+        return hashed;
+    }
+
+    private List<User> write(List<Row> rows, boolean sendEmails) {
+        List<User> users = new ArrayList<>(rows.size());
+        List<AppUser> appUsers = new ArrayList<>();
+        Map<String, AppStats> newTenants = new HashMap<>();
+        for (Row row : rows) {
+            User user = createUser(row);
+            users.add(user);
+            String tenantId = row.user.getTenantId();
+            if (tenantId != null) {
+                appUsers.add(new AppUser().tenantId(tenantId).internalUser(user));
+                String foldedTenantId = tenantId.toUpperCase(Locale.ROOT);
+                if (!newTenants.containsKey(foldedTenantId) && !tenantNameIndex.contains(tenantId)) {
+                    newTenants.put(foldedTenantId, new AppStats().usedTenantId(tenantId));
+                }
+            }
+        }
+        userRepository.saveAll(users);
+        appUserRepository.saveAll(appUsers);
+        appStatsRepository.saveAll(newTenants.values()).forEach(tenantNameIndex::put);
+        if (sendEmails) {
+            queueEmails(users);
+        }
+        entityManager.flush();
+        // The written entities aren't needed anymore by this transaction
+        entityManager.clear();
+        users.forEach(user -> uniquenessFilter.putUser(user.getLogin(), user.getEmail()));
+        return users;
+    }
+
+    private static User createUser(Row row) {
+        BulkUserDTO userDTO = row.user;
+        User user = new User();
+        user.setLogin(row.login);
+        user.setEmail(row.email);
+        user.setFirstName(userDTO.getFirstName());
+        user.setLastName(userDTO.getLastName());
+        user.setLangKey(userDTO.getLangKey() == null ? Constants.DEFAULT_LANGUAGE : userDTO.getLangKey());
+        user.setPassword(row.passwordHash);
+        if (userDTO.getPassword() == null) {
+            user.setResetKey(RandomUtil.generateResetKey());
+            user.setResetDate(Instant.now());
+        }
+        user.setActivated(userDTO.isActivated());
+        if (!userDTO.isActivated()) {
+            user.setActivationKey(RandomUtil.generateActivationKey());
+        }
+        user.setAuthorities(row.authorities);
+        return user;
+    }
+
+    private void clearUserCaches(User user) {
+        // Evicts the lookups of the users, which may have been cached as missing
+        Objects.requireNonNull(cacheManager.getCache(UserRepository.USERS_BY_LOGIN_CACHE)).evict(user.getLogin());
+        Objects.requireNonNull(cacheManager.getCache(UserService.ACCOUNT_VIEWS_CACHE)).evict(user.getLogin());
+        Objects.requireNonNull(cacheManager.getCache(UserRepository.USERS_BY_EMAIL_CACHE)).evict(user.getEmail());
+    }
+
+    private void queueEmails(List<User> users) {
+        for (User user : users) {
+            if (!user.isActivated()) {
+                mailService.queueActivationEmail(user);
+            } else if (user.getResetKey() != null) {
+                mailService.queueCreationEmail(user);
+            }
+        }
+    }
+
+    /**
+     * Pass each user, with its authorities and tenant, to an action, in id order. The users are read from a database
+     * cursor, so the memory used doesn't depend on their number.
+     *
+     * @param action the action, which must not keep the users.
+     * @return the number of users.
+     */
+    @Transactional(readOnly = true)
+    public long exportUsers(Consumer<BulkUserDTO> action) {
+        long count = 0;
+        try (Stream<UserExportRow> rows = userRepository.streamAllForExport()) {
+            Iterator<UserExportRow> iterator = rows.iterator();
+            BulkUserDTO current = null;
+            Long currentId = null;
+            while (iterator.hasNext()) {
+                UserExportRow row = iterator.next();
+                // The rows of a user follow each other, one per authority
+                if (!row.id().equals(currentId)) {
+                    if (current != null) {
+                        action.accept(current);
+                        count++;
+                    }
+                    current = toBulkUser(row);
+                    currentId = row.id();
+                }
+                if (row.authority() != null) {
+                    current.getAuthorities().add(row.authority());
+                }
+            }
+            if (current != null) {
+                action.accept(current);
+                count++;
+            }
+        }
+        return count;
+    }
+
+    private static BulkUserDTO toBulkUser(UserExportRow row) {
+        BulkUserDTO user = new BulkUserDTO();
+        user.setLogin(row.login());
+        user.setEmail(row.email());
+        user.setFirstName(row.firstName());
+        user.setLastName(row.lastName());
+        user.setLangKey(row.langKey());
+        user.setActivated(row.activated());
+        user.setAuthorities(new TreeSet<>());
+        user.setTenantId(row.tenantId());
+        return user;
+    }
+
+    /**
+     * A row of an import, with its number and what was computed of it.
+     */
+    private static final class Row {
+
+        private final long number;
+
+        private final BulkUserDTO user;
+
+        private String login;
+
+        private String email;
+
+        private String passwordHash;
+
+        private Set<Authority> authorities;
+
+        private Row(long number, BulkUserDTO user) {
+            this.number = number;
+            this.user = user;
+        }
+    }
+}
@@ -0,0 +1,243 @@
+package com.kaizenmobile.service;
+
+import com.kaizenmobile.config.ApplicationProperties;
+import com.kaizenmobile.domain.AppStats;
+import com.kaizenmobile.domain.User;
+import com.kaizenmobile.repository.AppStatsRepository;
+import com.kaizenmobile.repository.AuthorityRepository;
+import com.kaizenmobile.repository.UserRepository;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.ToIntFunction;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+
+/**
+ * Warm-up of the caches once the application is ready, before it is reported ready to take traffic.
+ * <p>
+ * The authorities, the most recently active users with their authorities and the tenants ({@link AppStats}) are loaded
+ * in this order, the users and tenants in batches loaded in parallel, filling the Hibernate second level cache and the
+ * {@link UserRepository#USERS_BY_LOGIN_CACHE} cache. The warm-up stops at its time budget and never fails the
+ * application: whatever it could not load is loaded on first use, as without it.
+ */
+@Service
+public class CacheWarmUpService {
+
+    private static final Logger log = LoggerFactory.getLogger(CacheWarmUpService.class);
+
+    // Margin for the clocks of the nodes setting the last modified dates
+    private static final Duration CLOCK_SKEW = Duration.ofMinutes(1);
+
+    public enum State {
+        DISABLED,
+        PENDING,
+        RUNNING,
+        COMPLETED,
+        BUDGET_EXHAUSTED,
+        FAILED,
+    }
+
+    private final ApplicationProperties.CacheWarmUp properties;
+
+    private final AuthorityRepository authorityRepository;
+
+    private final UserRepository userRepository;
+
+    private final AppStatsRepository appStatsRepository;
+
+    private final CacheManager cacheManager;
+
+    private final Step authorities = new Step();
+
+    private final Step users = new Step();
+
+    private final Step tenants = new Step();
+
+    private volatile State state;
+
+    private volatile long startedAt;
+
+    private volatile Duration duration;
+
+    private volatile String error;
+
+    public CacheWarmUpService(
+        ApplicationProperties applicationProperties,
+        AuthorityRepository authorityRepository,
+        UserRepository userRepository,
+        AppStatsRepository appStatsRepository,
+        CacheManager cacheManager
+    ) {
+        this.properties = applicationProperties.getCacheWarmUp();
+        this.authorityRepository = authorityRepository;
+        this.userRepository = userRepository;
+        this.appStatsRepository = appStatsRepository;
+        this.cacheManager = cacheManager;
+        this.state = properties.isEnabled() ? State.PENDING : State.DISABLED;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (state != State.PENDING) {
+            return;
+        }
+        Thread thread = new Thread(this::warmUp, "cache-warm-up");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * Load the caches, within the time budget.
+     */
+    public void warmUp() {
+        startedAt = System.nanoTime();
+        state = State.RUNNING;
+        long deadline = startedAt + properties.getTimeBudget().toNanos();
+        ExecutorService executor = Executors.newFixedThreadPool(
+            properties.getParallelism(),
+            new CustomizableThreadFactory("cache-warm-up-")
+        );
+        try {
+            int authorityCount = authorityRepository.findAll().size();
+            authorities.total = authorityCount;
+            authorities.loaded.set(authorityCount);
+
+            List<Long> userIds = userRepository.findMostRecentlyActiveIds(PageRequest.of(0, properties.getMaxUsers()));
+            boolean completed = loadInBatches(executor, users, userIds, this::loadUsers, deadline);
+            if (completed) {
+                List<Long> tenantIds = appStatsRepository.findIds(PageRequest.of(0, properties.getMaxTenants()));
+                completed = loadInBatches(executor, tenants, tenantIds, ids -> appStatsRepository.findAllById(ids).size(), deadline);
+            }
+            state = completed ? State.COMPLETED : State.BUDGET_EXHAUSTED;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            error = "interrupted";
+            state = State.FAILED;
+        } catch (RuntimeException e) {
+            log.warn("Cache warm-up failed, the caches will be loaded on first use: {}", e.getMessage());
+            error = e.getMessage();
+            state = State.FAILED;
+        } finally {
+            executor.shutdownNow();
+            duration = Duration.ofNanos(System.nanoTime() - startedAt);
+        }
+        log.info(
+            "Cache warm-up {} in {} ms: {} authorities, {} users, {} tenants",
+            state,
+            duration.toMillis(),
+            authorities.loaded,
+            users.loaded,
+            tenants.loaded
+        );
+    }
+
+    private boolean loadInBatches(ExecutorService executor, Step step, List<Long> ids, ToIntFunction<List<Long>> loader, long deadline)
+        throws InterruptedException {
+        step.total = ids.size();
+        List<Callable<Void>> batches = new ArrayList<>();
+        for (int from = 0; from < ids.size(); from += properties.getBatchSize()) {
+            List<Long> batch = ids.subList(from, Math.min(from + properties.getBatchSize(), ids.size()));
+            batches.add(() -> {
+                step.loaded.addAndGet(loader.applyAsInt(batch));
+                return null;
+            });
+        }
+        long remaining = deadline - System.nanoTime();
+        if (remaining <= 0) {
+            return false;
+        }
+        // Batches still running or queued at the deadline are cancelled
+        boolean completed = true;
+        for (Future<Void> future : executor.invokeAll(batches, remaining, TimeUnit.NANOSECONDS)) {
+            if (future.isCancelled()) {
+                completed = false;
+                continue;
+            }
+            try {
+                future.get();
+            } catch (ExecutionException e) {
+                throw e.getCause() instanceof RuntimeException cause ? cause : new IllegalStateException(e.getCause());
+            }
+        }
+        return completed;
+    }
+
+    private int loadUsers(List<Long> ids) {
+        Instant queriedAt = Instant.now();
+        List<User> loadedUsers = userRepository.findAllWithAuthoritiesByIdIn(ids);
+        Cache cache = cacheManager.getCache(UserRepository.USERS_BY_LOGIN_CACHE);
+        if (cache != null) {
+            // Loaded through the cache like on a miss, keeping a user already loaded by a request
+            loadedUsers.forEach(user -> cache.get(user.getLogin(), () -> user));
+            // A user changed between the query and the load was evicted before it was cached, so it is evicted again
+            Instant since = queriedAt.minus(CLOCK_SKEW);
+            userRepository.findLoginsByIdInModifiedSince(ids, since).forEach(cache::evict);
+        }
+        return loadedUsers.size();
+    }
+
+    public State getState() {
+        return state;
+    }
+
+    /**
+     * @return the progress of the warm-up, out of service until it is over.
+     */
+    public Health health() {
+        State currentState = state;
+        Health.Builder builder = switch (currentState) {
+            case PENDING, RUNNING -> Health.outOfService();
+            default -> Health.up();
+        };
+        builder.withDetail("state", currentState);
+        if (currentState == State.DISABLED) {
+            return builder.build();
+        }
+        builder
+            .withDetail("authorities", authorities.progress())
+            .withDetail("users", users.progress())
+            .withDetail("tenants", tenants.progress());
+        if (currentState == State.RUNNING) {
+            builder.withDetail("elapsed", Duration.ofNanos(System.nanoTime() - startedAt));
+        } else if (duration != null) {
+            builder.withDetail("duration", duration);
+        }
+        if (error != null) {
+            builder.withDetail("error", error);
+        }
+        return builder.build();
+    }
+
+    private static final class Step {
+
+        private volatile int total;
+
+        private final AtomicInteger loaded = new AtomicInteger();
+
+        private Map<String, Integer> progress() {
+            Map<String, Integer> progress = new LinkedHashMap<>();
+            progress.put("loaded", loaded.get());
+            progress.put("total", total);
+            return progress;
+        }
+    }
+}
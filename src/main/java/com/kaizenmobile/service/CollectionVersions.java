@@ -0,0 +1,50 @@
+package com.kaizenmobile.service;
+
+import com.kaizenmobile.repository.CollectionVersion;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.Tuple;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Expression;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import jakarta.persistence.metamodel.SingularAttribute;
+import org.springframework.data.jpa.domain.Specification;
+
+/**
+ * Reads the {@link CollectionVersion} of the versioned entities matching a {@link Specification}.
+ * <p>
+ * The modification is the sum of the versions weighted by the ids, {@code sum(id * (version + 1))}: with a plain sum of
+ * the versions, an entity leaving the collection with version 1 and another one entering it with version 1 would leave
+ * it unchanged. An entity entering, leaving or modified now changes it by a multiple of its own id.
+ */
+final class CollectionVersions {
+
+    private CollectionVersions() {}
+
+    static <T> CollectionVersion of(
+        EntityManager entityManager,
+        Class<T> entityClass,
+        Specification<T> specification,
+        SingularAttribute<? super T, Long> idAttribute,
+        SingularAttribute<? super T, Integer> versionAttribute
+    ) {
+        CriteriaBuilder builder = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Tuple> query = builder.createTupleQuery();
+        Root<T> root = query.from(entityClass);
+        Expression<Number> weightedVersion = builder.prod(root.get(idAttribute), builder.sum(root.get(versionAttribute), 1));
+        query.multiselect(builder.count(root), builder.max(root.get(idAttribute)), builder.sum(weightedVersion));
+        Predicate predicate = specification.toPredicate(root, query, builder);
+        if (predicate != null) {
+            query.where(predicate);
+        }
+        Tuple result = entityManager.createQuery(query).getSingleResult();
+        Long lastId = result.get(1, Long.class);
+        Number weightedVersionSum = result.get(2, Number.class);
+        return new CollectionVersion(
+            result.get(0, Long.class),
+            lastId == null ? 0 : lastId,
+            weightedVersionSum == null ? 0 : weightedVersionSum.longValue()
+        );
+    }
+}
@@ -0,0 +1,87 @@
+package com.kaizenmobile.service;
+
+import com.kaizenmobile.domain.JobLock;
+import com.kaizenmobile.repository.JobLockRepository;
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.UUID;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Service for the locks making a scheduled job run on a single instance at a time.
+ * <p>
+ * A lock is a row of the database, taken for a lease by a conditional update, in its own transaction: an instance holding
+ * a lock extends it while it runs the job, and releases it when done. The lock of an instance which stopped meanwhile
+ * expires at the end of its lease.
+ */
+@Service
+public class JobLockService {
+
+    private static final Logger log = LoggerFactory.getLogger(JobLockService.class);
+
+    private final JobLockRepository jobLockRepository;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final String owner;
+
+    public JobLockService(JobLockRepository jobLockRepository, PlatformTransactionManager transactionManager) {
+        this.jobLockRepository = jobLockRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.owner = hostName() + "/" + UUID.randomUUID();
+    }
+
+    private static String hostName() {
+        try {
+            return InetAddress.getLocalHost().getHostName();
+        } catch (UnknownHostException e) {
+            return "unknown";
+        }
+    }
+
+    /**
+     * Take the lock, or extend it when this instance already holds it.
+     *
+     * @param name the name of the lock.
+     * @param lease how long the lock is held, unless extended or released.
+     * @return whether this instance holds the lock.
+     */
+    public boolean tryLock(String name, Duration lease) {
+        Instant now = Instant.now();
+        Instant until = now.plus(lease);
+        try {
+            Boolean locked = transactionTemplate.execute(status -> {
+                if (jobLockRepository.lock(name, owner, now, until) == 1) {
+                    return true;
+                }
+                if (jobLockRepository.existsById(name)) {
+                    return false;
+                }
+                jobLockRepository.saveAndFlush(new JobLock().name(name).lockedBy(owner).lockedAt(now).lockedUntil(until));
+                return true;
+            });
+            return Boolean.TRUE.equals(locked);
+        } catch (DataIntegrityViolationException e) {
+            log.debug("Lock {} was created by another instance", name);
+            return false;
+        }
+    }
+
+    /**
+     * Release the lock, if this instance holds it.
+     *
+     * @param name the name of the lock.
+     */
+    public void unlock(String name) {
+        transactionTemplate.executeWithoutResult(status -> jobLockRepository.unlock(name, owner, Instant.now()));
+    }
+}
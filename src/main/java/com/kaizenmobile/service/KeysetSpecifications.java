@@ -0,0 +1,35 @@
+package com.kaizenmobile.service;
+
+import org.springframework.data.domain.KeysetScrollPosition;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+
+/**
+ * Specifications of the keyset pagination of the listings.
+ */
+final class KeysetSpecifications {
+
+    private KeysetSpecifications() {}
+
+    /**
+     * The entities from the first sort key of a position on. Spring Data reads the entities after the position with an
+     * {@code or} of the sort keys, which the databases can't use as the start of an index range scan: this bound can.
+     *
+     * @param position the position, after the last entity of the previous page.
+     * @param sort the sort of the entities.
+     * @param <T> the type of the entities.
+     * @return the specification, matching everything at the initial position.
+     */
+    @SuppressWarnings({ "unchecked", "rawtypes" })
+    static <T> Specification<T> startingAt(KeysetScrollPosition position, Sort sort) {
+        if (position.isInitial()) {
+            return Specification.where(null);
+        }
+        Sort.Order order = sort.iterator().next();
+        Comparable key = (Comparable) position.getKeys().get(order.getProperty());
+        return (root, query, builder) ->
+            order.isAscending()
+                ? builder.greaterThanOrEqualTo(root.get(order.getProperty()), key)
+                : builder.lessThanOrEqualTo(root.get(order.getProperty()), key);
+    }
+}
@@ -0,0 +1,360 @@
+package com.kaizenmobile.service;
+
+import com.kaizenmobile.config.ApplicationProperties;
+import com.kaizenmobile.domain.MailOutboxMessage;
+import com.kaizenmobile.repository.MailOutboxMessageRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import jakarta.mail.MessagingException;
+import jakarta.mail.Transport;
+import jakarta.mail.internet.MimeMessage;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.mail.MailException;
+import org.springframework.mail.MailSendException;
+import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.mail.javamail.JavaMailSenderImpl;
+import org.springframework.mail.javamail.MimeMessageHelper;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import tech.jhipster.config.JHipsterProperties;
+
+/**
+ * Sends the emails of the outbox ({@link MailOutboxMessage}) on its own thread, away from the shared task executor.
+ * <p>
+ * The due messages are claimed batch-size at a time, by pushing them back by a lease in one optimistically locked
+ * transaction, so two instances never send the same message at once. They are then sent over one SMTP connection, kept
+ * open between batches while in use, and deleted once sent. A failed message is retried with an exponential backoff,
+ * and given up after max-attempts. A message whose sending was not recorded, the instance stopping in between, is sent
+ * again with the same {@code Message-ID}.
+ */
+@Service
+public class MailOutboxDispatcher {
+
+    private static final Logger log = LoggerFactory.getLogger(MailOutboxDispatcher.class);
+
+    public static final String PENDING_METER_NAME = "mail.outbox.pending";
+    public static final String MESSAGES_METER_NAME = "mail.outbox.messages";
+    public static final String DELIVERY_METER_NAME = "mail.outbox.delivery";
+
+    private static final int MAX_ERROR_LENGTH = 500;
+
+    private final ApplicationProperties.MailOutbox properties;
+
+    private final MailOutboxMessageRepository mailOutboxMessageRepository;
+
+    private final JavaMailSender javaMailSender;
+
+    private final JHipsterProperties jHipsterProperties;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor(
+        new CustomizableThreadFactory("kaizen-mobile-mail-outbox-")
+    );
+
+    private final AtomicBoolean wakeUpPending = new AtomicBoolean();
+
+    private final AtomicLong pending = new AtomicLong();
+
+    private final Counter sentCounter;
+    private final Counter retriedCounter;
+    private final Counter abandonedCounter;
+    private final Timer deliveryTimer;
+
+    private Transport transport;
+
+    private long transportLastUsed;
+
+    public MailOutboxDispatcher(
+        ApplicationProperties applicationProperties,
+        MailOutboxMessageRepository mailOutboxMessageRepository,
+        JavaMailSender javaMailSender,
+        JHipsterProperties jHipsterProperties,
+        PlatformTransactionManager transactionManager,
+        MeterRegistry meterRegistry
+    ) {
+        this.properties = applicationProperties.getMailOutbox();
+        this.mailOutboxMessageRepository = mailOutboxMessageRepository;
+        this.javaMailSender = javaMailSender;
+        this.jHipsterProperties = jHipsterProperties;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.sentCounter = messagesCounterForOutcome("sent").register(meterRegistry);
+        this.retriedCounter = messagesCounterForOutcome("retried").register(meterRegistry);
+        this.abandonedCounter = messagesCounterForOutcome("abandoned").register(meterRegistry);
+        this.deliveryTimer = Timer.builder(DELIVERY_METER_NAME)
+            .description("Time from queueing an email to sending it")
+            .publishPercentileHistogram()
+            .register(meterRegistry);
+        Gauge.builder(PENDING_METER_NAME, pending, AtomicLong::get)
+            .description("Number of emails waiting in the outbox, as of the last dispatch")
+            .register(meterRegistry);
+    }
+
+    private Counter.Builder messagesCounterForOutcome(String outcome) {
+        return Counter.builder(MESSAGES_METER_NAME).description("Outbox emails by outcome of their sending").tag("outcome", outcome);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (!properties.isDispatcherEnabled()) {
+            log.info("The mail outbox dispatcher is disabled");
+            return;
+        }
+        long pollInterval = properties.getPollInterval().toMillis();
+        executor.scheduleWithFixedDelay(this::dispatchQuietly, 0, pollInterval, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        executor.shutdown();
+        if (executor.awaitTermination(10, TimeUnit.SECONDS)) {
+            closeTransport();
+        }
+    }
+
+    /**
+     * Dispatch the outbox now, without waiting for the next poll: once the surrounding transaction commits, if any,
+     * and once per transaction.
+     */
+    public void wakeUp() {
+        if (!properties.isDispatcherEnabled()) {
+            return;
+        }
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            requestDispatch();
+        } else if (!TransactionSynchronizationManager.hasResource(this)) {
+            TransactionSynchronizationManager.bindResource(this, Boolean.TRUE);
+            TransactionSynchronizationManager.registerSynchronization(
+                new TransactionSynchronization() {
+                    @Override
+                    public void afterCommit() {
+                        requestDispatch();
+                    }
+
+                    @Override
+                    public void afterCompletion(int status) {
+                        TransactionSynchronizationManager.unbindResourceIfPossible(MailOutboxDispatcher.this);
+                    }
+                }
+            );
+        }
+    }
+
+    private void requestDispatch() {
+        if (!executor.isShutdown() && wakeUpPending.compareAndSet(false, true)) {
+            executor.execute(() -> {
+                wakeUpPending.set(false);
+                dispatchQuietly();
+            });
+        }
+    }
+
+    private void dispatchQuietly() {
+        try {
+            dispatch();
+        } catch (RuntimeException e) {
+            log.warn("Could not dispatch the mail outbox: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Send the due messages of the outbox, batch after batch, until none is left.
+     *
+     * @return the number of messages sent.
+     */
+    public synchronized int dispatch() {
+        if (transport != null && System.nanoTime() - transportLastUsed > properties.getKeepAlive().toNanos()) {
+            closeTransport();
+        }
+        int sent = 0;
+        List<MailOutboxMessage> batch;
+        do {
+            batch = claim();
+            if (!batch.isEmpty()) {
+                Map<Long, Exception> failures = send(batch);
+                complete(batch, failures);
+                sent += batch.size() - failures.size();
+            }
+        } while (batch.size() == properties.getBatchSize());
+        pending.set(mailOutboxMessageRepository.countByNextAttemptAtIsNotNull());
+        return sent;
+    }
+
+    private List<MailOutboxMessage> claim() {
+        try {
+            return transactionTemplate.execute(status -> {
+                Instant now = Instant.now();
+                List<MailOutboxMessage> due = mailOutboxMessageRepository.findDue(now, PageRequest.of(0, properties.getBatchSize()));
+                for (MailOutboxMessage message : due) {
+                    message.setAttempts(message.getAttempts() + 1);
+                    message.setNextAttemptAt(now.plus(properties.getLease()));
+                }
+                mailOutboxMessageRepository.flush();
+                return due;
+            });
+        } catch (OptimisticLockingFailureException e) {
+            log.debug("The due emails were claimed by another instance");
+            return List.of();
+        }
+    }
+
+    private Map<Long, Exception> send(List<MailOutboxMessage> batch) {
+        Map<Long, Exception> failures = new HashMap<>();
+        List<MimeMessage> mimeMessages = new ArrayList<>(batch.size());
+        List<MailOutboxMessage> messages = new ArrayList<>(batch.size());
+        for (MailOutboxMessage message : batch) {
+            try {
+                mimeMessages.add(toMimeMessage(message));
+                messages.add(message);
+            } catch (MessagingException e) {
+                failures.put(message.getId(), e);
+            }
+        }
+        if (javaMailSender instanceof JavaMailSenderImpl javaMailSenderImpl) {
+            for (int i = 0; i < messages.size(); i++) {
+                try {
+                    send(javaMailSenderImpl, mimeMessages.get(i));
+                } catch (MessagingException e) {
+                    failures.put(messages.get(i).getId(), e);
+                }
+            }
+        } else {
+            // Another sender, which manages its connections itself
+            try {
+                javaMailSender.send(mimeMessages.toArray(MimeMessage[]::new));
+            } catch (MailSendException e) {
+                for (int i = 0; i < messages.size(); i++) {
+                    Exception failure = e.getFailedMessages().get(mimeMessages.get(i));
+                    if (failure != null || e.getFailedMessages().isEmpty()) {
+                        failures.put(messages.get(i).getId(), failure == null ? e : failure);
+                    }
+                }
+            } catch (MailException e) {
+                messages.forEach(message -> failures.put(message.getId(), e));
+            }
+        }
+        return failures;
+    }
+
+    private MimeMessage toMimeMessage(MailOutboxMessage message) throws MessagingException {
+        MimeMessage mimeMessage = javaMailSender.createMimeMessage();
+        MimeMessageHelper helper = new MimeMessageHelper(mimeMessage, false, StandardCharsets.UTF_8.name());
+        helper.setTo(message.getRecipient());
+        helper.setFrom(jHipsterProperties.getMail().getFrom());
+        helper.setSubject(message.getSubject());
+        helper.setText(message.getContent(), message.isHtml());
+        mimeMessage.setHeader("Message-ID", message.getMessageId());
+        return mimeMessage;
+    }
+
+    private void send(JavaMailSenderImpl javaMailSenderImpl, MimeMessage mimeMessage) throws MessagingException {
+        if (transport == null || !transport.isConnected()) {
+            closeTransport();
+            Transport newTransport = javaMailSenderImpl.getSession().getTransport(
+                javaMailSenderImpl.getProtocol() == null ? JavaMailSenderImpl.DEFAULT_PROTOCOL : javaMailSenderImpl.getProtocol()
+            );
+            newTransport.connect(
+                javaMailSenderImpl.getHost(),
+                javaMailSenderImpl.getPort(),
+                javaMailSenderImpl.getUsername(),
+                javaMailSenderImpl.getPassword()
+            );
+            transport = newTransport;
+        }
+        // As JavaMailSenderImpl does, keeping the Message-ID which saving the changes replaces
+        String messageId = mimeMessage.getMessageID();
+        mimeMessage.setSentDate(new Date());
+        mimeMessage.saveChanges();
+        mimeMessage.setHeader("Message-ID", messageId);
+        transport.sendMessage(mimeMessage, mimeMessage.getAllRecipients());
+        transportLastUsed = System.nanoTime();
+    }
+
+    private void closeTransport() {
+        if (transport != null) {
+            try {
+                transport.close();
+            } catch (MessagingException e) {
+                log.debug("Could not close the SMTP connection: {}", e.getMessage());
+            }
+            transport = null;
+        }
+    }
+
+    private void complete(List<MailOutboxMessage> batch, Map<Long, Exception> failures) {
+        Instant now = Instant.now();
+        List<Long> sentIds = new ArrayList<>(batch.size());
+        List<MailOutboxMessage> failed = new ArrayList<>(failures.size());
+        for (MailOutboxMessage message : batch) {
+            Exception failure = failures.get(message.getId());
+            if (failure == null) {
+                sentIds.add(message.getId());
+                sentCounter.increment();
+                deliveryTimer.record(Duration.between(message.getCreatedDate(), now));
+            } else if (message.getAttempts() >= properties.getMaxAttempts()) {
+                log.warn(
+                    "Gave up sending email {} to '{}' after {} attempts: {}",
+                    message.getId(),
+                    message.getRecipient(),
+                    message.getAttempts(),
+                    failure.getMessage()
+                );
+                message.setNextAttemptAt(null);
+                message.setLastError(truncate(failure.getMessage()));
+                failed.add(message);
+                abandonedCounter.increment();
+            } else {
+                log.debug("Could not send email {} to '{}', will retry: {}", message.getId(), message.getRecipient(), failure.getMessage());
+                message.setNextAttemptAt(now.plus(backoff(message.getAttempts())));
+                message.setLastError(truncate(failure.getMessage()));
+                failed.add(message);
+                retriedCounter.increment();
+            }
+        }
+        transactionTemplate.executeWithoutResult(status -> {
+            mailOutboxMessageRepository.deleteAllByIdInBatch(sentIds);
+            mailOutboxMessageRepository.saveAll(failed);
+        });
+    }
+
+    /**
+     * @param attempts the number of attempts made, at least 1.
+     * @return the delay before the next attempt: the initial backoff, doubled with each attempt, up to the max backoff.
+     */
+    Duration backoff(int attempts) {
+        Duration backoff = properties.getInitialBackoff().multipliedBy(1L << Math.min(attempts - 1, 30));
+        return backoff.compareTo(properties.getMaxBackoff()) > 0 ? properties.getMaxBackoff() : backoff;
+    }
+
+    private static String truncate(String error) {
+        if (error == null || error.length() <= MAX_ERROR_LENGTH) {
+            return error;
+        }
+        return error.substring(0, MAX_ERROR_LENGTH);
+    }
+}
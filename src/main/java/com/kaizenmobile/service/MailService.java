@@ -1,120 +1,92 @@
 package com.kaizenmobile.service;
 
+import com.kaizenmobile.domain.MailOutboxMessage;
 import com.kaizenmobile.domain.User;
-import jakarta.mail.MessagingException;
-import jakarta.mail.internet.MimeMessage;
-import java.nio.charset.StandardCharsets;
+import com.kaizenmobile.repository.MailOutboxMessageRepository;
+import java.time.Instant;
 import java.util.Locale;
+import java.util.UUID;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.context.MessageSource;
-import org.springframework.mail.MailException;
-import org.springframework.mail.javamail.JavaMailSender;
-import org.springframework.mail.javamail.MimeMessageHelper;
-import org.springframework.scheduling.annotation.Async;
 import org.springframework.stereotype.Service;
-import org.thymeleaf.context.Context;
-import org.thymeleaf.spring6.SpringTemplateEngine;
-import tech.jhipster.config.JHipsterProperties;
 
 /**
- * Service for sending emails asynchronously.
+ * Service for sending emails.
  * <p>
- * We use the {@link Async} annotation to send emails asynchronously.
+ * The emails are queued in the outbox, in the transaction of the change they announce, for the
+ * {@link MailOutboxDispatcher} to send once it commits.
  */
 @Service
 public class MailService {
 
     private static final Logger log = LoggerFactory.getLogger(MailService.class);
 
-    private static final String USER = "user";
+    private static final String MESSAGE_ID_DOMAIN = "@kaizen-mobile";
 
-    private static final String BASE_URL = "baseUrl";
+    private final MailTemplateCache mailTemplateCache;
 
-    private final JHipsterProperties jHipsterProperties;
+    private final MailOutboxMessageRepository mailOutboxMessageRepository;
 
-    private final JavaMailSender javaMailSender;
-
-    private final MessageSource messageSource;
-
-    private final SpringTemplateEngine templateEngine;
+    private final MailOutboxDispatcher mailOutboxDispatcher;
 
     public MailService(
-        JHipsterProperties jHipsterProperties,
-        JavaMailSender javaMailSender,
-        MessageSource messageSource,
-        SpringTemplateEngine templateEngine
+        MailTemplateCache mailTemplateCache,
+        MailOutboxMessageRepository mailOutboxMessageRepository,
+        MailOutboxDispatcher mailOutboxDispatcher
     ) {
-        this.jHipsterProperties = jHipsterProperties;
-        this.javaMailSender = javaMailSender;
-        this.messageSource = messageSource;
-        this.templateEngine = templateEngine;
-    }
-
-    @Async
-    public void sendEmail(String to, String subject, String content, boolean isMultipart, boolean isHtml) {
-        this.sendEmailSync(to, subject, content, isMultipart, isHtml);
+        this.mailTemplateCache = mailTemplateCache;
+        this.mailOutboxMessageRepository = mailOutboxMessageRepository;
+        this.mailOutboxDispatcher = mailOutboxDispatcher;
     }
 
-    private void sendEmailSync(String to, String subject, String content, boolean isMultipart, boolean isHtml) {
-        log.debug(
-            "Send email[multipart '{}' and html '{}'] to '{}' with subject '{}' and content={}",
-            isMultipart,
-            isHtml,
-            to,
-            subject,
-            content
+    /**
+     * Queue an email in the outbox, in the current transaction: it is sent once the transaction commits, and not at all if
+     * it rolls back.
+     *
+     * @param to the recipient.
+     * @param subject the subject.
+     * @param content the content.
+     * @param isHtml whether the content is HTML.
+     */
+    public void queueEmail(String to, String subject, String content, boolean isHtml) {
+        log.debug("Queue email[html '{}'] to '{}' with subject '{}'", isHtml, to, subject);
+        Instant now = Instant.now();
+        mailOutboxMessageRepository.save(
+            new MailOutboxMessage()
+                .messageId("<" + UUID.randomUUID() + MESSAGE_ID_DOMAIN + ">")
+                .recipient(to)
+                .subject(subject)
+                .content(content)
+                .html(isHtml)
+                .nextAttemptAt(now)
+                .createdDate(now)
         );
-
-        // Prepare message using a Spring helper
-        MimeMessage mimeMessage = javaMailSender.createMimeMessage();
-        try {
-            MimeMessageHelper message = new MimeMessageHelper(mimeMessage, isMultipart, StandardCharsets.UTF_8.name());
-            message.setTo(to);
-            message.setFrom(jHipsterProperties.getMail().getFrom());
-            message.setSubject(subject);
-            message.setText(content, isHtml);
-            javaMailSender.send(mimeMessage);
-            log.debug("Sent email to User '{}'", to);
-        } catch (MailException | MessagingException e) {
-            log.warn("Email could not be sent to user '{}'", to, e);
-        }
-    }
-
-    @Async
-    public void sendEmailFromTemplate(User user, String templateName, String titleKey) {
-        this.sendEmailFromTemplateSync(user, templateName, titleKey);
+        mailOutboxDispatcher.wakeUp();
     }
 
-    private void sendEmailFromTemplateSync(User user, String templateName, String titleKey) {
+    public void queueEmailFromTemplate(User user, String templateName, String titleKey) {
         if (user.getEmail() == null) {
             log.debug("Email doesn't exist for user '{}'", user.getLogin());
             return;
         }
         Locale locale = Locale.forLanguageTag(user.getLangKey());
-        Context context = new Context(locale);
-        context.setVariable(USER, user);
-        context.setVariable(BASE_URL, jHipsterProperties.getMail().getBaseUrl());
-        String content = templateEngine.process(templateName, context);
-        String subject = messageSource.getMessage(titleKey, null, locale);
-        this.sendEmailSync(user.getEmail(), subject, content, false, true);
+        String content = mailTemplateCache.render(user, templateName, locale);
+        String subject = mailTemplateCache.subject(titleKey, locale);
+        this.queueEmail(user.getEmail(), subject, content, true);
     }
 
-    @Async
-    public void sendActivationEmail(User user) {
-        log.debug("Sending activation email to '{}'", user.getEmail());
-        this.sendEmailFromTemplateSync(user, "mail/activationEmail", "email.activation.title");
+    public void queueActivationEmail(User user) {
+        log.debug("Queueing activation email to '{}'", user.getEmail());
+        this.queueEmailFromTemplate(user, "mail/activationEmail", "email.activation.title");
     }
 
-    @Async
-    public void sendCreationEmail(User user) {
-        log.debug("Sending creation email to '{}'", user.getEmail());
-        this.sendEmailFromTemplateSync(user, "mail/creationEmail", "email.activation.title");
+    public void queueCreationEmail(User user) {
+        log.debug("Queueing creation email to '{}'", user.getEmail());
+        this.queueEmailFromTemplate(user, "mail/creationEmail", "email.activation.title");
     }
 
-    @Async
-    public void sendPasswordResetMail(User user) {
-        log.debug("Sending password reset email to '{}'", user.getEmail());
-        this.sendEmailFromTemplateSync(user, "mail/passwordResetEmail", "email.reset.title");
+    public void queuePasswordResetMail(User user) {
+        log.debug("Queueing password reset email to '{}'", user.getEmail());
+        this.queueEmailFromTemplate(user, "mail/passwordResetEmail", "email.reset.title");
     }
 }
@@ -0,0 +1,246 @@
+package com.kaizenmobile.service;
+
+import com.kaizenmobile.config.Constants;
+import com.kaizenmobile.domain.User;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.thymeleaf.ThymeleafProperties;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.MessageSource;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.support.PathMatchingResourcePatternResolver;
+import org.springframework.stereotype.Service;
+import org.thymeleaf.context.Context;
+import org.thymeleaf.spring6.SpringTemplateEngine;
+import org.unbescape.html.HtmlEscape;
+import org.unbescape.html.HtmlEscapeLevel;
+import org.unbescape.html.HtmlEscapeType;
+import tech.jhipster.config.JHipsterProperties;
+
+/**
+ * Renders the mail templates from a compiled form, kept by template and locale, instead of processing them for every
+ * email.
+ * <p>
+ * A template is compiled by processing it once, for a user whose fields are placeholders: its output is split around
+ * them into the text shared by all the users, and the slots where the fields of a user are written, escaped as
+ * Thymeleaf escapes text. So the mail templates may print the fields of the user, but must not test them. The subjects
+ * are kept by title key and locale.
+ * <p>
+ * The locale of an email comes from the language of its user, so it is first reduced to one of the languages of the
+ * {@code i18n/messages_*.properties} bundles, {@link Constants#DEFAULT_LANGUAGE} when none matches: the cached forms are
+ * bounded by the supported languages.
+ * <p>
+ * The templates are processed for every email when the Thymeleaf cache is disabled, as in development.
+ */
+@Service
+public class MailTemplateCache {
+
+    private static final Logger log = LoggerFactory.getLogger(MailTemplateCache.class);
+
+    private static final String USER = "user";
+
+    private static final String BASE_URL = "baseUrl";
+
+    private static final String MAIL_TEMPLATES = "classpath*:templates/mail/*.html";
+
+    private static final String MESSAGE_BUNDLES = "classpath*:i18n/messages_*.properties";
+
+    // As Thymeleaf escapes the text and the attribute values of HTML templates
+    private static final HtmlEscapeType ESCAPE_TYPE = HtmlEscapeType.HTML4_NAMED_REFERENCES_DEFAULT_TO_DECIMAL;
+
+    private static final HtmlEscapeLevel ESCAPE_LEVEL = HtmlEscapeLevel.LEVEL_1_ONLY_MARKUP_SIGNIFICANT;
+
+    private final SpringTemplateEngine templateEngine;
+
+    private final MessageSource messageSource;
+
+    private final JHipsterProperties jHipsterProperties;
+
+    private final boolean enabled;
+
+    private final Map<String, Locale> supportedLocales;
+
+    private final Locale defaultLocale = Locale.forLanguageTag(Constants.DEFAULT_LANGUAGE);
+
+    private final Map<Key, CompiledTemplate> templates = new ConcurrentHashMap<>();
+
+    private final Map<Key, String> subjects = new ConcurrentHashMap<>();
+
+    public MailTemplateCache(
+        SpringTemplateEngine templateEngine,
+        MessageSource messageSource,
+        JHipsterProperties jHipsterProperties,
+        ThymeleafProperties thymeleafProperties
+    ) {
+        this.templateEngine = templateEngine;
+        this.messageSource = messageSource;
+        this.jHipsterProperties = jHipsterProperties;
+        this.enabled = thymeleafProperties.isCache();
+        this.supportedLocales = findSupportedLocales();
+    }
+
+    private static Map<String, Locale> findSupportedLocales() {
+        Map<String, Locale> locales = new HashMap<>();
+        try {
+            for (Resource resource : new PathMatchingResourcePatternResolver().getResources(MESSAGE_BUNDLES)) {
+                String filename = resource.getFilename();
+                String suffix = filename.substring("messages_".length(), filename.length() - ".properties".length());
+                Locale locale = Locale.forLanguageTag(suffix.replace('_', '-'));
+                locales.put(locale.toLanguageTag(), locale);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not list the message bundles", e);
+        }
+        return Map.copyOf(locales);
+    }
+
+    /**
+     * @param locale the locale of an email.
+     * @return the supported locale, the language of which matches it, or the default one.
+     */
+    private Locale supportedLocale(Locale locale) {
+        Locale supported = supportedLocales.get(locale.toLanguageTag());
+        if (supported == null) {
+            supported = supportedLocales.getOrDefault(locale.getLanguage(), defaultLocale);
+        }
+        return supported;
+    }
+
+    /**
+     * Compile the mail templates for the default language, the other languages being compiled on first use.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void compileMailTemplates() throws IOException {
+        if (!enabled) {
+            return;
+        }
+        for (Resource resource : new PathMatchingResourcePatternResolver().getResources(MAIL_TEMPLATES)) {
+            String filename = resource.getFilename();
+            String templateName = "mail/" + filename.substring(0, filename.length() - ".html".length());
+            templates.computeIfAbsent(new Key(templateName, defaultLocale), this::compile);
+        }
+        log.debug("Compiled {} mail templates", templates.size());
+    }
+
+    /**
+     * @param user the user the email is sent to.
+     * @param templateName the name of the template.
+     * @param locale the locale of the email.
+     * @return the template rendered for the user.
+     */
+    public String render(User user, String templateName, Locale locale) {
+        Locale supported = supportedLocale(locale);
+        if (!enabled) {
+            return process(user, templateName, supported);
+        }
+        return templates.computeIfAbsent(new Key(templateName, supported), this::compile).render(user);
+    }
+
+    /**
+     * @param titleKey the message key of the subject.
+     * @param locale the locale of the email.
+     * @return the subject.
+     */
+    public String subject(String titleKey, Locale locale) {
+        Locale supported = supportedLocale(locale);
+        if (!enabled) {
+            return messageSource.getMessage(titleKey, null, supported);
+        }
+        return subjects.computeIfAbsent(new Key(titleKey, supported), key -> messageSource.getMessage(titleKey, null, supported));
+    }
+
+    private String process(User user, String templateName, Locale locale) {
+        Context context = new Context(locale);
+        context.setVariable(USER, user);
+        context.setVariable(BASE_URL, jHipsterProperties.getMail().getBaseUrl());
+        return templateEngine.process(templateName, context);
+    }
+
+    private CompiledTemplate compile(Key key) {
+        String nonce = UUID.randomUUID().toString().replace("-", "");
+        Slot[] allSlots = Slot.values();
+        String[] placeholders = new String[allSlots.length];
+        User placeholderUser = new User();
+        for (Slot slot : allSlots) {
+            placeholders[slot.ordinal()] = "slot" + slot.ordinal() + "x" + nonce;
+            slot.setter.accept(placeholderUser, placeholders[slot.ordinal()]);
+        }
+        String output = process(placeholderUser, key.name(), key.locale());
+
+        List<String> fragments = new ArrayList<>();
+        List<Slot> slots = new ArrayList<>();
+        int start = 0;
+        while (true) {
+            int next = -1;
+            Slot nextSlot = null;
+            for (Slot slot : allSlots) {
+                int index = output.indexOf(placeholders[slot.ordinal()], start);
+                if (index >= 0 && (next < 0 || index < next)) {
+                    next = index;
+                    nextSlot = slot;
+                }
+            }
+            if (nextSlot == null) {
+                break;
+            }
+            fragments.add(output.substring(start, next));
+            slots.add(nextSlot);
+            start = next + placeholders[nextSlot.ordinal()].length();
+        }
+        fragments.add(output.substring(start));
+        log.debug("Compiled mail template {} for locale {} with {} slots", key.name(), key.locale(), slots.size());
+        return new CompiledTemplate(fragments.toArray(String[]::new), slots.toArray(Slot[]::new), output.length());
+    }
+
+    /**
+     * The fields of the user a mail template may print.
+     */
+    private enum Slot {
+        LOGIN(User::getLogin, User::setLogin),
+        FIRST_NAME(User::getFirstName, User::setFirstName),
+        LAST_NAME(User::getLastName, User::setLastName),
+        EMAIL(User::getEmail, User::setEmail),
+        ACTIVATION_KEY(User::getActivationKey, User::setActivationKey),
+        RESET_KEY(User::getResetKey, User::setResetKey);
+
+        private final Function<User, String> getter;
+
+        private final BiConsumer<User, String> setter;
+
+        Slot(Function<User, String> getter, BiConsumer<User, String> setter) {
+            this.getter = getter;
+            this.setter = setter;
+        }
+    }
+
+    /**
+     * A template split into its fragments, between which its slots are written.
+     */
+    private record CompiledTemplate(String[] fragments, Slot[] slots, int length) {
+        String render(User user) {
+            StringBuilder output = new StringBuilder(length);
+            for (int i = 0; i < slots.length; i++) {
+                output.append(fragments[i]);
+                String value = slots[i].getter.apply(user);
+                if (value != null) {
+                    output.append(HtmlEscape.escapeHtml(value, ESCAPE_TYPE, ESCAPE_LEVEL));
+                }
+            }
+            return output.append(fragments[slots.length]).toString();
+        }
+    }
+
+    private record Key(String name, Locale locale) {}
+}
@@ -0,0 +1,154 @@
+package com.kaizenmobile.service;
+
+import com.kaizenmobile.config.ApplicationProperties;
+import com.kaizenmobile.domain.Authority;
+import com.kaizenmobile.domain.RefreshToken;
+import com.kaizenmobile.domain.User;
+import com.kaizenmobile.repository.RefreshTokenRepository;
+import com.kaizenmobile.repository.UserRepository;
+import com.kaizenmobile.security.TokenRevocationStore;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Service class for managing the refresh token sessions.
+ * <p>
+ * A session starts at login and lasts until its first refresh token expires. Each refresh token can be used once: it
+ * is replaced by a new one of the same session, which is how a new access token is issued without checking the
+ * password again. Revoking a session deletes its refresh token and rejects the access tokens already issued from it.
+ */
+@Service
+@Transactional
+public class RefreshTokenService {
+
+    private static final Logger log = LoggerFactory.getLogger(RefreshTokenService.class);
+
+    private static final int TOKEN_BYTES = 32;
+
+    private static final Duration CLOCK_SKEW = Duration.ofSeconds(60);
+
+    private final RefreshTokenRepository refreshTokenRepository;
+
+    private final UserRepository userRepository;
+
+    private final TokenRevocationStore tokenRevocationStore;
+
+    private final ApplicationProperties applicationProperties;
+
+    private final SecureRandom random = new SecureRandom();
+
+    public RefreshTokenService(
+        RefreshTokenRepository refreshTokenRepository,
+        UserRepository userRepository,
+        TokenRevocationStore tokenRevocationStore,
+        ApplicationProperties applicationProperties
+    ) {
+        this.refreshTokenRepository = refreshTokenRepository;
+        this.userRepository = userRepository;
+        this.tokenRevocationStore = tokenRevocationStore;
+        this.applicationProperties = applicationProperties;
+    }
+
+    /**
+     * Start a session for a user who just authenticated.
+     *
+     * @param login the login of the user.
+     * @param validity the lifetime of the session.
+     * @return the session and its first refresh token.
+     */
+    public Session create(String login, Duration validity) {
+        User user = userRepository.findOneByLogin(login).orElseThrow(() -> new IllegalStateException("User " + login + " not found"));
+        return issue(user, UUID.randomUUID().toString(), Instant.now().plus(validity));
+    }
+
+    /**
+     * Exchange a refresh token for a new one of the same session.
+     *
+     * @param refreshToken the refresh token, which can't be used again afterwards.
+     * @return the session and its new refresh token, empty if the token is unknown, was already used, has expired or
+     * belongs to a deactivated user.
+     */
+    public Optional<Session> refresh(String refreshToken) {
+        String tokenHash = hash(refreshToken);
+        Optional<RefreshToken> stored = refreshTokenRepository.findById(tokenHash);
+        // Deleting the token first means only one of concurrent refreshes with the same token succeeds
+        if (stored.isEmpty() || refreshTokenRepository.deleteByTokenHash(tokenHash) == 0) {
+            return Optional.empty();
+        }
+        RefreshToken previous = stored.orElseThrow();
+        if (!Instant.now().isBefore(previous.getExpiresAt()) || !previous.getUser().isActivated()) {
+            return Optional.empty();
+        }
+        return Optional.of(issue(previous.getUser(), previous.getSessionId(), previous.getExpiresAt()));
+    }
+
+    /**
+     * End every session of a user, rejecting the access tokens issued from them.
+     *
+     * @param user the user.
+     */
+    public void revokeSessions(User user) {
+        if (user.getId() == null) {
+            return;
+        }
+        Duration accessTokenValidity = applicationProperties.getRefreshTokens().getAccessTokenValidity();
+        Instant revokedUntil = Instant.now().plus(accessTokenValidity).plus(CLOCK_SKEW);
+        List<String> sessionIds = refreshTokenRepository.findSessionIdsByUser(user);
+        sessionIds.forEach(sessionId -> tokenRevocationStore.revoke(sessionId, revokedUntil));
+        refreshTokenRepository.deleteByUser(user);
+        log.debug("Revoked {} sessions of User: {}", sessionIds.size(), user.getLogin());
+    }
+
+    /**
+     * Expired refresh tokens are deleted every day, at 01:30 (am).
+     */
+    @Scheduled(cron = "0 30 1 * * ?")
+    public void removeExpiredTokens() {
+        int removed = refreshTokenRepository.deleteExpired(Instant.now());
+        log.debug("Deleted {} expired refresh tokens", removed);
+    }
+
+    private Session issue(User user, String sessionId, Instant expiresAt) {
+        byte[] bytes = new byte[TOKEN_BYTES];
+        random.nextBytes(bytes);
+        String token = Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+        refreshTokenRepository.save(
+            new RefreshToken().tokenHash(hash(token)).sessionId(sessionId).user(user).expiresAt(expiresAt).createdDate(Instant.now())
+        );
+        List<String> authorities = user.getAuthorities().stream().map(Authority::getName).toList();
+        return new Session(token, sessionId, user.getLogin(), authorities, expiresAt);
+    }
+
+    private static String hash(String token) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.UTF_8));
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * A refresh token session.
+     *
+     * @param refreshToken the refresh token to use for the next refresh.
+     * @param sessionId the id of the session, carried by its access tokens.
+     * @param login the login of the user.
+     * @param authorities the authority names of the user.
+     * @param expiresAt the end of the session, no access token of the session should outlive it.
+     */
+    public record Session(String refreshToken, String sessionId, String login, List<String> authorities, Instant expiresAt) {}
+}
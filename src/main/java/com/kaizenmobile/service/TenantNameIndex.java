@@ -0,0 +1,179 @@
+package com.kaizenmobile.service;
+
+import com.kaizenmobile.domain.AppStats;
+import com.kaizenmobile.repository.AppStatsRepository;
+import com.kaizenmobile.repository.AppStatsTenantId;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Stream;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * In-memory index of the case-folded tenant ids stored in {@link AppStats}.
+ * <p>
+ * The index is loaded once the application is ready and then kept up to date by {@link AppStatsService}:
+ * changes are applied after the surrounding transaction commits, so rolled back writes never leak into it. The changes
+ * made on the other nodes are applied as they come through the cache invalidation bus, when it is enabled.
+ * Until the index is loaded, lookups fall back to the {@link UniquenessFilter} and then to the database.
+ */
+@Service
+public class TenantNameIndex {
+
+    private static final Logger log = LoggerFactory.getLogger(TenantNameIndex.class);
+
+    public static final String LOOKUPS_METER_NAME = "tenant.index.lookups";
+    public static final String SIZE_METER_NAME = "tenant.index.size";
+
+    private final AppStatsRepository appStatsRepository;
+
+    private final UniquenessFilter uniquenessFilter;
+
+    private final Map<Long, String> tenantsById = new ConcurrentHashMap<>();
+
+    // The tenant ids are unique ignoring case, see the 20261018080000 changelog
+    private final Map<String, Long> idsByTenant = new ConcurrentHashMap<>();
+
+    private volatile boolean loaded;
+
+    private final Counter hitCounter;
+    private final Counter missCounter;
+    private final Counter fallbackCounter;
+
+    public TenantNameIndex(AppStatsRepository appStatsRepository, UniquenessFilter uniquenessFilter, MeterRegistry meterRegistry) {
+        this.appStatsRepository = appStatsRepository;
+        this.uniquenessFilter = uniquenessFilter;
+        this.hitCounter = lookupsCounterForResult("hit").register(meterRegistry);
+        this.missCounter = lookupsCounterForResult("miss").register(meterRegistry);
+        this.fallbackCounter = lookupsCounterForResult("fallback").register(meterRegistry);
+        Gauge.builder(SIZE_METER_NAME, idsByTenant, Map::size)
+            .description("Number of distinct tenant ids held in memory")
+            .register(meterRegistry);
+    }
+
+    private Counter.Builder lookupsCounterForResult(String result) {
+        return Counter.builder(LOOKUPS_METER_NAME).description("Tenant id lookups by outcome").tag("result", result);
+    }
+
+    /**
+     * (Re)load the index from the database.
+     * <p>
+     * Writers are blocked while loading, so no committed change can be lost between the query and the swap.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(readOnly = true)
+    public synchronized void load() {
+        Map<Long, String> loadedTenants = new HashMap<>();
+        try (Stream<AppStatsTenantId> tenantIds = appStatsRepository.streamAllTenantIds()) {
+            tenantIds.forEach(tenantId -> loadedTenants.put(tenantId.id(), fold(tenantId.usedTenantId())));
+        } catch (RuntimeException e) {
+            log.warn("Tenant index could not be loaded, lookups will use the database: {}", e.getMessage());
+            return;
+        }
+        tenantsById.clear();
+        idsByTenant.clear();
+        loadedTenants.forEach(this::doPut);
+        loaded = true;
+        log.debug("Loaded {} tenant ids in the tenant index", idsByTenant.size());
+    }
+
+    public boolean isLoaded() {
+        return loaded;
+    }
+
+    /**
+     * Check whether a tenant id is already used, ignoring case.
+     *
+     * @param tenantId the tenant id to check.
+     * @return true if an {@link AppStats} already uses this tenant id.
+     */
+    public boolean contains(String tenantId) {
+        if (tenantId == null) {
+            return false;
+        }
+        if (!loaded) {
+            fallbackCounter.increment();
+            return uniquenessFilter.mightContainTenantId(tenantId) && appStatsRepository.existsByUsedTenantIdIgnoreCase(tenantId);
+        }
+        if (idsByTenant.containsKey(fold(tenantId))) {
+            hitCounter.increment();
+            return true;
+        }
+        missCounter.increment();
+        return false;
+    }
+
+    /**
+     * Record the current tenant id of an {@link AppStats} once the current transaction commits.
+     *
+     * @param appStats the saved entity.
+     */
+    public void put(AppStats appStats) {
+        Long id = appStats.getId();
+        String tenantId = appStats.getUsedTenantId() == null ? null : fold(appStats.getUsedTenantId());
+        uniquenessFilter.putTenantId(tenantId);
+        afterCommit(() -> {
+            synchronized (this) {
+                doRemove(id);
+                if (tenantId != null) {
+                    doPut(id, tenantId);
+                }
+            }
+        });
+    }
+
+    /**
+     * Forget the tenant id of a deleted {@link AppStats} once the current transaction commits.
+     *
+     * @param id the id of the deleted entity.
+     */
+    public void remove(Long id) {
+        afterCommit(() -> {
+            synchronized (this) {
+                doRemove(id);
+            }
+        });
+    }
+
+    private void doPut(Long id, String foldedTenantId) {
+        tenantsById.put(id, foldedTenantId);
+        idsByTenant.put(foldedTenantId, id);
+    }
+
+    private void doRemove(Long id) {
+        String previous = tenantsById.remove(id);
+        if (previous != null) {
+            idsByTenant.remove(previous, id);
+        }
+    }
+
+    private static String fold(String tenantId) {
+        return tenantId.toUpperCase(Locale.ROOT);
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(
+                new TransactionSynchronization() {
+                    @Override
+                    public void afterCommit() {
+                        action.run();
+                    }
+                }
+            );
+        } else {
+            action.run();
+        }
+    }
+}
@@ -0,0 +1,30 @@
+package com.kaizenmobile.service;
+
+import java.util.Locale;
+import org.hibernate.exception.ConstraintViolationException;
+import org.springframework.dao.DataIntegrityViolationException;
+
+/**
+ * Tells which unique constraint a failed write violated, so that the services can report a value used meanwhile
+ * through another node as the same error as a value they found used.
+ */
+final class UniqueConstraints {
+
+    private UniqueConstraints() {}
+
+    /**
+     * @param e the failure of a write.
+     * @param constraintName the name of the constraint, or a prefix of it.
+     * @return whether the write violated the constraint.
+     */
+    static boolean isViolated(DataIntegrityViolationException e, String constraintName) {
+        String name = constraintName.toLowerCase(Locale.ROOT);
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause instanceof ConstraintViolationException violation && violation.getConstraintName() != null) {
+                return violation.getConstraintName().toLowerCase(Locale.ROOT).contains(name);
+            }
+        }
+        String message = e.getMostSpecificCause().getMessage();
+        return message != null && message.toLowerCase(Locale.ROOT).contains(name);
+    }
+}
@@ -0,0 +1,271 @@
+package com.kaizenmobile.service;
+
+import com.kaizenmobile.config.ApplicationProperties;
+import com.kaizenmobile.repository.AppStatsRepository;
+import com.kaizenmobile.repository.AppStatsTenantId;
+import com.kaizenmobile.repository.UserRepository;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.util.Locale;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Bloom filters of the logins, emails and tenant ids already stored in the database.
+ * <p>
+ * They are warmed once the application is ready, and every write adds to them, so a negative answer means the value
+ * is definitely unused and the uniqueness query can be skipped. Until the filters are warm, every value is reported
+ * as possibly used. Removed values stay in the filters until the next rebuild, which is triggered in the background
+ * when the estimated false positive probability drifts over {@code application.uniqueness-filter.rebuild-fpp}.
+ */
+@Service
+public class UniquenessFilter {
+
+    private static final Logger log = LoggerFactory.getLogger(UniquenessFilter.class);
+
+    public static final String FILL_RATIO_METER_NAME = "uniqueness.filter.fill-ratio";
+    public static final String FPP_METER_NAME = "uniqueness.filter.fpp";
+
+    private static final long RECENT_WRITES_RETENTION_NANOS = TimeUnit.MINUTES.toNanos(5);
+
+    private final UserRepository userRepository;
+
+    private final AppStatsRepository appStatsRepository;
+
+    private final ApplicationProperties.UniquenessFilter properties;
+
+    private volatile Filters filters;
+
+    /**
+     * Values written in the last {@link #RECENT_WRITES_RETENTION_NANOS}, replayed into a rebuilt generation so a
+     * transaction committing while the database is being read can't be missed.
+     */
+    private final Queue<RecentWrite> recentWrites = new ConcurrentLinkedQueue<>();
+
+    public UniquenessFilter(
+        UserRepository userRepository,
+        AppStatsRepository appStatsRepository,
+        ApplicationProperties applicationProperties,
+        MeterRegistry meterRegistry
+    ) {
+        this.userRepository = userRepository;
+        this.appStatsRepository = appStatsRepository;
+        this.properties = applicationProperties.getUniquenessFilter();
+        registerGauges(meterRegistry, "login", () -> filters == null ? null : filters.logins);
+        registerGauges(meterRegistry, "email", () -> filters == null ? null : filters.emails);
+        registerGauges(meterRegistry, "tenant", () -> filters == null ? null : filters.tenantIds);
+    }
+
+    private void registerGauges(MeterRegistry meterRegistry, String name, Supplier<BloomFilter> filter) {
+        Gauge.builder(FILL_RATIO_METER_NAME, filter, f -> f.get() == null ? Double.NaN : f.get().fillRatio())
+            .description("Ratio of bits set in the uniqueness Bloom filter")
+            .tag("filter", name)
+            .register(meterRegistry);
+        Gauge.builder(FPP_METER_NAME, filter, f -> f.get() == null ? Double.NaN : f.get().expectedFpp())
+            .description("Estimated false positive probability of the uniqueness Bloom filter")
+            .tag("filter", name)
+            .register(meterRegistry);
+    }
+
+    /**
+     * Build new filters from the database and swap them in.
+     * <p>
+     * Values written while the filters are rebuilt are recorded in both the old and the new filters.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(readOnly = true)
+    public synchronized void rebuild() {
+        if (!properties.isEnabled()) {
+            return;
+        }
+        long expectedUsers = Math.max(properties.getExpectedInsertions(), 2 * userRepository.count());
+        long expectedTenants = Math.max(properties.getExpectedInsertions(), 2 * appStatsRepository.count());
+        Filters current = filters;
+        Filters warming = new Filters(
+            BloomFilter.create(expectedUsers, properties.getFpp()),
+            BloomFilter.create(expectedUsers, properties.getFpp()),
+            BloomFilter.create(expectedTenants, properties.getFpp()),
+            current
+        );
+        filters = warming;
+        try {
+            load(userRepository.streamAllLogins(), warming.logins::put);
+            load(userRepository.streamAllEmails(), warming.emails::put);
+            load(
+                appStatsRepository.streamAllTenantIds().map(AppStatsTenantId::usedTenantId),
+                tenantId -> warming.tenantIds.put(fold(tenantId))
+            );
+            recentWrites.forEach(write -> write.replay(warming));
+        } catch (RuntimeException e) {
+            log.warn("Uniqueness filters could not be built, uniqueness checks will use the database: {}", e.getMessage());
+            filters = current;
+            return;
+        }
+        filters = warming.warm();
+        log.debug(
+            "Uniqueness filters built with {} logins, {} emails and {} tenant ids",
+            warming.logins.insertions(),
+            warming.emails.insertions(),
+            warming.tenantIds.insertions()
+        );
+    }
+
+    private static void load(Stream<String> values, Consumer<String> consumer) {
+        try (values) {
+            values.forEach(consumer);
+        }
+    }
+
+    /**
+     * Rebuild the filters when deleted or renamed values pushed their false positive probability too high.
+     */
+    @Scheduled(fixedDelay = 600_000, initialDelay = 600_000)
+    @Transactional(readOnly = true)
+    public void rebuildIfDrifted() {
+        Filters current = filters;
+        if (current == null || !current.warm) {
+            return;
+        }
+        double fpp = Math.max(current.logins.expectedFpp(), current.emails.expectedFpp());
+        fpp = Math.max(fpp, current.tenantIds.expectedFpp());
+        if (fpp > properties.getRebuildFpp()) {
+            log.info("Rebuilding uniqueness filters, estimated false positive probability is {}", fpp);
+            rebuild();
+        }
+    }
+
+    public boolean mightContainLogin(String login) {
+        Filters current = filters;
+        return login == null || current == null || current.mightContainLogin(login.toLowerCase(Locale.ENGLISH));
+    }
+
+    public boolean mightContainEmail(String email) {
+        Filters current = filters;
+        return email == null || current == null || current.mightContainEmail(email.toLowerCase(Locale.ENGLISH));
+    }
+
+    public boolean mightContainTenantId(String tenantId) {
+        Filters current = filters;
+        return tenantId == null || current == null || current.mightContainTenantId(fold(tenantId));
+    }
+
+    public void putUser(String login, String email) {
+        String lowercaseLogin = login == null ? null : login.toLowerCase(Locale.ENGLISH);
+        String lowercaseEmail = email == null ? null : email.toLowerCase(Locale.ENGLISH);
+        record(generation -> generation.putUser(lowercaseLogin, lowercaseEmail));
+    }
+
+    public void putTenantId(String tenantId) {
+        if (tenantId != null) {
+            String foldedTenantId = fold(tenantId);
+            record(generation -> generation.putTenantId(foldedTenantId));
+        }
+    }
+
+    private void record(Consumer<Filters> put) {
+        long now = System.nanoTime();
+        RecentWrite oldest;
+        while ((oldest = recentWrites.peek()) != null && now - oldest.nanoTime > RECENT_WRITES_RETENTION_NANOS) {
+            recentWrites.remove(oldest);
+        }
+        recentWrites.add(new RecentWrite(now, put));
+        Filters current = filters;
+        if (current != null) {
+            put.accept(current);
+        }
+    }
+
+    private static String fold(String tenantId) {
+        return tenantId.toUpperCase(Locale.ROOT);
+    }
+
+    private record RecentWrite(long nanoTime, Consumer<Filters> put) {
+        private void replay(Filters filters) {
+            put.accept(filters);
+        }
+    }
+
+    /**
+     * One generation of filters. While it is being warmed, lookups are answered by the previous generation (or
+     * reported as possible matches if there is none) and writes go to both generations.
+     */
+    private static final class Filters {
+
+        private final BloomFilter logins;
+        private final BloomFilter emails;
+        private final BloomFilter tenantIds;
+
+        /**
+         * The generation being replaced while this one is warmed, {@code null} once this generation is warm.
+         */
+        private final Filters previous;
+        private final boolean warm;
+
+        private Filters(BloomFilter logins, BloomFilter emails, BloomFilter tenantIds, Filters previous) {
+            this(logins, emails, tenantIds, previous, false);
+        }
+
+        private Filters(BloomFilter logins, BloomFilter emails, BloomFilter tenantIds, Filters previous, boolean warm) {
+            this.logins = logins;
+            this.emails = emails;
+            this.tenantIds = tenantIds;
+            this.previous = previous;
+            this.warm = warm;
+        }
+
+        private Filters warm() {
+            return new Filters(logins, emails, tenantIds, null, true);
+        }
+
+        private boolean mightContainLogin(String login) {
+            if (!warm) {
+                return previous == null || previous.mightContainLogin(login);
+            }
+            return logins.mightContain(login);
+        }
+
+        private boolean mightContainEmail(String email) {
+            if (!warm) {
+                return previous == null || previous.mightContainEmail(email);
+            }
+            return emails.mightContain(email);
+        }
+
+        private boolean mightContainTenantId(String tenantId) {
+            if (!warm) {
+                return previous == null || previous.mightContainTenantId(tenantId);
+            }
+            return tenantIds.mightContain(tenantId);
+        }
+
+        private void putUser(String login, String email) {
+            if (login != null) {
+                logins.put(login);
+            }
+            if (email != null) {
+                emails.put(email);
+            }
+            if (previous != null) {
+                previous.putUser(login, email);
+            }
+        }
+
+        private void putTenantId(String tenantId) {
+            tenantIds.put(tenantId);
+            if (previous != null) {
+                previous.putTenantId(tenantId);
+            }
+        }
+    }
+}
@@ -1,28 +1,46 @@
 package com.kaizenmobile.service;
 
+import com.kaizenmobile.config.ApplicationProperties;
 import com.kaizenmobile.config.Constants;
+import com.kaizenmobile.domain.AppUser;
 import com.kaizenmobile.domain.Authority;
 import com.kaizenmobile.domain.User;
-import com.kaizenmobile.repository.AppStatsRepository;
-import com.kaizenmobile.repository.AuthorityRepository;
+import com.kaizenmobile.domain.User_;
+import com.kaizenmobile.repository.CollectionVersion;
+import com.kaizenmobile.repository.UserCacheKeys;
 import com.kaizenmobile.repository.UserRepository;
 import com.kaizenmobile.security.AuthoritiesConstants;
+import com.kaizenmobile.security.AuthorityRegistry;
 import com.kaizenmobile.security.SecurityUtils;
 import com.kaizenmobile.service.dto.AdminUserDTO;
 import com.kaizenmobile.service.dto.UserDTO;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.persistence.EntityManagerFactory;
+import java.time.Duration;
 import java.time.Instant;
 import java.time.temporal.ChronoUnit;
 import java.util.*;
-import java.util.stream.Collectors;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.cache.Cache;
 import org.springframework.cache.CacheManager;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.KeysetScrollPosition;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 import tech.jhipster.security.RandomUtil;
 
 /**
@@ -34,25 +52,79 @@ public class UserService {
 
     private static final Logger log = LoggerFactory.getLogger(UserService.class);
 
+    /**
+     * The serialised accounts served to their users, by login, evicted with the other user caches.
+     */
+    public static final String ACCOUNT_VIEWS_CACHE = "accountViews";
+
+    public static final String PURGE_LOCK_NAME = "removeNotActivatedUsers";
+
+    public static final String PURGED_USERS_METER_NAME = "users.purge.deleted";
+
+    public static final String PURGE_DURATION_METER_NAME = "users.purge.duration";
+
+    // Unique constraints of the logins and emails, see the initial schema
+    private static final String LOGIN_UNIQUE_CONSTRAINT = "ux_user_login";
+
+    private static final String EMAIL_UNIQUE_CONSTRAINT = "ux_user_email";
+
     private final UserRepository userRepository;
 
     private final PasswordEncoder passwordEncoder;
 
-    private final AuthorityRepository authorityRepository;
+    private final AuthorityRegistry authorityRegistry;
 
     private final CacheManager cacheManager;
 
+    private final EntityManagerFactory entityManagerFactory;
+
+    private final UniquenessFilter uniquenessFilter;
+
+    private final RefreshTokenService refreshTokenService;
+
+    private final MailService mailService;
+
+    private final JobLockService jobLockService;
+
+    private final ApplicationProperties.UserPurge purgeProperties;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final Counter purgedUsers;
+
+    private final Timer purgeDuration;
+
     public UserService(
         UserRepository userRepository,
-        AppStatsRepository statsRepository,
         PasswordEncoder passwordEncoder,
-        AuthorityRepository authorityRepository,
-        CacheManager cacheManager
+        AuthorityRegistry authorityRegistry,
+        CacheManager cacheManager,
+        EntityManagerFactory entityManagerFactory,
+        UniquenessFilter uniquenessFilter,
+        RefreshTokenService refreshTokenService,
+        MailService mailService,
+        JobLockService jobLockService,
+        ApplicationProperties applicationProperties,
+        PlatformTransactionManager transactionManager,
+        MeterRegistry meterRegistry
     ) {
         this.userRepository = userRepository;
         this.passwordEncoder = passwordEncoder;
-        this.authorityRepository = authorityRepository;
+        this.authorityRegistry = authorityRegistry;
         this.cacheManager = cacheManager;
+        this.entityManagerFactory = entityManagerFactory;
+        this.uniquenessFilter = uniquenessFilter;
+        this.refreshTokenService = refreshTokenService;
+        this.mailService = mailService;
+        this.jobLockService = jobLockService;
+        this.purgeProperties = applicationProperties.getUserPurge();
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.purgedUsers = Counter.builder(PURGED_USERS_METER_NAME)
+            .description("Number of not activated users deleted by the nightly purge")
+            .register(meterRegistry);
+        this.purgeDuration = Timer.builder(PURGE_DURATION_METER_NAME)
+            .description("Duration of the nightly purge of the not activated users")
+            .register(meterRegistry);
     }
 
     public Optional<User> activateRegistration(String key) {
@@ -78,6 +150,7 @@ public class UserService {
                 user.setPassword(passwordEncoder.encode(newPassword));
                 user.setResetKey(null);
                 user.setResetDate(null);
+                refreshTokenService.revokeSessions(user);
                 this.clearUserCaches(user);
                 return user;
             });
@@ -91,27 +164,34 @@ public class UserService {
                 user.setResetKey(RandomUtil.generateResetKey());
                 user.setResetDate(Instant.now());
                 this.clearUserCaches(user);
+                mailService.queuePasswordResetMail(user);
                 return user;
             });
     }
 
     public User registerUser(AdminUserDTO userDTO, String password) {
-        userRepository
-            .findOneByLogin(userDTO.getLogin().toLowerCase())
-            .ifPresent(existingUser -> {
-                boolean removed = removeNonActivatedUser(existingUser);
-                if (!removed) {
-                    throw new UsernameAlreadyUsedException();
-                }
-            });
-        userRepository
-            .findOneByEmailIgnoreCase(userDTO.getEmail())
-            .ifPresent(existingUser -> {
-                boolean removed = removeNonActivatedUser(existingUser);
-                if (!removed) {
-                    throw new EmailAlreadyUsedException();
-                }
-            });
+        // the uniqueness filter rules out most new logins and emails without a query; one registered through another
+        // node moments ago may not have reached it yet, and then fails on its unique constraint
+        if (uniquenessFilter.mightContainLogin(userDTO.getLogin())) {
+            userRepository
+                .findOneByLogin(userDTO.getLogin().toLowerCase())
+                .ifPresent(existingUser -> {
+                    boolean removed = removeNonActivatedUser(existingUser);
+                    if (!removed) {
+                        throw new UsernameAlreadyUsedException();
+                    }
+                });
+        }
+        if (uniquenessFilter.mightContainEmail(userDTO.getEmail())) {
+            userRepository
+                .findOneByEmailIgnoreCase(userDTO.getEmail())
+                .ifPresent(existingUser -> {
+                    boolean removed = removeNonActivatedUser(existingUser);
+                    if (!removed) {
+                        throw new EmailAlreadyUsedException();
+                    }
+                });
+        }
         User newUser = new User();
         String encryptedPassword = passwordEncoder.encode(password);
         newUser.setLogin(userDTO.getLogin().toLowerCase());
@@ -128,15 +208,33 @@ public class UserService {
         newUser.setActivated(false);
         // new user gets registration key
         newUser.setActivationKey(RandomUtil.generateActivationKey());
-        Set<Authority> authorities = new HashSet<>();
-        authorityRepository.findById(AuthoritiesConstants.USER).ifPresent(authorities::add);
-        newUser.setAuthorities(authorities);
-        userRepository.save(newUser);
+        newUser.setAuthorities(authorityRegistry.resolve(Set.of(AuthoritiesConstants.USER)));
+        saveAndFlushNewUser(newUser);
+        uniquenessFilter.putUser(newUser.getLogin(), newUser.getEmail());
         this.clearUserCaches(newUser);
+        mailService.queueActivationEmail(newUser);
         log.debug("Created Information for User: {}", newUser);
         return newUser;
     }
 
+    /**
+     * Flushed for a login or email used meanwhile, possibly through another node, to fail on its unique constraint with
+     * the same error as a login or email found used.
+     */
+    private void saveAndFlushNewUser(User user) {
+        try {
+            userRepository.saveAndFlush(user);
+        } catch (DataIntegrityViolationException e) {
+            if (UniqueConstraints.isViolated(e, LOGIN_UNIQUE_CONSTRAINT)) {
+                throw new UsernameAlreadyUsedException();
+            }
+            if (UniqueConstraints.isViolated(e, EMAIL_UNIQUE_CONSTRAINT)) {
+                throw new EmailAlreadyUsedException();
+            }
+            throw e;
+        }
+    }
+
     private boolean removeNonActivatedUser(User existingUser) {
         if (existingUser.isActivated()) {
             return false;
@@ -167,17 +265,12 @@ public class UserService {
         user.setResetDate(Instant.now());
         user.setActivated(true);
         if (userDTO.getAuthorities() != null) {
-            Set<Authority> authorities = userDTO
-                .getAuthorities()
-                .stream()
-                .map(authorityRepository::findById)
-                .filter(Optional::isPresent)
-                .map(Optional::get)
-                .collect(Collectors.toSet());
-            user.setAuthorities(authorities);
+            user.setAuthorities(authorityRegistry.resolve(userDTO.getAuthorities()));
         }
-        userRepository.save(user);
+        saveAndFlushNewUser(user);
+        uniquenessFilter.putUser(user.getLogin(), user.getEmail());
         this.clearUserCaches(user);
+        mailService.queueCreationEmail(user);
         log.debug("Created Information for User: {}", user);
         return user;
     }
@@ -201,18 +294,21 @@ public class UserService {
                     user.setEmail(userDTO.getEmail().toLowerCase());
                 }
                 user.setImageUrl(userDTO.getImageUrl());
+                if (user.isActivated() && !userDTO.isActivated()) {
+                    refreshTokenService.revokeSessions(user);
+                }
                 user.setActivated(userDTO.isActivated());
                 user.setLangKey(userDTO.getLangKey());
+                Set<Authority> authorities = authorityRegistry.resolve(userDTO.getAuthorities());
                 Set<Authority> managedAuthorities = user.getAuthorities();
+                if (!managedAuthorities.equals(authorities)) {
+                    // Changing only the join table doesn't dirty the user, and its ETags are derived from this date
+                    user.setLastModifiedDate(Instant.now());
+                }
                 managedAuthorities.clear();
-                userDTO
-                    .getAuthorities()
-                    .stream()
-                    .map(authorityRepository::findById)
-                    .filter(Optional::isPresent)
-                    .map(Optional::get)
-                    .forEach(managedAuthorities::add);
+                managedAuthorities.addAll(authorities);
                 userRepository.save(user);
+                uniquenessFilter.putUser(user.getLogin(), user.getEmail());
                 this.clearUserCaches(user);
                 log.debug("Changed Information for User: {}", user);
                 return user;
@@ -224,6 +320,7 @@ public class UserService {
         userRepository
             .findOneByLogin(login)
             .ifPresent(user -> {
+                refreshTokenService.revokeSessions(user);
                 userRepository.delete(user);
                 this.clearUserCaches(user);
                 log.debug("Deleted User: {}", user);
@@ -251,6 +348,7 @@ public class UserService {
                 user.setLangKey(langKey);
                 user.setImageUrl(imageUrl);
                 userRepository.save(user);
+                uniquenessFilter.putUser(user.getLogin(), user.getEmail());
                 this.clearUserCaches(user);
                 log.debug("Changed Information for User: {}", user);
             });
@@ -267,6 +365,7 @@ public class UserService {
                 }
                 String encryptedPassword = passwordEncoder.encode(newPassword);
                 user.setPassword(encryptedPassword);
+                refreshTokenService.revokeSessions(user);
                 this.clearUserCaches(user);
                 log.debug("Changed password for User: {}", user);
             });
@@ -282,6 +381,63 @@ public class UserService {
         return userRepository.findAllByIdNotNullAndActivatedIsTrue(pageable).map(UserDTO::new);
     }
 
+    /**
+     * Get the users after a position in the sort order, without counting them.
+     *
+     * @param position the position, after the last user of the previous page.
+     * @param sort the sort of the users, ending with a unique property.
+     * @param size the maximum number of users.
+     * @return the users.
+     */
+    @Transactional(readOnly = true)
+    public Window<AdminUserDTO> getAllManagedUsers(KeysetScrollPosition position, Sort sort, int size) {
+        return userRepository
+            .findBy(KeysetSpecifications.startingAt(position, sort), query -> query.sortBy(sort).limit(size).scroll(position))
+            .map(AdminUserDTO::new);
+    }
+
+    /**
+     * Get the activated users after a position in the sort order, without counting them.
+     *
+     * @param position the position, after the last user of the previous page.
+     * @param sort the sort of the users, ending with a unique property.
+     * @param size the maximum number of users.
+     * @return the users.
+     */
+    @Transactional(readOnly = true)
+    public Window<UserDTO> getAllPublicUsers(KeysetScrollPosition position, Sort sort, int size) {
+        Specification<User> activated = (root, query, builder) -> builder.isTrue(root.get(User_.activated));
+        Specification<User> specification = activated.and(KeysetSpecifications.startingAt(position, sort));
+        return userRepository
+            .findBy(specification, query -> query.sortBy(sort).limit(size).scroll(position))
+            .map(UserDTO::new);
+    }
+
+    /**
+     * @return the version of the users returned by {@link #getAllManagedUsers(Pageable)}, without loading them.
+     */
+    @Transactional(readOnly = true)
+    public CollectionVersion getManagedUsersVersion() {
+        return userRepository.findCollectionVersion();
+    }
+
+    /**
+     * @return the version of the users returned by {@link #getAllPublicUsers(Pageable)}, without loading them.
+     */
+    @Transactional(readOnly = true)
+    public CollectionVersion getPublicUsersVersion() {
+        return userRepository.findActivatedCollectionVersion();
+    }
+
+    /**
+     * @param login the login of the user.
+     * @return the last modification date of the user, or its creation date if it was never modified, without loading it.
+     */
+    @Transactional(readOnly = true)
+    public Optional<Instant> getUserLastModifiedDate(String login) {
+        return userRepository.findLastModifiedDateByLogin(login);
+    }
+
     @Transactional(readOnly = true)
     public Optional<User> getUserWithAuthoritiesByLogin(String login) {
         return userRepository.findOneWithAuthoritiesByLogin(login);
@@ -295,31 +451,92 @@ public class UserService {
     /**
      * Not activated users should be automatically deleted after 3 days.
      * <p>
-     * This is scheduled to get fired everyday, at 01:00 (am).
+     * This is scheduled to get fired everyday, at 01:00 (am), and runs on the instance taking the lock. The users are
+     * deleted chunk-size at a time with bulk deletes, each chunk in its own transaction, so a purge which is interrupted
+     * leaves the users it didn't reach to the next one.
      */
     @Scheduled(cron = "0 0 1 * * ?")
+    @Transactional(propagation = Propagation.SUPPORTS)
     public void removeNotActivatedUsers() {
-        userRepository
-            .findAllByActivatedIsFalseAndActivationKeyIsNotNullAndCreatedDateBefore(Instant.now().minus(3, ChronoUnit.DAYS))
-            .forEach(user -> {
-                log.debug("Deleting not activated user {}", user.getLogin());
-                userRepository.delete(user);
-                this.clearUserCaches(user);
-            });
+        Duration lease = purgeProperties.getLockLease();
+        if (!jobLockService.tryLock(PURGE_LOCK_NAME, lease)) {
+            log.debug("Not activated users are being removed by another instance");
+            return;
+        }
+        Timer.Sample sample = Timer.start();
+        Instant createdBefore = Instant.now().minus(3, ChronoUnit.DAYS);
+        long deleted = 0;
+        try {
+            long afterId = 0;
+            PurgedChunk chunk;
+            do {
+                chunk = removeNotActivatedUsers(createdBefore, afterId);
+                if (!chunk.selected().isEmpty()) {
+                    afterId = chunk.selected().get(chunk.selected().size() - 1).id();
+                    deleted += chunk.deleted();
+                    purgedUsers.increment(chunk.deleted());
+                    clearUserCaches(chunk.selected());
+                    log.debug("Deleted {} not activated users so far", deleted);
+                }
+                // The lock is extended for each chunk, and lost if the chunk took longer than the lease
+            } while (chunk.selected().size() == purgeProperties.getChunkSize() && jobLockService.tryLock(PURGE_LOCK_NAME, lease));
+        } finally {
+            jobLockService.unlock(PURGE_LOCK_NAME);
+            long nanos = sample.stop(purgeDuration);
+            log.info("Deleted {} not activated users in {} ms", deleted, nanos / 1_000_000);
+        }
     }
 
+    private PurgedChunk removeNotActivatedUsers(Instant createdBefore, long afterId) {
+        return transactionTemplate.execute(status -> {
+            List<UserCacheKeys> selected = userRepository.findNotActivatedCacheKeys(
+                createdBefore,
+                afterId,
+                PageRequest.of(0, purgeProperties.getChunkSize())
+            );
+            if (selected.isEmpty()) {
+                return new PurgedChunk(selected, 0);
+            }
+            List<Long> ids = selected.stream().map(UserCacheKeys::id).toList();
+            // Not the users activated since they were selected
+            userRepository.deleteNotActivatedAuthoritiesByUserIdIn(ids);
+            return new PurgedChunk(selected, userRepository.deleteNotActivatedByIdIn(ids));
+        });
+    }
+
+    /**
+     * The users selected by a chunk of the purge, and the number of them deleted: the ones activated since they were
+     * selected are kept.
+     */
+    private record PurgedChunk(List<UserCacheKeys> selected, int deleted) {}
+
     /**
      * Gets a list of all the authorities.
      *
      * @return a list of all the authorities.
      */
-    @Transactional(readOnly = true)
     public List<String> getAuthorities() {
-        return authorityRepository.findAll().stream().map(Authority::getName).toList();
+        return authorityRegistry.names();
+    }
+
+    private void clearUserCaches(List<UserCacheKeys> users) {
+        Cache usersByLogin = Objects.requireNonNull(cacheManager.getCache(UserRepository.USERS_BY_LOGIN_CACHE));
+        Cache accountViews = Objects.requireNonNull(cacheManager.getCache(ACCOUNT_VIEWS_CACHE));
+        Cache usersByEmail = Objects.requireNonNull(cacheManager.getCache(UserRepository.USERS_BY_EMAIL_CACHE));
+        // Hibernate only evicts the users after the bulk delete, not their app users, deleted by the database
+        for (UserCacheKeys user : users) {
+            entityManagerFactory.getCache().evict(AppUser.class, user.id());
+            usersByLogin.evict(user.login());
+            accountViews.evict(user.login());
+            if (user.email() != null) {
+                usersByEmail.evict(user.email());
+            }
+        }
     }
 
     private void clearUserCaches(User user) {
         Objects.requireNonNull(cacheManager.getCache(UserRepository.USERS_BY_LOGIN_CACHE)).evict(user.getLogin());
+        Objects.requireNonNull(cacheManager.getCache(ACCOUNT_VIEWS_CACHE)).evict(user.getLogin());
         if (user.getEmail() != null) {
             Objects.requireNonNull(cacheManager.getCache(UserRepository.USERS_BY_EMAIL_CACHE)).evict(user.getEmail());
         }
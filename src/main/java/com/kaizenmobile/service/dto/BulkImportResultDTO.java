@@ -0,0 +1,62 @@
+package com.kaizenmobile.service.dto;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A DTO representing the outcome of a bulk import: the rows read, the users created, and the rows which failed.
+ */
+public class BulkImportResultDTO implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private long rows;
+
+    private long created;
+
+    private final List<RowError> errors = new ArrayList<>();
+
+    public long getRows() {
+        return rows;
+    }
+
+    public void setRows(long rows) {
+        this.rows = rows;
+    }
+
+    public long getCreated() {
+        return created;
+    }
+
+    public void setCreated(long created) {
+        this.created = created;
+    }
+
+    public List<RowError> getErrors() {
+        return errors;
+    }
+
+    public void addError(long row, String login, String message) {
+        errors.add(new RowError(row, login, message));
+    }
+
+    /**
+     * A row which failed, not imported.
+     *
+     * @param row the number of the row, from 1, not counting the CSV header.
+     * @param login the login of the row, if it could be read.
+     * @param message why the row failed.
+     */
+    public record RowError(long row, String login, String message) implements Serializable {}
+
+    // prettier-ignore
+    @Override
+    public String toString() {
+        return "BulkImportResultDTO{" +
+            "rows=" + rows +
+            ", created=" + created +
+            ", errors=" + errors.size() +
+            "}";
+    }
+}
@@ -0,0 +1,138 @@
+package com.kaizenmobile.service.dto;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.annotation.JsonPropertyOrder;
+import com.kaizenmobile.config.Constants;
+import jakarta.validation.constraints.*;
+import java.io.Serializable;
+import java.util.Set;
+
+/**
+ * A DTO representing a user with its authorities and tenant, as a row of a bulk import or export.
+ */
+@JsonPropertyOrder({ "login", "email", "firstName", "lastName", "langKey", "activated", "authorities", "tenantId", "password" })
+public class BulkUserDTO implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    @NotBlank
+    @Pattern(regexp = Constants.LOGIN_REGEX)
+    @Size(min = 1, max = 50)
+    private String login;
+
+    @NotBlank
+    @Email
+    @Size(min = 5, max = 254)
+    private String email;
+
+    @Size(max = 50)
+    private String firstName;
+
+    @Size(max = 50)
+    private String lastName;
+
+    @Size(min = 2, max = 10)
+    private String langKey;
+
+    private boolean activated = true;
+
+    private Set<String> authorities;
+
+    @Size(min = 1, max = 254)
+    private String tenantId;
+
+    /**
+     * The password of the user, never exported: a random password is set when missing, as for the users created by an
+     * administrator.
+     */
+    @Size(min = 4, max = 100)
+    @JsonProperty(access = JsonProperty.Access.WRITE_ONLY)
+    private String password;
+
+    public String getLogin() {
+        return login;
+    }
+
+    public void setLogin(String login) {
+        this.login = login;
+    }
+
+    public String getEmail() {
+        return email;
+    }
+
+    public void setEmail(String email) {
+        this.email = email;
+    }
+
+    public String getFirstName() {
+        return firstName;
+    }
+
+    public void setFirstName(String firstName) {
+        this.firstName = firstName;
+    }
+
+    public String getLastName() {
+        return lastName;
+    }
+
+    public void setLastName(String lastName) {
+        this.lastName = lastName;
+    }
+
+    public String getLangKey() {
+        return langKey;
+    }
+
+    public void setLangKey(String langKey) {
+        this.langKey = langKey;
+    }
+
+    public boolean isActivated() {
+        return activated;
+    }
+
+    public void setActivated(boolean activated) {
+        this.activated = activated;
+    }
+
+    public Set<String> getAuthorities() {
+        return authorities;
+    }
+
+    public void setAuthorities(Set<String> authorities) {
+        this.authorities = authorities;
+    }
+
+    public String getTenantId() {
+        return tenantId;
+    }
+
+    public void setTenantId(String tenantId) {
+        this.tenantId = tenantId;
+    }
+
+    public String getPassword() {
+        return password;
+    }
+
+    public void setPassword(String password) {
+        this.password = password;
+    }
+
+    // prettier-ignore
+    @Override
+    public String toString() {
+        return "BulkUserDTO{" +
+            "login='" + login + '\'' +
+            ", email='" + email + '\'' +
+            ", firstName='" + firstName + '\'' +
+            ", lastName='" + lastName + '\'' +
+            ", langKey='" + langKey + '\'' +
+            ", activated=" + activated +
+            ", authorities=" + authorities +
+            ", tenantId='" + tenantId + '\'' +
+            "}";
+    }
+}
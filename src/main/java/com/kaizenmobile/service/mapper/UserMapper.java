@@ -2,10 +2,10 @@ package com.kaizenmobile.service.mapper;
 
 import com.kaizenmobile.domain.Authority;
 import com.kaizenmobile.domain.User;
+import com.kaizenmobile.security.AuthorityRegistry;
 import com.kaizenmobile.service.dto.AdminUserDTO;
 import com.kaizenmobile.service.dto.UserDTO;
 import java.util.*;
-import java.util.stream.Collectors;
 import org.mapstruct.BeanMapping;
 import org.mapstruct.Mapping;
 import org.mapstruct.Named;
@@ -20,6 +20,12 @@ import org.springframework.stereotype.Service;
 @Service
 public class UserMapper {
 
+    private final AuthorityRegistry authorityRegistry;
+
+    public UserMapper(AuthorityRegistry authorityRegistry) {
+        this.authorityRegistry = authorityRegistry;
+    }
+
     public List<UserDTO> usersToUserDTOs(List<User> users) {
         return users.stream().filter(Objects::nonNull).map(this::userToUserDTO).toList();
     }
@@ -64,20 +70,10 @@ public class UserMapper {
     }
 
     private Set<Authority> authoritiesFromStrings(Set<String> authoritiesAsString) {
-        Set<Authority> authorities = new HashSet<>();
-
-        if (authoritiesAsString != null) {
-            authorities = authoritiesAsString
-                .stream()
-                .map(string -> {
-                    Authority auth = new Authority();
-                    auth.setName(string);
-                    return auth;
-                })
-                .collect(Collectors.toSet());
+        if (authoritiesAsString == null) {
+            return new HashSet<>();
         }
-
-        return authorities;
+        return authorityRegistry.resolve(authoritiesAsString);
     }
 
     public User userFromId(Long id) {
@@ -0,0 +1,216 @@
+package com.kaizenmobile.web.filter;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.kaizenmobile.security.LoginRateLimiter;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletInputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletRequestWrapper;
+import jakarta.servlet.http.HttpServletResponse;
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.regex.Pattern;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ProblemDetail;
+import org.springframework.security.web.util.matcher.IpAddressMatcher;
+import org.springframework.util.StringUtils;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+/**
+ * Rejects the login attempts exceeding the {@link LoginRateLimiter} with a {@code 429 (Too Many Requests)}, before
+ * the user is looked up or any password is hashed. Successful attempts are then taken back from the limits.
+ * <p>
+ * The login is read from the request body, which is then replayed to the controller.
+ * <p>
+ * The client address is the remote address of the request, unless it is one of the trusted proxies: it is then the
+ * rightmost address of the {@code X-Forwarded-For} header which isn't a trusted proxy. Any client can send the header,
+ * so it isn't read from the others.
+ */
+public class LoginThrottlingFilter extends OncePerRequestFilter {
+
+    private static final String LOGIN_PATH = "/api/authenticate";
+
+    private static final int MAX_BODY_SIZE = 4096;
+
+    private static final String X_FORWARDED_FOR = "X-Forwarded-For";
+
+    // The characters of the IPv4 and IPv6 addresses, so that no host name is ever resolved
+    private static final Pattern IP_ADDRESS_CHARACTERS = Pattern.compile("[0-9A-Fa-f.:]+");
+
+    private final LoginRateLimiter loginRateLimiter;
+
+    private final ObjectMapper objectMapper;
+
+    private final List<IpAddressMatcher> trustedProxies;
+
+    /**
+     * @param trustedProxies the addresses or CIDR blocks of the reverse proxies whose {@code X-Forwarded-For} header is read.
+     */
+    public LoginThrottlingFilter(LoginRateLimiter loginRateLimiter, ObjectMapper objectMapper, List<String> trustedProxies) {
+        this.loginRateLimiter = loginRateLimiter;
+        this.objectMapper = objectMapper;
+        this.trustedProxies = trustedProxies.stream().map(IpAddressMatcher::new).toList();
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        return !HttpMethod.POST.matches(request.getMethod()) || !LOGIN_PATH.equals(path);
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+        throws ServletException, IOException {
+        byte[] body = request.getInputStream().readNBytes(MAX_BODY_SIZE + 1);
+        if (body.length > MAX_BODY_SIZE) {
+            response.sendError(HttpStatus.PAYLOAD_TOO_LARGE.value());
+            return;
+        }
+        LoginRateLimiter.Attempt attempt = loginRateLimiter.tryAcquire(readLogin(body), clientAddress(request));
+        if (attempt == null) {
+            reject(request, response);
+            return;
+        }
+        filterChain.doFilter(new ReplayedBodyRequest(request, body), response);
+        if (HttpStatus.valueOf(response.getStatus()).is2xxSuccessful()) {
+            attempt.succeeded();
+        }
+    }
+
+    String clientAddress(HttpServletRequest request) {
+        String address = request.getRemoteAddr();
+        if (!isTrustedProxy(address)) {
+            return address;
+        }
+        // Each proxy appends the address it got the request from: the addresses left of the last one added by a trusted
+        // proxy may have been sent by the client
+        String[] forwardedFor = StringUtils.commaDelimitedListToStringArray(request.getHeader(X_FORWARDED_FOR));
+        for (int i = forwardedFor.length - 1; i >= 0; i--) {
+            String hop = forwardedFor[i].trim();
+            if (!isIpAddress(hop)) {
+                // Not an address (e.g. "unknown"), so the last trusted proxy is the closest known hop to the client
+                return address;
+            }
+            address = hop;
+            if (!isTrustedProxy(address)) {
+                return address;
+            }
+        }
+        return address;
+    }
+
+    private boolean isTrustedProxy(String address) {
+        try {
+            return trustedProxies.stream().anyMatch(trustedProxy -> trustedProxy.matches(address));
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+    }
+
+    private static boolean isIpAddress(String hop) {
+        if (!IP_ADDRESS_CHARACTERS.matcher(hop).matches()) {
+            return false;
+        }
+        try {
+            new IpAddressMatcher(hop);
+            return true;
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+    }
+
+    private String readLogin(byte[] body) {
+        try {
+            JsonNode username = objectMapper.readTree(body).get("username");
+            return username != null && username.isTextual() ? username.asText() : null;
+        } catch (IOException e) {
+            // Left to the controller to reject
+            return null;
+        }
+    }
+
+    private void reject(HttpServletRequest request, HttpServletResponse response) throws IOException {
+        ProblemDetail problem = ProblemDetail.forStatusAndDetail(HttpStatus.TOO_MANY_REQUESTS, "Too many login attempts");
+        problem.setProperty("path", request.getRequestURI());
+        response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(loginRateLimiter.retryAfterSeconds()));
+        response.setContentType(MediaType.APPLICATION_PROBLEM_JSON_VALUE);
+        objectMapper.writeValue(response.getOutputStream(), problem);
+    }
+
+    private static final class ReplayedBodyRequest extends HttpServletRequestWrapper {
+
+        private final byte[] body;
+
+        private ReplayedBodyRequest(HttpServletRequest request, byte[] body) {
+            super(request);
+            this.body = body;
+        }
+
+        @Override
+        public ServletInputStream getInputStream() {
+            ByteArrayInputStream input = new ByteArrayInputStream(body);
+            return new ServletInputStream() {
+                @Override
+                public boolean isFinished() {
+                    return input.available() == 0;
+                }
+
+                @Override
+                public boolean isReady() {
+                    return true;
+                }
+
+                @Override
+                public void setReadListener(ReadListener readListener) {
+                    // The whole body is already read, so it is all available at once
+                    try {
+                        if (!isFinished()) {
+                            readListener.onDataAvailable();
+                        }
+                        readListener.onAllDataRead();
+                    } catch (IOException e) {
+                        readListener.onError(e);
+                    }
+                }
+
+                @Override
+                public int read() {
+                    return input.read();
+                }
+
+                @Override
+                public int read(byte[] buffer, int offset, int length) {
+                    return input.read(buffer, offset, length);
+                }
+            };
+        }
+
+        @Override
+        public BufferedReader getReader() {
+            Charset charset = getCharacterEncoding() == null ? StandardCharsets.UTF_8 : Charset.forName(getCharacterEncoding());
+            return new BufferedReader(new InputStreamReader(getInputStream(), charset));
+        }
+
+        @Override
+        public int getContentLength() {
+            return body.length;
+        }
+
+        @Override
+        public long getContentLengthLong() {
+            return body.length;
+        }
+    }
+}
@@ -1,11 +1,12 @@
 package com.kaizenmobile.web.rest;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.kaizenmobile.domain.User;
 import com.kaizenmobile.repository.AppStatsRepository;
 import com.kaizenmobile.repository.UserRepository;
 import com.kaizenmobile.security.SecurityUtils;
 import com.kaizenmobile.service.AppStatsService;
-import com.kaizenmobile.service.MailService;
 import com.kaizenmobile.service.UserService;
 import com.kaizenmobile.service.dto.AdminUserDTO;
 import com.kaizenmobile.service.dto.PasswordChangeDTO;
@@ -17,7 +18,11 @@ import java.util.*;
 import org.apache.commons.lang3.StringUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
 /**
@@ -42,18 +47,22 @@ public class AccountResource {
 
     private final UserService userService;
 
-    private final MailService mailService;
+    private final Cache accountViews;
+
+    private final ObjectMapper objectMapper;
 
     public AccountResource(
         UserRepository userRepository,
         UserService userService,
-        MailService mailService,
-        AppStatsService appStatsService
+        AppStatsService appStatsService,
+        CacheManager cacheManager,
+        ObjectMapper objectMapper
     ) {
         this.userRepository = userRepository;
         this.userService = userService;
-        this.mailService = mailService;
         this.appStatsService = appStatsService;
+        this.accountViews = cacheManager.getCache(UserService.ACCOUNT_VIEWS_CACHE);
+        this.objectMapper = objectMapper;
     }
 
     /**
@@ -74,8 +83,7 @@ public class AccountResource {
         if (appStatsService.isCompanyNameUsed(managedUserVM.getCompany())) {
             throw new CompanyAlreadyUsedException();
         }
-        User user = userService.registerUser(managedUserVM, managedUserVM.getPassword());
-        mailService.sendActivationEmail(user);
+        userService.registerUser(managedUserVM, managedUserVM.getPassword());
     }
 
     /**
@@ -94,16 +102,31 @@ public class AccountResource {
 
     /**
      * {@code GET  /account} : get the current user.
+     * <p>
+     * The account is serialised once and cached until the user changes; a client sending back its ETag in
+     * {@code If-None-Match} gets a {@code 304 (Not Modified)} while it hasn't changed.
      *
      * @return the current user.
      * @throws RuntimeException {@code 500 (Internal Server Error)} if the user couldn't be returned.
      */
-    @GetMapping("/account")
-    public AdminUserDTO getAccount() {
-        return userService
-            .getUserWithAuthorities()
-            .map(AdminUserDTO::new)
-            .orElseThrow(() -> new AccountResourceException("User could not be found"));
+    @GetMapping(value = "/account", produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<byte[]> getAccount() {
+        String login = SecurityUtils.getCurrentUserLogin().orElseThrow(() -> new AccountResourceException("User could not be found"));
+        AccountView accountView = accountViews.get(login, () ->
+            userService.getUserWithAuthoritiesByLogin(login).map(AdminUserDTO::new).map(this::accountView).orElse(null)
+        );
+        if (accountView == null) {
+            throw new AccountResourceException("User could not be found");
+        }
+        return ResponseEntity.ok().eTag(accountView.eTag()).body(accountView.body());
+    }
+
+    private AccountView accountView(AdminUserDTO account) {
+        try {
+            return AccountView.of(account, objectMapper);
+        } catch (JsonProcessingException e) {
+            throw new AccountResourceException("User could not be serialised");
+        }
     }
 
     /**
@@ -155,10 +178,7 @@ public class AccountResource {
      */
     @PostMapping(path = "/account/reset-password/init")
     public void requestPasswordReset(@RequestBody String mail) {
-        Optional<User> user = userService.requestPasswordReset(mail);
-        if (user.isPresent()) {
-            mailService.sendPasswordResetMail(user.orElseThrow());
-        } else {
+        if (userService.requestPasswordReset(mail).isEmpty()) {
             // Pretend the request has been successful to prevent checking which emails really exist
             // but log that an invalid attempt has been made
             log.warn("Password reset requested for non existing mail");
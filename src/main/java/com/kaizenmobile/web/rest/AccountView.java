@@ -0,0 +1,25 @@
+package com.kaizenmobile.web.rest;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.kaizenmobile.service.dto.AdminUserDTO;
+import java.io.Serializable;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+
+/**
+ * An account serialised once for all the {@code GET /api/account} calls of its user, with the strong ETag of the
+ * serialised account. The body is never modified once built.
+ */
+record AccountView(byte[] body, String eTag) implements Serializable {
+    static AccountView of(AdminUserDTO account, ObjectMapper objectMapper) throws JsonProcessingException {
+        byte[] body = objectMapper.writeValueAsBytes(account);
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(body);
+            return new AccountView(body, "\"" + Base64.getUrlEncoder().withoutPadding().encodeToString(digest) + "\"");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
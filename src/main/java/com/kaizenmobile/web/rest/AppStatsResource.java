@@ -1,13 +1,19 @@
 package com.kaizenmobile.web.rest;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
 import com.kaizenmobile.domain.AppStats;
 import com.kaizenmobile.repository.AppStatsRepository;
 import com.kaizenmobile.service.AppStatsQueryService;
 import com.kaizenmobile.service.AppStatsService;
 import com.kaizenmobile.service.criteria.AppStatsCriteria;
 import com.kaizenmobile.web.rest.errors.BadRequestAlertException;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
 import jakarta.validation.constraints.NotNull;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
 import java.net.URI;
 import java.net.URISyntaxException;
 import java.util.List;
@@ -16,9 +22,18 @@ import java.util.Optional;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 import tech.jhipster.web.util.HeaderUtil;
+import tech.jhipster.web.util.PaginationUtil;
 import tech.jhipster.web.util.ResponseUtil;
 
 /**
@@ -41,14 +56,18 @@ public class AppStatsResource {
 
     private final AppStatsQueryService appStatsQueryService;
 
+    private final ObjectWriter exportWriter;
+
     public AppStatsResource(
         AppStatsService appStatsService,
         AppStatsRepository appStatsRepository,
-        AppStatsQueryService appStatsQueryService
+        AppStatsQueryService appStatsQueryService,
+        ObjectMapper objectMapper
     ) {
         this.appStatsService = appStatsService;
         this.appStatsRepository = appStatsRepository;
         this.appStatsQueryService = appStatsQueryService;
+        this.exportWriter = objectMapper.writerFor(AppStats.class);
     }
 
     /**
@@ -75,15 +94,19 @@ public class AppStatsResource {
      *
      * @param id the id of the appStats to save.
      * @param appStats the appStats to update.
+     * @param webRequest the request, rejected if its {@code If-Match} doesn't match the current appStats.
      * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the updated appStats,
      * or with status {@code 400 (Bad Request)} if the appStats is not valid,
+     * or with status {@code 409 (Conflict)} if the appStats was updated meanwhile,
+     * or with status {@code 412 (Precondition Failed)} if the appStats doesn't match {@code If-Match},
      * or with status {@code 500 (Internal Server Error)} if the appStats couldn't be updated.
      * @throws URISyntaxException if the Location URI syntax is incorrect.
      */
     @PutMapping("/{id}")
     public ResponseEntity<AppStats> updateAppStats(
         @PathVariable(value = "id", required = false) final Long id,
-        @Valid @RequestBody AppStats appStats
+        @Valid @RequestBody AppStats appStats,
+        WebRequest webRequest
     ) throws URISyntaxException {
         log.debug("REST request to update AppStats : {}, {}", id, appStats);
         if (appStats.getId() == null) {
@@ -93,13 +116,19 @@ public class AppStatsResource {
             throw new BadRequestAlertException("Invalid ID", ENTITY_NAME, "idinvalid");
         }
 
-        if (!appStatsRepository.existsById(id)) {
-            throw new BadRequestAlertException("Entity not found", ENTITY_NAME, "idnotfound");
+        Integer version = appStatsRepository
+            .findVersionById(id)
+            .orElseThrow(() -> new BadRequestAlertException("Entity not found", ENTITY_NAME, "idnotfound"));
+        if (webRequest.checkNotModified(ETags.of(version))) {
+            return null;
         }
+        // Updated only if still at the version checked
+        appStats.setVersion(version);
 
         appStats = appStatsService.update(appStats);
         return ResponseEntity.ok()
             .headers(HeaderUtil.createEntityUpdateAlert(applicationName, true, ENTITY_NAME, appStats.getId().toString()))
+            .eTag(ETags.of(appStats.getVersion()))
             .body(appStats);
     }
 
@@ -108,16 +137,20 @@ public class AppStatsResource {
      *
      * @param id the id of the appStats to save.
      * @param appStats the appStats to update.
+     * @param webRequest the request, rejected if its {@code If-Match} doesn't match the current appStats.
      * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the updated appStats,
      * or with status {@code 400 (Bad Request)} if the appStats is not valid,
      * or with status {@code 404 (Not Found)} if the appStats is not found,
+     * or with status {@code 409 (Conflict)} if the appStats was updated meanwhile,
+     * or with status {@code 412 (Precondition Failed)} if the appStats doesn't match {@code If-Match},
      * or with status {@code 500 (Internal Server Error)} if the appStats couldn't be updated.
      * @throws URISyntaxException if the Location URI syntax is incorrect.
      */
     @PatchMapping(value = "/{id}", consumes = { "application/json", "application/merge-patch+json" })
     public ResponseEntity<AppStats> partialUpdateAppStats(
         @PathVariable(value = "id", required = false) final Long id,
-        @NotNull @RequestBody AppStats appStats
+        @NotNull @RequestBody AppStats appStats,
+        WebRequest webRequest
     ) throws URISyntaxException {
         log.debug("REST request to partial update AppStats partially : {}, {}", id, appStats);
         if (appStats.getId() == null) {
@@ -127,30 +160,93 @@ public class AppStatsResource {
             throw new BadRequestAlertException("Invalid ID", ENTITY_NAME, "idinvalid");
         }
 
-        if (!appStatsRepository.existsById(id)) {
-            throw new BadRequestAlertException("Entity not found", ENTITY_NAME, "idnotfound");
+        Integer version = appStatsRepository
+            .findVersionById(id)
+            .orElseThrow(() -> new BadRequestAlertException("Entity not found", ENTITY_NAME, "idnotfound"));
+        if (webRequest.checkNotModified(ETags.of(version))) {
+            return null;
         }
+        // Updated only if still at the version checked
+        appStats.setVersion(version);
 
         Optional<AppStats> result = appStatsService.partialUpdate(appStats);
 
-        return ResponseUtil.wrapOrNotFound(
-            result,
-            HeaderUtil.createEntityUpdateAlert(applicationName, true, ENTITY_NAME, appStats.getId().toString())
-        );
+        HttpHeaders headers = HeaderUtil.createEntityUpdateAlert(applicationName, true, ENTITY_NAME, appStats.getId().toString());
+        result.ifPresent(updated -> headers.setETag(ETags.of(updated.getVersion())));
+        return ResponseUtil.wrapOrNotFound(result, headers);
     }
 
     /**
      * {@code GET  /app-stats} : get all the appStats.
      *
      * @param criteria the criteria which the requested entities should match.
+     * @param pageable the pagination information.
+     * @param cursor the cursor of the page, from the {@code next} link of the previous page, empty for the first page:
+     * pages by keyset, without total count, instead of by offset. Only the sort on {@code id} is supported.
+     * @param webRequest the request, answered with status {@code 304 (Not Modified)} if its {@code If-None-Match} matches.
      * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the list of appStats in body.
      */
     @GetMapping("")
-    public ResponseEntity<List<AppStats>> getAllAppStats(AppStatsCriteria criteria) {
+    public ResponseEntity<List<AppStats>> getAllAppStats(
+        AppStatsCriteria criteria,
+        @org.springdoc.core.annotations.ParameterObject Pageable pageable,
+        @RequestParam(name = KeysetPagination.CURSOR_PARAMETER, required = false) String cursor,
+        WebRequest webRequest
+    ) {
         log.debug("REST request to get AppStats by criteria: {}", criteria);
+        if (cursor != null && !KeysetPagination.APP_STATS.supports(pageable)) {
+            return ResponseEntity.badRequest().build();
+        }
 
-        List<AppStats> entityList = appStatsQueryService.findByCriteria(criteria);
-        return ResponseEntity.ok().body(entityList);
+        String eTag = ETags.of(appStatsQueryService.versionByCriteria(criteria));
+        if (webRequest.checkNotModified(eTag)) {
+            return null;
+        }
+        if (cursor != null) {
+            Sort sort = KeysetPagination.APP_STATS.sort(pageable);
+            Window<AppStats> window = appStatsQueryService.findByCriteria(
+                criteria,
+                KeysetPagination.APP_STATS.position(cursor, sort),
+                sort,
+                pageable.getPageSize()
+            );
+            HttpHeaders headers = KeysetPagination.generateHeaders(ServletUriComponentsBuilder.fromCurrentRequest(), window, sort);
+            headers.setETag(eTag);
+            return ResponseEntity.ok().headers(headers).body(window.getContent());
+        }
+        Page<AppStats> page = appStatsQueryService.findByCriteria(criteria, pageable);
+        HttpHeaders headers = PaginationUtil.generatePaginationHttpHeaders(ServletUriComponentsBuilder.fromCurrentRequest(), page);
+        headers.setETag(eTag);
+        return ResponseEntity.ok().headers(headers).body(page.getContent());
+    }
+
+    /**
+     * {@code GET  /app-stats/export} : export all the appStats, in id order, as newline delimited JSON.
+     * <p>
+     * The appStats are written as they are read from the database, whatever their number.
+     *
+     * @param criteria the criteria which the requested entities should match.
+     * @param response the response, with status {@code 200 (OK)} and one appStats per line in body.
+     * @throws IOException if the response couldn't be written.
+     */
+    @GetMapping(value = "/export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public void exportAppStats(AppStatsCriteria criteria, HttpServletResponse response) throws IOException {
+        log.debug("REST request to export AppStats by criteria: {}", criteria);
+        response.setContentType(MediaType.APPLICATION_NDJSON_VALUE);
+        OutputStream outputStream = response.getOutputStream();
+        try {
+            appStatsQueryService.exportByCriteria(criteria, appStats -> {
+                try {
+                    outputStream.write(exportWriter.writeValueAsBytes(appStats));
+                    outputStream.write('\n');
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        outputStream.flush();
     }
 
     /**
@@ -169,13 +265,18 @@ public class AppStatsResource {
      * {@code GET  /app-stats/:id} : get the "id" appStats.
      *
      * @param id the id of the appStats to retrieve.
+     * @param webRequest the request, answered with status {@code 304 (Not Modified)} if its {@code If-None-Match} matches.
      * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the appStats, or with status {@code 404 (Not Found)}.
      */
     @GetMapping("/{id}")
-    public ResponseEntity<AppStats> getAppStats(@PathVariable("id") Long id) {
+    public ResponseEntity<AppStats> getAppStats(@PathVariable("id") Long id, WebRequest webRequest) {
         log.debug("REST request to get AppStats : {}", id);
-        Optional<AppStats> appStats = appStatsService.findOne(id);
-        return ResponseUtil.wrapOrNotFound(appStats);
+        Optional<String> eTag = appStatsRepository.findVersionById(id).map(ETags::of);
+        if (eTag.isPresent() && webRequest.checkNotModified(eTag.orElseThrow())) {
+            return null;
+        }
+        Optional<AppStats> appStats = eTag.flatMap(tag -> appStatsService.findOne(id));
+        return ResponseUtil.wrapOrNotFound(appStats, eTag.map(ETags::headers).orElse(null));
     }
 
     /**
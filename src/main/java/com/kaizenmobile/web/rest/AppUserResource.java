@@ -16,8 +16,10 @@ import java.util.Optional;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 import tech.jhipster.web.util.HeaderUtil;
 import tech.jhipster.web.util.ResponseUtil;
 
@@ -74,15 +76,19 @@ public class AppUserResource {
      *
      * @param id the id of the appUser to save.
      * @param appUser the appUser to update.
+     * @param webRequest the request, rejected if its {@code If-Match} doesn't match the current appUser.
      * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the updated appUser,
      * or with status {@code 400 (Bad Request)} if the appUser is not valid,
+     * or with status {@code 409 (Conflict)} if the appUser was updated meanwhile,
+     * or with status {@code 412 (Precondition Failed)} if the appUser doesn't match {@code If-Match},
      * or with status {@code 500 (Internal Server Error)} if the appUser couldn't be updated.
      * @throws URISyntaxException if the Location URI syntax is incorrect.
      */
     @PutMapping("/{id}")
     public ResponseEntity<AppUser> updateAppUser(
         @PathVariable(value = "id", required = false) final Long id,
-        @Valid @RequestBody AppUser appUser
+        @Valid @RequestBody AppUser appUser,
+        WebRequest webRequest
     ) throws URISyntaxException {
         log.debug("REST request to update AppUser : {}, {}", id, appUser);
         if (appUser.getId() == null) {
@@ -92,13 +98,19 @@ public class AppUserResource {
             throw new BadRequestAlertException("Invalid ID", ENTITY_NAME, "idinvalid");
         }
 
-        if (!appUserRepository.existsById(id)) {
-            throw new BadRequestAlertException("Entity not found", ENTITY_NAME, "idnotfound");
+        Integer version = appUserRepository
+            .findVersionById(id)
+            .orElseThrow(() -> new BadRequestAlertException("Entity not found", ENTITY_NAME, "idnotfound"));
+        if (webRequest.checkNotModified(ETags.of(version))) {
+            return null;
         }
+        // Updated only if still at the version checked
+        appUser.setVersion(version);
 
         appUser = appUserService.update(appUser);
         return ResponseEntity.ok()
             .headers(HeaderUtil.createEntityUpdateAlert(applicationName, true, ENTITY_NAME, appUser.getId().toString()))
+            .eTag(ETags.of(appUser.getVersion()))
             .body(appUser);
     }
 
@@ -107,16 +119,20 @@ public class AppUserResource {
      *
      * @param id the id of the appUser to save.
      * @param appUser the appUser to update.
+     * @param webRequest the request, rejected if its {@code If-Match} doesn't match the current appUser.
      * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the updated appUser,
      * or with status {@code 400 (Bad Request)} if the appUser is not valid,
      * or with status {@code 404 (Not Found)} if the appUser is not found,
+     * or with status {@code 409 (Conflict)} if the appUser was updated meanwhile,
+     * or with status {@code 412 (Precondition Failed)} if the appUser doesn't match {@code If-Match},
      * or with status {@code 500 (Internal Server Error)} if the appUser couldn't be updated.
      * @throws URISyntaxException if the Location URI syntax is incorrect.
      */
     @PatchMapping(value = "/{id}", consumes = { "application/json", "application/merge-patch+json" })
     public ResponseEntity<AppUser> partialUpdateAppUser(
         @PathVariable(value = "id", required = false) final Long id,
-        @NotNull @RequestBody AppUser appUser
+        @NotNull @RequestBody AppUser appUser,
+        WebRequest webRequest
     ) throws URISyntaxException {
         log.debug("REST request to partial update AppUser partially : {}, {}", id, appUser);
         if (appUser.getId() == null) {
@@ -126,30 +142,39 @@ public class AppUserResource {
             throw new BadRequestAlertException("Invalid ID", ENTITY_NAME, "idinvalid");
         }
 
-        if (!appUserRepository.existsById(id)) {
-            throw new BadRequestAlertException("Entity not found", ENTITY_NAME, "idnotfound");
+        Integer version = appUserRepository
+            .findVersionById(id)
+            .orElseThrow(() -> new BadRequestAlertException("Entity not found", ENTITY_NAME, "idnotfound"));
+        if (webRequest.checkNotModified(ETags.of(version))) {
+            return null;
         }
+        // Updated only if still at the version checked
+        appUser.setVersion(version);
 
         Optional<AppUser> result = appUserService.partialUpdate(appUser);
 
-        return ResponseUtil.wrapOrNotFound(
-            result,
-            HeaderUtil.createEntityUpdateAlert(applicationName, true, ENTITY_NAME, appUser.getId().toString())
-        );
+        HttpHeaders headers = HeaderUtil.createEntityUpdateAlert(applicationName, true, ENTITY_NAME, appUser.getId().toString());
+        result.ifPresent(updated -> headers.setETag(ETags.of(updated.getVersion())));
+        return ResponseUtil.wrapOrNotFound(result, headers);
     }
 
     /**
      * {@code GET  /app-users} : get all the appUsers.
      *
      * @param criteria the criteria which the requested entities should match.
+     * @param webRequest the request, answered with status {@code 304 (Not Modified)} if its {@code If-None-Match} matches.
      * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the list of appUsers in body.
      */
     @GetMapping("")
-    public ResponseEntity<List<AppUser>> getAllAppUsers(AppUserCriteria criteria) {
+    public ResponseEntity<List<AppUser>> getAllAppUsers(AppUserCriteria criteria, WebRequest webRequest) {
         log.debug("REST request to get AppUsers by criteria: {}", criteria);
 
+        String eTag = ETags.of(appUserQueryService.versionByCriteria(criteria));
+        if (webRequest.checkNotModified(eTag)) {
+            return null;
+        }
         List<AppUser> entityList = appUserQueryService.findByCriteria(criteria);
-        return ResponseEntity.ok().body(entityList);
+        return ResponseEntity.ok().eTag(eTag).body(entityList);
     }
 
     /**
@@ -168,13 +193,18 @@ public class AppUserResource {
      * {@code GET  /app-users/:id} : get the "id" appUser.
      *
      * @param id the id of the appUser to retrieve.
+     * @param webRequest the request, answered with status {@code 304 (Not Modified)} if its {@code If-None-Match} matches.
      * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the appUser, or with status {@code 404 (Not Found)}.
      */
     @GetMapping("/{id}")
-    public ResponseEntity<AppUser> getAppUser(@PathVariable("id") Long id) {
+    public ResponseEntity<AppUser> getAppUser(@PathVariable("id") Long id, WebRequest webRequest) {
         log.debug("REST request to get AppUser : {}", id);
-        Optional<AppUser> appUser = appUserService.findOne(id);
-        return ResponseUtil.wrapOrNotFound(appUser);
+        Optional<String> eTag = appUserRepository.findVersionById(id).map(ETags::of);
+        if (eTag.isPresent() && webRequest.checkNotModified(eTag.orElseThrow())) {
+            return null;
+        }
+        Optional<AppUser> appUser = eTag.flatMap(tag -> appUserService.findOne(id));
+        return ResponseUtil.wrapOrNotFound(appUser, eTag.map(ETags::headers).orElse(null));
     }
 
     /**
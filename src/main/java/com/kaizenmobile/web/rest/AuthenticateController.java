@@ -2,27 +2,33 @@ package com.kaizenmobile.web.rest;
 
 import static com.kaizenmobile.security.SecurityUtils.AUTHORITIES_KEY;
 import static com.kaizenmobile.security.SecurityUtils.JWT_ALGORITHM;
+import static com.kaizenmobile.security.SecurityUtils.SESSION_ID_KEY;
 
 import com.fasterxml.jackson.annotation.JsonProperty;
+import com.kaizenmobile.config.ApplicationProperties;
+import com.kaizenmobile.security.AuthorityRegistry;
+import com.kaizenmobile.security.JwtKeyRing;
 import com.kaizenmobile.security.UserNotActivatedException;
+import com.kaizenmobile.service.RefreshTokenService;
 import com.kaizenmobile.web.rest.errors.CompanyAlreadyUsedException;
 import com.kaizenmobile.web.rest.vm.LoginVM;
+import com.kaizenmobile.web.rest.vm.RefreshTokenVM;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
+import java.time.Duration;
 import java.time.Instant;
-import java.time.temporal.ChronoUnit;
-import java.util.stream.Collectors;
+import java.util.UUID;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.authentication.BadCredentialsException;
 import org.springframework.security.authentication.InternalAuthenticationServiceException;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.config.annotation.authentication.builders.AuthenticationManagerBuilder;
 import org.springframework.security.core.Authentication;
-import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.oauth2.jwt.JwsHeader;
 import org.springframework.security.oauth2.jwt.JwtClaimsSet;
@@ -42,6 +48,16 @@ public class AuthenticateController {
 
     private final JwtEncoder jwtEncoder;
 
+    private final JwtKeyRing jwtKeyRing;
+
+    private final AuthorityRegistry authorityRegistry;
+
+    private final RefreshTokenService refreshTokenService;
+
+    private final Duration accessTokenValidity;
+
+    private volatile JwsHeader jwsHeader;
+
     @Value("${jhipster.security.authentication.jwt.token-validity-in-seconds:0}")
     private long tokenValidityInSeconds;
 
@@ -50,13 +66,24 @@ public class AuthenticateController {
 
     private final AuthenticationManagerBuilder authenticationManagerBuilder;
 
-    public AuthenticateController(JwtEncoder jwtEncoder, AuthenticationManagerBuilder authenticationManagerBuilder) {
+    public AuthenticateController(
+        JwtEncoder jwtEncoder,
+        JwtKeyRing jwtKeyRing,
+        AuthorityRegistry authorityRegistry,
+        RefreshTokenService refreshTokenService,
+        ApplicationProperties applicationProperties,
+        AuthenticationManagerBuilder authenticationManagerBuilder
+    ) {
         this.jwtEncoder = jwtEncoder;
+        this.jwtKeyRing = jwtKeyRing;
+        this.authorityRegistry = authorityRegistry;
+        this.refreshTokenService = refreshTokenService;
+        this.accessTokenValidity = applicationProperties.getRefreshTokens().getAccessTokenValidity();
         this.authenticationManagerBuilder = authenticationManagerBuilder;
     }
 
     /**
-     * {@code POST  /authenticate} : authenticate the user.
+     * {@code POST  /authenticate} : authenticate the user, and start a refresh token session.
      *
      * @throws RuntimeException {@code 500 } if the user is not activated.
      **/
@@ -70,15 +97,37 @@ public class AuthenticateController {
         try {
             Authentication authentication = authenticationManagerBuilder.getObject().authenticate(authenticationToken);
             SecurityContextHolder.getContext().setAuthentication(authentication);
-            String jwt = this.createToken(authentication, loginVM.isRememberMe());
-            HttpHeaders httpHeaders = new HttpHeaders();
-            httpHeaders.setBearerAuth(jwt);
-            return new ResponseEntity<>(new JWTToken(jwt), httpHeaders, HttpStatus.OK);
+            long sessionValidity = loginVM.isRememberMe() ? this.tokenValidityInSecondsForRememberMe : this.tokenValidityInSeconds;
+            RefreshTokenService.Session session = refreshTokenService.create(authentication.getName(), Duration.ofSeconds(sessionValidity));
+            return tokenResponse(this.createToken(authentication, session), session);
         } catch (InternalAuthenticationServiceException e) {
             throw new UserNotActivatedException("User was not activated");
         }
     }
 
+    /**
+     * {@code POST  /authenticate/refresh} : exchange a refresh token for a new access token, without checking the
+     * password again.
+     *
+     * @param refreshTokenVM the refresh token, which can't be used again afterwards.
+     * @return the new access and refresh tokens, or status {@code 401 (Unauthorized)} if the refresh token is unknown,
+     * was already used or has expired.
+     */
+    @PostMapping("/authenticate/refresh")
+    public ResponseEntity<JWTToken> refresh(@Valid @RequestBody RefreshTokenVM refreshTokenVM) {
+        RefreshTokenService.Session session = refreshTokenService
+            .refresh(refreshTokenVM.getRefreshToken())
+            .orElseThrow(() -> new BadCredentialsException("Invalid refresh token"));
+        String jwt = this.createToken(session.login(), authorityRegistry.authoritySet(session.authorities()), session);
+        return tokenResponse(jwt, session);
+    }
+
+    private ResponseEntity<JWTToken> tokenResponse(String jwt, RefreshTokenService.Session session) {
+        HttpHeaders httpHeaders = new HttpHeaders();
+        httpHeaders.setBearerAuth(jwt);
+        return new ResponseEntity<>(new JWTToken(jwt, session.refreshToken()), httpHeaders, HttpStatus.OK);
+    }
+
     /**
      * {@code GET /authenticate} : check if the user is authenticated, and return its login.
      *
@@ -91,27 +140,49 @@ public class AuthenticateController {
         return request.getRemoteUser();
     }
 
-    public String createToken(Authentication authentication, boolean rememberMe) {
-        String authorities = authentication.getAuthorities().stream().map(GrantedAuthority::getAuthority).collect(Collectors.joining(" "));
+    /**
+     * Issue a short-lived access token.
+     *
+     * @param authentication the authenticated user.
+     * @param session the refresh token session the token belongs to, {@code null} if it can't be refreshed.
+     * @return the signed token.
+     */
+    public String createToken(Authentication authentication, RefreshTokenService.Session session) {
+        return this.createToken(authentication.getName(), authorityRegistry.authoritySetOf(authentication.getAuthorities()), session);
+    }
 
+    private String createToken(String login, AuthorityRegistry.AuthoritySet authorities, RefreshTokenService.Session session) {
         Instant now = Instant.now();
-        Instant validity;
-        if (rememberMe) {
-            validity = now.plus(this.tokenValidityInSecondsForRememberMe, ChronoUnit.SECONDS);
-        } else {
-            validity = now.plus(this.tokenValidityInSeconds, ChronoUnit.SECONDS);
+        Instant validity = now.plus(accessTokenValidity);
+        if (session != null && session.expiresAt().isBefore(validity)) {
+            validity = session.expiresAt();
         }
 
         // @formatter:off
-        JwtClaimsSet claims = JwtClaimsSet.builder()
+        JwtClaimsSet.Builder claims = JwtClaimsSet.builder()
+            .id(UUID.randomUUID().toString())
             .issuedAt(now)
             .expiresAt(validity)
-            .subject(authentication.getName())
-            .claim(AUTHORITIES_KEY, authorities)
-            .build();
+            .subject(login)
+            .claim(AUTHORITIES_KEY, authorities.claim());
+        if (session != null) {
+            claims.claim(SESSION_ID_KEY, session.sessionId());
+        }
 
-        JwsHeader jwsHeader = JwsHeader.with(JWT_ALGORITHM).build();
-        return this.jwtEncoder.encode(JwtEncoderParameters.from(jwsHeader, claims)).getTokenValue();
+        return this.jwtEncoder.encode(JwtEncoderParameters.from(jwsHeader(), claims.build())).getTokenValue();
+    }
+
+    /**
+     * The header only changes when the active signing key rotates, so it is built once per key.
+     */
+    private JwsHeader jwsHeader() {
+        String keyId = jwtKeyRing.activeKeyId();
+        JwsHeader header = this.jwsHeader;
+        if (header == null || !keyId.equals(header.getKeyId())) {
+            header = JwsHeader.with(JWT_ALGORITHM).keyId(keyId).build();
+            this.jwsHeader = header;
+        }
+        return header;
     }
 
     /**
@@ -121,8 +192,11 @@ public class AuthenticateController {
 
         private String idToken;
 
-        JWTToken(String idToken) {
+        private String refreshToken;
+
+        JWTToken(String idToken, String refreshToken) {
             this.idToken = idToken;
+            this.refreshToken = refreshToken;
         }
 
         @JsonProperty("id_token")
@@ -133,5 +207,14 @@ public class AuthenticateController {
         void setIdToken(String idToken) {
             this.idToken = idToken;
         }
+
+        @JsonProperty("refresh_token")
+        String getRefreshToken() {
+            return refreshToken;
+        }
+
+        void setRefreshToken(String refreshToken) {
+            this.refreshToken = refreshToken;
+        }
     }
 }
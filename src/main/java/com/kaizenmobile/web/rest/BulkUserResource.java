@@ -0,0 +1,230 @@
+package com.kaizenmobile.web.rest;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SequenceWriter;
+import com.fasterxml.jackson.dataformat.csv.CsvMapper;
+import com.fasterxml.jackson.dataformat.csv.CsvParser;
+import com.fasterxml.jackson.dataformat.csv.CsvSchema;
+import com.kaizenmobile.security.AuthoritiesConstants;
+import com.kaizenmobile.service.BulkImportRowException;
+import com.kaizenmobile.service.BulkUserService;
+import com.kaizenmobile.service.dto.BulkImportResultDTO;
+import com.kaizenmobile.service.dto.BulkUserDTO;
+import jakarta.servlet.http.HttpServletResponse;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+/**
+ * REST controller for the bulk import and export of the users, with their authorities and tenant.
+ * <p>
+ * The users are read from the request and written to the response one at a time, as newline delimited JSON or as CSV
+ * with a header row, the authorities of a user separated by {@code ;}.
+ */
+@RestController
+@RequestMapping("/api/admin/bulk")
+@PreAuthorize("hasAuthority(\"" + AuthoritiesConstants.ADMIN + "\")")
+public class BulkUserResource {
+
+    public static final String TEXT_CSV_VALUE = "text/csv";
+
+    private static final MediaType TEXT_CSV = MediaType.parseMediaType(TEXT_CSV_VALUE);
+
+    private static final Logger log = LoggerFactory.getLogger(BulkUserResource.class);
+
+    private final BulkUserService bulkUserService;
+
+    private final ObjectReader jsonReader;
+
+    private final ObjectWriter jsonWriter;
+
+    private final ObjectReader csvReader;
+
+    private final ObjectWriter csvWriter;
+
+    public BulkUserResource(BulkUserService bulkUserService, ObjectMapper objectMapper) {
+        this.bulkUserService = bulkUserService;
+        this.jsonReader = objectMapper.readerFor(BulkUserDTO.class);
+        this.jsonWriter = objectMapper.writerFor(BulkUserDTO.class);
+        CsvMapper csvMapper = CsvMapper.builder().enable(CsvParser.Feature.EMPTY_STRING_AS_NULL).build();
+        this.csvReader = csvMapper.readerFor(BulkUserDTO.class).with(CsvSchema.emptySchema().withHeader().withArrayElementSeparator(";"));
+        this.csvWriter = csvMapper
+            .writerFor(BulkUserDTO.class)
+            .with(csvMapper.schemaFor(BulkUserDTO.class).withHeader().withArrayElementSeparator(";"));
+    }
+
+    /**
+     * {@code POST  /admin/bulk/users} : import users from newline delimited JSON, one user per line.
+     *
+     * @param in the users to import.
+     * @param sendEmails whether to send the activation or creation emails to the users imported.
+     * @return the outcome of the import, with the rows which couldn't be imported.
+     */
+    @PostMapping(value = "/users", consumes = MediaType.APPLICATION_NDJSON_VALUE)
+    public BulkImportResultDTO importUsersFromJson(InputStream in, @RequestParam(defaultValue = "true") boolean sendEmails) {
+        log.debug("REST request to import users from JSON");
+        return importUsers(new JsonRows(new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8))), sendEmails);
+    }
+
+    /**
+     * {@code POST  /admin/bulk/users} : import users from CSV, with a header row naming the columns.
+     *
+     * @param in the users to import.
+     * @param sendEmails whether to send the activation or creation emails to the users imported.
+     * @return the outcome of the import, with the rows which couldn't be imported.
+     * @throws IOException if the header row couldn't be read.
+     */
+    @PostMapping(value = "/users", consumes = TEXT_CSV_VALUE)
+    public BulkImportResultDTO importUsersFromCsv(InputStream in, @RequestParam(defaultValue = "true") boolean sendEmails)
+        throws IOException {
+        log.debug("REST request to import users from CSV");
+        try (MappingIterator<BulkUserDTO> rows = csvReader.readValues(in)) {
+            return importUsers(new CsvRows(rows), sendEmails);
+        }
+    }
+
+    private BulkImportResultDTO importUsers(Iterator<BulkUserDTO> rows, boolean sendEmails) {
+        try {
+            return bulkUserService.importUsers(rows, sendEmails);
+        } catch (UncheckedIOException e) {
+            log.warn("Could not read all the imported users: {}", e.getMessage());
+            throw e;
+        }
+    }
+
+    /**
+     * {@code GET  /admin/bulk/users} : export all the users, in id order, as newline delimited JSON, or as CSV when
+     * accepted.
+     *
+     * @param accept the media types accepted.
+     * @param response the response, with status {@code 200 (OK)} and one user per line in body.
+     * @throws IOException if the response couldn't be written.
+     */
+    @GetMapping(value = "/users", produces = { MediaType.APPLICATION_NDJSON_VALUE, TEXT_CSV_VALUE })
+    public void exportUsers(@RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept, HttpServletResponse response)
+        throws IOException {
+        log.debug("REST request to export users");
+        boolean csv = accept != null && MediaType.parseMediaTypes(accept).stream().anyMatch(TEXT_CSV::equalsTypeAndSubtype);
+        response.setContentType(csv ? TEXT_CSV_VALUE : MediaType.APPLICATION_NDJSON_VALUE);
+        response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+        OutputStream outputStream = response.getOutputStream();
+        try {
+            if (csv) {
+                try (SequenceWriter writer = csvWriter.writeValues(outputStream)) {
+                    bulkUserService.exportUsers(user -> write(writer, user));
+                }
+            } else {
+                bulkUserService.exportUsers(user -> {
+                    try {
+                        outputStream.write(jsonWriter.writeValueAsBytes(user));
+                        outputStream.write('\n');
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+            }
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        outputStream.flush();
+    }
+
+    private static void write(SequenceWriter writer, BulkUserDTO user) {
+        try {
+            writer.write(user);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * The users of newline delimited JSON, read a line at a time, skipping the blank lines.
+     */
+    private final class JsonRows implements Iterator<BulkUserDTO> {
+
+        private final BufferedReader reader;
+
+        private String line;
+
+        private JsonRows(BufferedReader reader) {
+            this.reader = reader;
+        }
+
+        @Override
+        public boolean hasNext() {
+            try {
+                while (line == null || line.isBlank()) {
+                    line = reader.readLine();
+                    if (line == null) {
+                        return false;
+                    }
+                }
+                return true;
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        @Override
+        public BulkUserDTO next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            String row = line;
+            line = null;
+            try {
+                return jsonReader.readValue(row);
+            } catch (JsonProcessingException e) {
+                throw new BulkImportRowException("Unreadable row: " + e.getOriginalMessage());
+            }
+        }
+    }
+
+    /**
+     * The users of CSV, read a record at a time: a record which can't be read is skipped.
+     */
+    private static final class CsvRows implements Iterator<BulkUserDTO> {
+
+        private final MappingIterator<BulkUserDTO> rows;
+
+        private CsvRows(MappingIterator<BulkUserDTO> rows) {
+            this.rows = rows;
+        }
+
+        @Override
+        public boolean hasNext() {
+            try {
+                return rows.hasNextValue();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        @Override
+        public BulkUserDTO next() {
+            try {
+                return rows.nextValue();
+            } catch (JsonProcessingException e) {
+                throw new BulkImportRowException("Unreadable row: " + e.getOriginalMessage());
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+}
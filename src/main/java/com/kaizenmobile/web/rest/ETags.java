@@ -0,0 +1,37 @@
+package com.kaizenmobile.web.rest;
+
+import com.kaizenmobile.repository.CollectionVersion;
+import java.time.Instant;
+import org.springframework.http.HttpHeaders;
+
+/**
+ * Entity tags of the REST resources, computed from the versions of the entities rather than from their
+ * representations: a request can be checked with {@link org.springframework.web.context.request.WebRequest#checkNotModified(String)},
+ * answering {@code 304 (Not Modified)} to {@code If-None-Match} or {@code 412 (Precondition Failed)} to {@code If-Match},
+ * before the entities are loaded.
+ * <p>
+ * The tags of the entities are strong. The tags of the collections are weak, as they are digests of the versions of
+ * their entities, which only tell a modified collection apart with a high probability.
+ */
+final class ETags {
+
+    private ETags() {}
+
+    static String of(Integer version) {
+        return "\"" + version + "\"";
+    }
+
+    static String of(Instant lastModifiedDate) {
+        return "\"" + (lastModifiedDate == null ? 0 : lastModifiedDate.toEpochMilli()) + "\"";
+    }
+
+    static String of(CollectionVersion version) {
+        return "W/\"" + version.count() + "-" + version.lastId() + "-" + version.modification() + "\"";
+    }
+
+    static HttpHeaders headers(String eTag) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setETag(eTag);
+        return headers;
+    }
+}
@@ -0,0 +1,41 @@
+package com.kaizenmobile.web.rest;
+
+import com.kaizenmobile.config.ApplicationProperties;
+import com.kaizenmobile.security.JwtKeyRing;
+import java.util.Map;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.CacheControl;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * REST controller publishing the public keys verifying the JWTs, so other services can verify them locally.
+ */
+@RestController
+public class JwksResource {
+
+    private static final Logger log = LoggerFactory.getLogger(JwksResource.class);
+
+    private final JwtKeyRing jwtKeyRing;
+
+    private final CacheControl cacheControl;
+
+    public JwksResource(JwtKeyRing jwtKeyRing, ApplicationProperties applicationProperties) {
+        this.jwtKeyRing = jwtKeyRing;
+        this.cacheControl = CacheControl.maxAge(applicationProperties.getJwtKeys().getJwksMaxAge()).cachePublic();
+    }
+
+    /**
+     * {@code GET /.well-known/jwks.json} : get the JSON Web Key Set of the JWT signing keys.
+     *
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the public keys in body.
+     */
+    @GetMapping(value = "/.well-known/jwks.json", produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<Map<String, Object>> getJwks() {
+        log.debug("REST request to get the JWT signing keys");
+        return ResponseEntity.ok().cacheControl(cacheControl).body(jwtKeyRing.publicJwkSet().toJSONObject());
+    }
+}
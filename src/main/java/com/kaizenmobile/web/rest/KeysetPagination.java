@@ -0,0 +1,144 @@
+package com.kaizenmobile.web.rest;
+
+import com.kaizenmobile.web.rest.errors.BadRequestAlertException;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import org.springframework.data.domain.KeysetScrollPosition;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.util.UriComponentsBuilder;
+
+/**
+ * Keyset (seek) pagination of a listing: a page is read from a position in the sort order, the values of the sort key
+ * and of the id of the last entity of the previous page, instead of skipping the entities of all the previous pages.
+ * Reading a page costs the same however deep it is, and no total count is computed.
+ * <p>
+ * The position is given to the client as an opaque cursor, in the {@code next} link of the page (RFC 5988), and is only
+ * valid with the sort it was read with. Only the sorts on a unique or indexed, non null, property are supported.
+ */
+final class KeysetPagination {
+
+    static final String CURSOR_PARAMETER = "cursor";
+
+    private static final String ID = "id";
+
+    /**
+     * The user listings, sorted by id, login or creation date.
+     */
+    static final KeysetPagination USERS = new KeysetPagination(
+        "userManagement",
+        Map.of(ID, Long::valueOf, "login", login -> login, "createdDate", Instant::parse)
+    );
+
+    /**
+     * The appStats listing, sorted by id.
+     */
+    static final KeysetPagination APP_STATS = new KeysetPagination("appStats", Map.of(ID, Long::valueOf));
+
+    private final String entityName;
+
+    private final Map<String, Function<String, Object>> keyParsers;
+
+    /**
+     * @param entityName the name of the entity listed, for the errors.
+     * @param keyParsers the parsers of the values of the sort keys supported, by property, including the id.
+     */
+    private KeysetPagination(String entityName, Map<String, Function<String, Object>> keyParsers) {
+        this.entityName = entityName;
+        this.keyParsers = keyParsers;
+    }
+
+    /**
+     * @param pageable the pagination information.
+     * @return whether the entities can be paged by keyset in the requested order: sorted on at most one supported property.
+     */
+    boolean supports(Pageable pageable) {
+        List<Sort.Order> orders = pageable.getSort().toList();
+        return orders.size() <= 1 && orders.stream().map(Sort.Order::getProperty).allMatch(keyParsers::containsKey);
+    }
+
+    /**
+     * @param pageable the pagination information, see {@link #supports(Pageable)}.
+     * @return the sort of the pages, ending with the id to make it total.
+     */
+    Sort sort(Pageable pageable) {
+        Sort sort = pageable.getSort();
+        if (sort.getOrderFor(ID) != null) {
+            return sort;
+        }
+        Sort.Direction direction = sort.stream().findFirst().map(Sort.Order::getDirection).orElse(Sort.Direction.ASC);
+        return sort.and(Sort.by(direction, ID));
+    }
+
+    /**
+     * @param cursor the cursor, empty for the first page.
+     * @param sort the sort of the pages.
+     * @return the position the cursor stands for.
+     * @throws BadRequestAlertException if the cursor is malformed, or was read with another sort.
+     */
+    KeysetScrollPosition position(String cursor, Sort sort) {
+        if (cursor.isEmpty()) {
+            return ScrollPosition.keyset();
+        }
+        String[] values;
+        try {
+            values = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8).split("\n", -1);
+        } catch (IllegalArgumentException e) {
+            throw invalidCursor();
+        }
+        List<Sort.Order> orders = sort.toList();
+        if (values.length != orders.size() + 1 || !values[0].equals(sort.toString())) {
+            throw invalidCursor();
+        }
+        Map<String, Object> keys = new LinkedHashMap<>();
+        try {
+            for (int i = 0; i < orders.size(); i++) {
+                String property = orders.get(i).getProperty();
+                keys.put(property, keyParsers.get(property).apply(values[i + 1]));
+            }
+        } catch (NumberFormatException | DateTimeParseException e) {
+            throw invalidCursor();
+        }
+        return ScrollPosition.forward(keys);
+    }
+
+    /**
+     * @param uriBuilder the URI of the current page.
+     * @param window the current page.
+     * @param sort the sort of the pages.
+     * @return the {@code Link} header to the next page, empty if it is the last one.
+     */
+    static HttpHeaders generateHeaders(UriComponentsBuilder uriBuilder, Window<?> window, Sort sort) {
+        HttpHeaders headers = new HttpHeaders();
+        if (window.hasNext() && !window.isEmpty()) {
+            KeysetScrollPosition next = (KeysetScrollPosition) window.positionAt(window.size() - 1);
+            String link = uriBuilder
+                .replaceQueryParam("page")
+                .replaceQueryParam(CURSOR_PARAMETER, cursor(next, sort))
+                .toUriString();
+            headers.add(HttpHeaders.LINK, "<" + link + ">; rel=\"next\"");
+        }
+        return headers;
+    }
+
+    private static String cursor(KeysetScrollPosition position, Sort sort) {
+        List<String> values = new ArrayList<>();
+        values.add(sort.toString());
+        sort.forEach(order -> values.add(String.valueOf(position.getKeys().get(order.getProperty()))));
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(String.join("\n", values).getBytes(StandardCharsets.UTF_8));
+    }
+
+    private BadRequestAlertException invalidCursor() {
+        return new BadRequestAlertException("Invalid cursor", entityName, "invalidcursor");
+    }
+}
@@ -9,10 +9,12 @@ import org.slf4j.LoggerFactory;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 import tech.jhipster.web.util.PaginationUtil;
 
@@ -36,17 +38,41 @@ public class PublicUserResource {
      * {@code GET /users} : get all users with only public information - calling this method is allowed for anyone.
      *
      * @param pageable the pagination information.
+     * @param cursor the cursor of the page, from the {@code next} link of the previous page, empty for the first page:
+     * pages by keyset, without total count, instead of by offset. Only sorts on {@code id}, {@code login} or
+     * {@code createdDate} are supported.
+     * @param webRequest the request, answered with status {@code 304 (Not Modified)} if its {@code If-None-Match} matches.
      * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body all users.
      */
     @GetMapping("/users")
-    public ResponseEntity<List<UserDTO>> getAllPublicUsers(@org.springdoc.core.annotations.ParameterObject Pageable pageable) {
+    public ResponseEntity<List<UserDTO>> getAllPublicUsers(
+        @org.springdoc.core.annotations.ParameterObject Pageable pageable,
+        @RequestParam(name = KeysetPagination.CURSOR_PARAMETER, required = false) String cursor,
+        WebRequest webRequest
+    ) {
         log.debug("REST request to get all public User names");
-        if (!onlyContainsAllowedProperties(pageable)) {
+        if (!onlyContainsAllowedProperties(pageable) || (cursor != null && !KeysetPagination.USERS.supports(pageable))) {
             return ResponseEntity.badRequest().build();
         }
 
+        String eTag = ETags.of(userService.getPublicUsersVersion());
+        if (webRequest.checkNotModified(eTag)) {
+            return null;
+        }
+        if (cursor != null) {
+            Sort sort = KeysetPagination.USERS.sort(pageable);
+            Window<UserDTO> window = userService.getAllPublicUsers(
+                KeysetPagination.USERS.position(cursor, sort),
+                sort,
+                pageable.getPageSize()
+            );
+            HttpHeaders headers = KeysetPagination.generateHeaders(ServletUriComponentsBuilder.fromCurrentRequest(), window, sort);
+            headers.setETag(eTag);
+            return new ResponseEntity<>(window.getContent(), headers, HttpStatus.OK);
+        }
         final Page<UserDTO> page = userService.getAllPublicUsers(pageable);
         HttpHeaders headers = PaginationUtil.generatePaginationHttpHeaders(ServletUriComponentsBuilder.fromCurrentRequest(), page);
+        headers.setETag(eTag);
         return new ResponseEntity<>(page.getContent(), headers, HttpStatus.OK);
     }
 
@@ -4,7 +4,7 @@ import com.kaizenmobile.config.Constants;
 import com.kaizenmobile.domain.User;
 import com.kaizenmobile.repository.UserRepository;
 import com.kaizenmobile.security.AuthoritiesConstants;
-import com.kaizenmobile.service.MailService;
+import com.kaizenmobile.service.UniquenessFilter;
 import com.kaizenmobile.service.UserService;
 import com.kaizenmobile.service.dto.AdminUserDTO;
 import com.kaizenmobile.web.rest.errors.BadRequestAlertException;
@@ -22,11 +22,13 @@ import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 import tech.jhipster.web.util.HeaderUtil;
 import tech.jhipster.web.util.PaginationUtil;
@@ -85,12 +87,12 @@ public class UserResource {
 
     private final UserRepository userRepository;
 
-    private final MailService mailService;
+    private final UniquenessFilter uniquenessFilter;
 
-    public UserResource(UserService userService, UserRepository userRepository, MailService mailService) {
+    public UserResource(UserService userService, UserRepository userRepository, UniquenessFilter uniquenessFilter) {
         this.userService = userService;
         this.userRepository = userRepository;
-        this.mailService = mailService;
+        this.uniquenessFilter = uniquenessFilter;
     }
 
     /**
@@ -113,13 +115,17 @@ public class UserResource {
         if (userDTO.getId() != null) {
             throw new BadRequestAlertException("A new user cannot already have an ID", "userManagement", "idexists");
             // Lowercase the user login before comparing with database
-        } else if (userRepository.findOneByLogin(userDTO.getLogin().toLowerCase()).isPresent()) {
+        } else if (
+            uniquenessFilter.mightContainLogin(userDTO.getLogin()) &&
+            userRepository.findOneByLogin(userDTO.getLogin().toLowerCase()).isPresent()
+        ) {
             throw new LoginAlreadyUsedException();
-        } else if (userRepository.findOneByEmailIgnoreCase(userDTO.getEmail()).isPresent()) {
+        } else if (
+            uniquenessFilter.mightContainEmail(userDTO.getEmail()) && userRepository.findOneByEmailIgnoreCase(userDTO.getEmail()).isPresent()
+        ) {
             throw new EmailAlreadyUsedException();
         } else {
             User newUser = userService.createUser(userDTO);
-            mailService.sendCreationEmail(newUser);
             return ResponseEntity.created(new URI("/api/admin/users/" + newUser.getLogin()))
                 .headers(HeaderUtil.createAlert(applicationName, "userManagement.created", newUser.getLogin()))
                 .body(newUser);
@@ -130,6 +136,7 @@ public class UserResource {
      * {@code PUT /admin/users} : Updates an existing User.
      *
      * @param userDTO the user to update.
+     * @param webRequest the request, rejected with status {@code 412 (Precondition Failed)} if its {@code If-Match} doesn't match the user.
      * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the updated user.
      * @throws EmailAlreadyUsedException {@code 400 (Bad Request)} if the email is already in use.
      * @throws LoginAlreadyUsedException {@code 400 (Bad Request)} if the login is already in use.
@@ -138,7 +145,8 @@ public class UserResource {
     @PreAuthorize("hasAuthority(\"" + AuthoritiesConstants.ADMIN + "\")")
     public ResponseEntity<AdminUserDTO> updateUser(
         @PathVariable(name = "login", required = false) @Pattern(regexp = Constants.LOGIN_REGEX) String login,
-        @Valid @RequestBody AdminUserDTO userDTO
+        @Valid @RequestBody AdminUserDTO userDTO,
+        WebRequest webRequest
     ) {
         log.debug("REST request to update User : {}", userDTO);
         Optional<User> existingUser = userRepository.findOneByEmailIgnoreCase(userDTO.getEmail());
@@ -149,30 +157,62 @@ public class UserResource {
         if (existingUser.isPresent() && (!existingUser.orElseThrow().getId().equals(userDTO.getId()))) {
             throw new LoginAlreadyUsedException();
         }
+        Optional<String> eTag = Optional.ofNullable(userDTO.getId())
+            .flatMap(userRepository::findById)
+            .flatMap(user -> userService.getUserLastModifiedDate(user.getLogin()))
+            .map(ETags::of);
+        if (eTag.isPresent() && webRequest.checkNotModified(eTag.orElseThrow())) {
+            return null;
+        }
         Optional<AdminUserDTO> updatedUser = userService.updateUser(userDTO);
 
-        return ResponseUtil.wrapOrNotFound(
-            updatedUser,
-            HeaderUtil.createAlert(applicationName, "userManagement.updated", userDTO.getLogin())
-        );
+        HttpHeaders headers = HeaderUtil.createAlert(applicationName, "userManagement.updated", userDTO.getLogin());
+        updatedUser
+            .flatMap(user -> userService.getUserLastModifiedDate(user.getLogin()))
+            .ifPresent(lastModifiedDate -> headers.setETag(ETags.of(lastModifiedDate)));
+        return ResponseUtil.wrapOrNotFound(updatedUser, headers);
     }
 
     /**
      * {@code GET /admin/users} : get all users with all the details - calling this are only allowed for the administrators.
      *
      * @param pageable the pagination information.
+     * @param cursor the cursor of the page, from the {@code next} link of the previous page, empty for the first page:
+     * pages by keyset, without total count, instead of by offset. Only sorts on {@code id}, {@code login} or
+     * {@code createdDate} are supported.
+     * @param webRequest the request, answered with status {@code 304 (Not Modified)} if its {@code If-None-Match} matches.
      * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body all users.
      */
     @GetMapping("/users")
     @PreAuthorize("hasAuthority(\"" + AuthoritiesConstants.ADMIN + "\")")
-    public ResponseEntity<List<AdminUserDTO>> getAllUsers(@org.springdoc.core.annotations.ParameterObject Pageable pageable) {
+    public ResponseEntity<List<AdminUserDTO>> getAllUsers(
+        @org.springdoc.core.annotations.ParameterObject Pageable pageable,
+        @RequestParam(name = KeysetPagination.CURSOR_PARAMETER, required = false) String cursor,
+        WebRequest webRequest
+    ) {
         log.debug("REST request to get all User for an admin");
-        if (!onlyContainsAllowedProperties(pageable)) {
+        if (!onlyContainsAllowedProperties(pageable) || (cursor != null && !KeysetPagination.USERS.supports(pageable))) {
             return ResponseEntity.badRequest().build();
         }
 
+        String eTag = ETags.of(userService.getManagedUsersVersion());
+        if (webRequest.checkNotModified(eTag)) {
+            return null;
+        }
+        if (cursor != null) {
+            Sort sort = KeysetPagination.USERS.sort(pageable);
+            Window<AdminUserDTO> window = userService.getAllManagedUsers(
+                KeysetPagination.USERS.position(cursor, sort),
+                sort,
+                pageable.getPageSize()
+            );
+            HttpHeaders headers = KeysetPagination.generateHeaders(ServletUriComponentsBuilder.fromCurrentRequest(), window, sort);
+            headers.setETag(eTag);
+            return new ResponseEntity<>(window.getContent(), headers, HttpStatus.OK);
+        }
         final Page<AdminUserDTO> page = userService.getAllManagedUsers(pageable);
         HttpHeaders headers = PaginationUtil.generatePaginationHttpHeaders(ServletUriComponentsBuilder.fromCurrentRequest(), page);
+        headers.setETag(eTag);
         return new ResponseEntity<>(page.getContent(), headers, HttpStatus.OK);
     }
 
@@ -184,13 +224,22 @@ public class UserResource {
      * {@code GET /admin/users/:login} : get the "login" user.
      *
      * @param login the login of the user to find.
+     * @param webRequest the request, answered with status {@code 304 (Not Modified)} if its {@code If-None-Match} matches.
      * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the "login" user, or with status {@code 404 (Not Found)}.
      */
     @GetMapping("/users/{login}")
     @PreAuthorize("hasAuthority(\"" + AuthoritiesConstants.ADMIN + "\")")
-    public ResponseEntity<AdminUserDTO> getUser(@PathVariable("login") @Pattern(regexp = Constants.LOGIN_REGEX) String login) {
+    public ResponseEntity<AdminUserDTO> getUser(
+        @PathVariable("login") @Pattern(regexp = Constants.LOGIN_REGEX) String login,
+        WebRequest webRequest
+    ) {
         log.debug("REST request to get User : {}", login);
-        return ResponseUtil.wrapOrNotFound(userService.getUserWithAuthoritiesByLogin(login).map(AdminUserDTO::new));
+        Optional<String> eTag = userService.getUserLastModifiedDate(login).map(ETags::of);
+        if (eTag.isPresent() && webRequest.checkNotModified(eTag.orElseThrow())) {
+            return null;
+        }
+        Optional<AdminUserDTO> user = eTag.flatMap(tag -> userService.getUserWithAuthoritiesByLogin(login)).map(AdminUserDTO::new);
+        return ResponseUtil.wrapOrNotFound(user, eTag.map(ETags::headers).orElse(null));
     }
 
     /**
@@ -88,7 +88,7 @@ describe('LoginForm Component', () => {
     loginForm.password = 'pwd';
     loginForm.rememberMe = true;
     const jwtSecret = 'jwt-secret';
-    axiosStub.post.resolves({ headers: { authorization: 'Bearer ' + jwtSecret } });
+    axiosStub.post.resolves({ headers: { authorization: 'Bearer ' + jwtSecret }, data: { refresh_token: 'refresh-token' } });
 
     // WHEN
     loginForm.doLogin();
@@ -105,6 +105,7 @@ describe('LoginForm Component', () => {
 
     expect(loginForm.authenticationError).toBeFalsy();
     expect(localStorage.getItem('jhi-authenticationToken')).toEqual(jwtSecret);
+    expect(localStorage.getItem('jhi-refreshToken')).toEqual('refresh-token');
   });
 
   it('should store token if authentication is OK in session', async () => {
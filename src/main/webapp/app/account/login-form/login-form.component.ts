@@ -29,12 +29,15 @@ export default defineComponent({
         const bearerToken = result.headers.authorization;
         if (bearerToken && bearerToken.slice(0, 7) === 'Bearer ') {
           const jwt = bearerToken.slice(7, bearerToken.length);
-          if (rememberMe.value) {
-            localStorage.setItem('jhi-authenticationToken', jwt);
-            sessionStorage.removeItem('jhi-authenticationToken');
+          const refreshToken = result.data?.refresh_token;
+          const [storage, otherStorage] = rememberMe.value ? [localStorage, sessionStorage] : [sessionStorage, localStorage];
+          storage.setItem('jhi-authenticationToken', jwt);
+          otherStorage.removeItem('jhi-authenticationToken');
+          otherStorage.removeItem('jhi-refreshToken');
+          if (refreshToken) {
+            storage.setItem('jhi-refreshToken', refreshToken);
           } else {
-            sessionStorage.setItem('jhi-authenticationToken', jwt);
-            localStorage.removeItem('jhi-authenticationToken');
+            storage.removeItem('jhi-refreshToken');
           }
         }
 
@@ -48,6 +48,8 @@ export default defineComponent({
     const logout = async () => {
       localStorage.removeItem('jhi-authenticationToken');
       sessionStorage.removeItem('jhi-authenticationToken');
+      localStorage.removeItem('jhi-refreshToken');
+      sessionStorage.removeItem('jhi-refreshToken');
       store.logout();
       if (router.currentRoute.value.path !== '/') {
         router.push('/');
@@ -67,6 +67,18 @@ describe('Component Tests', () => {
         expect(appStatsServiceStub.retrieve.calledOnce).toBeTruthy();
         expect(comp.appStats[0]).toEqual(expect.objectContaining({ id: 123 }));
       });
+
+      it('should calculate the sort attribute for an id', async () => {
+        // WHEN
+        const wrapper = shallowMount(AppStats, { global: mountOptions });
+        const comp = wrapper.vm;
+        await comp.$nextTick();
+
+        // THEN
+        expect(appStatsServiceStub.retrieve.lastCall.firstArg).toMatchObject({
+          sort: ['id,asc'],
+        });
+      });
     });
     describe('Handles', () => {
       let comp: AppStatsComponentType;
@@ -79,6 +91,55 @@ describe('Component Tests', () => {
         appStatsServiceStub.retrieve.resolves({ headers: {}, data: [] });
       });
 
+      it('should load a page', async () => {
+        // GIVEN
+        appStatsServiceStub.retrieve.resolves({ headers: {}, data: [{ id: 123 }] });
+
+        // WHEN
+        comp.page = 2;
+        await comp.$nextTick();
+
+        // THEN
+        expect(appStatsServiceStub.retrieve.called).toBeTruthy();
+        expect(comp.appStats[0]).toEqual(expect.objectContaining({ id: 123 }));
+      });
+
+      it('should not load a page if the page is the same as the previous page', () => {
+        // WHEN
+        comp.page = 1;
+
+        // THEN
+        expect(appStatsServiceStub.retrieve.called).toBeFalsy();
+      });
+
+      it('should re-initialize the page', async () => {
+        // GIVEN
+        comp.page = 2;
+        await comp.$nextTick();
+        appStatsServiceStub.retrieve.reset();
+        appStatsServiceStub.retrieve.resolves({ headers: {}, data: [{ id: 123 }] });
+
+        // WHEN
+        comp.clear();
+        await comp.$nextTick();
+
+        // THEN
+        expect(comp.page).toEqual(1);
+        expect(appStatsServiceStub.retrieve.callCount).toEqual(1);
+        expect(comp.appStats[0]).toEqual(expect.objectContaining({ id: 123 }));
+      });
+
+      it('should calculate the sort attribute for a non-id attribute', async () => {
+        // WHEN
+        comp.propOrder = 'name';
+        await comp.$nextTick();
+
+        // THEN
+        expect(appStatsServiceStub.retrieve.lastCall.firstArg).toMatchObject({
+          sort: ['name,asc', 'id'],
+        });
+      });
+
       it('Should call delete service on confirmDelete', async () => {
         // GIVEN
         appStatsServiceStub.delete.resolves({});
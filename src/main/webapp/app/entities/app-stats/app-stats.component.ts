@@ -1,4 +1,4 @@
-import { defineComponent, inject, onMounted, ref, type Ref } from 'vue';
+import { defineComponent, inject, onMounted, ref, type Ref, watch } from 'vue';
 import { useI18n } from 'vue-i18n';
 
 import AppStatsService from './app-stats.service';
@@ -13,16 +13,40 @@ export default defineComponent({
     const appStatsService = inject('appStatsService', () => new AppStatsService());
     const alertService = inject('alertService', () => useAlertService(), true);
 
+    const itemsPerPage = ref(20);
+    const queryCount: Ref<number> = ref(null);
+    const page: Ref<number> = ref(1);
+    const propOrder = ref('id');
+    const reverse = ref(false);
+    const totalItems = ref(0);
+
     const appStats: Ref<IAppStats[]> = ref([]);
 
     const isFetching = ref(false);
 
-    const clear = () => {};
+    const clear = () => {
+      page.value = 1;
+    };
+
+    const sort = (): Array<any> => {
+      const result = [propOrder.value + ',' + (reverse.value ? 'desc' : 'asc')];
+      if (propOrder.value !== 'id') {
+        result.push('id');
+      }
+      return result;
+    };
 
     const retrieveAppStatss = async () => {
       isFetching.value = true;
       try {
-        const res = await appStatsService().retrieve();
+        const paginationQuery = {
+          page: page.value - 1,
+          size: itemsPerPage.value,
+          sort: sort(),
+        };
+        const res = await appStatsService().retrieve(paginationQuery);
+        totalItems.value = Number(res.headers['x-total-count']);
+        queryCount.value = totalItems.value;
         appStats.value = res.data;
       } catch (err) {
         alertService.showHttpError(err.response);
@@ -61,6 +85,31 @@ export default defineComponent({
       }
     };
 
+    const changeOrder = (newOrder: string) => {
+      if (propOrder.value === newOrder) {
+        reverse.value = !reverse.value;
+      } else {
+        reverse.value = false;
+      }
+      propOrder.value = newOrder;
+    };
+
+    // Whenever order changes, reset the pagination
+    watch([propOrder, reverse], async () => {
+      if (page.value === 1) {
+        // first page, retrieve new data
+        await retrieveAppStatss();
+      } else {
+        // reset the pagination
+        clear();
+      }
+    });
+
+    // Whenever page changes, switch to the new page.
+    watch(page, async () => {
+      await retrieveAppStatss();
+    });
+
     return {
       appStats,
       handleSyncList,
@@ -72,6 +121,13 @@ export default defineComponent({
       prepareRemove,
       closeDialog,
       removeAppStats,
+      itemsPerPage,
+      queryCount,
+      page,
+      propOrder,
+      reverse,
+      totalItems,
+      changeOrder,
       t$,
     };
   },
@@ -65,4 +65,37 @@ describe('Axios errors interceptor', () => {
       expect(callback.called).toBeFalsy();
     }
   });
+  it('should refresh the access token and replay the request on 401', async () => {
+    const callback = sinon.spy();
+    axios.interceptors.request.clear();
+    axios.interceptors.response.clear();
+    sessionStorage.setItem('jhi-refreshToken', 'refresh');
+    setupAxiosConfig.setupAxiosInterceptors(callback, () => {});
+
+    mock.reset();
+    mock.onGet('/api/test').replyOnce(401);
+    mock.onPost('/api/authenticate/refresh', { refreshToken: 'refresh' }).replyOnce(200, { id_token: 'new', refresh_token: 'next' });
+    mock.onGet('/api/test').replyOnce(200, 'ok');
+    const result = await axios('api/test');
+
+    expect(result.data).toBe('ok');
+    expect(sessionStorage.getItem('jhi-authenticationToken')).toBe('new');
+    expect(sessionStorage.getItem('jhi-refreshToken')).toBe('next');
+    expect(callback.called).toBeFalsy();
+  });
+  it('should use callback on 401 when the refresh token is rejected', async () => {
+    const callback = sinon.spy();
+    axios.interceptors.request.clear();
+    axios.interceptors.response.clear();
+    sessionStorage.setItem('jhi-refreshToken', 'refresh');
+    setupAxiosConfig.setupAxiosInterceptors(callback, () => {});
+
+    mock.reset();
+    mock.onGet('/api/test').reply(401);
+    mock.onPost('/api/authenticate/refresh').reply(401);
+    await axios('api/test');
+
+    expect(callback.calledOnce).toBeTruthy();
+    expect(sessionStorage.getItem('jhi-refreshToken')).toBeNull();
+  });
 });
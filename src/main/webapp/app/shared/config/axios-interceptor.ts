@@ -1,8 +1,14 @@
 import axios from 'axios';
 
 const TIMEOUT = 1000000;
+const AUTHENTICATION_TOKEN = 'jhi-authenticationToken';
+const REFRESH_TOKEN = 'jhi-refreshToken';
+const REFRESH_URL = 'api/authenticate/refresh';
+
+let refreshing: Promise<void> = null;
+
 const onRequestSuccess = config => {
-  const token = localStorage.getItem('jhi-authenticationToken') || sessionStorage.getItem('jhi-authenticationToken');
+  const token = localStorage.getItem(AUTHENTICATION_TOKEN) || sessionStorage.getItem(AUTHENTICATION_TOKEN);
   if (token) {
     if (!config.headers) {
       config.headers = {};
@@ -13,9 +19,47 @@ const onRequestSuccess = config => {
   config.url = `${SERVER_API_URL}${config.url}`;
   return config;
 };
+
+/**
+ * Exchange the refresh token for a new access token, once for all the requests failing together. Both tokens are kept
+ * in the storage of the refresh token, so a session remembered across restarts stays remembered.
+ */
+const refreshAccessToken = (): Promise<void> => {
+  if (!refreshing) {
+    const storage = localStorage.getItem(REFRESH_TOKEN) ? localStorage : sessionStorage;
+    refreshing = axios
+      .post(REFRESH_URL, { refreshToken: storage.getItem(REFRESH_TOKEN) })
+      .then(res => {
+        storage.setItem(AUTHENTICATION_TOKEN, res.data.id_token);
+        storage.setItem(REFRESH_TOKEN, res.data.refresh_token);
+      })
+      .catch(err => {
+        storage.removeItem(AUTHENTICATION_TOKEN);
+        storage.removeItem(REFRESH_TOKEN);
+        throw err;
+      })
+      .finally(() => {
+        refreshing = null;
+      });
+  }
+  return refreshing;
+};
+
 const setupAxiosInterceptors = (onUnauthenticated, onServerError) => {
   const onResponseError = err => {
     const status = err.status || err.response.status;
+    const config = err.config || err.response?.config;
+    if (status === 401 && config?.url?.endsWith(REFRESH_URL)) {
+      return Promise.reject(err);
+    }
+    const hasRefreshToken = localStorage.getItem(REFRESH_TOKEN) || sessionStorage.getItem(REFRESH_TOKEN);
+    if (status === 401 && hasRefreshToken && config && !config.retried && !config.url?.endsWith('api/authenticate')) {
+      // The access token expired, replay the request once with a new one, its url being prefixed again on the way
+      return refreshAccessToken().then(
+        () => axios({ ...config, url: config.url.substring(SERVER_API_URL.length), retried: true }),
+        () => onUnauthenticated(err),
+      );
+    }
     if (status === 403 || status === 401) {
       return onUnauthenticated(err);
     }
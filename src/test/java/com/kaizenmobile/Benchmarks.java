@@ -0,0 +1,114 @@
+package com.kaizenmobile;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import liquibase.command.CommandScope;
+import liquibase.command.core.UpdateCommandStep;
+import liquibase.command.core.helpers.DbUrlConnectionArgumentsCommandStep;
+import liquibase.database.DatabaseFactory;
+import liquibase.database.jvm.JdbcConnection;
+import liquibase.exception.LiquibaseException;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.openjdk.jmh.runner.options.TimeValue;
+import org.testcontainers.containers.PostgreSQLContainer;
+
+/**
+ * Runs the JMH benchmarks under {@code src/test/java}, which the build compiles but doesn't run, and provides the
+ * database of the ones measuring queries. See "Benchmarks" in the README.
+ */
+public final class Benchmarks {
+
+    private static final String CHANGELOG = "config/liquibase/master.xml";
+
+    private Benchmarks() {}
+
+    /**
+     * Run the benchmarks, each for 3 warm-up and 5 measurement iterations of 2 seconds, in a single fork.
+     *
+     * @param args the patterns of the benchmarks to run, all of them when there is none.
+     */
+    public static void main(String[] args) throws RunnerException {
+        ChainedOptionsBuilder options = new OptionsBuilder()
+            .warmupIterations(3)
+            .warmupTime(TimeValue.seconds(2))
+            .measurementIterations(5)
+            .measurementTime(TimeValue.seconds(2))
+            .forks(1);
+        if (args.length == 0) {
+            options.include("com\\.kaizenmobile\\..*Benchmark");
+        }
+        for (String pattern : args) {
+            options.include(pattern);
+        }
+        new Runner(options.build()).run();
+    }
+
+    /**
+     * A PostgreSQL database with the schema of the Liquibase changelog, as in production: the one of the
+     * {@code benchmark.jdbc-url}, {@code benchmark.username} and {@code benchmark.password} system properties when set,
+     * otherwise one started by Testcontainers, which needs Docker.
+     */
+    public static final class Database implements AutoCloseable {
+
+        private final PostgreSQLContainer<?> container;
+
+        private final Connection connection;
+
+        private Database(PostgreSQLContainer<?> container, Connection connection) {
+            this.container = container;
+            this.connection = connection;
+        }
+
+        public static Database start() throws SQLException {
+            String url = System.getProperty("benchmark.jdbc-url");
+            PostgreSQLContainer<?> container = null;
+            Connection connection;
+            if (url != null) {
+                String username = System.getProperty("benchmark.username");
+                connection = DriverManager.getConnection(url, username, System.getProperty("benchmark.password"));
+            } else {
+                container = new PostgreSQLContainer<>("postgres:16.3").withDatabaseName("KaizenMobile");
+                container.start();
+                connection = DriverManager.getConnection(container.getJdbcUrl(), container.getUsername(), container.getPassword());
+            }
+            Database database = new Database(container, connection);
+            try {
+                database.update();
+            } catch (LiquibaseException e) {
+                database.close();
+                throw new SQLException("Could not apply " + CHANGELOG, e);
+            }
+            return database;
+        }
+
+        private void update() throws LiquibaseException {
+            new CommandScope(UpdateCommandStep.COMMAND_NAME)
+                .addArgumentValue(
+                    DbUrlConnectionArgumentsCommandStep.DATABASE_ARG,
+                    DatabaseFactory.getInstance().findCorrectDatabaseImplementation(new JdbcConnection(connection))
+                )
+                .addArgumentValue(UpdateCommandStep.CHANGELOG_FILE_ARG, CHANGELOG)
+                .addArgumentValue(UpdateCommandStep.CONTEXTS_ARG, "prod")
+                .execute();
+        }
+
+        public Connection connection() {
+            return connection;
+        }
+
+        @Override
+        public void close() throws SQLException {
+            try {
+                connection.close();
+            } finally {
+                if (container != null) {
+                    container.stop();
+                }
+            }
+        }
+    }
+}
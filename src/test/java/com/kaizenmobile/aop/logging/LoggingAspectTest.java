@@ -0,0 +1,138 @@
+package com.kaizenmobile.aop.logging;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.read.ListAppender;
+import com.kaizenmobile.config.ApplicationProperties;
+import com.kaizenmobile.repository.UserRepository;
+import com.kaizenmobile.service.TenantNameIndex;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.List;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.actuate.endpoint.InvalidEndpointRequestException;
+import org.springframework.mock.env.MockEnvironment;
+
+/**
+ * Unit tests for {@link LoggingAspect} and {@link MethodTimingsEndpoint}.
+ */
+class LoggingAspectTest {
+
+    private static final String SERVICE_PACKAGE = "com.kaizenmobile.service";
+
+    private MeterRegistry meterRegistry;
+
+    private ApplicationProperties applicationProperties;
+
+    private Logger serviceLogger;
+
+    private ListAppender<ILoggingEvent> appender;
+
+    @BeforeEach
+    public void setup() {
+        meterRegistry = new SimpleMeterRegistry();
+        applicationProperties = new ApplicationProperties();
+        serviceLogger = (Logger) LoggerFactory.getLogger(TenantNameIndex.class);
+        serviceLogger.setLevel(Level.DEBUG);
+        appender = new ListAppender<>();
+        appender.start();
+        serviceLogger.addAppender(appender);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        serviceLogger.detachAppender(appender);
+        serviceLogger.setLevel(null);
+    }
+
+    @Test
+    void testTimesTheMethodsOfTheTimedPackages() throws Throwable {
+        applicationProperties.getLoggingAspect().setTimedPackages(List.of(SERVICE_PACKAGE));
+        LoggingAspect loggingAspect = loggingAspect();
+
+        assertThat(loggingAspect.logAround(joinPoint(TenantNameIndex.class, "isLoaded"))).isEqualTo(true);
+        loggingAspect.logAround(joinPoint(TenantNameIndex.class, "isLoaded"));
+        loggingAspect.logAround(joinPoint(UserRepository.class, "findOneByLogin"));
+
+        assertThat(timer(TenantNameIndex.class, "isLoaded").count()).isEqualTo(2);
+        assertThat(meterRegistry.find(LoggingAspect.METHOD_INVOCATIONS).timers()).hasSize(1);
+    }
+
+    @Test
+    void testTimesThePackagesConfiguredAtRuntime() throws Throwable {
+        LoggingAspect loggingAspect = loggingAspect();
+        MethodTimingsEndpoint endpoint = new MethodTimingsEndpoint(loggingAspect);
+        loggingAspect.logAround(joinPoint(TenantNameIndex.class, "isLoaded"));
+        assertThat(meterRegistry.find(LoggingAspect.METHOD_INVOCATIONS).timers()).isEmpty();
+
+        endpoint.configureTimedPackage(SERVICE_PACKAGE, true);
+        loggingAspect.logAround(joinPoint(TenantNameIndex.class, "isLoaded"));
+
+        assertThat(endpoint.methodTimings().timedPackages()).containsExactly(SERVICE_PACKAGE);
+        assertThat(timer(TenantNameIndex.class, "isLoaded").count()).isEqualTo(1);
+
+        endpoint.configureTimedPackage(SERVICE_PACKAGE, false);
+        loggingAspect.logAround(joinPoint(TenantNameIndex.class, "isLoaded"));
+
+        assertThat(endpoint.methodTimings().timedPackages()).isEmpty();
+        assertThat(meterRegistry.find(LoggingAspect.METHOD_INVOCATIONS).timers()).isEmpty();
+    }
+
+    @Test
+    void testLogsTheSampledCalls() throws Throwable {
+        LoggingAspect loggingAspect = loggingAspect();
+        MethodTimingsEndpoint endpoint = new MethodTimingsEndpoint(loggingAspect);
+        loggingAspect.logAround(joinPoint(TenantNameIndex.class, "isLoaded"));
+
+        assertThat(appender.list).extracting(ILoggingEvent::getFormattedMessage).containsExactly(
+            "Enter: isLoaded() with argument[s] = []",
+            "Exit: isLoaded() with result = true"
+        );
+
+        endpoint.configureSamplingRate(0);
+        loggingAspect.logAround(joinPoint(TenantNameIndex.class, "isLoaded"));
+
+        assertThat(appender.list).hasSize(2);
+        assertThat(endpoint.methodTimings().samplingRate()).isZero();
+    }
+
+    @Test
+    void testRejectsAnInvalidSamplingRate() {
+        MethodTimingsEndpoint endpoint = new MethodTimingsEndpoint(loggingAspect());
+
+        assertThatThrownBy(() -> endpoint.configureSamplingRate(1.5)).isInstanceOf(InvalidEndpointRequestException.class);
+        assertThat(endpoint.methodTimings().samplingRate()).isEqualTo(1);
+    }
+
+    private LoggingAspect loggingAspect() {
+        return new LoggingAspect(new MockEnvironment(), meterRegistry, applicationProperties);
+    }
+
+    private static ProceedingJoinPoint joinPoint(Class<?> type, String methodName) throws Throwable {
+        MethodSignature signature = mock(MethodSignature.class);
+        when(signature.getMethod()).thenReturn(
+            List.of(type.getMethods()).stream().filter(method -> method.getName().equals(methodName)).findFirst().orElseThrow()
+        );
+        ProceedingJoinPoint joinPoint = mock(ProceedingJoinPoint.class);
+        when(joinPoint.getSignature()).thenReturn(signature);
+        when(joinPoint.getArgs()).thenReturn(new Object[0]);
+        when(joinPoint.proceed()).thenReturn(true);
+        return joinPoint;
+    }
+
+    private Timer timer(Class<?> type, String methodName) {
+        return meterRegistry.get(LoggingAspect.METHOD_INVOCATIONS).tag("class", type.getName()).tag("method", methodName).timer();
+    }
+}
@@ -0,0 +1,60 @@
+package com.kaizenmobile.config;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import com.kaizenmobile.config.cache.CacheInvalidationBus;
+import com.kaizenmobile.config.cache.InProcessCacheInvalidationTransport;
+import com.kaizenmobile.domain.AppStats;
+import com.kaizenmobile.security.AuthorityRegistry;
+import com.kaizenmobile.service.TenantNameIndex;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+/**
+ * Unit tests for {@link ReplicatedStateConfiguration}.
+ */
+class ReplicatedStateConfigurationTest {
+
+    private TenantNameIndex tenantNameIndex;
+
+    private AuthorityRegistry authorityRegistry;
+
+    private CacheInvalidationBus otherNodeBus;
+
+    @BeforeEach
+    public void setup() {
+        tenantNameIndex = mock(TenantNameIndex.class);
+        authorityRegistry = mock(AuthorityRegistry.class);
+        InProcessCacheInvalidationTransport transport = new InProcessCacheInvalidationTransport();
+        CacheInvalidationBus bus = new CacheInvalidationBus(transport, new SimpleMeterRegistry());
+        otherNodeBus = new CacheInvalidationBus(transport, new SimpleMeterRegistry());
+        ReplicatedStateConfiguration.subscribe(bus, tenantNameIndex, authorityRegistry);
+    }
+
+    @Test
+    void testAppliesTheTenantIdsOfTheOtherNodes() {
+        otherNodeBus.publish(ReplicatedStateConfiguration.TENANT_NAME_INDEX_TOPIC, "p:1:Acme:Corp");
+        otherNodeBus.publish(ReplicatedStateConfiguration.TENANT_NAME_INDEX_TOPIC, "p:2");
+        otherNodeBus.publish(ReplicatedStateConfiguration.TENANT_NAME_INDEX_TOPIC, "r:3");
+
+        ArgumentCaptor<AppStats> captor = ArgumentCaptor.forClass(AppStats.class);
+        verify(tenantNameIndex, times(2)).put(captor.capture());
+        assertThat(captor.getAllValues())
+            .extracting(AppStats::getId, AppStats::getUsedTenantId)
+            .containsExactly(tuple(1L, "Acme:Corp"), tuple(2L, null));
+        verify(tenantNameIndex).remove(3L);
+    }
+
+    @Test
+    void testRefreshesTheAuthoritiesChangedOnOtherNodes() {
+        otherNodeBus.publish(ReplicatedStateConfiguration.AUTHORITY_REGISTRY_TOPIC, "ROLE_NEW");
+
+        verify(authorityRegistry).refresh();
+    }
+}
@@ -0,0 +1,169 @@
+package com.kaizenmobile.config.cache;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.List;
+import javax.cache.Cache;
+import javax.cache.CacheManager;
+import javax.cache.Caching;
+import javax.cache.configuration.MutableConfiguration;
+import org.ehcache.core.config.DefaultConfiguration;
+import org.ehcache.jsr107.EhcacheCachingProvider;
+import org.hibernate.cache.spi.access.SoftLock;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionSynchronizationUtils;
+
+/**
+ * Unit tests for {@link CacheInvalidationBus}.
+ */
+class CacheInvalidationBusTest {
+
+    private static final String CACHE_NAME = "usersByLogin";
+
+    private CacheManager nodeACacheManager;
+
+    private CacheManager nodeBCacheManager;
+
+    private MeterRegistry meterRegistry;
+
+    private CacheInvalidationBus nodeABus;
+
+    private CacheInvalidationBus nodeBBus;
+
+    private Cache<Object, Object> nodeACache;
+
+    private Cache<Object, Object> nodeBCache;
+
+    @BeforeEach
+    public void setup() {
+        EhcacheCachingProvider provider = (EhcacheCachingProvider) Caching.getCachingProvider(EhcacheCachingProvider.class.getName());
+        nodeACacheManager = provider.getCacheManager(URI.create("node-a"), new DefaultConfiguration(getClass().getClassLoader()));
+        nodeBCacheManager = provider.getCacheManager(URI.create("node-b"), new DefaultConfiguration(getClass().getClassLoader()));
+        nodeACacheManager.createCache(CACHE_NAME, new MutableConfiguration<>().setStoreByValue(false));
+        nodeBCacheManager.createCache(CACHE_NAME, new MutableConfiguration<>().setStoreByValue(false));
+
+        InProcessCacheInvalidationTransport transport = new InProcessCacheInvalidationTransport();
+        meterRegistry = new SimpleMeterRegistry();
+        nodeABus = new CacheInvalidationBus(transport, meterRegistry);
+        nodeBBus = new CacheInvalidationBus(transport, new SimpleMeterRegistry());
+        nodeACache = nodeABus.decorate(nodeACacheManager).getCache(CACHE_NAME);
+        nodeBCache = nodeBBus.decorate(nodeBCacheManager).getCache(CACHE_NAME);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        nodeACacheManager.close();
+        nodeBCacheManager.close();
+    }
+
+    @Test
+    void testRemovalReachesTheOtherNodes() {
+        nodeBCache.put("admin", "admin user");
+        nodeBCache.put("user", "user");
+
+        // The key isn't cached on the node removing it
+        nodeACache.remove("admin");
+
+        assertThat(nodeBCache.containsKey("admin")).isFalse();
+        assertThat(nodeBCache.containsKey("user")).isTrue();
+        assertThat(publishedCount()).isEqualTo(1);
+    }
+
+    @Test
+    void testLoadsAreNotPublished() {
+        nodeBCache.put(1L, "user");
+
+        nodeACache.put(1L, "user");
+
+        assertThat(nodeBCache.containsKey(1L)).isTrue();
+    }
+
+    @Test
+    void testSoftLocksArePublished() {
+        nodeBCache.put(1L, "user");
+        nodeACache.put(1L, "user");
+
+        nodeACache.put(1L, new SoftLock() {});
+
+        assertThat(nodeBCache.containsKey(1L)).isFalse();
+        assertThat(nodeACache.containsKey(1L)).isTrue();
+    }
+
+    @Test
+    void testKeysWhichCantBeSentInvalidateTheWholeCache() {
+        nodeBCache.put("user", "user");
+        nodeBCache.put(List.of("composite", 1L), "entity");
+
+        nodeACache.remove(List.of("composite", 1L));
+
+        assertThat(nodeBCache.containsKey("user")).isFalse();
+    }
+
+    @Test
+    void testInvalidationsArePublishedOnCommit() {
+        nodeBCache.put("admin", "admin user");
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            nodeACache.remove("admin");
+            nodeACache.remove("admin");
+
+            assertThat(nodeBCache.containsKey("admin")).isTrue();
+
+            TransactionSynchronizationUtils.triggerAfterCommit();
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        assertThat(nodeBCache.containsKey("admin")).isFalse();
+        assertThat(publishedCount()).isEqualTo(1);
+    }
+
+    @Test
+    void testLostMessagesClearTheCaches() {
+        nodeACache.put("admin", "admin user");
+
+        nodeABus.onMessagesLost();
+
+        assertThat(nodeACache.containsKey("admin")).isFalse();
+        assertThat(meterRegistry.get(CacheInvalidationBus.INVALIDATIONS_METER_NAME).tag("result", "resync").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void testTopicMessagesReachTheOtherNodes() {
+        List<String> nodeAMessages = new ArrayList<>();
+        List<String> nodeBMessages = new ArrayList<>();
+        nodeABus.subscribe("topic", listener(nodeAMessages));
+        nodeBBus.subscribe("topic", listener(nodeBMessages));
+
+        nodeABus.publish("topic", "value");
+        nodeBBus.onMessagesLost();
+
+        assertThat(nodeAMessages).isEmpty();
+        assertThat(nodeBMessages).containsExactly("value", "lost");
+    }
+
+    private static CacheInvalidationBus.TopicListener listener(List<String> messages) {
+        return new CacheInvalidationBus.TopicListener() {
+            @Override
+            public void onMessage(String payload) {
+                messages.add(payload);
+            }
+
+            @Override
+            public void onMessagesLost() {
+                messages.add("lost");
+            }
+        };
+    }
+
+    private double publishedCount() {
+        return meterRegistry.get(CacheInvalidationBus.INVALIDATIONS_METER_NAME).tag("result", "published").counter().count();
+    }
+}
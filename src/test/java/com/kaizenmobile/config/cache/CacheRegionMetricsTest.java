@@ -0,0 +1,86 @@
+package com.kaizenmobile.config.cache;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.net.URI;
+import javax.cache.Cache;
+import javax.cache.CacheManager;
+import javax.cache.Caching;
+import org.ehcache.config.builders.CacheConfigurationBuilder;
+import org.ehcache.config.builders.ResourcePoolsBuilder;
+import org.ehcache.core.config.DefaultConfiguration;
+import org.ehcache.jsr107.Eh107Configuration;
+import org.ehcache.jsr107.EhcacheCachingProvider;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Unit tests for {@link CacheRegionMetrics}.
+ */
+class CacheRegionMetricsTest {
+
+    private CacheManager cacheManager;
+
+    private MeterRegistry meterRegistry;
+
+    private Cache<Object, Object> cache;
+
+    private CacheRegionMetrics cacheRegionMetrics;
+
+    @BeforeEach
+    public void setup() {
+        EhcacheCachingProvider provider = (EhcacheCachingProvider) Caching.getCachingProvider(EhcacheCachingProvider.class.getName());
+        cacheManager = provider.getCacheManager(URI.create("region-metrics"), new DefaultConfiguration(getClass().getClassLoader()));
+        cache = cacheManager.createCache(
+            "usersByLogin",
+            Eh107Configuration.fromEhcacheCacheConfiguration(
+                CacheConfigurationBuilder.newCacheConfigurationBuilder(
+                    Object.class,
+                    Object.class,
+                    ResourcePoolsBuilder.heap(2)
+                ).build()
+            )
+        );
+        meterRegistry = new SimpleMeterRegistry();
+        cacheRegionMetrics = new CacheRegionMetrics(meterRegistry);
+        cacheRegionMetrics.bind(cache);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        cacheManager.close();
+    }
+
+    @Test
+    void testCountsHitsAndMisses() {
+        cache.put("admin", "admin user");
+
+        cache.get("admin");
+        cache.get("admin");
+        cache.get("user");
+
+        assertThat(gets("hit")).isEqualTo(2);
+        assertThat(gets("miss")).isEqualTo(1);
+    }
+
+    @Test
+    void testCountsEvictions() {
+        for (int i = 0; i < 10; i++) {
+            cache.put("user-" + i, "user");
+        }
+
+        assertThat(meterRegistry.get(CacheRegionMetrics.EVICTIONS_METER_NAME).tags("cache", "usersByLogin").functionCounter().count())
+            .isEqualTo(8);
+    }
+
+    private double gets(String result) {
+        return meterRegistry
+            .get(CacheRegionMetrics.GETS_METER_NAME)
+            .tags("cache", "usersByLogin", "result", result)
+            .functionCounter()
+            .count();
+    }
+}
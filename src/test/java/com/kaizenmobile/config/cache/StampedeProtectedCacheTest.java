@@ -0,0 +1,160 @@
+package com.kaizenmobile.config.cache;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.ehcache.config.builders.ExpiryPolicyBuilder;
+import org.ehcache.expiry.ExpiryPolicy;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.concurrent.ConcurrentMapCache;
+
+/**
+ * Unit tests for {@link StampedeProtectedCache}.
+ */
+class StampedeProtectedCacheTest {
+
+    private static final Instant NOW = Instant.parse("2024-06-01T12:00:00Z");
+
+    private static final Duration TIME_TO_LIVE = Duration.ofHours(1);
+
+    private static final Duration NEGATIVE_TIME_TO_LIVE = Duration.ofMinutes(1);
+
+    private ConcurrentMapCache delegate;
+
+    private MeterRegistry meterRegistry;
+
+    private AtomicInteger loadCount;
+
+    @BeforeEach
+    public void setup() {
+        delegate = new ConcurrentMapCache("usersByLogin");
+        meterRegistry = new SimpleMeterRegistry();
+        loadCount = new AtomicInteger();
+    }
+
+    @Test
+    void testConcurrentLookupsShareOneLoad() throws Exception {
+        StampedeProtectedCache cache = cache(NOW, 0, 0.5);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<String>> lookups = new ArrayList<>();
+            for (int i = 0; i < 8; i++) {
+                lookups.add(
+                    executor.submit(() ->
+                        cache.get("admin", () -> {
+                            loadCount.incrementAndGet();
+                            release.await();
+                            return "admin user";
+                        })
+                    )
+                );
+            }
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+            while (loads("coalesced") < 7 && System.nanoTime() < deadline) {
+                Thread.sleep(1);
+            }
+            release.countDown();
+
+            for (Future<String> lookup : lookups) {
+                assertThat(lookup.get(10, TimeUnit.SECONDS)).isEqualTo("admin user");
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        assertThat(loadCount).hasValue(1);
+        assertThat(loads("loaded")).isEqualTo(1);
+        assertThat(loads("coalesced")).isEqualTo(7);
+    }
+
+    @Test
+    void testMissingValuesLiveShorter() {
+        assertThat((String) cache(NOW, 0, 0.5).get("unknown", this::loadNothing)).isNull();
+        assertThat((String) cache(NOW.plusSeconds(30), 0, 0.5).get("unknown", this::loadNothing)).isNull();
+        assertThat(loadCount).hasValue(1);
+
+        cache(NOW.plus(NEGATIVE_TIME_TO_LIVE), 0, 0.5).get("unknown", this::loadNothing);
+        assertThat(loadCount).hasValue(2);
+    }
+
+    @Test
+    void testRefreshesEarlyWithProbability() {
+        cache(NOW, 1e12, 0.5).get("admin", this::loadAdmin);
+
+        // -ln(1) = 0: never ahead of the expiry
+        cache(NOW.plus(TIME_TO_LIVE).minusSeconds(1), 1e12, 1).get("admin", this::loadAdmin);
+        assertThat(loadCount).hasValue(1);
+
+        cache(NOW.plus(TIME_TO_LIVE).minusSeconds(1), 1e12, 0.5).get("admin", this::loadAdmin);
+        assertThat(loadCount).hasValue(2);
+        assertThat(loads("refreshed-early")).isEqualTo(1);
+    }
+
+    @Test
+    void testEvictionDuringLoadDropsItsResult() {
+        StampedeProtectedCache cache = cache(NOW, 0, 0.5);
+
+        String value = cache.get("admin", () -> {
+            // The user is changed, and evicted, while it's being read
+            cache.evict("admin");
+            return "admin user";
+        });
+
+        assertThat(value).isEqualTo("admin user");
+        assertThat(cache.get("admin")).isNull();
+    }
+
+    @Test
+    void testExpiryPolicyKeepsMissingValuesShorter() {
+        ExpiryPolicy<Object, Object> expiryPolicy = StampedeProtectedCache.expiryPolicy(
+            ExpiryPolicyBuilder.timeToLiveExpiration(TIME_TO_LIVE),
+            NEGATIVE_TIME_TO_LIVE
+        );
+        StampedeProtectedCache cache = cache(NOW, 0, 0.5);
+        cache.put("admin", "admin user");
+        cache.put("unknown", null);
+
+        assertThat(expiryPolicy.getExpiryForCreation("admin", delegate.get("admin").get())).isEqualTo(TIME_TO_LIVE);
+        assertThat(expiryPolicy.getExpiryForCreation("unknown", delegate.get("unknown").get())).isEqualTo(NEGATIVE_TIME_TO_LIVE);
+    }
+
+    private StampedeProtectedCache cache(Instant now, double earlyRefreshBeta, double random) {
+        return new StampedeProtectedCache(
+            delegate,
+            TIME_TO_LIVE,
+            NEGATIVE_TIME_TO_LIVE,
+            earlyRefreshBeta,
+            meterRegistry,
+            Clock.fixed(now, ZoneOffset.UTC),
+            () -> random
+        );
+    }
+
+    private String loadAdmin() {
+        loadCount.incrementAndGet();
+        return "admin user";
+    }
+
+    private String loadNothing() {
+        loadCount.incrementAndGet();
+        return null;
+    }
+
+    private double loads(String result) {
+        return meterRegistry.get(StampedeProtectedCache.LOADS_METER_NAME).tag("result", result).counter().count();
+    }
+}
@@ -0,0 +1,61 @@
+package com.kaizenmobile.repository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.kaizenmobile.IntegrationTest;
+import java.util.Locale;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Integration tests of the plans of the lookups of the users by key, which must use the indexes of the keys rather than
+ * scan {@code jhi_user}.
+ */
+@IntegrationTest
+@Transactional
+class UserKeyIndexesIT {
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private boolean postgresql;
+
+    @BeforeEach
+    public void init() {
+        postgresql = "PostgreSQL".equals(
+            jdbcTemplate.execute((ConnectionCallback<String>) connection -> connection.getMetaData().getDatabaseProductName())
+        );
+        if (postgresql) {
+            // The test users are too few for the indexes to be worth it
+            jdbcTemplate.execute("set local enable_seqscan = off");
+        }
+    }
+
+    @Test
+    void findOneByActivationKeyUsesIndex() {
+        assertThat(plan("select id from jhi_user where activation_key = 'key'")).contains("idx_user_activation_key");
+    }
+
+    @Test
+    void findOneByResetKeyUsesIndex() {
+        assertThat(plan("select id from jhi_user where reset_key = 'key'")).contains("idx_user_reset_key");
+    }
+
+    @Test
+    void findNotActivatedCacheKeysUsesIndex() {
+        assertThat(
+            plan(
+                "select id, login, email from jhi_user where activated = false and activation_key is not null " +
+                "and created_date < current_timestamp and id > 0 order by id fetch first 500 rows only"
+            )
+        ).contains(postgresql ? "idx_user_not_activated_id" : "idx_user_activated_created_date_id");
+    }
+
+    private String plan(String query) {
+        return String.join("\n", jdbcTemplate.queryForList("explain " + query, String.class)).toLowerCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,156 @@
+package com.kaizenmobile.repository;
+
+import com.kaizenmobile.Benchmarks;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+/**
+ * JMH benchmark of the lookups of a user by activation key, as {@code /api/activate}, and by reset key, as
+ * {@code /api/account/reset-password/finish}, with the partial indexes of the Liquibase changelog
+ * ({@code indexed=true}) and with the index scans disabled ({@code indexed=false}).
+ * <p>
+ * The users are in the PostgreSQL database of {@link Benchmarks.Database}, a few of them with a key. A trial fails if
+ * the plan of a lookup doesn't use, or does use, the index of its key.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+public class UserKeyLookupBenchmark {
+
+    // After the users of the changelog
+    private static final int FIRST_ID = 10_000;
+
+    private static final int USERS = 500_000;
+
+    // One user in KEY_INTERVAL has an activation key, another one a reset key
+    private static final int KEY_INTERVAL = 100;
+
+    private static final String BY_ACTIVATION_KEY = "select id, login, email from jhi_user where activation_key = ?";
+
+    private static final String BY_RESET_KEY = "select id, login, email from jhi_user where reset_key = ?";
+
+    @Param({ "false", "true" })
+    private boolean indexed;
+
+    private Benchmarks.Database database;
+
+    private PreparedStatement byActivationKey;
+
+    private PreparedStatement byResetKey;
+
+    @Setup(Level.Trial)
+    public void setup() throws SQLException {
+        database = Benchmarks.Database.start();
+        try (Statement statement = database.connection().createStatement()) {
+            try (ResultSet resultSet = statement.executeQuery("select count(*) from jhi_user where id >= " + FIRST_ID)) {
+                resultSet.next();
+                if (resultSet.getLong(1) == 0) {
+                    insertUsers();
+                    statement.execute("analyze jhi_user");
+                }
+            }
+            if (!indexed) {
+                statement.execute("set enable_indexscan = off");
+                statement.execute("set enable_bitmapscan = off");
+                statement.execute("set enable_indexonlyscan = off");
+            }
+        }
+        byActivationKey = database.connection().prepareStatement(BY_ACTIVATION_KEY);
+        byResetKey = database.connection().prepareStatement(BY_RESET_KEY);
+        checkPlan(BY_ACTIVATION_KEY, activationKey(FIRST_ID), "idx_user_activation_key");
+        checkPlan(BY_RESET_KEY, resetKey(FIRST_ID + 1), "idx_user_reset_key");
+    }
+
+    private void insertUsers() throws SQLException {
+        database.connection().setAutoCommit(false);
+        try (
+            PreparedStatement insert = database
+                .connection()
+                .prepareStatement(
+                    "insert into jhi_user (id, login, password_hash, activated, activation_key, reset_key, created_by, " +
+                    "created_date, email, lang_key) values (?, ?, ?, ?, ?, ?, 'system', current_timestamp, ?, 'en')"
+                )
+        ) {
+            String passwordHash = "$2a$10$" + "x".repeat(53);
+            for (int id = FIRST_ID; id < FIRST_ID + USERS; id++) {
+                String login = "user-" + id;
+                insert.setLong(1, id);
+                insert.setString(2, login);
+                insert.setString(3, passwordHash);
+                insert.setBoolean(4, id % KEY_INTERVAL != 0);
+                insert.setString(5, id % KEY_INTERVAL == 0 ? activationKey(id) : null);
+                insert.setString(6, id % KEY_INTERVAL == 1 ? resetKey(id) : null);
+                insert.setString(7, login + "@localhost");
+                insert.addBatch();
+                if (id % 10_000 == 0) {
+                    insert.executeBatch();
+                }
+            }
+            insert.executeBatch();
+        }
+        database.connection().commit();
+        database.connection().setAutoCommit(true);
+    }
+
+    private static String activationKey(int id) {
+        return "activation" + id;
+    }
+
+    private static String resetKey(int id) {
+        return "reset" + id;
+    }
+
+    private void checkPlan(String query, String key, String index) throws SQLException {
+        StringBuilder plan = new StringBuilder();
+        try (PreparedStatement explain = database.connection().prepareStatement("explain " + query)) {
+            explain.setString(1, key);
+            try (ResultSet resultSet = explain.executeQuery()) {
+                while (resultSet.next()) {
+                    plan.append(resultSet.getString(1)).append('\n');
+                }
+            }
+        }
+        if (plan.toString().contains(index) != indexed) {
+            throw new IllegalStateException("Unexpected plan with indexed=" + indexed + " for " + query + ":\n" + plan);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws SQLException {
+        database.close();
+    }
+
+    @Benchmark
+    public String activationKeyLookup() throws SQLException {
+        int id = FIRST_ID + ThreadLocalRandom.current().nextInt(0, USERS / KEY_INTERVAL) * KEY_INTERVAL;
+        byActivationKey.setString(1, activationKey(id));
+        return read(byActivationKey);
+    }
+
+    @Benchmark
+    public String resetKeyLookup() throws SQLException {
+        int id = FIRST_ID + ThreadLocalRandom.current().nextInt(0, USERS / KEY_INTERVAL) * KEY_INTERVAL + 1;
+        byResetKey.setString(1, resetKey(id));
+        return read(byResetKey);
+    }
+
+    private static String read(PreparedStatement lookup) throws SQLException {
+        try (ResultSet resultSet = lookup.executeQuery()) {
+            return resultSet.next() ? resultSet.getString(2) : null;
+        }
+    }
+}
@@ -0,0 +1,167 @@
+package com.kaizenmobile.repository;
+
+import com.kaizenmobile.Benchmarks;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+/**
+ * JMH benchmark of reading a page of the user listing sorted by creation date at increasing depths: by offset with its
+ * total count ({@code offset}), as {@code /api/admin/users?page=...}, against by keyset ({@code keyset}), as
+ * {@code /api/admin/users?cursor=...}, with the queries issued for them.
+ * <p>
+ * The users are in the PostgreSQL database of {@link Benchmarks.Database}, with the indexes of the Liquibase changelog.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+public class UserPaginationBenchmark {
+
+    // After the users of the changelog
+    private static final int FIRST_ID = 10_000;
+
+    private static final int USERS = 500_000;
+
+    private static final int PAGE_SIZE = 20;
+
+    @Param({ "0", "10000", "100000", "400000" })
+    private int depth;
+
+    private Benchmarks.Database database;
+
+    private Connection connection;
+
+    private PreparedStatement offsetPage;
+
+    private PreparedStatement count;
+
+    private PreparedStatement keysetPage;
+
+    private Timestamp lastCreatedDate;
+
+    private long lastId;
+
+    @Setup(Level.Trial)
+    public void setup() throws SQLException {
+        database = Benchmarks.Database.start();
+        connection = database.connection();
+        try (Statement statement = connection.createStatement()) {
+            try (ResultSet resultSet = statement.executeQuery("select count(*) from jhi_user where id >= " + FIRST_ID)) {
+                resultSet.next();
+                if (resultSet.getLong(1) == 0) {
+                    insertUsers();
+                    statement.execute("analyze jhi_user");
+                }
+            }
+        }
+        offsetPage = connection.prepareStatement(
+            "select id, login, created_date, first_name, last_name, email from jhi_user order by created_date, id " +
+            "offset ? rows fetch first ? rows only"
+        );
+        count = connection.prepareStatement("select count(id) from jhi_user");
+        keysetPage = connection.prepareStatement(
+            "select id, login, created_date, first_name, last_name, email from jhi_user " +
+            "where created_date >= ? and (created_date > ? or (created_date = ? and id > ?)) " +
+            "order by created_date, id fetch first ? rows only"
+        );
+
+        // The position the keyset cursor holds at that depth: the last user of the previous page
+        if (depth > 0) {
+            offsetPage.setInt(1, depth - 1);
+            offsetPage.setInt(2, 1);
+            try (ResultSet resultSet = offsetPage.executeQuery()) {
+                resultSet.next();
+                lastId = resultSet.getLong(1);
+                lastCreatedDate = resultSet.getTimestamp(3);
+            }
+        }
+    }
+
+    private void insertUsers() throws SQLException {
+        connection.setAutoCommit(false);
+        try (
+            PreparedStatement insert = connection.prepareStatement(
+                "insert into jhi_user (id, login, password_hash, activated, created_by, created_date, first_name, last_name, " +
+                "email, lang_key) values (?, ?, ?, true, 'system', ?, 'First', 'Last', ?, 'en')"
+            )
+        ) {
+            Instant start = Instant.parse("2024-01-01T00:00:00Z");
+            String passwordHash = "$2a$10$" + "x".repeat(53);
+            for (int id = FIRST_ID; id < FIRST_ID + USERS; id++) {
+                String login = "user-" + Integer.toHexString(Integer.reverse(id));
+                insert.setLong(1, id);
+                insert.setString(2, login);
+                insert.setString(3, passwordHash);
+                // Creation dates not in id order, as with imported users, some shared
+                insert.setTimestamp(4, Timestamp.from(start.plusSeconds(Integer.toUnsignedLong(Integer.reverse(id)) % (USERS / 2))));
+                insert.setString(5, login + "@localhost");
+                insert.addBatch();
+                if (id % 10_000 == 0) {
+                    insert.executeBatch();
+                }
+            }
+            insert.executeBatch();
+        }
+        connection.commit();
+        connection.setAutoCommit(true);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws SQLException {
+        database.close();
+    }
+
+    @Benchmark
+    public List<String> offset() throws SQLException {
+        offsetPage.setInt(1, depth);
+        offsetPage.setInt(2, PAGE_SIZE);
+        List<String> logins = read(offsetPage);
+        try (ResultSet resultSet = count.executeQuery()) {
+            resultSet.next();
+            logins.add(Long.toString(resultSet.getLong(1)));
+        }
+        return logins;
+    }
+
+    @Benchmark
+    public List<String> keyset() throws SQLException {
+        if (depth == 0) {
+            offsetPage.setInt(1, 0);
+            offsetPage.setInt(2, PAGE_SIZE);
+            return read(offsetPage);
+        }
+        keysetPage.setTimestamp(1, lastCreatedDate);
+        keysetPage.setTimestamp(2, lastCreatedDate);
+        keysetPage.setTimestamp(3, lastCreatedDate);
+        keysetPage.setLong(4, lastId);
+        keysetPage.setInt(5, PAGE_SIZE);
+        return read(keysetPage);
+    }
+
+    private static List<String> read(PreparedStatement page) throws SQLException {
+        List<String> logins = new ArrayList<>(PAGE_SIZE + 1);
+        try (ResultSet resultSet = page.executeQuery()) {
+            while (resultSet.next()) {
+                logins.add(resultSet.getString(2));
+            }
+        }
+        return logins;
+    }
+}
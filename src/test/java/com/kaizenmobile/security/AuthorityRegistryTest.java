@@ -0,0 +1,148 @@
+package com.kaizenmobile.security;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.kaizenmobile.domain.Authority;
+import com.kaizenmobile.repository.AuthorityRepository;
+import java.time.Instant;
+import java.util.List;
+import java.util.Set;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+
+/**
+ * Unit tests for {@link AuthorityRegistry}.
+ */
+class AuthorityRegistryTest {
+
+    private AuthorityRepository authorityRepository;
+
+    private AuthorityRegistry authorityRegistry;
+
+    private MutableClock clock;
+
+    @BeforeEach
+    public void setup() {
+        authorityRepository = mock(AuthorityRepository.class);
+        clock = new MutableClock(Instant.parse("2026-10-18T08:00:00Z"));
+        authorityRegistry = new AuthorityRegistry(authorityRepository, clock);
+    }
+
+    @Test
+    void testLoadInternsStoredAuthorities() {
+        when(authorityRepository.findAll()).thenReturn(List.of(new Authority().name(AuthoritiesConstants.ADMIN)));
+
+        authorityRegistry.load();
+
+        GrantedAuthority admin = authorityRegistry.authority(AuthoritiesConstants.ADMIN);
+        assertThat(admin.getAuthority()).isEqualTo(AuthoritiesConstants.ADMIN);
+        assertThat(authorityRegistry.authority(AuthoritiesConstants.ADMIN)).isSameAs(admin);
+    }
+
+    @Test
+    void testLoadFailureLeavesRegistryUsable() {
+        when(authorityRepository.findAll()).thenThrow(new DataAccessResourceFailureException("Database is down"));
+
+        authorityRegistry.load();
+
+        assertThat(authorityRegistry.authority(AuthoritiesConstants.USER)).isSameAs(authorityRegistry.authority(AuthoritiesConstants.USER));
+    }
+
+    @Test
+    void testAuthoritySetIsCanonical() {
+        AuthorityRegistry.AuthoritySet authoritySet = authorityRegistry.authoritySet(
+            List.of(AuthoritiesConstants.USER, AuthoritiesConstants.ADMIN, AuthoritiesConstants.USER)
+        );
+
+        assertThat(authoritySet.authorities())
+            .extracting(GrantedAuthority::getAuthority)
+            .containsExactly(AuthoritiesConstants.ADMIN, AuthoritiesConstants.USER);
+        assertThat(authoritySet.authorities().get(0)).isSameAs(authorityRegistry.authority(AuthoritiesConstants.ADMIN));
+        assertThat(authoritySet.claim()).isEqualTo("ROLE_ADMIN ROLE_USER");
+        assertThat(authorityRegistry.authoritySet(Set.of(AuthoritiesConstants.ADMIN, AuthoritiesConstants.USER))).isSameAs(authoritySet);
+        assertThat(authorityRegistry.authoritySet(List.of(AuthoritiesConstants.ADMIN, AuthoritiesConstants.USER))).isSameAs(authoritySet);
+    }
+
+    @Test
+    void testAuthoritySetOfGrantedAuthorities() {
+        AuthorityRegistry.AuthoritySet authoritySet = authorityRegistry.authoritySetOf(
+            List.of(new SimpleGrantedAuthority(AuthoritiesConstants.USER))
+        );
+
+        assertThat(authoritySet.claim()).isEqualTo(AuthoritiesConstants.USER);
+        assertThat(authoritySet).isSameAs(authorityRegistry.authoritySet(List.of(AuthoritiesConstants.USER)));
+    }
+
+    @Test
+    void testEmptyAuthoritySet() {
+        AuthorityRegistry.AuthoritySet authoritySet = authorityRegistry.authoritySet(List.of());
+
+        assertThat(authoritySet.authorities()).isEmpty();
+        assertThat(authoritySet.claim()).isEmpty();
+    }
+
+    @Test
+    void testResolveSharesStoredAuthorities() {
+        when(authorityRepository.findAll()).thenReturn(
+            List.of(new Authority().name(AuthoritiesConstants.ADMIN), new Authority().name(AuthoritiesConstants.USER))
+        );
+        authorityRegistry.load();
+
+        Set<Authority> authorities = authorityRegistry.resolve(List.of(AuthoritiesConstants.USER, AuthoritiesConstants.ADMIN));
+
+        assertThat(authorities)
+            .extracting(Authority::getName)
+            .containsExactlyInAnyOrder(AuthoritiesConstants.ADMIN, AuthoritiesConstants.USER);
+        Authority user = authorityRegistry.resolve(List.of(AuthoritiesConstants.USER)).iterator().next();
+        assertThat(authorities).anyMatch(authority -> authority == user);
+        assertThat(authorityRegistry.names()).containsExactly(AuthoritiesConstants.ADMIN, AuthoritiesConstants.USER);
+        verify(authorityRepository, times(1)).findAll();
+    }
+
+    @Test
+    void testResolveReloadsThenFailsOnUnknownNames() {
+        when(authorityRepository.findAll()).thenReturn(List.of(new Authority().name(AuthoritiesConstants.USER)));
+        authorityRegistry.load();
+        clock.advance(AuthorityRegistry.UNKNOWN_NAME_RELOAD_INTERVAL);
+
+        assertThatThrownBy(() -> authorityRegistry.resolve(List.of(AuthoritiesConstants.USER, "ROLE_UNKNOWN")))
+            .isInstanceOf(UnknownAuthorityException.class)
+            .hasMessage("Unknown authorities: ROLE_UNKNOWN");
+        verify(authorityRepository, times(2)).findAll();
+    }
+
+    @Test
+    void testResolveFindsAuthoritiesCreatedSinceLoad() {
+        when(authorityRepository.findAll())
+            .thenReturn(List.of(new Authority().name(AuthoritiesConstants.USER)))
+            .thenReturn(List.of(new Authority().name(AuthoritiesConstants.USER), new Authority().name("ROLE_NEW")));
+        authorityRegistry.load();
+        clock.advance(AuthorityRegistry.UNKNOWN_NAME_RELOAD_INTERVAL);
+
+        assertThat(authorityRegistry.resolve(List.of("ROLE_NEW"))).extracting(Authority::getName).containsExactly("ROLE_NEW");
+    }
+
+    @Test
+    void testResolveReloadsOnUnknownNamesAtMostOncePerInterval() {
+        when(authorityRepository.findAll()).thenReturn(List.of(new Authority().name(AuthoritiesConstants.USER)));
+        authorityRegistry.load();
+        clock.advance(AuthorityRegistry.UNKNOWN_NAME_RELOAD_INTERVAL);
+
+        for (int i = 0; i < 3; i++) {
+            assertThatThrownBy(() -> authorityRegistry.resolve(List.of("ROLE_UNKNOWN"))).isInstanceOf(UnknownAuthorityException.class);
+        }
+        verify(authorityRepository, times(2)).findAll();
+
+        clock.advance(AuthorityRegistry.UNKNOWN_NAME_RELOAD_INTERVAL);
+        assertThatThrownBy(() -> authorityRegistry.resolve(List.of("ROLE_UNKNOWN"))).isInstanceOf(UnknownAuthorityException.class);
+        verify(authorityRepository, times(3)).findAll();
+    }
+}
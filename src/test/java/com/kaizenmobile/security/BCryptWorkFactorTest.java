@@ -0,0 +1,59 @@
+package com.kaizenmobile.security;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Unit tests for {@link BCryptWorkFactor}.
+ */
+class BCryptWorkFactorTest {
+
+    @Test
+    void testFixedStrengthIsNotTuned() {
+        BCryptWorkFactor workFactor = BCryptWorkFactor.fixed(12);
+
+        assertThat(workFactor.getStrength()).isEqualTo(12);
+        assertThat(workFactor.isTuned()).isFalse();
+        assertThat(workFactor.passwordEncoder().upgradeEncoding(BCryptWorkFactor.fixed(11).passwordEncoder().encode("secret"))).isTrue();
+    }
+
+    @Test
+    void testTuningNeverGoesBelowMinStrength() {
+        BCryptWorkFactor workFactor = BCryptWorkFactor.tune(Duration.ofNanos(1), 4, 10);
+
+        assertThat(workFactor.getStrength()).isEqualTo(4);
+        assertThat(workFactor.isTuned()).isTrue();
+        assertThat(workFactor.getEstimatedLatency()).isPositive();
+    }
+
+    @Test
+    void testTuningNeverGoesAboveMaxStrength() {
+        BCryptWorkFactor workFactor = BCryptWorkFactor.tune(Duration.ofHours(1), 4, 6);
+
+        assertThat(workFactor.getStrength()).isEqualTo(6);
+    }
+
+    @Test
+    void testTuningPicksStrengthWithinTarget() {
+        BCryptWorkFactor fastest = BCryptWorkFactor.tune(Duration.ofNanos(1), 4, 4);
+        Duration target = fastest.getEstimatedLatency().multipliedBy(5);
+
+        BCryptWorkFactor workFactor = BCryptWorkFactor.tune(target, 4, 10);
+
+        assertThat(workFactor.getStrength()).isBetween(5, 7);
+        assertThat(workFactor.getEstimatedLatency()).isLessThanOrEqualTo(target);
+    }
+
+    @Test
+    void testRegistersMeters() {
+        MeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+        BCryptWorkFactor.fixed(11).registerMeters(meterRegistry);
+
+        assertThat(meterRegistry.get(BCryptWorkFactor.STRENGTH_METER_NAME).tag("tuned", "false").gauge().value()).isEqualTo(11);
+    }
+}
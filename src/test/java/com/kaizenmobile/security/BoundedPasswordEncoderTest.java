@@ -0,0 +1,104 @@
+package com.kaizenmobile.security;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+/**
+ * Unit tests for {@link BoundedPasswordEncoder}.
+ */
+class BoundedPasswordEncoderTest {
+
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private final CountDownLatch release = new CountDownLatch(1);
+
+    private BoundedPasswordEncoder encoder;
+
+    @AfterEach
+    public void tearDown() {
+        release.countDown();
+        encoder.shutdown();
+    }
+
+    @Test
+    void testDelegatesAndRecordsLatency() {
+        encoder = new BoundedPasswordEncoder(new ReversingPasswordEncoder(null), 1, 1, Duration.ofSeconds(5), 1, meterRegistry);
+
+        assertThat(encoder.encode("secret")).isEqualTo("terces");
+        assertThat(encoder.matches("secret", "terces")).isTrue();
+        assertThat(encoder.matches("secret", "secret")).isFalse();
+        assertThat(meterRegistry.get(BoundedPasswordEncoder.HASH_METER_NAME).tag("operation", "encode").timer().count()).isEqualTo(1);
+        assertThat(meterRegistry.get(BoundedPasswordEncoder.HASH_METER_NAME).tag("operation", "matches").timer().count()).isEqualTo(2);
+        assertThat(meterRegistry.get(BoundedPasswordEncoder.QUEUE_WAIT_METER_NAME).timer().count()).isEqualTo(3);
+    }
+
+    @Test
+    void testRejectsWhenQueueIsFull() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        encoder = new BoundedPasswordEncoder(new ReversingPasswordEncoder(started), 1, 1, Duration.ofSeconds(5), 3, meterRegistry);
+
+        CompletableFuture<String> running = CompletableFuture.supplyAsync(() -> encoder.encode("first"));
+        assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+        CompletableFuture<String> queued = CompletableFuture.supplyAsync(() -> encoder.encode("second"));
+        while (meterRegistry.get(BoundedPasswordEncoder.QUEUE_SIZE_METER_NAME).gauge().value() < 1) {
+            Thread.onSpinWait();
+        }
+
+        assertThatThrownBy(() -> encoder.encode("third"))
+            .isInstanceOfSatisfying(PasswordHashingSaturatedException.class, e -> assertThat(e.getRetryAfterSeconds()).isEqualTo(3));
+        assertThat(meterRegistry.get(BoundedPasswordEncoder.REJECTED_METER_NAME).counter().count()).isEqualTo(1);
+
+        release.countDown();
+        assertThat(running.get(5, TimeUnit.SECONDS)).isEqualTo("tsrif");
+        assertThat(queued.get(5, TimeUnit.SECONDS)).isEqualTo("dnoces");
+    }
+
+    @Test
+    void testRejectsWhenWaitingTooLong() {
+        PasswordEncoder blocking = new ReversingPasswordEncoder(new CountDownLatch(1));
+        encoder = new BoundedPasswordEncoder(blocking, 1, 1, Duration.ofMillis(50), 1, meterRegistry);
+
+        assertThatThrownBy(() -> encoder.encode("slow")).isInstanceOf(PasswordHashingSaturatedException.class);
+        assertThat(meterRegistry.get(BoundedPasswordEncoder.REJECTED_METER_NAME).counter().count()).isEqualTo(1);
+    }
+
+    /**
+     * Reverses the password, optionally blocking until the test releases it.
+     */
+    private class ReversingPasswordEncoder implements PasswordEncoder {
+
+        private final CountDownLatch started;
+
+        private ReversingPasswordEncoder(CountDownLatch started) {
+            this.started = started;
+        }
+
+        @Override
+        public String encode(CharSequence rawPassword) {
+            if (started != null) {
+                started.countDown();
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            return new StringBuilder(rawPassword).reverse().toString();
+        }
+
+        @Override
+        public boolean matches(CharSequence rawPassword, String encodedPassword) {
+            return encode(rawPassword).equals(encodedPassword);
+        }
+    }
+}
@@ -0,0 +1,102 @@
+package com.kaizenmobile.security;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.kaizenmobile.management.SecurityMetersService;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import java.time.Instant;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.oauth2.jwt.BadJwtException;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.jwt.JwtDecoder;
+
+/**
+ * Unit tests for {@link CachingJwtDecoder}.
+ */
+class CachingJwtDecoderTest {
+
+    private static final Instant NOW = Instant.parse("2026-10-18T08:00:00Z");
+
+    private JwtDecoder delegate;
+
+    private MeterRegistry meterRegistry;
+
+    private MutableClock clock;
+
+    private CachingJwtDecoder decoder;
+
+    @BeforeEach
+    public void setup() {
+        delegate = mock(JwtDecoder.class);
+        meterRegistry = new SimpleMeterRegistry();
+        clock = new MutableClock(NOW);
+        decoder = new CachingJwtDecoder(delegate, 2, Duration.ofMinutes(10), new SecurityMetersService(meterRegistry), clock);
+    }
+
+    @Test
+    void testReturnsCachedJwtUntilTimeToLive() {
+        Jwt jwt = jwtExpiringAt(NOW.plus(Duration.ofHours(1)));
+        when(delegate.decode("token")).thenReturn(jwt);
+
+        assertThat(decoder.decode("token")).isSameAs(jwt);
+        clock.advance(Duration.ofMinutes(9));
+        assertThat(decoder.decode("token")).isSameAs(jwt);
+        verify(delegate, times(1)).decode("token");
+
+        clock.advance(Duration.ofMinutes(1));
+        decoder.decode("token");
+        verify(delegate, times(2)).decode("token");
+        assertThat(meterRegistry.get(SecurityMetersService.TOKEN_CACHE_METER_NAME).tag("result", "hit").counter().count()).isEqualTo(1);
+        assertThat(meterRegistry.get(SecurityMetersService.TOKEN_CACHE_METER_NAME).tag("result", "miss").counter().count()).isEqualTo(2);
+        assertThat(meterRegistry.get(SecurityMetersService.TOKEN_CACHE_HIT_RATIO_METER_NAME).gauge().value()).isEqualTo(1.0 / 3);
+        assertThat(meterRegistry.get(SecurityMetersService.TOKEN_VERIFICATION_METER_NAME).timer().count()).isEqualTo(2);
+    }
+
+    @Test
+    void testNeverOutlivesTokenExpiry() {
+        when(delegate.decode("token")).thenReturn(jwtExpiringAt(NOW.plus(Duration.ofMinutes(1))));
+
+        decoder.decode("token");
+        clock.advance(Duration.ofMinutes(1));
+        decoder.decode("token");
+
+        verify(delegate, times(2)).decode("token");
+    }
+
+    @Test
+    void testDoesNotCacheFailures() {
+        when(delegate.decode("invalid")).thenThrow(new BadJwtException("Invalid signature"));
+
+        assertThatExceptionOfType(BadJwtException.class).isThrownBy(() -> decoder.decode("invalid"));
+        assertThatExceptionOfType(BadJwtException.class).isThrownBy(() -> decoder.decode("invalid"));
+
+        verify(delegate, times(2)).decode("invalid");
+        assertThat(decoder.size()).isZero();
+    }
+
+    @Test
+    void testStaysBounded() {
+        Jwt jwt = jwtExpiringAt(NOW.plus(Duration.ofHours(1)));
+        when(delegate.decode("first")).thenReturn(jwt);
+        when(delegate.decode("second")).thenReturn(jwt);
+        when(delegate.decode("third")).thenReturn(jwt);
+
+        decoder.decode("first");
+        decoder.decode("second");
+        decoder.decode("third");
+
+        assertThat(decoder.size()).isLessThanOrEqualTo(2);
+    }
+
+    private static Jwt jwtExpiringAt(Instant expiresAt) {
+        return Jwt.withTokenValue("token").header("alg", "HS512").subject("user").issuedAt(NOW).expiresAt(expiresAt).build();
+    }
+}
@@ -14,6 +14,9 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.config.annotation.authentication.builders.AuthenticationManagerBuilder;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.transaction.annotation.Transactional;
@@ -42,6 +45,12 @@ class DomainUserDetailsServiceIT {
     @Qualifier("userDetailsService")
     private UserDetailsService domainUserDetailsService;
 
+    @Autowired
+    private AuthenticationManagerBuilder authenticationManagerBuilder;
+
+    @Autowired
+    private BCryptWorkFactor bCryptWorkFactor;
+
     public User getUserOne() {
         User userOne = new User();
         userOne.setLogin(USER_ONE_LOGIN);
@@ -133,4 +142,17 @@ class DomainUserDetailsServiceIT {
             () -> domainUserDetailsService.loadUserByUsername(USER_THREE_LOGIN)
         );
     }
+
+    @Test
+    void assertThatWeakPasswordHashIsUpgradedOnLogin() {
+        User user = userRepository.findOneByLogin(USER_ONE_LOGIN).orElseThrow();
+        user.setPassword(new BCryptPasswordEncoder(4).encode("password"));
+        userRepository.saveAndFlush(user);
+
+        authenticationManagerBuilder.getObject().authenticate(new UsernamePasswordAuthenticationToken(USER_ONE_LOGIN, "password"));
+
+        String upgradedHash = userRepository.findOneByLogin(USER_ONE_LOGIN).orElseThrow().getPassword();
+        assertThat(upgradedHash).startsWith(String.format("$2a$%02d$", bCryptWorkFactor.getStrength()));
+        assertThat(new BCryptPasswordEncoder().matches("password", upgradedHash)).isTrue();
+    }
 }
@@ -0,0 +1,195 @@
+package com.kaizenmobile.security;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.kaizenmobile.config.ApplicationProperties;
+import com.kaizenmobile.domain.JobLock;
+import com.kaizenmobile.domain.JwtSigningKey;
+import com.kaizenmobile.repository.JobLockRepository;
+import com.kaizenmobile.repository.JwtSigningKeyRepository;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+import tech.jhipster.config.JHipsterProperties;
+
+/**
+ * Unit tests for {@link JwtKeyRing}.
+ */
+class JwtKeyRingTest {
+
+    private static final String SECRET =
+        "Njg5MWUzODcxYjBkYjg4OTc4NmUwOWMzYjZmZDQwYjIxMzRjYzE1ZTViNjMxODIwZGFiNjcxNzM4MTEyOTgxYjJiYWUxMjQ0MmJmMTIxY2RjMTM4ODhiYjAzZjVjNjA3M2Y3MDQyNDUyMDU5MzZiNzIyYjBiYTQ5NmJlODY2YjU=";
+
+    private static final Duration TOKEN_VALIDITY = Duration.ofDays(1);
+
+    private final Map<String, JwtSigningKey> storedKeys = new LinkedHashMap<>();
+
+    private JwtSigningKeyRepository jwtSigningKeyRepository;
+
+    private JobLockRepository jobLockRepository;
+
+    private ApplicationProperties applicationProperties;
+
+    private MutableClock clock;
+
+    @BeforeEach
+    public void setup() {
+        jwtSigningKeyRepository = mock(JwtSigningKeyRepository.class);
+        when(jwtSigningKeyRepository.findAll()).thenAnswer(invocation -> new ArrayList<>(storedKeys.values()));
+        when(jwtSigningKeyRepository.save(any())).thenAnswer(invocation -> {
+            JwtSigningKey key = invocation.getArgument(0);
+            storedKeys.put(key.getKid(), key);
+            return key;
+        });
+        doAnswer(invocation -> storedKeys.remove(invocation.<String>getArgument(0)))
+            .when(jwtSigningKeyRepository)
+            .deleteById(anyString());
+        jobLockRepository = mock(JobLockRepository.class);
+        when(jobLockRepository.findOneForUpdate(JwtKeyRing.LOCK_NAME)).thenReturn(Optional.of(new JobLock().name(JwtKeyRing.LOCK_NAME)));
+
+        applicationProperties = new ApplicationProperties();
+        applicationProperties.getJwtKeys().setRotationInterval(Duration.ofDays(7));
+        applicationProperties.getJwtKeys().setPublishAhead(Duration.ofHours(1));
+        clock = new MutableClock(Instant.parse("2026-10-18T08:00:00Z"));
+    }
+
+    @Test
+    void testGeneratesAndActivatesFirstKey() {
+        JwtKeyRing keyRing = keyRing(SECRET);
+
+        String kid = keyRing.activeKeyId();
+
+        assertThat(storedKeys).containsOnlyKeys(kid);
+        assertThat(keyRing.verificationKey(kid)).isNotNull();
+        assertThat(keyRing.verificationKey("unknown")).isNull();
+        assertThat(keyRing.publicJwkSet().getKeys()).singleElement().satisfies(jwk -> assertThat(jwk.isPrivate()).isFalse());
+    }
+
+    @Test
+    void testPublishesNextKeyBeforeActivatingIt() {
+        JwtKeyRing keyRing = keyRing(SECRET);
+        String first = keyRing.activeKeyId();
+
+        clock.advance(Duration.ofDays(7).minus(Duration.ofHours(1)));
+        keyRing.refresh();
+
+        assertThat(keyRing.activeKeyId()).isEqualTo(first);
+        assertThat(keyRing.publicJwkSet().getKeys()).hasSize(2);
+
+        clock.advance(Duration.ofHours(1));
+        keyRing.refresh();
+
+        String second = keyRing.activeKeyId();
+        assertThat(second).isNotEqualTo(first);
+        assertThat(keyRing.verificationKey(first)).isNotNull();
+    }
+
+    @Test
+    void testRemovesRetiredKeysOnceTheirTokensExpired() {
+        JwtKeyRing keyRing = keyRing(SECRET);
+        String first = keyRing.activeKeyId();
+        clock.advance(Duration.ofDays(7));
+        keyRing.refresh();
+        clock.advance(Duration.ofHours(1));
+        keyRing.refresh();
+
+        clock.advance(TOKEN_VALIDITY);
+        keyRing.refresh();
+        assertThat(keyRing.verificationKey(first)).isNotNull();
+
+        clock.advance(Duration.ofMinutes(2));
+        keyRing.refresh();
+        assertThat(keyRing.verificationKey(first)).isNull();
+        assertThat(storedKeys).doesNotContainKey(first);
+    }
+
+    @Test
+    void testSharesKeysThroughTheRepository() {
+        String kid = keyRing(SECRET).activeKeyId();
+
+        assertThat(keyRing(SECRET).activeKeyId()).isEqualTo(kid);
+    }
+
+    @Test
+    void testGeneratesNewKeyWhenStoredKeysCantBeDecrypted() {
+        String kid = keyRing(SECRET).activeKeyId();
+
+        JwtKeyRing otherSecretKeyRing = keyRing("b3RoZXItc2VjcmV0LW90aGVyLXNlY3JldC1vdGhlci1zZWNyZXQtb3RoZXItc2VjcmV0");
+
+        assertThat(otherSecretKeyRing.activeKeyId()).isNotEqualTo(kid);
+        assertThat(otherSecretKeyRing.verificationKey(kid)).isNotNull();
+    }
+
+    @Test
+    void testUpdatesKeysOnlyUnderTheLock() {
+        JwtKeyRing keyRing = keyRing(SECRET);
+        keyRing.activeKeyId();
+        verify(jobLockRepository).findOneForUpdate(JwtKeyRing.LOCK_NAME);
+
+        clock.advance(Duration.ofHours(1));
+        keyRing.refresh();
+        verify(jobLockRepository).findOneForUpdate(JwtKeyRing.LOCK_NAME);
+
+        keyRing(SECRET).activeKeyId();
+        verify(jobLockRepository).findOneForUpdate(JwtKeyRing.LOCK_NAME);
+    }
+
+    @Test
+    void testReloadsKeysGeneratedByAnotherNode() {
+        JwtKeyRing keyRing = keyRing(SECRET);
+        keyRing.activeKeyId();
+        JwtKeyRing otherNode = keyRing(SECRET);
+        clock.advance(Duration.ofDays(7));
+        otherNode.refresh();
+        String next = storedKeys.keySet().stream().filter(kid -> !kid.equals(keyRing.activeKeyId())).findFirst().orElseThrow();
+
+        assertThat(keyRing.verificationKey(next)).isNotNull();
+    }
+
+    @Test
+    void testRateLimitsReloadsOnUnknownKeys() {
+        JwtKeyRing keyRing = keyRing(SECRET);
+        keyRing.activeKeyId();
+        verify(jwtSigningKeyRepository, times(2)).findAll();
+
+        assertThat(keyRing.verificationKey("unknown")).isNull();
+        assertThat(keyRing.verificationKey("unknown")).isNull();
+        verify(jwtSigningKeyRepository, times(2)).findAll();
+
+        clock.advance(JwtKeyRing.UNKNOWN_KID_RELOAD_INTERVAL);
+        assertThat(keyRing.verificationKey("unknown")).isNull();
+        assertThat(keyRing.verificationKey("unknown")).isNull();
+        verify(jwtSigningKeyRepository, times(3)).findAll();
+        verify(jwtSigningKeyRepository, never()).deleteById(anyString());
+    }
+
+    private JwtKeyRing keyRing(String secret) {
+        JHipsterProperties jHipsterProperties = new JHipsterProperties();
+        JHipsterProperties.Security.Authentication.Jwt jwt = jHipsterProperties.getSecurity().getAuthentication().getJwt();
+        jwt.setBase64Secret(secret);
+        jwt.setTokenValidityInSeconds(TOKEN_VALIDITY.toSeconds());
+        jwt.setTokenValidityInSecondsForRememberMe(TOKEN_VALIDITY.toSeconds());
+        return new JwtKeyRing(
+            jwtSigningKeyRepository,
+            jobLockRepository,
+            mock(PlatformTransactionManager.class),
+            applicationProperties,
+            jHipsterProperties,
+            clock
+        );
+    }
+}
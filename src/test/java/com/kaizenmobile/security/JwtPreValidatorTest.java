@@ -0,0 +1,79 @@
+package com.kaizenmobile.security;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatCode;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+
+import com.nimbusds.jose.util.Base64URL;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.Set;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Unit tests for {@link JwtPreValidator}.
+ */
+class JwtPreValidatorTest {
+
+    private static final Instant NOW = Instant.parse("2026-10-18T08:00:00Z");
+
+    private final JwtPreValidator preValidator = new JwtPreValidator(
+        Set.of("RS256", "HS512"),
+        Duration.ofSeconds(60),
+        Clock.fixed(NOW, ZoneOffset.UTC)
+    );
+
+    @Test
+    void testAcceptsWellFormedToken() {
+        String valid = token("{\"alg\":\"HS512\"}", expiringAt(NOW.plusSeconds(60)));
+        String expiredWithinClockSkew = token("{\"alg\":\"HS512\"}", expiringAt(NOW.minusSeconds(30)));
+
+        assertThatCode(() -> preValidator.validate(valid)).doesNotThrowAnyException();
+        assertThatCode(() -> preValidator.validate(expiredWithinClockSkew)).doesNotThrowAnyException();
+    }
+
+    @Test
+    void testRejectsMalformedSerialization() {
+        assertRejected(null, JwtFailureCause.MALFORMED);
+        assertRejected("", JwtFailureCause.MALFORMED);
+        assertRejected("abc", JwtFailureCause.MALFORMED);
+        assertRejected("a.b", JwtFailureCause.MALFORMED);
+        assertRejected("a.b.c.d", JwtFailureCause.MALFORMED);
+        assertRejected(".b.c", JwtFailureCause.MALFORMED);
+        assertRejected(token("{\"alg\":\"HS512\"}", expiringAt(NOW.plusSeconds(60))) + "+/", JwtFailureCause.MALFORMED);
+        assertRejected(token("not json", expiringAt(NOW.plusSeconds(60))), JwtFailureCause.MALFORMED);
+    }
+
+    @Test
+    void testRejectsUnsupportedTokens() {
+        assertRejected("a.b.c.d.e", JwtFailureCause.UNSUPPORTED);
+        assertRejected(segment("{\"alg\":\"none\"}") + "." + segment(expiringAt(NOW.plusSeconds(60))) + ".", JwtFailureCause.UNSUPPORTED);
+        assertRejected(token("{\"alg\":\"ES256\"}", expiringAt(NOW.plusSeconds(60))), JwtFailureCause.UNSUPPORTED);
+        assertRejected(token("{\"typ\":\"JWT\"}", expiringAt(NOW.plusSeconds(60))), JwtFailureCause.UNSUPPORTED);
+    }
+
+    @Test
+    void testRejectsExpiredTokenBeyondClockSkew() {
+        assertRejected(token("{\"alg\":\"HS512\"}", expiringAt(NOW.minusSeconds(61))), JwtFailureCause.EXPIRED);
+    }
+
+    private void assertRejected(String token, JwtFailureCause cause) {
+        assertThatExceptionOfType(InvalidJwtException.class)
+            .isThrownBy(() -> preValidator.validate(token))
+            .satisfies(e -> assertThat(e.getFailureCause()).isEqualTo(cause));
+    }
+
+    private static String expiringAt(Instant expiresAt) {
+        return "{\"sub\":\"user\",\"exp\":" + expiresAt.getEpochSecond() + "}";
+    }
+
+    private static String token(String header, String payload) {
+        return segment(header) + "." + segment(payload) + ".c2lnbmF0dXJl";
+    }
+
+    private static String segment(String json) {
+        return Base64URL.encode(json).toString();
+    }
+}
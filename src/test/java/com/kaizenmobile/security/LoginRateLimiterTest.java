@@ -0,0 +1,116 @@
+package com.kaizenmobile.security;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Unit tests for {@link LoginRateLimiter}.
+ */
+class LoginRateLimiterTest {
+
+    private static final Duration WINDOW = Duration.ofMinutes(1);
+
+    private AtomicLong nanoTime;
+
+    private MeterRegistry meterRegistry;
+
+    private LoginRateLimiter loginRateLimiter;
+
+    @BeforeEach
+    public void setup() {
+        nanoTime = new AtomicLong(123_456_789L);
+        meterRegistry = new SimpleMeterRegistry();
+        loginRateLimiter = new LoginRateLimiter(WINDOW, 3, 5, 10, 1024, meterRegistry, nanoTime::get);
+    }
+
+    @Test
+    void testLimitsAttemptsPerLoginAndAddress() {
+        for (int i = 0; i < 3; i++) {
+            assertThat(loginRateLimiter.tryAcquire("user", "10.0.0.1")).isNotNull();
+        }
+
+        assertThat(loginRateLimiter.tryAcquire("user", "10.0.0.1")).isNull();
+        assertThat(loginRateLimiter.tryAcquire(" USER ", "10.0.0.1")).isNull();
+        assertThat(loginRateLimiter.tryAcquire("user", "10.0.0.2")).isNotNull();
+        assertThat(loginRateLimiter.tryAcquire("admin", "10.0.0.1")).isNotNull();
+        assertThat(meterRegistry.get(LoginRateLimiter.ATTEMPTS_METER_NAME).tag("result", "allowed").counter().count()).isEqualTo(5);
+        assertThat(
+            meterRegistry.get(LoginRateLimiter.ATTEMPTS_METER_NAME).tag("result", "login-and-address-limited").counter().count()
+        ).isEqualTo(2);
+    }
+
+    @Test
+    void testLimitsAttemptsPerLogin() {
+        for (int i = 0; i < 5; i++) {
+            assertThat(loginRateLimiter.tryAcquire("user", "10.0.0." + i)).isNotNull();
+        }
+
+        assertThat(loginRateLimiter.tryAcquire("user", "10.0.0.5")).isNull();
+        assertThat(loginRateLimiter.tryAcquire("admin", "10.0.0.5")).isNotNull();
+        assertThat(meterRegistry.get(LoginRateLimiter.ATTEMPTS_METER_NAME).tag("result", "login-limited").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void testLimitsAttemptsPerAddress() {
+        for (int i = 0; i < 10; i++) {
+            assertThat(loginRateLimiter.tryAcquire("user-" + i, "10.0.0.1")).isNotNull();
+        }
+
+        assertThat(loginRateLimiter.tryAcquire("user-10", "10.0.0.1")).isNull();
+        assertThat(loginRateLimiter.tryAcquire(null, "10.0.0.1")).isNull();
+        assertThat(loginRateLimiter.tryAcquire("user-10", "10.0.0.2")).isNotNull();
+        assertThat(meterRegistry.get(LoginRateLimiter.ATTEMPTS_METER_NAME).tag("result", "address-limited").counter().count()).isEqualTo(2);
+    }
+
+    @Test
+    void testSuccessfulAttemptsDontCount() {
+        for (int i = 0; i < 20; i++) {
+            LoginRateLimiter.Attempt attempt = loginRateLimiter.tryAcquire("user", "10.0.0.1");
+            assertThat(attempt).isNotNull();
+            attempt.succeeded();
+        }
+
+        // Attempts succeeding after the window ended are taken back from the previous window
+        LoginRateLimiter.Attempt attempt = loginRateLimiter.tryAcquire("user", "10.0.0.1");
+        nanoTime.addAndGet(WINDOW.toNanos());
+        attempt.succeeded();
+        for (int i = 0; i < 3; i++) {
+            assertThat(loginRateLimiter.tryAcquire("user", "10.0.0.1")).isNotNull();
+        }
+    }
+
+    @Test
+    void testWindowSlides() {
+        for (int i = 0; i < 3; i++) {
+            loginRateLimiter.tryAcquire("user", "10.0.0.1");
+        }
+
+        // Right after the window ends, the previous window still counts almost entirely
+        nanoTime.addAndGet(WINDOW.plusSeconds(1).toNanos());
+        assertThat(loginRateLimiter.tryAcquire("user", "10.0.0.1")).isNull();
+
+        // Half-way through the next window, half of the previous window still counts
+        nanoTime.addAndGet(Duration.ofSeconds(30).toNanos());
+        assertThat(loginRateLimiter.tryAcquire("user", "10.0.0.1")).isNotNull();
+        assertThat(loginRateLimiter.tryAcquire("user", "10.0.0.1")).isNull();
+
+        // Once a whole window has passed without attempts, the login starts afresh
+        nanoTime.addAndGet(WINDOW.multipliedBy(2).toNanos());
+        for (int i = 0; i < 3; i++) {
+            assertThat(loginRateLimiter.tryAcquire("user", "10.0.0.1")).isNotNull();
+        }
+    }
+
+    @Test
+    void testRetryAfterIsTheRestOfTheWindow() {
+        nanoTime.addAndGet(Duration.ofSeconds(45).toNanos());
+
+        assertThat(loginRateLimiter.retryAfterSeconds()).isEqualTo(15);
+    }
+}
@@ -0,0 +1,117 @@
+package com.kaizenmobile.security;
+
+import static com.kaizenmobile.security.SecurityUtils.AUTHORITIES_KEY;
+import static com.kaizenmobile.security.SecurityUtils.JWT_ALGORITHM;
+
+import com.kaizenmobile.repository.AuthorityRepository;
+import com.nimbusds.jose.JOSEException;
+import com.nimbusds.jose.jwk.JWKSet;
+import com.nimbusds.jose.jwk.RSAKey;
+import com.nimbusds.jose.jwk.gen.RSAKeyGenerator;
+import com.nimbusds.jose.jwk.source.ImmutableJWKSet;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import org.mockito.Mockito;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.oauth2.jwt.JwsHeader;
+import org.springframework.security.oauth2.jwt.JwtClaimsSet;
+import org.springframework.security.oauth2.jwt.JwtEncoder;
+import org.springframework.security.oauth2.jwt.JwtEncoderParameters;
+import org.springframework.security.oauth2.jwt.NimbusJwtEncoder;
+
+/**
+ * JMH benchmark of token issuance, building the authorities and the header on every login ({@code *PerLogin}) against
+ * reusing the ones of the {@link AuthorityRegistry} and the cached header ({@code *Shared}).
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Benchmark)
+public class TokenIssuanceBenchmark {
+
+    private static final List<String> AUTHORITY_NAMES = List.of(AuthoritiesConstants.ADMIN, AuthoritiesConstants.USER);
+
+    private AuthorityRegistry authorityRegistry;
+
+    private Authentication authentication;
+
+    private JwtEncoder jwtEncoder;
+
+    private String keyId;
+
+    private JwsHeader jwsHeader;
+
+    @Setup
+    public void setup() throws JOSEException {
+        RSAKey key = new RSAKeyGenerator(2048).keyIDFromThumbprint(true).generate();
+        keyId = key.getKeyID();
+        jwtEncoder = new NimbusJwtEncoder(new ImmutableJWKSet<>(new JWKSet(key)));
+        jwsHeader = JwsHeader.with(JWT_ALGORITHM).keyId(keyId).build();
+        authorityRegistry = new AuthorityRegistry(Mockito.mock(AuthorityRepository.class));
+        authentication = UsernamePasswordAuthenticationToken.authenticated(
+            "user",
+            null,
+            AUTHORITY_NAMES.stream().map(SimpleGrantedAuthority::new).toList()
+        );
+    }
+
+    @Benchmark
+    public List<SimpleGrantedAuthority> grantedAuthoritiesPerLogin() {
+        return AUTHORITY_NAMES.stream().map(SimpleGrantedAuthority::new).toList();
+    }
+
+    @Benchmark
+    public List<GrantedAuthority> grantedAuthoritiesShared() {
+        return authorityRegistry.authoritySet(AUTHORITY_NAMES).authorities();
+    }
+
+    @Benchmark
+    public JwtEncoderParameters parametersPerLogin() {
+        return parametersPerLoginInternal();
+    }
+
+    @Benchmark
+    public JwtEncoderParameters parametersShared() {
+        return parametersSharedInternal();
+    }
+
+    @Benchmark
+    public String issueTokenPerLogin() {
+        return jwtEncoder.encode(parametersPerLoginInternal()).getTokenValue();
+    }
+
+    @Benchmark
+    public String issueTokenShared() {
+        return jwtEncoder.encode(parametersSharedInternal()).getTokenValue();
+    }
+
+    private JwtEncoderParameters parametersPerLoginInternal() {
+        String authorities = authentication.getAuthorities().stream().map(GrantedAuthority::getAuthority).collect(Collectors.joining(" "));
+        return JwtEncoderParameters.from(JwsHeader.with(JWT_ALGORITHM).keyId(keyId).build(), claims(authorities));
+    }
+
+    private JwtEncoderParameters parametersSharedInternal() {
+        return JwtEncoderParameters.from(jwsHeader, claims(authorityRegistry.authoritySetOf(authentication.getAuthorities()).claim()));
+    }
+
+    private JwtClaimsSet claims(String authorities) {
+        Instant now = Instant.now();
+        return JwtClaimsSet.builder()
+            .issuedAt(now)
+            .expiresAt(now.plusSeconds(86400))
+            .subject("user")
+            .claim(AUTHORITIES_KEY, authorities)
+            .build();
+    }
+}
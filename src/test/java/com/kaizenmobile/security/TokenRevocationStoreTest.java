@@ -0,0 +1,124 @@
+package com.kaizenmobile.security;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.kaizenmobile.domain.RevokedToken;
+import com.kaizenmobile.repository.RevokedTokenRepository;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Unit tests for {@link TokenRevocationStore}.
+ */
+class TokenRevocationStoreTest {
+
+    private RevokedTokenRepository revokedTokenRepository;
+
+    private MutableClock clock;
+
+    private TokenRevocationStore tokenRevocationStore;
+
+    @BeforeEach
+    public void setup() {
+        revokedTokenRepository = mock(RevokedTokenRepository.class);
+        when(revokedTokenRepository.findById(any())).thenReturn(Optional.empty());
+        clock = new MutableClock(Instant.parse("2026-10-18T10:00:00Z"));
+        tokenRevocationStore = new TokenRevocationStore(revokedTokenRepository, clock);
+    }
+
+    @Test
+    void testRevokedUntilExpiry() {
+        tokenRevocationStore.revoke("session", clock.instant().plus(Duration.ofMinutes(15)));
+
+        assertThat(tokenRevocationStore.isRevoked("session")).isTrue();
+        assertThat(tokenRevocationStore.isRevoked("other-session")).isFalse();
+        assertThat(tokenRevocationStore.isRevoked(null)).isFalse();
+        verify(revokedTokenRepository).save(any(RevokedToken.class));
+
+        clock.advance(Duration.ofMinutes(15));
+
+        assertThat(tokenRevocationStore.isRevoked("session")).isFalse();
+    }
+
+    @Test
+    void testRevokedOnlyOnceCommitted() {
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            tokenRevocationStore.revoke("session", clock.instant().plus(Duration.ofMinutes(15)));
+            tokenRevocationStore.revoke("rolled-back-session", clock.instant().plus(Duration.ofMinutes(15)));
+            List<TransactionSynchronization> synchronizations = TransactionSynchronizationManager.getSynchronizations();
+
+            assertThat(tokenRevocationStore.isRevoked("session")).isFalse();
+            synchronizations.get(0).afterCommit();
+            synchronizations.get(1).afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK);
+
+            assertThat(tokenRevocationStore.isRevoked("session")).isTrue();
+            assertThat(tokenRevocationStore.isRevoked("rolled-back-session")).isFalse();
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void testRevokingAgainKeepsTheLatestExpiry() {
+        Instant until = clock.instant().plus(Duration.ofMinutes(15));
+        when(revokedTokenRepository.findById("session")).thenReturn(
+            Optional.of(new RevokedToken().tokenId("session").revokedUntil(until).setIsPersisted())
+        );
+        tokenRevocationStore.revoke("session", until);
+
+        tokenRevocationStore.revoke("session", until.minus(Duration.ofMinutes(10)));
+        clock.advance(Duration.ofMinutes(10));
+
+        assertThat(tokenRevocationStore.isRevoked("session")).isTrue();
+        verify(revokedTokenRepository, never()).save(any(RevokedToken.class));
+    }
+
+    @Test
+    void testRefreshLoadsRevocationsOfOtherNodes() {
+        Instant until = clock.instant().plus(Duration.ofMinutes(15));
+        when(revokedTokenRepository.findAllByRevokedUntilAfter(clock.instant())).thenReturn(
+            List.of(new RevokedToken().tokenId("session").revokedUntil(until))
+        );
+
+        tokenRevocationStore.refresh();
+
+        assertThat(tokenRevocationStore.isRevoked("session")).isTrue();
+        verify(revokedTokenRepository).deleteExpired(clock.instant());
+    }
+
+    @Test
+    void testRefreshForgetsExpiredRevocations() {
+        tokenRevocationStore.revoke("session", clock.instant().plus(Duration.ofMinutes(15)));
+        clock.advance(Duration.ofMinutes(20));
+        when(revokedTokenRepository.findAllByRevokedUntilAfter(any())).thenReturn(List.of());
+
+        tokenRevocationStore.refresh();
+
+        assertThat(tokenRevocationStore.size()).isZero();
+    }
+
+    @Test
+    void testRefreshFailureKeepsKnownRevocations() {
+        tokenRevocationStore.revoke("session", clock.instant().plus(Duration.ofMinutes(15)));
+        when(revokedTokenRepository.findAllByRevokedUntilAfter(any())).thenThrow(
+            new DataAccessResourceFailureException("Database is down")
+        );
+
+        tokenRevocationStore.refresh();
+
+        assertThat(tokenRevocationStore.isRevoked("session")).isTrue();
+    }
+}
@@ -0,0 +1,95 @@
+package com.kaizenmobile.security;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import com.kaizenmobile.management.SecurityMetersService;
+import com.nimbusds.jose.proc.BadJWSException;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.text.ParseException;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.oauth2.core.OAuth2Error;
+import org.springframework.security.oauth2.jwt.BadJwtException;
+import org.springframework.security.oauth2.jwt.JwtDecoder;
+import org.springframework.security.oauth2.jwt.JwtException;
+import org.springframework.security.oauth2.jwt.JwtValidationException;
+
+/**
+ * Unit tests for {@link ValidatingJwtDecoder} and {@link JwtFailureCause}.
+ */
+class ValidatingJwtDecoderTest {
+
+    private JwtDecoder delegate;
+
+    private JwtPreValidator preValidator;
+
+    private MeterRegistry meterRegistry;
+
+    private ValidatingJwtDecoder decoder;
+
+    @BeforeEach
+    public void setup() {
+        delegate = mock(JwtDecoder.class);
+        preValidator = mock(JwtPreValidator.class);
+        meterRegistry = new SimpleMeterRegistry();
+        decoder = new ValidatingJwtDecoder(delegate, preValidator, new SecurityMetersService(meterRegistry));
+    }
+
+    @Test
+    void testClassifiesNimbusFailuresByType() {
+        assertThat(JwtFailureCause.of(new BadJwtException("x", new BadJWSException("Signed JWT rejected: Invalid signature")))).isEqualTo(
+            JwtFailureCause.INVALID_SIGNATURE
+        );
+        assertThat(JwtFailureCause.of(new BadJwtException("x", new RuntimeException(new ParseException("x", 0))))).isEqualTo(
+            JwtFailureCause.MALFORMED
+        );
+        assertThat(JwtFailureCause.of(new JwtValidationException("x", List.of(new OAuth2Error("invalid_token"))))).isEqualTo(
+            JwtFailureCause.EXPIRED
+        );
+        assertThat(JwtFailureCause.of(new BadJwtException("Unsupported algorithm of none"))).isEqualTo(JwtFailureCause.UNSUPPORTED);
+        assertThat(JwtFailureCause.of(new JwtException("x", new IllegalStateException()))).isEqualTo(JwtFailureCause.UNKNOWN);
+    }
+
+    @Test
+    void testCountsPreValidationFailures() {
+        when(delegate.decode("token")).thenThrow(new IllegalStateException("never called"));
+        doThrow(new InvalidJwtException(JwtFailureCause.UNSUPPORTED, "Unsupported algorithm"))
+            .when(preValidator)
+            .validate("token");
+
+        assertThatExceptionOfType(InvalidJwtException.class).isThrownBy(() -> decoder.decode("token"));
+
+        assertThat(invalidTokens("unsupported")).isEqualTo(1);
+    }
+
+    @Test
+    void testCountsDelegateFailures() {
+        when(delegate.decode("token")).thenThrow(new BadJwtException("x", new BadJWSException("Signed JWT rejected: Invalid signature")));
+
+        assertThatExceptionOfType(BadJwtException.class).isThrownBy(() -> decoder.decode("token"));
+
+        assertThat(invalidTokens("invalid-signature")).isEqualTo(1);
+    }
+
+    @Test
+    void testUnknownFailuresAreRethrownWithoutCounting() {
+        when(delegate.decode("token")).thenThrow(new JwtException("Unknown", new IllegalStateException()));
+
+        for (int i = 0; i < 3; i++) {
+            assertThatExceptionOfType(JwtException.class).isThrownBy(() -> decoder.decode("token"));
+        }
+
+        assertThat(meterRegistry.find(SecurityMetersService.INVALID_TOKENS_METER_NAME).counters())
+            .allSatisfy(counter -> assertThat(counter.count()).isZero());
+    }
+
+    private double invalidTokens(String cause) {
+        return meterRegistry.get(SecurityMetersService.INVALID_TOKENS_METER_NAME).tag("cause", cause).counter().count();
+    }
+}
@@ -1,9 +1,14 @@
 package com.kaizenmobile.security.jwt;
 
+import com.kaizenmobile.config.ApplicationProperties;
 import com.kaizenmobile.config.SecurityConfiguration;
 import com.kaizenmobile.config.SecurityJwtConfiguration;
 import com.kaizenmobile.config.WebConfigurer;
 import com.kaizenmobile.management.SecurityMetersService;
+import com.kaizenmobile.security.AuthorityRegistry;
+import com.kaizenmobile.security.JwtKeyRing;
+import com.kaizenmobile.security.TokenRevocationStore;
+import com.kaizenmobile.service.RefreshTokenService;
 import com.kaizenmobile.web.rest.AuthenticateController;
 import java.lang.annotation.ElementType;
 import java.lang.annotation.Retention;
@@ -21,10 +26,15 @@ import tech.jhipster.config.JHipsterProperties;
     },
     classes = {
         JHipsterProperties.class,
+        ApplicationProperties.class,
         WebConfigurer.class,
         SecurityConfiguration.class,
         SecurityJwtConfiguration.class,
         SecurityMetersService.class,
+        JwtKeyRing.class,
+        AuthorityRegistry.class,
+        TokenRevocationStore.class,
+        RefreshTokenService.class,
         AuthenticateController.class,
         JwtAuthenticationTestUtils.class,
     }
@@ -1,10 +1,21 @@
 package com.kaizenmobile.security.jwt;
 
 import static com.kaizenmobile.security.SecurityUtils.AUTHORITIES_KEY;
-import static com.kaizenmobile.security.SecurityUtils.JWT_ALGORITHM;
-
+import static com.kaizenmobile.security.SecurityUtils.LEGACY_JWT_ALGORITHM;
+
+import com.kaizenmobile.repository.AuthorityRepository;
+import com.kaizenmobile.repository.JobLockRepository;
+import com.kaizenmobile.repository.JwtSigningKeyRepository;
+import com.kaizenmobile.repository.RefreshTokenRepository;
+import com.kaizenmobile.repository.RevokedTokenRepository;
+import com.kaizenmobile.repository.UserRepository;
+import com.nimbusds.jose.jwk.JWKSet;
+import com.nimbusds.jose.jwk.RSAKey;
+import com.nimbusds.jose.jwk.gen.RSAKeyGenerator;
+import com.nimbusds.jose.jwk.source.ImmutableJWKSet;
 import com.nimbusds.jose.jwk.source.ImmutableSecret;
 import com.nimbusds.jose.util.Base64;
+import com.nimbusds.jose.util.Base64URL;
 import io.micrometer.core.instrument.MeterRegistry;
 import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import java.time.Instant;
@@ -12,13 +23,16 @@ import java.util.Collections;
 import javax.crypto.Mac;
 import javax.crypto.SecretKey;
 import javax.crypto.spec.SecretKeySpec;
+import org.mockito.Mockito;
 import org.springframework.context.annotation.Bean;
 import org.springframework.security.crypto.codec.Hex;
+import org.springframework.security.oauth2.jose.jws.SignatureAlgorithm;
 import org.springframework.security.oauth2.jwt.JwsHeader;
 import org.springframework.security.oauth2.jwt.JwtClaimsSet;
 import org.springframework.security.oauth2.jwt.JwtEncoder;
 import org.springframework.security.oauth2.jwt.JwtEncoderParameters;
 import org.springframework.security.oauth2.jwt.NimbusJwtEncoder;
+import org.springframework.transaction.PlatformTransactionManager;
 import org.springframework.web.servlet.handler.HandlerMappingIntrospector;
 
 public class JwtAuthenticationTestUtils {
@@ -35,6 +49,41 @@ public class JwtAuthenticationTestUtils {
         return new SimpleMeterRegistry();
     }
 
+    @Bean
+    private JwtSigningKeyRepository jwtSigningKeyRepository() {
+        return Mockito.mock(JwtSigningKeyRepository.class);
+    }
+
+    @Bean
+    private JobLockRepository jobLockRepository() {
+        return Mockito.mock(JobLockRepository.class);
+    }
+
+    @Bean
+    private PlatformTransactionManager transactionManager() {
+        return Mockito.mock(PlatformTransactionManager.class);
+    }
+
+    @Bean
+    private AuthorityRepository authorityRepository() {
+        return Mockito.mock(AuthorityRepository.class);
+    }
+
+    @Bean
+    private RevokedTokenRepository revokedTokenRepository() {
+        return Mockito.mock(RevokedTokenRepository.class);
+    }
+
+    @Bean
+    private RefreshTokenRepository refreshTokenRepository() {
+        return Mockito.mock(RefreshTokenRepository.class);
+    }
+
+    @Bean
+    private UserRepository userRepository() {
+        return Mockito.mock(UserRepository.class);
+    }
+
     public static String createValidToken(String jwtKey) {
         return createValidTokenForUser(jwtKey, "anonymous");
     }
@@ -51,7 +100,7 @@ public class JwtAuthenticationTestUtils {
             .claims(customClaim -> customClaim.put(AUTHORITIES_KEY, Collections.singletonList("ROLE_ADMIN")))
             .build();
 
-        JwsHeader jwsHeader = JwsHeader.with(JWT_ALGORITHM).build();
+        JwsHeader jwsHeader = JwsHeader.with(LEGACY_JWT_ALGORITHM).build();
         return encoder.encode(JwtEncoderParameters.from(jwsHeader, claims)).getTokenValue();
     }
 
@@ -63,7 +112,19 @@ public class JwtAuthenticationTestUtils {
 
         JwtClaimsSet claims = JwtClaimsSet.builder().issuedAt(now).expiresAt(past).subject("anonymous").build();
 
-        JwsHeader jwsHeader = JwsHeader.with(JWT_ALGORITHM).build();
+        JwsHeader jwsHeader = JwsHeader.with(LEGACY_JWT_ALGORITHM).build();
+        return encoder.encode(JwtEncoderParameters.from(jwsHeader, claims)).getTokenValue();
+    }
+
+    public static String createTokenSignedWithUnknownKey() throws Exception {
+        RSAKey rsaKey = new RSAKeyGenerator(2048).keyID("unknown").generate();
+        JwtEncoder encoder = new NimbusJwtEncoder(new ImmutableJWKSet<>(new JWKSet(rsaKey)));
+
+        var now = Instant.now();
+
+        JwtClaimsSet claims = JwtClaimsSet.builder().issuedAt(now).expiresAt(now.plusSeconds(60)).subject("anonymous").build();
+
+        JwsHeader jwsHeader = JwsHeader.with(SignatureAlgorithm.RS256).keyId("unknown").build();
         return encoder.encode(JwtEncoderParameters.from(jwsHeader, claims)).getTokenValue();
     }
 
@@ -75,7 +136,7 @@ public class JwtAuthenticationTestUtils {
 
         JwtClaimsSet claims = JwtClaimsSet.builder().issuedAt(past).expiresAt(past.plusSeconds(1)).subject("anonymous").build();
 
-        JwsHeader jwsHeader = JwsHeader.with(JWT_ALGORITHM).build();
+        JwsHeader jwsHeader = JwsHeader.with(LEGACY_JWT_ALGORITHM).build();
         return encoder.encode(JwtEncoderParameters.from(jwsHeader, claims)).getTokenValue();
     }
 
@@ -87,13 +148,20 @@ public class JwtAuthenticationTestUtils {
         return calculateHMAC("foo", jwtKey);
     }
 
+    public static String createUnsecuredToken() {
+        var expiresAt = Instant.now().plusSeconds(60).getEpochSecond();
+        return (
+            Base64URL.encode("{\"alg\":\"none\"}") + "." + Base64URL.encode("{\"sub\":\"anonymous\",\"exp\":" + expiresAt + "}") + "."
+        );
+    }
+
     private static JwtEncoder jwtEncoder(String jwtKey) {
         return new NimbusJwtEncoder(new ImmutableSecret<>(getSecretKey(jwtKey)));
     }
 
     private static SecretKey getSecretKey(String jwtKey) {
         byte[] keyBytes = Base64.from(jwtKey).decode();
-        return new SecretKeySpec(keyBytes, 0, keyBytes.length, JWT_ALGORITHM.getName());
+        return new SecretKeySpec(keyBytes, 0, keyBytes.length, LEGACY_JWT_ALGORITHM.getName());
     }
 
     private static String calculateHMAC(String data, String key) throws Exception {
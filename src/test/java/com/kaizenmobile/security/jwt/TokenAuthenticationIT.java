@@ -4,10 +4,13 @@ import static com.kaizenmobile.security.jwt.JwtAuthenticationTestUtils.*;
 import static org.springframework.http.HttpHeaders.AUTHORIZATION;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
+import com.kaizenmobile.web.rest.AuthenticateController;
+import java.util.List;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
 
@@ -18,6 +21,9 @@ class TokenAuthenticationIT {
     @Autowired
     private MockMvc mvc;
 
+    @Autowired
+    private AuthenticateController authenticateController;
+
     @Value("${jhipster.security.authentication.jwt.base64-secret}")
     private String jwtKey;
 
@@ -26,6 +32,16 @@ class TokenAuthenticationIT {
         expectOk(createValidToken(jwtKey));
     }
 
+    @Test
+    void testLoginWithKeyRingToken() throws Exception {
+        expectOk(authenticateController.createToken(new UsernamePasswordAuthenticationToken("anonymous", null, List.of()), null));
+    }
+
+    @Test
+    void testReturnFalseWhenKidIsUnknown() throws Exception {
+        expectUnauthorized(createTokenSignedWithUnknownKey());
+    }
+
     @Test
     void testReturnFalseWhenJWThasInvalidSignature() throws Exception {
         expectUnauthorized(createTokenWithDifferentSignature());
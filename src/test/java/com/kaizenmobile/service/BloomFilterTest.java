@@ -0,0 +1,60 @@
+package com.kaizenmobile.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalArgumentException;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Unit tests for {@link BloomFilter}.
+ */
+class BloomFilterTest {
+
+    private static final int ELEMENTS = 10_000;
+
+    @Test
+    void testHasNoFalseNegatives() {
+        BloomFilter filter = BloomFilter.create(ELEMENTS, 0.01);
+        for (int i = 0; i < ELEMENTS; i++) {
+            filter.put("user-" + i);
+        }
+
+        for (int i = 0; i < ELEMENTS; i++) {
+            assertThat(filter.mightContain("user-" + i)).isTrue();
+        }
+        assertThat(filter.insertions()).isEqualTo(ELEMENTS);
+    }
+
+    @Test
+    void testFalsePositiveRateStaysCloseToTarget() {
+        BloomFilter filter = BloomFilter.create(ELEMENTS, 0.01);
+        for (int i = 0; i < ELEMENTS; i++) {
+            filter.put("user-" + i);
+        }
+
+        int falsePositives = 0;
+        for (int i = 0; i < ELEMENTS; i++) {
+            if (filter.mightContain("other-" + i)) {
+                falsePositives++;
+            }
+        }
+        assertThat((double) falsePositives / ELEMENTS).isLessThan(0.02);
+        assertThat(filter.expectedFpp()).isBetween(0.005, 0.02);
+        assertThat(filter.fillRatio()).isBetween(0.4, 0.6);
+    }
+
+    @Test
+    void testEmptyFilterContainsNothing() {
+        BloomFilter filter = BloomFilter.create(100, 0.01);
+
+        assertThat(filter.mightContain("anything")).isFalse();
+        assertThat(filter.fillRatio()).isZero();
+        assertThat(filter.expectedFpp()).isZero();
+    }
+
+    @Test
+    void testRejectsInvalidFpp() {
+        assertThatIllegalArgumentException().isThrownBy(() -> BloomFilter.create(100, 0));
+        assertThatIllegalArgumentException().isThrownBy(() -> BloomFilter.create(100, 1));
+    }
+}
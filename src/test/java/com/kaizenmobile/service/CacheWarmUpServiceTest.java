@@ -0,0 +1,147 @@
+package com.kaizenmobile.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.kaizenmobile.config.ApplicationProperties;
+import com.kaizenmobile.domain.AppStats;
+import com.kaizenmobile.domain.Authority;
+import com.kaizenmobile.domain.User;
+import com.kaizenmobile.repository.AppStatsRepository;
+import com.kaizenmobile.repository.AuthorityRepository;
+import com.kaizenmobile.repository.UserRepository;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.Status;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.data.domain.PageRequest;
+
+/**
+ * Unit tests for {@link CacheWarmUpService}.
+ */
+class CacheWarmUpServiceTest {
+
+    private ApplicationProperties applicationProperties;
+
+    private AuthorityRepository authorityRepository;
+
+    private UserRepository userRepository;
+
+    private AppStatsRepository appStatsRepository;
+
+    private ConcurrentMapCacheManager cacheManager;
+
+    @BeforeEach
+    public void setup() {
+        applicationProperties = new ApplicationProperties();
+        applicationProperties.getCacheWarmUp().setBatchSize(2);
+        applicationProperties.getCacheWarmUp().setParallelism(2);
+        authorityRepository = mock(AuthorityRepository.class);
+        userRepository = mock(UserRepository.class);
+        appStatsRepository = mock(AppStatsRepository.class);
+        cacheManager = new ConcurrentMapCacheManager(UserRepository.USERS_BY_LOGIN_CACHE);
+
+        when(authorityRepository.findAll()).thenReturn(List.of(new Authority().name("ROLE_USER"), new Authority().name("ROLE_ADMIN")));
+        when(userRepository.findMostRecentlyActiveIds(PageRequest.of(0, 10_000))).thenReturn(List.of(1L, 2L, 3L));
+        when(userRepository.findAllWithAuthoritiesByIdIn(List.of(1L, 2L))).thenReturn(List.of(user(1L, "admin"), user(2L, "user")));
+        when(userRepository.findAllWithAuthoritiesByIdIn(List.of(3L))).thenReturn(List.of(user(3L, "other")));
+        when(appStatsRepository.findIds(PageRequest.of(0, 50_000))).thenReturn(List.of(10L));
+        when(appStatsRepository.findAllById(List.of(10L))).thenReturn(List.of(new AppStats().id(10L)));
+    }
+
+    @Test
+    void testLoadsTheCaches() {
+        CacheWarmUpService cacheWarmUpService = cacheWarmUpService();
+
+        cacheWarmUpService.warmUp();
+
+        assertThat(cacheWarmUpService.getState()).isEqualTo(CacheWarmUpService.State.COMPLETED);
+        User cachedUser = cacheManager.getCache(UserRepository.USERS_BY_LOGIN_CACHE).get("other", User.class);
+        assertThat(cachedUser).extracting(User::getId).isEqualTo(3L);
+        verify(appStatsRepository).findAllById(List.of(10L));
+        Health health = cacheWarmUpService.health();
+        assertThat(health.getStatus()).isEqualTo(Status.UP);
+        assertThat(health.getDetails()).containsEntry("users", Map.of("loaded", 3, "total", 3));
+        assertThat(health.getDetails()).containsEntry("tenants", Map.of("loaded", 1, "total", 1));
+    }
+
+    @Test
+    void testDropsTheUsersChangedWhileLoading() {
+        when(userRepository.findLoginsByIdInModifiedSince(eq(List.of(1L, 2L)), any())).thenReturn(List.of("user"));
+        User loadedByRequest = user(1L, "admin");
+        loadedByRequest.setFirstName("loaded by a request");
+        cacheManager.getCache(UserRepository.USERS_BY_LOGIN_CACHE).put("admin", loadedByRequest);
+
+        cacheWarmUpService().warmUp();
+
+        assertThat(cacheManager.getCache(UserRepository.USERS_BY_LOGIN_CACHE).get("user")).isNull();
+        assertThat(cacheManager.getCache(UserRepository.USERS_BY_LOGIN_CACHE).get("admin", User.class))
+            .extracting(User::getFirstName)
+            .isEqualTo("loaded by a request");
+    }
+
+    @Test
+    void testIsOutOfServiceUntilOver() {
+        CacheWarmUpService cacheWarmUpService = cacheWarmUpService();
+
+        assertThat(cacheWarmUpService.health().getStatus()).isEqualTo(Status.OUT_OF_SERVICE);
+    }
+
+    @Test
+    void testStopsAtTheTimeBudget() {
+        applicationProperties.getCacheWarmUp().setTimeBudget(Duration.ZERO);
+        CacheWarmUpService cacheWarmUpService = cacheWarmUpService();
+
+        cacheWarmUpService.warmUp();
+
+        assertThat(cacheWarmUpService.getState()).isEqualTo(CacheWarmUpService.State.BUDGET_EXHAUSTED);
+        assertThat(cacheWarmUpService.health().getStatus()).isEqualTo(Status.UP);
+        verify(userRepository, never()).findAllWithAuthoritiesByIdIn(any());
+        verify(appStatsRepository, never()).findIds(any());
+    }
+
+    @Test
+    void testFailureDoesNotHoldReadinessBack() {
+        when(appStatsRepository.findAllById(List.of(10L))).thenThrow(new DataAccessResourceFailureException("down"));
+        CacheWarmUpService cacheWarmUpService = cacheWarmUpService();
+
+        cacheWarmUpService.warmUp();
+
+        assertThat(cacheWarmUpService.getState()).isEqualTo(CacheWarmUpService.State.FAILED);
+        Health health = cacheWarmUpService.health();
+        assertThat(health.getStatus()).isEqualTo(Status.UP);
+        assertThat(health.getDetails()).containsEntry("error", "down");
+    }
+
+    @Test
+    void testDisabled() {
+        applicationProperties.getCacheWarmUp().setEnabled(false);
+        CacheWarmUpService cacheWarmUpService = cacheWarmUpService();
+
+        cacheWarmUpService.start();
+
+        assertThat(cacheWarmUpService.health().getStatus()).isEqualTo(Status.UP);
+        verify(authorityRepository, never()).findAll();
+    }
+
+    private CacheWarmUpService cacheWarmUpService() {
+        return new CacheWarmUpService(applicationProperties, authorityRepository, userRepository, appStatsRepository, cacheManager);
+    }
+
+    private static User user(Long id, String login) {
+        User user = new User();
+        user.setId(id);
+        user.setLogin(login);
+        return user;
+    }
+}
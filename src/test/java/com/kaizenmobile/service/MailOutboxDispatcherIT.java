@@ -0,0 +1,112 @@
+package com.kaizenmobile.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.icegreen.greenmail.junit5.GreenMailExtension;
+import com.icegreen.greenmail.util.ServerSetupTest;
+import com.kaizenmobile.IntegrationTest;
+import com.kaizenmobile.domain.MailOutboxMessage;
+import com.kaizenmobile.repository.MailOutboxMessageRepository;
+import jakarta.mail.internet.MimeMessage;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Integration tests for {@link MailOutboxDispatcher}, sending to a local SMTP server.
+ */
+@IntegrationTest
+class MailOutboxDispatcherIT {
+
+    @RegisterExtension
+    static final GreenMailExtension greenMail = new GreenMailExtension(ServerSetupTest.SMTP);
+
+    @Autowired
+    private MailService mailService;
+
+    @Autowired
+    private MailOutboxDispatcher mailOutboxDispatcher;
+
+    @Autowired
+    private MailOutboxMessageRepository mailOutboxMessageRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private TransactionTemplate transactionTemplate;
+
+    @BeforeEach
+    public void setup() {
+        transactionTemplate = new TransactionTemplate(transactionManager);
+        mailOutboxMessageRepository.deleteAll();
+    }
+
+    @AfterEach
+    public void cleanup() {
+        mailOutboxMessageRepository.deleteAll();
+    }
+
+    @Test
+    void dispatchQueuedEmails() throws Exception {
+        transactionTemplate.executeWithoutResult(status -> {
+            mailService.queueEmail("john.doe@example.com", "testSubject", "testContent", false);
+            mailService.queueEmail("jane.doe@example.com", "otherSubject", "<p>otherContent</p>", true);
+        });
+        List<String> messageIds = mailOutboxMessageRepository.findAll().stream().map(MailOutboxMessage::getMessageId).toList();
+
+        assertThat(mailOutboxDispatcher.dispatch()).isEqualTo(2);
+
+        assertThat(greenMail.waitForIncomingEmail(5000, 2)).isTrue();
+        MimeMessage[] received = greenMail.getReceivedMessages();
+        assertThat(received).extracting(MimeMessage::getMessageID).containsExactlyInAnyOrderElementsOf(messageIds);
+        assertThat(received).extracting(MimeMessage::getSubject).containsExactlyInAnyOrder("testSubject", "otherSubject");
+        assertThat(mailOutboxMessageRepository.count()).isZero();
+    }
+
+    @Test
+    void discardEmailsOfRolledBackTransaction() {
+        transactionTemplate.executeWithoutResult(status -> {
+            mailService.queueEmail("john.doe@example.com", "testSubject", "testContent", false);
+            status.setRollbackOnly();
+        });
+
+        assertThat(mailOutboxDispatcher.dispatch()).isZero();
+        assertThat(greenMail.getReceivedMessages()).isEmpty();
+    }
+
+    @Test
+    void retryFailedEmails() throws Exception {
+        mailService.queueEmail("john.doe@example.com", "testSubject", "testContent", false);
+        greenMail.stop();
+
+        assertThat(mailOutboxDispatcher.dispatch()).isZero();
+
+        MailOutboxMessage failed = mailOutboxMessageRepository.findAll().get(0);
+        assertThat(failed.getAttempts()).isEqualTo(1);
+        assertThat(failed.getLastError()).isNotBlank();
+        assertThat(failed.getNextAttemptAt()).isAfter(Instant.now());
+
+        greenMail.start();
+        failed.setNextAttemptAt(Instant.now());
+        mailOutboxMessageRepository.save(failed);
+
+        assertThat(mailOutboxDispatcher.dispatch()).isEqualTo(1);
+        assertThat(greenMail.waitForIncomingEmail(5000, 1)).isTrue();
+        assertThat(greenMail.getReceivedMessages()).extracting(MimeMessage::getMessageID).containsExactly(failed.getMessageId());
+        assertThat(mailOutboxMessageRepository.count()).isZero();
+    }
+
+    @Test
+    void backOffExponentially() {
+        assertThat(mailOutboxDispatcher.backoff(1)).isEqualTo(Duration.ofSeconds(30));
+        assertThat(mailOutboxDispatcher.backoff(3)).isEqualTo(Duration.ofMinutes(2));
+        assertThat(mailOutboxDispatcher.backoff(30)).isEqualTo(Duration.ofHours(6));
+    }
+}
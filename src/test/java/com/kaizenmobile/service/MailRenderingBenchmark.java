@@ -0,0 +1,84 @@
+package com.kaizenmobile.service;
+
+import com.kaizenmobile.config.Constants;
+import com.kaizenmobile.domain.User;
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.springframework.boot.autoconfigure.thymeleaf.ThymeleafProperties;
+import org.springframework.context.support.ResourceBundleMessageSource;
+import org.thymeleaf.context.Context;
+import org.thymeleaf.spring6.SpringTemplateEngine;
+import org.thymeleaf.templatemode.TemplateMode;
+import org.thymeleaf.templateresolver.ClassLoaderTemplateResolver;
+import tech.jhipster.config.JHipsterProperties;
+
+/**
+ * JMH benchmark of the rendering of the mail templates, processing the template and resolving the subject for every
+ * email ({@code renderPerEmail}) against rendering them from the {@link MailTemplateCache} ({@code renderCompiled}).
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+public class MailRenderingBenchmark {
+
+    private static final String BASE_URL = "http://127.0.0.1:8080";
+
+    @Param({ "mail/activationEmail", "mail/creationEmail", "mail/passwordResetEmail" })
+    private String templateName;
+
+    private final Locale locale = Locale.forLanguageTag(Constants.DEFAULT_LANGUAGE);
+
+    private SpringTemplateEngine templateEngine;
+
+    private ResourceBundleMessageSource messageSource;
+
+    private MailTemplateCache mailTemplateCache;
+
+    private User user;
+
+    @Setup
+    public void setup() {
+        ClassLoaderTemplateResolver templateResolver = new ClassLoaderTemplateResolver();
+        templateResolver.setPrefix("templates/");
+        templateResolver.setSuffix(".html");
+        templateResolver.setTemplateMode(TemplateMode.HTML);
+        templateResolver.setCharacterEncoding(StandardCharsets.UTF_8.name());
+        messageSource = new ResourceBundleMessageSource();
+        messageSource.setBasename("i18n/messages");
+        messageSource.setDefaultEncoding(StandardCharsets.UTF_8.name());
+        templateEngine = new SpringTemplateEngine();
+        templateEngine.setTemplateResolver(templateResolver);
+        templateEngine.setTemplateEngineMessageSource(messageSource);
+        JHipsterProperties jHipsterProperties = new JHipsterProperties();
+        jHipsterProperties.getMail().setBaseUrl(BASE_URL);
+        mailTemplateCache = new MailTemplateCache(templateEngine, messageSource, jHipsterProperties, new ThymeleafProperties());
+        user = new User();
+        user.setLogin("john.doe");
+        user.setEmail("john.doe@example.com");
+        user.setLangKey(Constants.DEFAULT_LANGUAGE);
+        user.setActivationKey("uYgNFIQhRfbfM4Q9Ks7Y");
+        user.setResetKey("Xc2ExhcmAsjfBeUQsmZ7");
+    }
+
+    @Benchmark
+    public String renderPerEmail() {
+        Context context = new Context(locale);
+        context.setVariable("user", user);
+        context.setVariable("baseUrl", BASE_URL);
+        return messageSource.getMessage("email.activation.title", null, locale) + templateEngine.process(templateName, context);
+    }
+
+    @Benchmark
+    public String renderCompiled() {
+        return mailTemplateCache.subject("email.activation.title", locale) + mailTemplateCache.render(user, templateName, locale);
+    }
+}
@@ -0,0 +1,84 @@
+package com.kaizenmobile.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.kaizenmobile.IntegrationTest;
+import com.kaizenmobile.domain.User;
+import java.util.Locale;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.MessageSource;
+import org.thymeleaf.context.Context;
+import org.thymeleaf.spring6.SpringTemplateEngine;
+import tech.jhipster.config.JHipsterProperties;
+
+/**
+ * Integration tests for {@link MailTemplateCache}.
+ */
+@IntegrationTest
+class MailTemplateCacheIT {
+
+    @Autowired
+    private MailTemplateCache mailTemplateCache;
+
+    @Autowired
+    private SpringTemplateEngine templateEngine;
+
+    @Autowired
+    private MessageSource messageSource;
+
+    @Autowired
+    private JHipsterProperties jHipsterProperties;
+
+    @ParameterizedTest
+    @CsvSource(
+        {
+            "mail/activationEmail, en",
+            "mail/activationEmail, fr",
+            "mail/creationEmail, de",
+            "mail/passwordResetEmail, es",
+            "mail/testEmail, pl",
+        }
+    )
+    void renderAsTemplateEngine(String templateName, String langKey) {
+        Locale locale = Locale.forLanguageTag(langKey);
+        User user = new User();
+        user.setLogin("john.o'doe@example.com");
+        user.setFirstName("Jöhn <b>&</b>");
+        user.setEmail("john.doe@example.com");
+        user.setActivationKey("activation\"key");
+        user.setResetKey("reset&key");
+        Context context = new Context(locale);
+        context.setVariable("user", user);
+        context.setVariable("baseUrl", jHipsterProperties.getMail().getBaseUrl());
+
+        String rendered = mailTemplateCache.render(user, templateName, locale);
+
+        assertThat(rendered).isEqualTo(templateEngine.process(templateName, context));
+        assertThat(mailTemplateCache.render(user, templateName, locale)).isEqualTo(rendered);
+    }
+
+    @ParameterizedTest
+    @CsvSource({ "fr-CA, fr", "de-Latn-AT, de", "xx, en", "zz-ZZ, en", "'', en" })
+    void renderUnsupportedLanguagesAsSupportedOnes(String langKey, String supportedLangKey) {
+        User user = new User();
+        user.setLogin("john");
+        user.setActivationKey("key");
+
+        assertThat(mailTemplateCache.render(user, "mail/activationEmail", Locale.forLanguageTag(langKey))).isEqualTo(
+            mailTemplateCache.render(user, "mail/activationEmail", Locale.forLanguageTag(supportedLangKey))
+        );
+        assertThat(mailTemplateCache.subject("email.activation.title", Locale.forLanguageTag(langKey))).isEqualTo(
+            messageSource.getMessage("email.activation.title", null, Locale.forLanguageTag(supportedLangKey))
+        );
+    }
+
+    @ParameterizedTest
+    @CsvSource({ "email.activation.title, en", "email.reset.title, cs" })
+    void subjectAsMessageSource(String titleKey, String langKey) {
+        Locale locale = Locale.forLanguageTag(langKey);
+
+        assertThat(mailTemplateCache.subject(titleKey, locale)).isEqualTo(messageSource.getMessage(titleKey, null, locale));
+    }
+}
@@ -0,0 +1,83 @@
+package com.kaizenmobile.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.kaizenmobile.domain.AppStats;
+import com.kaizenmobile.repository.AppStatsRepository;
+import com.kaizenmobile.repository.AppStatsTenantId;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.stream.Stream;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Unit tests for {@link TenantNameIndex}.
+ */
+class TenantNameIndexTest {
+
+    private AppStatsRepository appStatsRepository;
+
+    private UniquenessFilter uniquenessFilter;
+
+    private MeterRegistry meterRegistry;
+
+    private TenantNameIndex tenantNameIndex;
+
+    @BeforeEach
+    public void setup() {
+        appStatsRepository = mock(AppStatsRepository.class);
+        uniquenessFilter = mock(UniquenessFilter.class);
+        meterRegistry = new SimpleMeterRegistry();
+        tenantNameIndex = new TenantNameIndex(appStatsRepository, uniquenessFilter, meterRegistry);
+    }
+
+    @Test
+    void testFallsBackToDatabaseUntilLoaded() {
+        when(uniquenessFilter.mightContainTenantId("acme")).thenReturn(true);
+        when(appStatsRepository.existsByUsedTenantIdIgnoreCase("acme")).thenReturn(true);
+
+        assertThat(tenantNameIndex.isLoaded()).isFalse();
+        assertThat(tenantNameIndex.contains("acme")).isTrue();
+        assertThat(tenantNameIndex.contains("unused")).isFalse();
+        verify(appStatsRepository, never()).existsByUsedTenantIdIgnoreCase("unused");
+        assertThat(meterRegistry.get(TenantNameIndex.LOOKUPS_METER_NAME).tag("result", "fallback").counter().count()).isEqualTo(2);
+    }
+
+    @Test
+    void testLookupIsCaseInsensitiveOnceLoaded() {
+        when(appStatsRepository.streamAllTenantIds()).thenReturn(Stream.of(new AppStatsTenantId(1L, "Acme")));
+        tenantNameIndex.load();
+
+        assertThat(tenantNameIndex.contains("ACME")).isTrue();
+        assertThat(tenantNameIndex.contains("other")).isFalse();
+        assertThat(tenantNameIndex.contains(null)).isFalse();
+        verify(appStatsRepository, never()).existsByUsedTenantIdIgnoreCase(anyString());
+        assertThat(meterRegistry.get(TenantNameIndex.LOOKUPS_METER_NAME).tag("result", "hit").counter().count()).isEqualTo(1);
+        assertThat(meterRegistry.get(TenantNameIndex.LOOKUPS_METER_NAME).tag("result", "miss").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void testWritesKeepTheIndexConsistent() {
+        tenantNameIndex.load();
+
+        tenantNameIndex.put(new AppStats().id(1L).usedTenantId("acme"));
+        assertThat(tenantNameIndex.contains("ACME")).isTrue();
+
+        tenantNameIndex.put(new AppStats().id(1L).usedTenantId("renamed"));
+        assertThat(tenantNameIndex.contains("acme")).isFalse();
+        assertThat(tenantNameIndex.contains("renamed")).isTrue();
+
+        // The name freed by the rename, taken by another tenant
+        tenantNameIndex.put(new AppStats().id(2L).usedTenantId("ACME"));
+        tenantNameIndex.remove(1L);
+        assertThat(tenantNameIndex.contains("acme")).isTrue();
+        assertThat(tenantNameIndex.contains("renamed")).isFalse();
+        assertThat(meterRegistry.get(TenantNameIndex.SIZE_METER_NAME).gauge().value()).isEqualTo(1);
+    }
+}
@@ -1,17 +1,27 @@
 package com.kaizenmobile.service;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.mockito.Mockito.when;
 
 import com.kaizenmobile.IntegrationTest;
+import com.kaizenmobile.config.ApplicationProperties;
 import com.kaizenmobile.domain.User;
+import com.kaizenmobile.repository.AuthorityRepository;
+import com.kaizenmobile.repository.JobLockRepository;
 import com.kaizenmobile.repository.UserRepository;
+import com.kaizenmobile.security.AuthoritiesConstants;
+import com.kaizenmobile.service.dto.AdminUserDTO;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.EntityManager;
+import java.time.Duration;
 import java.time.Instant;
 import java.time.LocalDateTime;
 import java.time.temporal.ChronoUnit;
 import java.util.List;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
 import org.apache.commons.lang3.RandomStringUtils;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
@@ -22,6 +32,7 @@ import org.springframework.cache.Cache;
 import org.springframework.cache.CacheManager;
 import org.springframework.data.auditing.AuditingHandler;
 import org.springframework.data.auditing.DateTimeProvider;
+import org.springframework.transaction.PlatformTransactionManager;
 import org.springframework.transaction.annotation.Transactional;
 import tech.jhipster.security.RandomUtil;
 
@@ -56,6 +67,27 @@ class UserServiceIT {
     @Autowired
     private AuditingHandler auditingHandler;
 
+    @Autowired
+    private AuthorityRepository authorityRepository;
+
+    @Autowired
+    private JobLockRepository jobLockRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private ApplicationProperties applicationProperties;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private UniquenessFilter uniquenessFilter;
+
+    @Autowired
+    private EntityManager em;
+
     @MockBean
     private DateTimeProvider dateTimeProvider;
 
@@ -205,4 +237,101 @@ class UserServiceIT {
         Optional<User> maybeDbUser = userRepository.findById(dbUser.getId());
         assertThat(maybeDbUser).contains(dbUser);
     }
+
+    @Test
+    @Transactional
+    void assertThatUsersActivatedSinceSelectedAreNotDeleted() {
+        user.setAuthorities(Set.of(authorityRepository.findById(AuthoritiesConstants.USER).orElseThrow()));
+        User dbUser = userRepository.saveAndFlush(user);
+        List<Long> ids = List.of(dbUser.getId());
+
+        assertThat(userRepository.deleteNotActivatedAuthoritiesByUserIdIn(ids)).isZero();
+        assertThat(userRepository.deleteNotActivatedByIdIn(ids)).isZero();
+        em.clear();
+        User activatedUser = userRepository.findOneWithAuthoritiesByLogin(dbUser.getLogin()).orElseThrow();
+        assertThat(activatedUser.getAuthorities()).extracting("name").containsExactly(AuthoritiesConstants.USER);
+    }
+
+    @Test
+    @Transactional
+    void assertThatNotActivatedUsersAreDeletedInChunks() {
+        Instant now = Instant.now();
+        when(dateTimeProvider.getNow()).thenReturn(Optional.of(now.minus(4, ChronoUnit.DAYS)));
+        ApplicationProperties.UserPurge purgeProperties = applicationProperties.getUserPurge();
+        int chunkSize = purgeProperties.getChunkSize();
+        purgeProperties.setChunkSize(2);
+        double purged = meterRegistry.counter(UserService.PURGED_USERS_METER_NAME).count();
+        try {
+            for (int i = 0; i < 5; i++) {
+                User notActivatedUser = new User();
+                notActivatedUser.setLogin("not-activated-" + i);
+                notActivatedUser.setEmail("not-activated-" + i + "@localhost");
+                notActivatedUser.setPassword(RandomStringUtils.randomAlphanumeric(60));
+                notActivatedUser.setActivationKey(RandomUtil.generateActivationKey());
+                notActivatedUser.setAuthorities(Set.of(authorityRepository.findById(AuthoritiesConstants.USER).orElseThrow()));
+                userRepository.saveAndFlush(notActivatedUser);
+            }
+            em.clear();
+
+            userService.removeNotActivatedUsers();
+
+            assertThat(userRepository.findAllByActivatedIsFalseAndActivationKeyIsNotNullAndCreatedDateBefore(now)).isEmpty();
+            assertThat(meterRegistry.counter(UserService.PURGED_USERS_METER_NAME).count()).isEqualTo(purged + 5);
+            Number authorities = (Number) em
+                .createNativeQuery("select count(*) from jhi_user_authority where user_id not in (select id from jhi_user)")
+                .getSingleResult();
+            assertThat(authorities.longValue()).isZero();
+        } finally {
+            purgeProperties.setChunkSize(chunkSize);
+        }
+    }
+
+    @Test
+    @Transactional
+    void assertThatNotActivatedUsersAreNotDeletedWhileAnotherInstanceHoldsTheLock() {
+        Instant now = Instant.now();
+        when(dateTimeProvider.getNow()).thenReturn(Optional.of(now.minus(4, ChronoUnit.DAYS)));
+        user.setActivated(false);
+        user.setActivationKey(RandomStringUtils.random(20));
+        User dbUser = userRepository.saveAndFlush(user);
+        dbUser.setCreatedDate(now.minus(4, ChronoUnit.DAYS));
+        userRepository.saveAndFlush(user);
+        JobLockService otherInstance = new JobLockService(jobLockRepository, transactionManager);
+        assertThat(otherInstance.tryLock(UserService.PURGE_LOCK_NAME, Duration.ofMinutes(1))).isTrue();
+        try {
+            userService.removeNotActivatedUsers();
+
+            assertThat(userRepository.findById(dbUser.getId())).isPresent();
+        } finally {
+            otherInstance.unlock(UserService.PURGE_LOCK_NAME);
+        }
+        userService.removeNotActivatedUsers();
+
+        assertThat(userRepository.findAllByActivatedIsFalseAndActivationKeyIsNotNullAndCreatedDateBefore(now)).isEmpty();
+    }
+
+    @Test
+    @Transactional
+    void assertThatLoginRegisteredThroughAnotherNodeIsReportedAsUsed() {
+        // Never written before, which the uniqueness filter would remember
+        String login = "elsewhere_" + RandomStringUtils.randomAlphanumeric(10).toLowerCase();
+        // Written without Hibernate, as by another node whose message hasn't reached the uniqueness filter yet
+        em
+            .createNativeQuery(
+                "insert into jhi_user (id, login, password_hash, activated, created_by, created_date) " +
+                "values (-1, :login, :password, true, 'system', current_timestamp)"
+            )
+            .setParameter("login", login)
+            .setParameter("password", RandomStringUtils.randomAlphanumeric(60))
+            .executeUpdate();
+        AdminUserDTO userDTO = new AdminUserDTO();
+        userDTO.setLogin(login);
+        userDTO.setEmail(login + "@localhost");
+        userDTO.setLangKey(DEFAULT_LANGKEY);
+
+        assertThat(uniquenessFilter.mightContainLogin(login)).isFalse();
+        assertThatThrownBy(() -> userService.registerUser(userDTO, "password")).isInstanceOf(UsernameAlreadyUsedException.class);
+        em.clear();
+        em.createNativeQuery("delete from jhi_user where id = -1").executeUpdate();
+    }
 }
@@ -0,0 +1,82 @@
+package com.kaizenmobile.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.kaizenmobile.IntegrationTest;
+import com.kaizenmobile.domain.AppUser;
+import com.kaizenmobile.domain.User;
+import com.kaizenmobile.repository.UserRepository;
+import jakarta.persistence.Cache;
+import jakarta.persistence.EntityManager;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import org.apache.commons.lang3.RandomStringUtils;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import tech.jhipster.security.RandomUtil;
+
+/**
+ * Integration tests for {@link UserService} with the Hibernate second-level cache, disabled by the other tests.
+ * <p>
+ * The test data is committed, as the second-level cache only holds committed entities.
+ */
+@IntegrationTest
+@TestPropertySource(properties = "spring.jpa.properties.hibernate.cache.use_second_level_cache=true")
+class UserServiceSecondLevelCacheIT {
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private EntityManager em;
+
+    private TransactionTemplate transactionTemplate;
+
+    private Cache secondLevelCache;
+
+    @BeforeEach
+    public void init() {
+        transactionTemplate = new TransactionTemplate(transactionManager);
+        secondLevelCache = em.getEntityManagerFactory().getCache();
+    }
+
+    @Test
+    void assertThatPurgedUsersAreEvictedFromAppUserCache() {
+        Long id = transactionTemplate.execute(status -> {
+            User user = new User();
+            user.setLogin("purged-" + RandomStringUtils.randomAlphanumeric(10).toLowerCase());
+            user.setPassword(RandomStringUtils.randomAlphanumeric(60));
+            user.setActivationKey(RandomUtil.generateActivationKey());
+            em.persist(user);
+            em.flush();
+            // The creation date is set by the auditing on insert, and not updatable
+            em
+                .createNativeQuery("update jhi_user set created_date = :createdDate where id = :id")
+                .setParameter("createdDate", Instant.now().minus(4, ChronoUnit.DAYS))
+                .setParameter("id", user.getId())
+                .executeUpdate();
+            AppUser appUser = new AppUser().tenantId("purged-tenant");
+            appUser.setInternalUser(user);
+            em.persist(appUser);
+            return user.getId();
+        });
+        transactionTemplate.executeWithoutResult(status -> assertThat(em.find(AppUser.class, id)).isNotNull());
+        assertThat(secondLevelCache.contains(AppUser.class, id)).isTrue();
+
+        userService.removeNotActivatedUsers();
+
+        assertThat(userRepository.findById(id)).isEmpty();
+        assertThat(secondLevelCache.contains(AppUser.class, id)).isFalse();
+        transactionTemplate.executeWithoutResult(status -> assertThat(em.find(AppUser.class, id)).isNull());
+    }
+}
@@ -1,10 +1,16 @@
 package com.kaizenmobile.service.mapper;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
 
 import com.kaizenmobile.domain.Authority;
 import com.kaizenmobile.domain.User;
+import com.kaizenmobile.repository.AuthorityRepository;
 import com.kaizenmobile.security.AuthoritiesConstants;
+import com.kaizenmobile.security.AuthorityRegistry;
+import com.kaizenmobile.security.UnknownAuthorityException;
 import com.kaizenmobile.service.dto.AdminUserDTO;
 import com.kaizenmobile.service.dto.UserDTO;
 import java.time.Instant;
@@ -30,7 +36,11 @@ class UserMapperTest {
 
     @BeforeEach
     public void init() {
-        userMapper = new UserMapper();
+        AuthorityRepository authorityRepository = mock(AuthorityRepository.class);
+        when(authorityRepository.findAll()).thenReturn(
+            List.of(new Authority().name(AuthoritiesConstants.USER), new Authority().name("ADMIN"))
+        );
+        userMapper = new UserMapper(new AuthorityRegistry(authorityRepository));
         user = new User();
         user.setLogin(DEFAULT_LOGIN);
         user.setPassword(RandomStringUtils.randomAlphanumeric(60));
@@ -166,6 +176,15 @@ class UserMapperTest {
         assertThat(persistUser.getAuthorities()).isEmpty();
     }
 
+    @Test
+    void userDTOToUserMapWithUnknownAuthorityShouldFail() {
+        userDto.setAuthorities(Set.of(AuthoritiesConstants.USER, "UNKNOWN"));
+
+        assertThatThrownBy(() -> userMapper.userDTOToUser(userDto))
+            .isInstanceOf(UnknownAuthorityException.class)
+            .hasMessage("Unknown authorities: UNKNOWN");
+    }
+
     @Test
     void userDTOToUserMapWithNullUserShouldReturnNull() {
         assertThat(userMapper.userDTOToUser(null)).isNull();
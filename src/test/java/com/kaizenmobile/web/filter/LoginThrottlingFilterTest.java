@@ -0,0 +1,103 @@
+package com.kaizenmobile.web.filter;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.kaizenmobile.security.LoginRateLimiter;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.ServletRequest;
+import jakarta.servlet.ServletResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+/**
+ * Unit tests for {@link LoginThrottlingFilter}.
+ */
+class LoginThrottlingFilterTest {
+
+    private static final int MAX_ATTEMPTS_PER_ADDRESS = 3;
+
+    private LoginThrottlingFilter filter;
+
+    @BeforeEach
+    public void setup() {
+        LoginRateLimiter loginRateLimiter = new LoginRateLimiter(
+            Duration.ofMinutes(1),
+            10,
+            100,
+            MAX_ATTEMPTS_PER_ADDRESS,
+            1024,
+            new SimpleMeterRegistry()
+        );
+        filter = new LoginThrottlingFilter(loginRateLimiter, new ObjectMapper(), List.of("10.0.0.0/8", "192.168.1.1"));
+    }
+
+    @Test
+    void testIgnoresForwardedForFromUntrustedPeer() {
+        MockHttpServletRequest request = request("203.0.113.7", "198.51.100.1");
+
+        assertThat(filter.clientAddress(request)).isEqualTo("203.0.113.7");
+    }
+
+    @Test
+    void testReadsForwardedForFromTrustedProxies() {
+        assertThat(filter.clientAddress(request("10.1.2.3", "198.51.100.1"))).isEqualTo("198.51.100.1");
+        assertThat(filter.clientAddress(request("192.168.1.1", "198.51.100.1, 10.0.0.5"))).isEqualTo("198.51.100.1");
+    }
+
+    @Test
+    void testIgnoresForwardedForSentByClientBehindTrustedProxy() {
+        // The client sent "10.9.9.9, 192.0.2.1" and the trusted proxy appended the address it got the request from
+        MockHttpServletRequest request = request("10.1.2.3", "10.9.9.9, 192.0.2.1, 198.51.100.1");
+
+        assertThat(filter.clientAddress(request)).isEqualTo("198.51.100.1");
+    }
+
+    @Test
+    void testStopsAtInvalidForwardedFor() {
+        assertThat(filter.clientAddress(request("10.1.2.3", "198.51.100.1, unknown"))).isEqualTo("10.1.2.3");
+        assertThat(filter.clientAddress(request("10.1.2.3", "198.51.100.1, localhost, 10.0.0.5"))).isEqualTo("10.0.0.5");
+        assertThat(filter.clientAddress(request("10.1.2.3", null))).isEqualTo("10.1.2.3");
+    }
+
+    @Test
+    void testSpoofedForwardedForDoesNotEscapeAddressLimit() throws Exception {
+        for (int i = 0; i < MAX_ATTEMPTS_PER_ADDRESS; i++) {
+            assertThat(attempt("203.0.113.7", "198.51.100." + i).getStatus()).isEqualTo(HttpStatus.UNAUTHORIZED.value());
+        }
+
+        assertThat(attempt("203.0.113.7", "198.51.100.99").getStatus()).isEqualTo(HttpStatus.TOO_MANY_REQUESTS.value());
+    }
+
+    private MockHttpServletResponse attempt(String remoteAddress, String forwardedFor) throws Exception {
+        MockHttpServletRequest request = request(remoteAddress, forwardedFor);
+        request.setMethod("POST");
+        request.setRequestURI("/api/authenticate");
+        request.setContent(("{\"username\":\"user" + forwardedFor + "\"}").getBytes(StandardCharsets.UTF_8));
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        MockFilterChain filterChain = new MockFilterChain() {
+            @Override
+            public void doFilter(ServletRequest request, ServletResponse response) {
+                ((MockHttpServletResponse) response).setStatus(HttpStatus.UNAUTHORIZED.value());
+            }
+        };
+        filter.doFilter(request, response, filterChain);
+        return response;
+    }
+
+    private static MockHttpServletRequest request(String remoteAddress, String forwardedFor) {
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.setRemoteAddr(remoteAddress);
+        if (forwardedFor != null) {
+            request.addHeader("X-Forwarded-For", forwardedFor);
+        }
+        return request;
+    }
+}
@@ -20,6 +20,7 @@ import java.time.Instant;
 import java.util.*;
 import java.util.stream.Stream;
 import org.apache.commons.lang3.RandomStringUtils;
+import org.hamcrest.Matchers;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -27,6 +28,7 @@ import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.MethodSource;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.test.context.support.WithMockUser;
@@ -122,6 +124,43 @@ class AccountResourceIT {
         userService.deleteUser(TEST_USER_LOGIN);
     }
 
+    @Test
+    @WithMockUser("account-etag")
+    void testGetAccountNotModified() throws Exception {
+        AdminUserDTO user = new AdminUserDTO();
+        user.setLogin("account-etag");
+        user.setFirstName("john");
+        user.setEmail("account-etag@example.com");
+        user.setLangKey("en");
+        user.setActivated(true);
+        user.setAuthorities(Set.of(AuthoritiesConstants.USER));
+        user.setId(userService.createUser(user).getId());
+
+        String eTag = restAccountMockMvc
+            .perform(get("/api/account").accept(MediaType.APPLICATION_JSON))
+            .andExpect(status().isOk())
+            .andExpect(header().exists(HttpHeaders.ETAG))
+            .andReturn()
+            .getResponse()
+            .getHeader(HttpHeaders.ETAG);
+
+        restAccountMockMvc
+            .perform(get("/api/account").accept(MediaType.APPLICATION_JSON).header(HttpHeaders.IF_NONE_MATCH, eTag))
+            .andExpect(status().isNotModified())
+            .andExpect(content().string(""));
+
+        user.setFirstName("jane");
+        userService.updateUser(user);
+
+        restAccountMockMvc
+            .perform(get("/api/account").accept(MediaType.APPLICATION_JSON).header(HttpHeaders.IF_NONE_MATCH, eTag))
+            .andExpect(status().isOk())
+            .andExpect(header().string(HttpHeaders.ETAG, Matchers.not(eTag)))
+            .andExpect(jsonPath("$.firstName").value("jane"));
+
+        userService.deleteUser("account-etag");
+    }
+
     @Test
     void testGetUnknownAccount() throws Exception {
         restAccountMockMvc.perform(get("/api/account").accept(MediaType.APPLICATION_PROBLEM_JSON)).andExpect(status().isUnauthorized());
@@ -0,0 +1,93 @@
+package com.kaizenmobile.web.rest;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.kaizenmobile.config.cache.StampedeProtectedCache;
+import com.kaizenmobile.domain.Authority;
+import com.kaizenmobile.domain.User;
+import com.kaizenmobile.security.AuthoritiesConstants;
+import com.kaizenmobile.service.UserService;
+import com.kaizenmobile.service.dto.AdminUserDTO;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.springframework.cache.Cache;
+import org.springframework.cache.concurrent.ConcurrentMapCache;
+
+/**
+ * JMH load test of {@code GET /api/account} under concurrent clients: building and serialising the account on every
+ * call ({@code perRequest}), against serving the cached {@link AccountView} ({@code cachedView}) and answering a client
+ * which already has it ({@code notModified}).
+ * <p>
+ * The user comes from memory in all cases, so the transaction {@code perRequest} also opened is left out: the gain
+ * measured is a lower bound.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Threads(4)
+@State(Scope.Benchmark)
+public class AccountViewBenchmark {
+
+    private static final String LOGIN = "user";
+
+    private ObjectMapper objectMapper;
+
+    private User user;
+
+    private Cache accountViews;
+
+    private String eTag;
+
+    @Setup
+    public void setup() throws JsonProcessingException {
+        objectMapper = new ObjectMapper().registerModule(new JavaTimeModule());
+        user = new User();
+        user.setId(1L);
+        user.setLogin(LOGIN);
+        user.setFirstName("User");
+        user.setLastName("User");
+        user.setEmail("user@localhost");
+        user.setActivated(true);
+        user.setLangKey("en");
+        user.setCreatedDate(Instant.now());
+        user.setAuthorities(Set.of(new Authority().name(AuthoritiesConstants.USER)));
+        accountViews = new StampedeProtectedCache(
+            new ConcurrentMapCache(UserService.ACCOUNT_VIEWS_CACHE),
+            Duration.ofHours(1),
+            Duration.ofMinutes(1),
+            0,
+            new SimpleMeterRegistry()
+        );
+        eTag = cachedViewInternal().eTag();
+    }
+
+    @Benchmark
+    public byte[] perRequest() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(new AdminUserDTO(user));
+    }
+
+    @Benchmark
+    public byte[] cachedView() {
+        return cachedViewInternal().body();
+    }
+
+    @Benchmark
+    public boolean notModified() {
+        return cachedViewInternal().eTag().equals(eTag);
+    }
+
+    private AccountView cachedViewInternal() {
+        return accountViews.get(LOGIN, () -> AccountView.of(new AdminUserDTO(user), objectMapper));
+    }
+}
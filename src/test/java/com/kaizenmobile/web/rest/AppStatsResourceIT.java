@@ -7,11 +7,14 @@ import static org.hamcrest.Matchers.hasItem;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
+import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.kaizenmobile.IntegrationTest;
 import com.kaizenmobile.domain.AppStats;
 import com.kaizenmobile.repository.AppStatsRepository;
 import jakarta.persistence.EntityManager;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Random;
 import java.util.concurrent.atomic.AtomicLong;
 import org.junit.jupiter.api.AfterEach;
@@ -19,7 +22,9 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockHttpServletResponse;
 import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.transaction.annotation.Transactional;
@@ -87,7 +92,8 @@ class AppStatsResourceIT {
     @AfterEach
     public void cleanup() {
         if (insertedAppStats != null) {
-            appStatsRepository.delete(insertedAppStats);
+            // By id: the inserted entity may be detached at an older version
+            appStatsRepository.deleteById(insertedAppStats.getId());
             insertedAppStats = null;
         }
     }
@@ -131,6 +137,40 @@ class AppStatsResourceIT {
         assertSameRepositoryCount(databaseSizeBeforeCreate);
     }
 
+    @Test
+    @Transactional
+    void createAppStatsWithUsedTenantId() throws Exception {
+        // Initialize the database
+        insertedAppStats = appStatsRepository.saveAndFlush(appStats);
+
+        // The tenant id is already used: the unique index rejects it
+        restAppStatsMockMvc
+            .perform(
+                post(ENTITY_API_URL)
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(om.writeValueAsBytes(new AppStats().usedTenantId(DEFAULT_USED_TENANT_ID)))
+            )
+            .andExpect(status().isBadRequest())
+            .andExpect(jsonPath("$.message").value("error.companyexists"));
+    }
+
+    @Test
+    @Transactional
+    void createAppStatsWithUsedTenantIdDifferingOnlyByCase() throws Exception {
+        // Initialize the database
+        insertedAppStats = appStatsRepository.saveAndFlush(appStats);
+
+        // The tenant id is already used ignoring case: the unique index rejects it
+        restAppStatsMockMvc
+            .perform(
+                post(ENTITY_API_URL)
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(om.writeValueAsBytes(new AppStats().usedTenantId(DEFAULT_USED_TENANT_ID.toLowerCase())))
+            )
+            .andExpect(status().isBadRequest())
+            .andExpect(jsonPath("$.message").value("error.companyexists"));
+    }
+
     @Test
     @Transactional
     void getAllAppStats() throws Exception {
@@ -142,6 +182,7 @@ class AppStatsResourceIT {
             .perform(get(ENTITY_API_URL + "?sort=id,desc"))
             .andExpect(status().isOk())
             .andExpect(content().contentType(MediaType.APPLICATION_JSON_VALUE))
+            .andExpect(header().exists("X-Total-Count"))
             .andExpect(jsonPath("$.[*].id").value(hasItem(appStats.getId().intValue())))
             .andExpect(jsonPath("$.[*].usedTenantId").value(hasItem(DEFAULT_USED_TENANT_ID)));
     }
@@ -282,6 +323,172 @@ class AppStatsResourceIT {
         restAppStatsMockMvc.perform(get(ENTITY_API_URL_ID, Long.MAX_VALUE)).andExpect(status().isNotFound());
     }
 
+    @Test
+    @Transactional
+    void getAppStatsNotModified() throws Exception {
+        // Initialize the database
+        insertedAppStats = appStatsRepository.saveAndFlush(appStats);
+
+        String eTag = restAppStatsMockMvc
+            .perform(get(ENTITY_API_URL_ID, appStats.getId()))
+            .andExpect(status().isOk())
+            .andExpect(header().string(HttpHeaders.ETAG, "\"0\""))
+            .andReturn()
+            .getResponse()
+            .getHeader(HttpHeaders.ETAG);
+
+        restAppStatsMockMvc
+            .perform(get(ENTITY_API_URL_ID, appStats.getId()).header(HttpHeaders.IF_NONE_MATCH, eTag))
+            .andExpect(status().isNotModified())
+            .andExpect(content().string(""));
+    }
+
+    @Test
+    @Transactional
+    void getAllAppStatsNotModified() throws Exception {
+        // Initialize the database
+        insertedAppStats = appStatsRepository.saveAndFlush(appStats);
+
+        String eTag = restAppStatsMockMvc
+            .perform(get(ENTITY_API_URL + "?sort=id,desc"))
+            .andExpect(status().isOk())
+            .andReturn()
+            .getResponse()
+            .getHeader(HttpHeaders.ETAG);
+
+        restAppStatsMockMvc
+            .perform(get(ENTITY_API_URL + "?sort=id,desc").header(HttpHeaders.IF_NONE_MATCH, eTag))
+            .andExpect(status().isNotModified());
+
+        // Any modification changes the entity tag of the collection
+        appStatsRepository.saveAndFlush(appStats.usedTenantId(UPDATED_USED_TENANT_ID));
+        restAppStatsMockMvc
+            .perform(get(ENTITY_API_URL + "?sort=id,desc").header(HttpHeaders.IF_NONE_MATCH, eTag))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.[*].usedTenantId").value(hasItem(UPDATED_USED_TENANT_ID)));
+    }
+
+    @Test
+    @Transactional
+    void getAllAppStatsByCursor() throws Exception {
+        // Initialize the database
+        List<Long> expectedIds = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            expectedIds.add(appStatsRepository.saveAndFlush(createEntity(em).usedTenantId(DEFAULT_USED_TENANT_ID + i)).getId());
+        }
+
+        List<Long> ids = new ArrayList<>();
+        String uri = ENTITY_API_URL + "?id.greaterThanOrEqual=" + expectedIds.get(0) + "&sort=id,asc&size=2&cursor=";
+        while (uri != null) {
+            MockHttpServletResponse response = restAppStatsMockMvc
+                .perform(get(uri))
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist("X-Total-Count"))
+                .andReturn()
+                .getResponse();
+            List<AppStats> page = om.readValue(response.getContentAsString(), new TypeReference<List<AppStats>>() {});
+            assertThat(page).hasSizeLessThanOrEqualTo(2);
+            page.forEach(appStats -> ids.add(appStats.getId()));
+            String link = response.getHeader(HttpHeaders.LINK);
+            uri = link == null ? null : link.substring(link.indexOf('<') + 1, link.indexOf('>'));
+        }
+
+        assertThat(ids).containsExactlyElementsOf(expectedIds);
+    }
+
+    @Test
+    @Transactional
+    void getAllAppStatsByInvalidCursor() throws Exception {
+        restAppStatsMockMvc.perform(get(ENTITY_API_URL + "?sort=id,asc&cursor=not-a-cursor")).andExpect(status().isBadRequest());
+        restAppStatsMockMvc.perform(get(ENTITY_API_URL + "?sort=usedTenantId,asc&cursor=")).andExpect(status().isBadRequest());
+    }
+
+    @Test
+    @Transactional
+    void exportAppStats() throws Exception {
+        // Initialize the database
+        insertedAppStats = appStatsRepository.saveAndFlush(appStats);
+        AppStats otherAppStats = appStatsRepository.saveAndFlush(createUpdatedEntity(em));
+
+        String content = restAppStatsMockMvc
+            .perform(get(ENTITY_API_URL + "/export?id.in=" + appStats.getId() + "," + otherAppStats.getId()))
+            .andExpect(status().isOk())
+            .andExpect(content().contentType(MediaType.APPLICATION_NDJSON_VALUE))
+            .andReturn()
+            .getResponse()
+            .getContentAsString();
+
+        List<AppStats> exported = new ArrayList<>();
+        for (String line : content.split("\n")) {
+            exported.add(om.readValue(line, AppStats.class));
+        }
+        assertThat(content).endsWith("\n");
+        assertThat(exported).extracting(AppStats::getId).containsExactly(appStats.getId(), otherAppStats.getId());
+        assertThat(exported).extracting(AppStats::getUsedTenantId).containsExactly(DEFAULT_USED_TENANT_ID, UPDATED_USED_TENANT_ID);
+    }
+
+    @Test
+    @Transactional
+    void putAppStatsWithStaleIfMatch() throws Exception {
+        // Initialize the database
+        insertedAppStats = appStatsRepository.saveAndFlush(appStats);
+
+        long databaseSizeBeforeUpdate = getRepositoryCount();
+
+        // Update the appStats
+        AppStats updatedAppStats = appStatsRepository.findById(appStats.getId()).orElseThrow();
+        // Disconnect from session so that the updates on updatedAppStats are not directly saved in db
+        em.detach(updatedAppStats);
+        updatedAppStats.usedTenantId(UPDATED_USED_TENANT_ID);
+
+        restAppStatsMockMvc
+            .perform(
+                put(ENTITY_API_URL_ID, updatedAppStats.getId())
+                    .header(HttpHeaders.IF_MATCH, "\"1\"")
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(om.writeValueAsBytes(updatedAppStats))
+            )
+            .andExpect(status().isPreconditionFailed());
+
+        assertThat(getPersistedAppStats(appStats).getUsedTenantId()).isEqualTo(DEFAULT_USED_TENANT_ID);
+
+        restAppStatsMockMvc
+            .perform(
+                put(ENTITY_API_URL_ID, updatedAppStats.getId())
+                    .header(HttpHeaders.IF_MATCH, "\"0\"")
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(om.writeValueAsBytes(updatedAppStats))
+            )
+            .andExpect(status().isOk())
+            .andExpect(header().string(HttpHeaders.ETAG, "\"1\""));
+
+        // Validate the AppStats in the database
+        assertSameRepositoryCount(databaseSizeBeforeUpdate);
+        assertPersistedAppStatsToMatchAllProperties(updatedAppStats);
+    }
+
+    @Test
+    @Transactional
+    void patchAppStatsWithStaleIfMatch() throws Exception {
+        // Initialize the database
+        insertedAppStats = appStatsRepository.saveAndFlush(appStats);
+
+        AppStats partialUpdatedAppStats = new AppStats();
+        partialUpdatedAppStats.setId(appStats.getId());
+        partialUpdatedAppStats.usedTenantId(UPDATED_USED_TENANT_ID);
+
+        restAppStatsMockMvc
+            .perform(
+                patch(ENTITY_API_URL_ID, partialUpdatedAppStats.getId())
+                    .header(HttpHeaders.IF_MATCH, "\"1\"")
+                    .contentType("application/merge-patch+json")
+                    .content(om.writeValueAsBytes(partialUpdatedAppStats))
+            )
+            .andExpect(status().isPreconditionFailed());
+
+        assertThat(getPersistedAppStats(appStats).getUsedTenantId()).isEqualTo(DEFAULT_USED_TENANT_ID);
+    }
+
     @Test
     @Transactional
     void putExistingAppStats() throws Exception {
@@ -29,6 +29,7 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.web.servlet.MockMvc;
@@ -117,7 +118,8 @@ class AppUserResourceIT {
     @AfterEach
     public void cleanup() {
         if (insertedAppUser != null) {
-            appUserRepository.delete(insertedAppUser);
+            // By id: the inserted entity may be detached at an older version
+            appUserRepository.deleteById(insertedAppUser.getId());
             insertedAppUser = null;
         }
     }
@@ -378,6 +380,134 @@ class AppUserResourceIT {
         restAppUserMockMvc.perform(get(ENTITY_API_URL_ID, Long.MAX_VALUE)).andExpect(status().isNotFound());
     }
 
+    @Test
+    @Transactional
+    void getAppUserNotModified() throws Exception {
+        // Initialize the database
+        insertedAppUser = appUserRepository.saveAndFlush(appUser);
+
+        String eTag = restAppUserMockMvc
+            .perform(get(ENTITY_API_URL_ID, appUser.getId()))
+            .andExpect(status().isOk())
+            .andExpect(header().string(HttpHeaders.ETAG, "\"0\""))
+            .andReturn()
+            .getResponse()
+            .getHeader(HttpHeaders.ETAG);
+
+        restAppUserMockMvc
+            .perform(get(ENTITY_API_URL_ID, appUser.getId()).header(HttpHeaders.IF_NONE_MATCH, eTag))
+            .andExpect(status().isNotModified())
+            .andExpect(content().string(""));
+    }
+
+    @Test
+    @Transactional
+    void getAllAppUsersNotModified() throws Exception {
+        // Initialize the database
+        insertedAppUser = appUserRepository.saveAndFlush(appUser);
+
+        String eTag = restAppUserMockMvc
+            .perform(get(ENTITY_API_URL + "?sort=id,desc"))
+            .andExpect(status().isOk())
+            .andReturn()
+            .getResponse()
+            .getHeader(HttpHeaders.ETAG);
+
+        restAppUserMockMvc
+            .perform(get(ENTITY_API_URL + "?sort=id,desc").header(HttpHeaders.IF_NONE_MATCH, eTag))
+            .andExpect(status().isNotModified());
+
+        // Any modification changes the entity tag of the collection
+        appUserRepository.saveAndFlush(appUser.tenantId(UPDATED_TENANT_ID));
+        restAppUserMockMvc
+            .perform(get(ENTITY_API_URL + "?sort=id,desc").header(HttpHeaders.IF_NONE_MATCH, eTag))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.[*].tenantId").value(hasItem(UPDATED_TENANT_ID)));
+    }
+
+    @Test
+    @Transactional
+    void getAllAppUsersModifiedWhenEntitiesSwapped() throws Exception {
+        // Version 1 in the collection, version 0 out of it, and the last id of the collection
+        AppUser leaving = appUserRepository.saveAndFlush(createEntity(em).tenantId(UPDATED_TENANT_ID));
+        leaving = appUserRepository.saveAndFlush(leaving.tenantId(DEFAULT_TENANT_ID));
+        AppUser entering = appUserRepository.saveAndFlush(createEntity(em).tenantId(UPDATED_TENANT_ID));
+        appUserRepository.saveAndFlush(createEntity(em));
+        String uri = ENTITY_API_URL + "?tenantId.equals=" + DEFAULT_TENANT_ID;
+
+        String eTag = restAppUserMockMvc.perform(get(uri)).andExpect(status().isOk()).andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        // Same count, last id and sum of the versions: one entity leaves at version 2, the other enters at version 1
+        appUserRepository.saveAndFlush(leaving.tenantId(UPDATED_TENANT_ID));
+        appUserRepository.saveAndFlush(entering.tenantId(DEFAULT_TENANT_ID));
+        restAppUserMockMvc
+            .perform(get(uri).header(HttpHeaders.IF_NONE_MATCH, eTag))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.[*].id").value(hasItem(entering.getId().intValue())));
+    }
+
+    @Test
+    @Transactional
+    void putAppUserWithStaleIfMatch() throws Exception {
+        // Initialize the database
+        insertedAppUser = appUserRepository.saveAndFlush(appUser);
+
+        long databaseSizeBeforeUpdate = getRepositoryCount();
+
+        // Update the appUser
+        AppUser updatedAppUser = appUserRepository.findById(appUser.getId()).orElseThrow();
+        // Disconnect from session so that the updates on updatedAppUser are not directly saved in db
+        em.detach(updatedAppUser);
+        updatedAppUser.tenantId(UPDATED_TENANT_ID);
+
+        restAppUserMockMvc
+            .perform(
+                put(ENTITY_API_URL_ID, updatedAppUser.getId())
+                    .header(HttpHeaders.IF_MATCH, "\"1\"")
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(om.writeValueAsBytes(updatedAppUser))
+            )
+            .andExpect(status().isPreconditionFailed());
+
+        assertThat(getPersistedAppUser(appUser).getTenantId()).isEqualTo(DEFAULT_TENANT_ID);
+
+        restAppUserMockMvc
+            .perform(
+                put(ENTITY_API_URL_ID, updatedAppUser.getId())
+                    .header(HttpHeaders.IF_MATCH, "\"0\"")
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(om.writeValueAsBytes(updatedAppUser))
+            )
+            .andExpect(status().isOk())
+            .andExpect(header().string(HttpHeaders.ETAG, "\"1\""));
+
+        // Validate the AppUser in the database
+        assertSameRepositoryCount(databaseSizeBeforeUpdate);
+        assertPersistedAppUserToMatchAllProperties(updatedAppUser);
+    }
+
+    @Test
+    @Transactional
+    void patchAppUserWithStaleIfMatch() throws Exception {
+        // Initialize the database
+        insertedAppUser = appUserRepository.saveAndFlush(appUser);
+
+        AppUser partialUpdatedAppUser = new AppUser();
+        partialUpdatedAppUser.setId(appUser.getId());
+        partialUpdatedAppUser.tenantId(UPDATED_TENANT_ID);
+
+        restAppUserMockMvc
+            .perform(
+                patch(ENTITY_API_URL_ID, partialUpdatedAppUser.getId())
+                    .header(HttpHeaders.IF_MATCH, "\"1\"")
+                    .contentType("application/merge-patch+json")
+                    .content(om.writeValueAsBytes(partialUpdatedAppUser))
+            )
+            .andExpect(status().isPreconditionFailed());
+
+        assertThat(getPersistedAppUser(appUser).getTenantId()).isEqualTo(DEFAULT_TENANT_ID);
+    }
+
     @Test
     @Transactional
     void putExistingAppUser() throws Exception {
@@ -0,0 +1,230 @@
+package com.kaizenmobile.web.rest;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.kaizenmobile.IntegrationTest;
+import com.kaizenmobile.domain.AppStats;
+import com.kaizenmobile.domain.AppUser;
+import com.kaizenmobile.domain.Authority;
+import com.kaizenmobile.domain.User;
+import com.kaizenmobile.repository.AppStatsRepository;
+import com.kaizenmobile.repository.AppUserRepository;
+import com.kaizenmobile.repository.AuthorityRepository;
+import com.kaizenmobile.repository.UserRepository;
+import com.kaizenmobile.security.AuthoritiesConstants;
+import com.kaizenmobile.service.dto.BulkImportResultDTO;
+import com.kaizenmobile.service.dto.BulkUserDTO;
+import jakarta.persistence.EntityManager;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.http.MediaType;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Integration tests for the {@link BulkUserResource} REST controller.
+ */
+@AutoConfigureMockMvc
+@WithMockUser(authorities = AuthoritiesConstants.ADMIN)
+@IntegrationTest
+class BulkUserResourceIT {
+
+    private static final String ENTITY_API_URL = "/api/admin/bulk/users";
+
+    private static final String DEFAULT_TENANT_ID = "bulk-tenant";
+
+    @Autowired
+    private ObjectMapper om;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private AppUserRepository appUserRepository;
+
+    @Autowired
+    private AppStatsRepository appStatsRepository;
+
+    @Autowired
+    private AuthorityRepository authorityRepository;
+
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+
+    @Autowired
+    private EntityManager em;
+
+    @Autowired
+    private MockMvc restBulkUserMockMvc;
+
+    private User user;
+
+    @BeforeEach
+    public void initTest() {
+        user = UserResourceIT.initTestUser(em);
+    }
+
+    @Test
+    @Transactional
+    void importUsersFromJson() throws Exception {
+        userRepository.saveAndFlush(user);
+        String content = String.join(
+            "\n",
+            "{\"login\":\"bulk-one\",\"email\":\"Bulk-One@localhost\",\"activated\":false," +
+            "\"authorities\":[\"ROLE_ADMIN\"],\"tenantId\":\"bulk-tenant\"}",
+            "",
+            "{\"login\":\"bulk-one\",\"email\":\"bulk-other@localhost\"}",
+            "{\"login\":\"bulk-two\",\"email\":\"not-an-email\"}",
+            "{\"login\":\"bulk-three\",\"email\":\"" + user.getEmail() + "\"}",
+            "{\"login\":\"bulk-four\",\"email\":\"bulk-four@localhost\",\"authorities\":[\"ROLE_UNKNOWN\"]}",
+            "{\"login\":",
+            "{\"login\":\"bulk-five\",\"email\":\"bulk-five@localhost\",\"password\":\"bulk-five-password\",\"tenantId\":\"BULK-TENANT\"}"
+        );
+
+        String response = restBulkUserMockMvc
+            .perform(post(ENTITY_API_URL + "?sendEmails=false").contentType(MediaType.APPLICATION_NDJSON).content(content))
+            .andExpect(status().isOk())
+            .andExpect(content().contentType(MediaType.APPLICATION_JSON))
+            .andReturn()
+            .getResponse()
+            .getContentAsString();
+
+        BulkImportResultDTO result = om.readValue(response, BulkImportResultDTO.class);
+        assertThat(result.getRows()).isEqualTo(7);
+        assertThat(result.getCreated()).isEqualTo(2);
+        assertThat(result.getErrors()).extracting(BulkImportResultDTO.RowError::row).containsExactly(2L, 3L, 4L, 5L, 6L);
+        assertThat(result.getErrors()).extracting(BulkImportResultDTO.RowError::login).contains("bulk-one", "bulk-three", "bulk-four");
+
+        User one = userRepository.findOneWithAuthoritiesByLogin("bulk-one").orElseThrow();
+        assertThat(one.getEmail()).isEqualTo("bulk-one@localhost");
+        assertThat(one.isActivated()).isFalse();
+        assertThat(one.getActivationKey()).isNotNull();
+        assertThat(one.getResetKey()).isNotNull();
+        assertThat(one.getAuthorities()).extracting(Authority::getName).containsExactly(AuthoritiesConstants.ADMIN);
+        User five = userRepository.findOneWithAuthoritiesByLogin("bulk-five").orElseThrow();
+        assertThat(five.isActivated()).isTrue();
+        assertThat(five.getResetKey()).isNull();
+        assertThat(passwordEncoder.matches("bulk-five-password", five.getPassword())).isTrue();
+        assertThat(five.getAuthorities()).extracting(Authority::getName).containsExactly(AuthoritiesConstants.USER);
+        assertThat(userRepository.findOneByLogin("bulk-two")).isEmpty();
+
+        assertThat(appUserRepository.findById(one.getId())).get().extracting(AppUser::getTenantId).isEqualTo(DEFAULT_TENANT_ID);
+        assertThat(appUserRepository.findById(five.getId())).get().extracting(AppUser::getTenantId).isEqualTo("BULK-TENANT");
+        // The tenants differing by case only are a single tenant
+        assertThat(appStatsRepository.findAll())
+            .extracting(AppStats::getUsedTenantId)
+            .filteredOn(DEFAULT_TENANT_ID::equalsIgnoreCase)
+            .containsExactly(DEFAULT_TENANT_ID);
+    }
+
+    @Test
+    @Transactional
+    void importUsersReportsChunkNotWritten() throws Exception {
+        // Created through another node, which this one doesn't know yet
+        em.createNativeQuery("insert into app_stats (id, used_tenant_id, version) values (-1, 'Bulk-Race', 0)").executeUpdate();
+        String content = String.join(
+            "\n",
+            "{\"login\":\"bulk-race-one\",\"email\":\"bulk-race-one@localhost\",\"tenantId\":\"bulk-race\"}",
+            "{\"login\":\"bulk-race-two\",\"email\":\"bulk-race-two@localhost\"}"
+        );
+
+        String response = restBulkUserMockMvc
+            .perform(post(ENTITY_API_URL + "?sendEmails=false").contentType(MediaType.APPLICATION_NDJSON).content(content))
+            .andExpect(status().isOk())
+            .andReturn()
+            .getResponse()
+            .getContentAsString();
+
+        // The unique index of the tenants is violated when the chunk is flushed, so none of its rows is written
+        BulkImportResultDTO result = om.readValue(response, BulkImportResultDTO.class);
+        assertThat(result.getRows()).isEqualTo(2);
+        assertThat(result.getCreated()).isZero();
+        assertThat(result.getErrors()).extracting(BulkImportResultDTO.RowError::login).containsExactly("bulk-race-one", "bulk-race-two");
+        assertThat(result.getErrors()).allSatisfy(error -> assertThat(error.message()).startsWith("Not written: "));
+    }
+
+    @Test
+    @Transactional
+    void exportUsersAsJson() throws Exception {
+        user.setAuthorities(Set.of(authorityRepository.findById(AuthoritiesConstants.USER).orElseThrow()));
+        userRepository.saveAndFlush(user);
+        appUserRepository.saveAndFlush(new AppUser().tenantId(DEFAULT_TENANT_ID).internalUser(user));
+
+        String content = restBulkUserMockMvc
+            .perform(get(ENTITY_API_URL).accept(MediaType.APPLICATION_NDJSON))
+            .andExpect(status().isOk())
+            .andExpect(content().contentType(MediaType.APPLICATION_NDJSON_VALUE + ";charset=UTF-8"))
+            .andReturn()
+            .getResponse()
+            .getContentAsString();
+
+        List<BulkUserDTO> exported = new ArrayList<>();
+        for (String line : content.split("\n")) {
+            exported.add(om.readValue(line, BulkUserDTO.class));
+        }
+        assertThat(content).endsWith("\n").doesNotContain("password");
+        assertThat(exported).hasSize((int) userRepository.count());
+        BulkUserDTO exportedUser = exported
+            .stream()
+            .filter(bulkUser -> bulkUser.getLogin().equals(user.getLogin()))
+            .findFirst()
+            .orElseThrow();
+        assertThat(exportedUser.getEmail()).isEqualTo(user.getEmail());
+        assertThat(exportedUser.getAuthorities()).containsExactly(AuthoritiesConstants.USER);
+        assertThat(exportedUser.getTenantId()).isEqualTo(DEFAULT_TENANT_ID);
+        BulkUserDTO admin = exported.stream().filter(bulkUser -> bulkUser.getLogin().equals("admin")).findFirst().orElseThrow();
+        assertThat(admin.getAuthorities()).containsExactlyInAnyOrder(AuthoritiesConstants.ADMIN, AuthoritiesConstants.USER);
+        assertThat(admin.getTenantId()).isNull();
+    }
+
+    @Test
+    @Transactional
+    void importAndExportUsersAsCsv() throws Exception {
+        String content = String.join(
+            "\n",
+            "login,email,firstName,activated,authorities,tenantId",
+            "bulk-one,bulk-one@localhost,One,false,ROLE_USER;ROLE_ADMIN,bulk-tenant",
+            "bulk-two,bulk-two@localhost,,true,,",
+            "bulk-three,bulk-three@localhost,Three,maybe,,",
+            ""
+        );
+
+        String response = restBulkUserMockMvc
+            .perform(post(ENTITY_API_URL + "?sendEmails=false").contentType(BulkUserResource.TEXT_CSV_VALUE).content(content))
+            .andExpect(status().isOk())
+            .andReturn()
+            .getResponse()
+            .getContentAsString();
+
+        BulkImportResultDTO result = om.readValue(response, BulkImportResultDTO.class);
+        assertThat(result.getRows()).isEqualTo(3);
+        assertThat(result.getCreated()).isEqualTo(2);
+        assertThat(result.getErrors()).extracting(BulkImportResultDTO.RowError::row).containsExactly(3L);
+
+        String exported = restBulkUserMockMvc
+            .perform(get(ENTITY_API_URL).accept(MediaType.parseMediaType(BulkUserResource.TEXT_CSV_VALUE)))
+            .andExpect(status().isOk())
+            .andExpect(content().contentType(BulkUserResource.TEXT_CSV_VALUE + ";charset=UTF-8"))
+            .andReturn()
+            .getResponse()
+            .getContentAsString();
+
+        List<String> lines = List.of(exported.split("\n"));
+        assertThat(lines.get(0)).isEqualTo("login,email,firstName,lastName,langKey,activated,authorities,tenantId");
+        assertThat(lines).hasSize((int) userRepository.count() + 1);
+        assertThat(lines).contains(
+            "bulk-one,bulk-one@localhost,One,,en,false,ROLE_ADMIN;ROLE_USER,bulk-tenant",
+            "bulk-two,bulk-two@localhost,,,en,true,ROLE_USER,"
+        );
+    }
+}
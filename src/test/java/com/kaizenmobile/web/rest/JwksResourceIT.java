@@ -0,0 +1,42 @@
+package com.kaizenmobile.web.rest;
+
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.hasItem;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import com.kaizenmobile.IntegrationTest;
+import com.kaizenmobile.security.JwtKeyRing;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.web.servlet.MockMvc;
+
+/**
+ * Integration tests for the {@link JwksResource} REST controller.
+ */
+@AutoConfigureMockMvc
+@IntegrationTest
+class JwksResourceIT {
+
+    @Autowired
+    private JwtKeyRing jwtKeyRing;
+
+    @Autowired
+    private MockMvc restJwksMockMvc;
+
+    @Test
+    void testGetJwksWithoutAuthentication() throws Exception {
+        restJwksMockMvc
+            .perform(get("/.well-known/jwks.json"))
+            .andExpect(status().isOk())
+            .andExpect(header().string(HttpHeaders.CACHE_CONTROL, containsString("max-age=")))
+            .andExpect(jsonPath("$.keys[*].kid").value(hasItem(jwtKeyRing.activeKeyId())))
+            .andExpect(jsonPath("$.keys[*].kty").value(hasItem("RSA")))
+            .andExpect(jsonPath("$.keys[*].alg").value(hasItem("RS256")))
+            .andExpect(jsonPath("$.keys[0].d").doesNotExist());
+    }
+}
@@ -1,6 +1,7 @@
 package com.kaizenmobile.web.rest;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.lessThan;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
@@ -19,6 +20,7 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.cache.Cache;
 import org.springframework.cache.CacheManager;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.web.servlet.MockMvc;
@@ -93,6 +95,54 @@ class PublicUserResourceIT {
             .andExpect(jsonPath("$.[*].langKey").doesNotHaveJsonPath());
     }
 
+    @Test
+    @Transactional
+    void getAllPublicUsersNotModified() throws Exception {
+        // Initialize the database
+        userRepository.saveAndFlush(user);
+
+        String eTag = restUserMockMvc
+            .perform(get("/api/users?sort=id,desc").accept(MediaType.APPLICATION_JSON))
+            .andExpect(status().isOk())
+            .andReturn()
+            .getResponse()
+            .getHeader(HttpHeaders.ETAG);
+
+        restUserMockMvc
+            .perform(get("/api/users?sort=id,desc").accept(MediaType.APPLICATION_JSON).header(HttpHeaders.IF_NONE_MATCH, eTag))
+            .andExpect(status().isNotModified());
+
+        // A user leaving the list changes its entity tag
+        user.setActivated(false);
+        userRepository.saveAndFlush(user);
+        restUserMockMvc
+            .perform(get("/api/users?sort=id,desc").accept(MediaType.APPLICATION_JSON).header(HttpHeaders.IF_NONE_MATCH, eTag))
+            .andExpect(status().isOk());
+    }
+
+    @Test
+    @Transactional
+    void getAllPublicUsersByCursor() throws Exception {
+        // Initialize the database
+        userRepository.saveAndFlush(user);
+
+        String link = restUserMockMvc
+            .perform(get("/api/users?sort=id,desc&size=1&cursor=").accept(MediaType.APPLICATION_JSON))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.[*].login").value(user.getLogin()))
+            .andExpect(header().doesNotExist("X-Total-Count"))
+            .andReturn()
+            .getResponse()
+            .getHeader(HttpHeaders.LINK);
+
+        // The next page starts after the user
+        assertThat(link).endsWith("; rel=\"next\"");
+        restUserMockMvc
+            .perform(get(link.substring(link.indexOf('<') + 1, link.indexOf('>'))).accept(MediaType.APPLICATION_JSON))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.[0].id").value(lessThan(user.getId().intValue())));
+    }
+
     @Test
     @Transactional
     void getAllUsersSortedByParameters() throws Exception {
@@ -5,6 +5,7 @@ import static org.hamcrest.Matchers.hasItem;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
+import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.kaizenmobile.IntegrationTest;
 import com.kaizenmobile.domain.User;
@@ -25,7 +26,10 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.cache.Cache;
 import org.springframework.cache.CacheManager;
+import org.springframework.data.domain.Sort;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockHttpServletResponse;
 import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.transaction.annotation.Transactional;
@@ -200,6 +204,31 @@ class UserResourceIT {
         assertPersistedUsers(users -> assertThat(users).hasSize(databaseSizeBeforeCreate));
     }
 
+    @Test
+    @Transactional
+    void createUserWithUnknownAuthority() throws Exception {
+        int databaseSizeBeforeCreate = userRepository.findAll().size();
+
+        AdminUserDTO userDTO = new AdminUserDTO();
+        userDTO.setLogin(DEFAULT_LOGIN);
+        userDTO.setFirstName(DEFAULT_FIRSTNAME);
+        userDTO.setLastName(DEFAULT_LASTNAME);
+        userDTO.setEmail(DEFAULT_EMAIL);
+        userDTO.setActivated(true);
+        userDTO.setImageUrl(DEFAULT_IMAGEURL);
+        userDTO.setLangKey(DEFAULT_LANGKEY);
+        userDTO.setAuthorities(Set.of(AuthoritiesConstants.USER, "ROLE_UNKNOWN"));
+
+        // A user is never created with fewer authorities than asked for
+        restUserMockMvc
+            .perform(post("/api/admin/users").contentType(MediaType.APPLICATION_JSON).content(om.writeValueAsBytes(userDTO)))
+            .andExpect(status().isBadRequest())
+            .andExpect(jsonPath("$.detail").value("Unknown authorities: ROLE_UNKNOWN"));
+
+        // Validate the User in the database
+        assertPersistedUsers(users -> assertThat(users).hasSize(databaseSizeBeforeCreate));
+    }
+
     @Test
     @Transactional
     void createUserWithExistingLogin() throws Exception {
@@ -271,6 +300,68 @@ class UserResourceIT {
             .andExpect(jsonPath("$.[*].langKey").value(hasItem(DEFAULT_LANGKEY)));
     }
 
+    @Test
+    @Transactional
+    void getAllUsersByCursor() throws Exception {
+        // Initialize the database
+        userRepository.saveAndFlush(user);
+        List<String> expectedLogins = userRepository.findAll().stream().map(User::getLogin).sorted().toList();
+
+        assertThat(getAllLoginsByCursor("/api/admin/users?sort=login,asc&size=2&cursor=", 2)).containsExactlyElementsOf(expectedLogins);
+    }
+
+    @Test
+    @Transactional
+    void getAllUsersByCreatedDateCursor() throws Exception {
+        // Initialize the database
+        userRepository.saveAndFlush(user);
+        List<String> expectedLogins = userRepository
+            .findAll(Sort.by("createdDate", "id"))
+            .stream()
+            .map(User::getLogin)
+            .toList();
+
+        // Including the users of the initial data, which had no creation date
+        assertThat(getAllLoginsByCursor("/api/admin/users?sort=createdDate,asc&size=1&cursor=", 1)).containsExactlyElementsOf(
+            expectedLogins
+        );
+    }
+
+    private List<String> getAllLoginsByCursor(String uri, int size) throws Exception {
+        List<String> logins = new ArrayList<>();
+        while (uri != null) {
+            MockHttpServletResponse response = restUserMockMvc
+                .perform(get(uri).accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist("X-Total-Count"))
+                .andReturn()
+                .getResponse();
+            List<AdminUserDTO> page = om.readValue(response.getContentAsString(), new TypeReference<List<AdminUserDTO>>() {});
+            assertThat(page).hasSizeLessThanOrEqualTo(size);
+            page.forEach(userDTO -> logins.add(userDTO.getLogin()));
+            String link = response.getHeader(HttpHeaders.LINK);
+            uri = link == null ? null : link.substring(link.indexOf('<') + 1, link.indexOf('>'));
+        }
+        return logins;
+    }
+
+    @Test
+    @Transactional
+    void getAllUsersByInvalidCursor() throws Exception {
+        restUserMockMvc.perform(get("/api/admin/users?sort=login,asc&cursor=not-a-cursor")).andExpect(status().isBadRequest());
+        restUserMockMvc.perform(get("/api/admin/users?sort=firstName,asc&cursor=")).andExpect(status().isBadRequest());
+
+        // A cursor is only valid with the sort it was read with
+        String link = restUserMockMvc
+            .perform(get("/api/admin/users?sort=login,asc&size=1&cursor="))
+            .andExpect(status().isOk())
+            .andReturn()
+            .getResponse()
+            .getHeader(HttpHeaders.LINK);
+        String cursor = link.substring(link.indexOf("cursor=") + "cursor=".length(), link.indexOf('>'));
+        restUserMockMvc.perform(get("/api/admin/users?sort=login,desc&cursor=" + cursor)).andExpect(status().isBadRequest());
+    }
+
     @Test
     @Transactional
     void getUser() throws Exception {
@@ -300,6 +391,31 @@ class UserResourceIT {
         restUserMockMvc.perform(get("/api/admin/users/unknown")).andExpect(status().isNotFound());
     }
 
+    @Test
+    @Transactional
+    void getUserNotModified() throws Exception {
+        // Initialize the database
+        userRepository.saveAndFlush(user);
+
+        String eTag = restUserMockMvc
+            .perform(get("/api/admin/users/{login}", user.getLogin()))
+            .andExpect(status().isOk())
+            .andExpect(header().exists(HttpHeaders.ETAG))
+            .andReturn()
+            .getResponse()
+            .getHeader(HttpHeaders.ETAG);
+
+        assertThat(cacheManager.getCache(UserRepository.USERS_BY_LOGIN_CACHE).get(user.getLogin())).isNotNull();
+        cacheManager.getCache(UserRepository.USERS_BY_LOGIN_CACHE).clear();
+
+        restUserMockMvc
+            .perform(get("/api/admin/users/{login}", user.getLogin()).header(HttpHeaders.IF_NONE_MATCH, eTag))
+            .andExpect(status().isNotModified());
+
+        // Answered without loading the user
+        assertThat(cacheManager.getCache(UserRepository.USERS_BY_LOGIN_CACHE).get(user.getLogin())).isNull();
+    }
+
     @Test
     @Transactional
     void updateUser() throws Exception {
@@ -341,6 +457,62 @@ class UserResourceIT {
         });
     }
 
+    @Test
+    @Transactional
+    void updateUserAuthoritiesChangesETags() throws Exception {
+        // Initialize the database
+        userRepository.saveAndFlush(user);
+
+        String eTag = restUserMockMvc
+            .perform(get("/api/admin/users/{login}", user.getLogin()))
+            .andExpect(status().isOk())
+            .andReturn()
+            .getResponse()
+            .getHeader(HttpHeaders.ETAG);
+        String listingETag = restUserMockMvc
+            .perform(get("/api/admin/users"))
+            .andExpect(status().isOk())
+            .andReturn()
+            .getResponse()
+            .getHeader(HttpHeaders.ETAG);
+
+        // Update only the authorities
+        AdminUserDTO userDTO = new AdminUserDTO(userRepository.findById(user.getId()).orElseThrow());
+        userDTO.setAuthorities(Set.of(AuthoritiesConstants.USER, AuthoritiesConstants.ADMIN));
+
+        restUserMockMvc
+            .perform(put("/api/admin/users").contentType(MediaType.APPLICATION_JSON).content(om.writeValueAsBytes(userDTO)))
+            .andExpect(status().isOk());
+        userRepository.flush();
+
+        restUserMockMvc
+            .perform(get("/api/admin/users/{login}", user.getLogin()).header(HttpHeaders.IF_NONE_MATCH, eTag))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.authorities").value(hasItem(AuthoritiesConstants.ADMIN)));
+        restUserMockMvc.perform(get("/api/admin/users").header(HttpHeaders.IF_NONE_MATCH, listingETag)).andExpect(status().isOk());
+    }
+
+    @Test
+    @Transactional
+    void updateUserWithStaleIfMatch() throws Exception {
+        // Initialize the database
+        userRepository.saveAndFlush(user);
+
+        AdminUserDTO userDTO = new AdminUserDTO(user);
+        userDTO.setFirstName(UPDATED_FIRSTNAME);
+
+        restUserMockMvc
+            .perform(
+                put("/api/admin/users")
+                    .header(HttpHeaders.IF_MATCH, "\"0\"")
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(om.writeValueAsBytes(userDTO))
+            )
+            .andExpect(status().isPreconditionFailed());
+
+        assertThat(userRepository.findById(user.getId()).orElseThrow().getFirstName()).isEqualTo(DEFAULT_FIRSTNAME);
+    }
+
     @Test
     @Transactional
     void updateUserLogin() throws Exception {
@@ -1,5 +1,6 @@
 package com.kaizenmobile.web.rest.errors;
 
+import com.kaizenmobile.security.PasswordHashingSaturatedException;
 import jakarta.validation.Valid;
 import jakarta.validation.constraints.NotNull;
 import org.springframework.dao.ConcurrencyFailureException;
@@ -41,6 +42,11 @@ public class ExceptionTranslatorTestController {
         throw new TestResponseStatusException();
     }
 
+    @GetMapping("/password-hashing-saturated")
+    public void passwordHashingSaturated() {
+        throw new PasswordHashingSaturatedException("test password hashing saturated", 2);
+    }
+
     @GetMapping("/internal-server-error")
     public void internalServerError() {
         throw new RuntimeException();